@@ -197,4 +197,21 @@ public interface MessageHub {
 	 */
 	void publish(TopicName topic, String payload, boolean retain);
 
+	/**
+	 * Publish a message with a binary payload to a topic with a given quality of service.
+	 *
+	 * @param topic
+	 *            The topic to publish to
+	 * @param payload
+	 *            The payload of the message. It is not copied and must not be changed afterwards.
+	 * @param qualityOfService
+	 *            The quality of service(0-2) of the message.
+	 * @param retain
+	 *            Whether the server should retain this message for new subscribes until a new retained message is sent
+	 *            over this topic.
+	 *
+	 * @see <a href="https://en.wikipedia.org/wiki/MQTT#Quality_of_service_(QoS)"> quality of service </a>
+	 */
+	void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain);
+
 }
@@ -39,5 +39,30 @@ import java.lang.annotation.Target;
 @Retention(RUNTIME)
 @Target(TYPE)
 public @interface MessageReceiver {
+	/**
+	 * How instances of this MessageReceiver are created for the messages. Only stateless MessageReceivers, which only
+	 * use their references, should use {@link Lifecycle#SINGLETON}.
+	 * 
+	 * @return the lifecycle of the instances
+	 */
+	Lifecycle lifecycle() default Lifecycle.PER_MESSAGE;
 
+	/**
+	 * The maximal number of idle instances kept for {@link Lifecycle#POOLED}.
+	 * 
+	 * @return the size of the pool
+	 */
+	int poolSize() default 4;
+
+	/**
+	 * The lifecycles of MessageReceiver instances
+	 */
+	enum Lifecycle {
+		/** a new instance is created and destroyed for every message */
+		PER_MESSAGE,
+		/** one instance is created for the first message and used for all messages, also concurrently */
+		SINGLETON,
+		/** instances are reused, but each instance only handles one message at a time */
+		POOLED
+	}
 }
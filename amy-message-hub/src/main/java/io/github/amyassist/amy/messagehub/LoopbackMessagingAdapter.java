@@ -0,0 +1,239 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.ServiceLocator;
+import io.github.amyassist.amy.core.di.annotation.PostConstruct;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.core.di.annotation.Service;
+import io.github.amyassist.amy.core.service.RunnableService;
+import io.github.amyassist.amy.messagehub.topic.TopicFactory;
+import io.github.amyassist.amy.messagehub.topic.TopicFilter;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+
+/**
+ * The {@link MessagingAdapter} of the message hub. Depending on the {@link Mode} it sends messages through the
+ * {@link MQTTAdapter} or delivers them directly in memory to the subscribers of this node.
+ *
+ * @author Leon Kiefer
+ */
+@Service(MessagingAdapter.class)
+public class LoopbackMessagingAdapter implements MessagingAdapter, RunnableService {
+
+	private static final String CONFIG_NAME = "messagehub.config";
+	private static final String KEY_MODE = "adapter.mode";
+	private static final String KEY_LOCAL_TOPICS = "adapter.localTopics";
+
+	/**
+	 * How messages are delivered
+	 */
+	public enum Mode {
+		/** all messages go through the broker */
+		MQTT,
+		/** messages on local topics are delivered in memory, all other messages go through the broker */
+		HYBRID,
+		/** all messages are delivered in memory, no broker is needed */
+		LOOPBACK
+	}
+
+	@Reference
+	private Logger logger;
+
+	@Reference
+	private ConfigurationManager configManager;
+
+	@Reference
+	private ServiceLocator serviceLocator;
+
+	@Reference
+	private TopicFactory tf;
+
+	private Mode mode;
+	private final List<TopicFilter> localTopics = new ArrayList<>();
+	private MQTTAdapter mqtt;
+
+	private final Map<TopicName, Message> retained = new ConcurrentHashMap<>();
+	private final LongAdder local = new LongAdder();
+
+	private BiConsumer<TopicName, Message> handler;
+	private Runnable onSuccesfullStartCallback;
+	private volatile boolean running = false;
+
+	@PostConstruct
+	private void init() {
+		Properties config = this.configManager.getConfigurationWithDefaults(CONFIG_NAME);
+		this.mode = Mode.valueOf(config.getProperty(KEY_MODE));
+		for (String topic : config.getProperty(KEY_LOCAL_TOPICS).split(",")) {
+			if (!topic.trim().isEmpty()) {
+				this.localTopics.add(this.tf.createTopicFilter(topic.trim()));
+			}
+		}
+		if (this.mode != Mode.LOOPBACK) {
+			this.mqtt = this.serviceLocator.getService(MQTTAdapter.class);
+		}
+	}
+
+	@Override
+	public void start() {
+		if (this.mqtt != null) {
+			this.mqtt.start();
+		} else {
+			this.running = true;
+			if (this.onSuccesfullStartCallback != null) {
+				this.onSuccesfullStartCallback.run();
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		if (this.mqtt != null) {
+			this.mqtt.stop();
+		} else {
+			this.running = false;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.mqtt != null ? this.mqtt.isRunning() : this.running;
+	}
+
+	/**
+	 * @param topic
+	 *            the topic of a message
+	 * @return whether messages on the topic are delivered in memory
+	 */
+	private boolean isLocal(TopicName topic) {
+		switch (this.mode) {
+		case LOOPBACK:
+			return true;
+		case HYBRID:
+			for (TopicFilter filter : this.localTopics) {
+				if (filter.doesFilterMatch(topic))
+					return true;
+			}
+			return false;
+		default:
+			return false;
+		}
+	}
+
+	@Override
+	public void publish(TopicName topic, String payload, int qualityOfService, boolean retain) {
+		if (isLocal(topic)) {
+			deliver(topic, new MessageImpl(payload, qualityOfService, retain));
+		} else {
+			this.mqtt.publish(topic, payload, qualityOfService, retain);
+		}
+	}
+
+	@Override
+	public void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain) {
+		if (isLocal(topic)) {
+			deliver(topic, new MessageImpl(new String(payload, StandardCharsets.UTF_8), qualityOfService, retain));
+		} else {
+			this.mqtt.publish(topic, payload, qualityOfService, retain);
+		}
+	}
+
+	private void deliver(TopicName topic, Message message) {
+		if (message.wasRetained()) {
+			if (message.getPayload().isEmpty()) {
+				this.retained.remove(topic);
+			} else {
+				this.retained.put(topic, message);
+			}
+		}
+		this.local.increment();
+		BiConsumer<TopicName, Message> callback = this.handler;
+		if (callback != null) {
+			// like the broker, messages are forwarded as not retained to existing subscriptions
+			callback.accept(topic, new MessageImpl(message.getPayload(), message.getQualityOfService(), false));
+		} else {
+			this.logger.debug("No handler for local messages. Message is ignored!");
+		}
+	}
+
+	@Override
+	public void subscribe(TopicFilter topic) {
+		if (this.mqtt != null) {
+			this.mqtt.subscribe(topic);
+		}
+	}
+
+	@Override
+	public Map<TopicName, Message> getRetained(TopicFilter topic) {
+		Map<TopicName, Message> matching = new HashMap<>();
+		for (Entry<TopicName, Message> entry : this.retained.entrySet()) {
+			if (topic.doesFilterMatch(entry.getKey())) {
+				matching.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return matching;
+	}
+
+	@Override
+	public void unsubscribe(TopicFilter topic) {
+		if (this.mqtt != null) {
+			this.mqtt.unsubscribe(topic);
+		}
+	}
+
+	@Override
+	public void setCallback(BiConsumer<TopicName, Message> callback) {
+		this.handler = callback;
+		if (this.mqtt != null) {
+			this.mqtt.setCallback(callback);
+		}
+	}
+
+	@Override
+	public void setStartCallback(Runnable callback) {
+		this.onSuccesfullStartCallback = callback;
+		if (this.mqtt != null) {
+			this.mqtt.setStartCallback(callback);
+		}
+	}
+
+	@Override
+	public PublishStatistics getPublishStatistics() {
+		if (this.mqtt != null)
+			return this.mqtt.getPublishStatistics().withLocal(this.local.sum());
+		return PublishStatistics.builder().local(this.local.sum()).build();
+	}
+}
@@ -23,7 +23,6 @@
 
 package io.github.amyassist.amy.messagehub;
 
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Properties;
 import java.util.function.BiConsumer;
@@ -38,25 +37,27 @@ import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.di.annotation.Service;
 import io.github.amyassist.amy.core.information.InstanceInformation;
 import io.github.amyassist.amy.core.io.Environment;
-import io.github.amyassist.amy.core.service.RunnableService;
 import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
 import io.github.amyassist.amy.messagehub.topic.TopicFactory;
 import io.github.amyassist.amy.messagehub.topic.TopicFilter;
 import io.github.amyassist.amy.messagehub.topic.TopicName;
 
 /**
- * A adapter to talk with the mqtt broker
+ * A adapter to talk with the mqtt broker. It is started and stopped by the {@link LoopbackMessagingAdapter}, if
+ * messages are sent through the broker.
  * 
  * @author Tim Neumann, Leon Kiefer
  */
-@Service(MessagingAdapter.class)
-public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallback, IMqttActionListener {
+@Service(MQTTAdapter.class)
+public class MQTTAdapter implements MessagingAdapter, MqttCallback, IMqttActionListener {
 
 	private static final String CONFIG_NAME = "mqtt.config";
 	private static final String KEY_BROKER_ADDRESS = "broker.host";
 	private static final String KEY_BROKER_USERNAME = "broker.username";
 	private static final String KEY_BROKER_PASSWORD = "broker.password";
 	private static final String KEY_PERSITENCE_LOCATION = "persitenceLocation";
+	private static final String KEY_PUBLISH_COALESCE_MILLIS = "publish.coalesceMillis";
+	private static final String KEY_PUBLISH_MAX_IN_FLIGHT = "publish.maxInFlight";
 
 	private static final int DISCONNECTED_BUFFER_SIZE = 10000;
 
@@ -91,6 +92,8 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 
 	private MqttConnectOptions options;
 
+	private PublishPipeline publishPipeline;
+
 	private Object stateLock = new Object();
 	private ConnectionState currentState = ConnectionState.DISCONNECTED;
 	private boolean running;
@@ -125,6 +128,14 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 		this.options.setKeepAliveInterval(KEEP_ALIVE_INTERVAL);
 		this.options.setAutomaticReconnect(true);
 
+		int maxInFlight = Integer.parseInt(config.getProperty(KEY_PUBLISH_MAX_IN_FLIGHT));
+		this.options.setMaxInflight(maxInFlight);
+		this.publishPipeline = new PublishPipeline(
+				(topic, msg, context) -> this.client.publish(topic.getStringRepresentation(), msg, context, this),
+				() -> this.client.isConnected(), this.scheduler, this.logger,
+				Long.parseLong(config.getProperty(KEY_PUBLISH_COALESCE_MILLIS)), maxInFlight,
+				CONNECTION_TIMEOUT * 1000L);
+
 		if (!config.getProperty(KEY_BROKER_USERNAME).isEmpty()) {
 			this.options.setUserName(config.getProperty(KEY_BROKER_USERNAME));
 		}
@@ -133,12 +144,16 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 		}
 	}
 
-	@Override
+	/**
+	 * Connect to the broker
+	 */
 	public void start() {
 		this.connect();
 	}
 
-	@Override
+	/**
+	 * Disconnect from the broker
+	 */
 	public void stop() {
 		this.running = false;
 		this.disconnect();
@@ -184,15 +199,13 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 	}
 
 	@Override
-	public void publish(TopicName topic, String payload, int qualityOfService, boolean retain) {
-		MqttMessage msg = new MqttMessage(payload.getBytes(StandardCharsets.UTF_8));
-		msg.setQos(qualityOfService);
-		msg.setRetained(retain);
-		try {
-			this.client.publish(topic.getStringRepresentation(), msg, "publish", this);
-		} catch (MqttException e) {
-			throw new IllegalStateException("Error while publishing.", e);
-		}
+	public void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain) {
+		this.publishPipeline.publish(topic, payload, qualityOfService, retain);
+	}
+
+	@Override
+	public PublishStatistics getPublishStatistics() {
+		return this.publishPipeline.getStatistics();
 	}
 
 	@Override
@@ -229,6 +242,9 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 
 	@Override
 	public void onSuccess(IMqttToken asyncActionToken) {
+		this.publishPipeline.enterCallback();
+		if (this.publishPipeline.completed(asyncActionToken.getUserContext()))
+			return;
 		if (asyncActionToken.isComplete() && asyncActionToken.equals(this.connectToken)) {
 			synchronized (this.stateLock) {
 				this.connectToken = null;
@@ -251,6 +267,8 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 
 	@Override
 	public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+		this.publishPipeline.enterCallback();
+		this.publishPipeline.completed(asyncActionToken.getUserContext());
 		if (asyncActionToken.equals(this.connectToken)) {
 			synchronized (this.stateLock) {
 				this.connectToken = null;
@@ -270,6 +288,7 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 
 	@Override
 	public void connectionLost(Throwable cause) {
+		this.publishPipeline.enterCallback();
 		synchronized (this.stateLock) {
 			if (this.currentState == ConnectionState.CONNECTED) {
 				this.currentState = ConnectionState.RECONNECTING;
@@ -280,6 +299,7 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 				throw new IllegalStateException(this.currentState.toString());
 			}
 		}
+		this.publishPipeline.connectionLost();
 		if (cause instanceof MqttException) {
 			MqttException exception = (MqttException) cause;
 			this.logger.info("Conncetion to MQTT broker lost: {}", exception.getMessage());
@@ -290,6 +310,7 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 
 	@Override
 	public void messageArrived(String topic, MqttMessage message) throws Exception {
+		this.publishPipeline.enterCallback();
 		if (this.handler != null) {
 			this.handler.accept(this.tf.createTopicName(topic), new MessageImpl(message));
 		} else {
@@ -299,7 +320,7 @@ public class MQTTAdapter implements MessagingAdapter, RunnableService, MqttCallb
 
 	@Override
 	public void deliveryComplete(IMqttDeliveryToken token) {
-		// Don't do anything
+		this.publishPipeline.enterCallback();
 	}
 
 	private enum ConnectionState {
@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import asg.cliche.Command;
 import asg.cliche.Param;
 import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.messagehub.internal.InternalMessageHubService;
 import io.github.amyassist.amy.messagehub.topic.TopicFactory;
 
 /**
@@ -44,6 +45,8 @@ public class MessageHubConsole {
 	private Logger logger;
 	@Reference
 	private TopicFactory tf;
+	@Reference
+	private InternalMessageHubService internalMessageHub;
 
 	/**
 	 * Subscribe to a topic
@@ -103,4 +106,16 @@ public class MessageHubConsole {
 			@Param(name = "quality of service") int qos, @Param(name = "retain") boolean retain) {
 		this.msgHub.publish(this.tf.createTopicName(topic), message, qos, retain);
 	}
+
+	/**
+	 * Show the statistics of the dispatching of incoming messages and of publishing
+	 *
+	 * @return The statistics
+	 */
+	@Command(name = "MessageHub Statistics", abbrev = "msgh:stats",
+			description = "Show queue depth and latency of incoming and published messages")
+	public String statistics() {
+		return "incoming: " + this.internalMessageHub.getDispatchStatistics() + "\npublished: "
+				+ this.internalMessageHub.getPublishStatistics();
+	}
 }
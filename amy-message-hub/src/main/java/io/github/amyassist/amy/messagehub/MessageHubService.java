@@ -163,4 +163,13 @@ public class MessageHubService implements MessageHub {
 		publish(topic, payload, 2, false);
 	}
 
+	/**
+	 * @see io.github.amyassist.amy.messagehub.MessageHub#publish(io.github.amyassist.amy.messagehub.topic.TopicName,
+	 *      byte[], int, boolean)
+	 */
+	@Override
+	public void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain) {
+		this.internalMessageHub.publish(topic, payload, qualityOfService, retain);
+	}
+
 }
@@ -51,6 +51,23 @@ public class MessageImpl implements Message {
 		this.retained = msg.isRetained();
 	}
 
+	/**
+	 * Creates a new message, which was not sent over a broker
+	 *
+	 * @param payload
+	 *            the payload of the message
+	 * @param qos
+	 *            the quality of service the message was published with
+	 * @param retained
+	 *            whether the message is retained
+	 */
+	protected MessageImpl(String payload, int qos, boolean retained) {
+		this.data = payload;
+		this.qos = qos;
+		this.duplicate = false;
+		this.retained = retained;
+	}
+
 	/**
 	 * @see io.github.amyassist.amy.messagehub.Message#getPayload()
 	 */
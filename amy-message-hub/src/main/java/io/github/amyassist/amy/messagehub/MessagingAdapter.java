@@ -23,6 +23,9 @@
 
 package io.github.amyassist.amy.messagehub;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 import io.github.amyassist.amy.messagehub.topic.TopicFilter;
@@ -49,7 +52,26 @@ public interface MessagingAdapter {
 	 * @throws IllegalStateException
 	 *             When an error occurs while publishing.
 	 */
-	void publish(TopicName topic, String payload, int qualityOfService, boolean retain);
+	default void publish(TopicName topic, String payload, int qualityOfService, boolean retain) {
+		publish(topic, payload.getBytes(StandardCharsets.UTF_8), qualityOfService, retain);
+	}
+
+	/**
+	 * Publishes a message on the given topic.
+	 * 
+	 * @param topic
+	 *            The topic to publish to
+	 * @param payload
+	 *            The UTF-8 encoded payload to publish. It is not copied and must not be changed afterwards.
+	 * @param qualityOfService
+	 *            The quality of service level to publish with (0-2)
+	 * @param retain
+	 *            Whether the message should be retained.
+	 * 
+	 * @throws IllegalStateException
+	 *             When an error occurs while publishing.
+	 */
+	void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain);
 
 	/**
 	 * Subscribe to a topic
@@ -71,6 +93,19 @@ public interface MessagingAdapter {
 	 */
 	void unsubscribe(TopicFilter topic);
 
+	/**
+	 * Get's the retained messages, which are kept by this adapter itself and match the given filter. They must be
+	 * delivered to every new subscription of the filter. Retained messages kept by a broker are sent by the broker and
+	 * are not included.
+	 * 
+	 * @param topic
+	 *            The topic filter of the new subscription
+	 * @return the matching retained messages by their topic
+	 */
+	default Map<TopicName, Message> getRetained(TopicFilter topic) {
+		return Collections.emptyMap();
+	}
+
 	/**
 	 * Set the callback for all received messages for this adapter
 	 * 
@@ -91,4 +126,11 @@ public interface MessagingAdapter {
 	 * @return whether the adapter is running.
 	 */
 	boolean isRunning();
+
+	/**
+	 * Get's the statistics of the published messages
+	 * 
+	 * @return a snapshot of the statistics
+	 */
+	PublishStatistics getPublishStatistics();
 }
@@ -0,0 +1,314 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.slf4j.Logger;
+
+import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+
+/**
+ * The publish path of the {@link MQTTAdapter}.
+ * <p>
+ * Retained messages are state, so only the last retained message per topic within a short window is sent. At the end
+ * of the window the remaining retained messages are published one after another by the scheduler. All other messages
+ * are sent directly. The number of messages sent but not yet acknowledged by the broker is limited, publishing waits
+ * for a free slot while connected. While the broker is not connected, messages are sent without waiting, so they go
+ * into the buffer of the client without blocking the caller. Messages published on the callback thread of the client,
+ * e.g. by a subscriber with direct dispatch, are also sent without waiting, because the acknowledgements freeing the
+ * slots are delivered on that thread.
+ *
+ * @author Tim Neumann, Leon Kiefer
+ */
+class PublishPipeline {
+
+	/**
+	 * Sends a message to the broker
+	 */
+	@FunctionalInterface
+	interface Sender {
+		/**
+		 * @param topic
+		 *            The topic to publish to
+		 * @param message
+		 *            The message to publish
+		 * @param context
+		 *            The context, which must be given to {@link PublishPipeline#completed(Object)} when the broker
+		 *            acknowledged the message or the publish failed
+		 * @throws MqttException
+		 *             When the message could not be sent.
+		 */
+		void send(TopicName topic, MqttMessage message, Object context) throws MqttException;
+	}
+
+	private final Sender sender;
+	private final BooleanSupplier connected;
+	private final TaskScheduler scheduler;
+	private final Logger logger;
+	private final long coalesceMillis;
+	private final long inFlightTimeoutMillis;
+	private final int maxInFlight;
+	private final Semaphore inFlight;
+	/** The messages holding a slot */
+	private final Set<InFlight> holdingPermit = ConcurrentHashMap.newKeySet();
+	/** The thread the client calls its callbacks on */
+	private volatile Thread callbackThread;
+
+	private final Map<TopicName, MqttMessage> pendingRetained = new LinkedHashMap<>();
+	private boolean flushScheduled = false;
+
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder flushes = new LongAdder();
+	private final LongAdder flushedMessages = new LongAdder();
+	private final LongAccumulator maxFlushSize = new LongAccumulator(Math::max, 0);
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder acknowledged = new LongAdder();
+	private final LongAdder totalLatency = new LongAdder();
+	private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param sender
+	 *            The sender to send the messages with
+	 * @param connected
+	 *            Whether the client is connected to the broker
+	 * @param scheduler
+	 *            The scheduler to send the retained messages of a window with
+	 * @param logger
+	 *            The logger for messages, which could not be sent at the end of a window
+	 * @param coalesceMillis
+	 *            The length of the window for retained messages, 0 to send them directly
+	 * @param maxInFlight
+	 *            The maximal number of messages waiting for the acknowledgement of the broker
+	 * @param inFlightTimeoutMillis
+	 *            How long to wait for a free slot while connected, before sending without one
+	 */
+	PublishPipeline(Sender sender, BooleanSupplier connected, TaskScheduler scheduler, Logger logger,
+			long coalesceMillis, int maxInFlight, long inFlightTimeoutMillis) {
+		this.sender = sender;
+		this.connected = connected;
+		this.scheduler = scheduler;
+		this.logger = logger;
+		this.coalesceMillis = coalesceMillis;
+		this.maxInFlight = maxInFlight;
+		this.inFlight = new Semaphore(maxInFlight);
+		this.inFlightTimeoutMillis = inFlightTimeoutMillis;
+	}
+
+	/**
+	 * Publishes a message on the given topic.
+	 *
+	 * @param topic
+	 *            The topic to publish to
+	 * @param payload
+	 *            The payload to publish, it is not copied and must not be changed afterwards
+	 * @param qualityOfService
+	 *            The quality of service level to publish with (0-2)
+	 * @param retain
+	 *            Whether the message should be retained.
+	 * @throws IllegalStateException
+	 *             When an error occurs while publishing.
+	 */
+	void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain) {
+		MqttMessage msg = new MqttMessage(payload);
+		msg.setQos(qualityOfService);
+		msg.setRetained(retain);
+
+		MqttMessage earlier;
+		synchronized (this.pendingRetained) {
+			if (retain && this.coalesceMillis > 0) {
+				if (this.pendingRetained.put(topic, msg) != null) {
+					this.coalesced.increment();
+				}
+				if (!this.flushScheduled) {
+					this.flushScheduled = true;
+					this.scheduler.schedule(this::flush, this.coalesceMillis, TimeUnit.MILLISECONDS);
+				}
+				return;
+			}
+			earlier = this.pendingRetained.remove(topic);
+		}
+		if (earlier != null) {
+			// keep the order of the messages on the topic
+			send(topic, earlier);
+		}
+		send(topic, msg);
+	}
+
+	/**
+	 * Sends all waiting retained messages. A message, which can not be sent, is logged and counted as failed, the
+	 * other messages are still sent.
+	 */
+	void flush() {
+		List<Map.Entry<TopicName, MqttMessage>> window;
+		synchronized (this.pendingRetained) {
+			this.flushScheduled = false;
+			if (this.pendingRetained.isEmpty())
+				return;
+			window = new ArrayList<>(this.pendingRetained.entrySet());
+			this.pendingRetained.clear();
+		}
+		this.flushes.increment();
+		this.flushedMessages.add(window.size());
+		this.maxFlushSize.accumulate(window.size());
+		for (Map.Entry<TopicName, MqttMessage> entry : window) {
+			try {
+				send(entry.getKey(), entry.getValue());
+			} catch (IllegalStateException e) {
+				this.logger.warn("Could not publish the retained message on {}", entry.getKey(), e);
+			}
+		}
+	}
+
+	/**
+	 * Called at the start of every callback of the client, to remember the thread the acknowledgements are delivered
+	 * on. Publishing on this thread never waits for a free slot, because waiting would block the acknowledgements.
+	 */
+	void enterCallback() {
+		this.callbackThread = Thread.currentThread();
+	}
+
+	/**
+	 * Called when the connection to the broker is lost. The client does not acknowledge the messages sent before
+	 * until it is connected again, so their slots are freed.
+	 */
+	void connectionLost() {
+		for (InFlight message : this.holdingPermit) {
+			message.releasePermit();
+		}
+	}
+
+	private void send(TopicName topic, MqttMessage msg) {
+		boolean permit;
+		try {
+			if (this.connected.getAsBoolean() && Thread.currentThread() != this.callbackThread) {
+				permit = this.inFlight.tryAcquire(this.inFlightTimeoutMillis, TimeUnit.MILLISECONDS);
+			} else {
+				permit = this.inFlight.tryAcquire();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.failed.increment();
+			throw new IllegalStateException("Interrupted while waiting to publish.", e);
+		}
+		InFlight context = new InFlight(permit);
+		try {
+			this.sender.send(topic, msg, context);
+			this.sent.increment();
+		} catch (MqttException | RuntimeException e) {
+			context.release();
+			this.failed.increment();
+			throw new IllegalStateException("Error while publishing.", e);
+		}
+	}
+
+	/**
+	 * Called when the broker acknowledged a message or the publish failed
+	 *
+	 * @param context
+	 *            the context given to the {@link Sender}
+	 * @return true if the context belongs to a message of this pipeline
+	 */
+	boolean completed(Object context) {
+		if (!(context instanceof InFlight))
+			return false;
+		InFlight message = (InFlight) context;
+		if (message.release()) {
+			long latency = System.nanoTime() - message.start;
+			this.acknowledged.increment();
+			this.totalLatency.add(latency);
+			this.maxLatency.accumulate(latency);
+		}
+		return true;
+	}
+
+	/**
+	 * Get's the current statistics of the publishing
+	 *
+	 * @return a snapshot of the statistics
+	 */
+	PublishStatistics getStatistics() {
+		return PublishStatistics.builder().sent(this.sent.sum()).coalesced(this.coalesced.sum())
+				.flushes(this.flushes.sum(), this.flushedMessages.sum(), this.maxFlushSize.get())
+				.failed(this.failed.sum())
+				.inFlight(this.maxInFlight - this.inFlight.availablePermits(), this.maxInFlight)
+				.acknowledged(this.acknowledged.sum(), this.totalLatency.sum(), this.maxLatency.get()).build();
+	}
+
+	/**
+	 * A message waiting for the acknowledgement of the broker
+	 */
+	private class InFlight {
+		private final long start = System.nanoTime();
+		private boolean permit;
+		private boolean done = false;
+
+		InFlight(boolean permit) {
+			this.permit = permit;
+			if (permit) {
+				PublishPipeline.this.holdingPermit.add(this);
+			}
+		}
+
+		/**
+		 * @return false if this was already released before
+		 */
+		synchronized boolean release() {
+			if (this.done)
+				return false;
+			this.done = true;
+			releasePermit();
+			return true;
+		}
+
+		/**
+		 * Frees the slot of this message, if it holds one
+		 */
+		synchronized void releasePermit() {
+			if (this.permit) {
+				PublishPipeline.this.holdingPermit.remove(this);
+				PublishPipeline.this.inFlight.release();
+				this.permit = false;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "publish";
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the statistics of the publishing of a {@link MessagingAdapter}
+ *
+ * @author Leon Kiefer
+ */
+public final class PublishStatistics {
+
+	private final long sent;
+	private final long coalesced;
+	private final long flushes;
+	private final long flushedMessages;
+	private final long maxFlushSize;
+	private final long failed;
+	private final int inFlight;
+	private final int maxInFlight;
+	private final long acknowledged;
+	private final long totalLatencyNanos;
+	private final long maxLatencyNanos;
+	private final long local;
+
+	private PublishStatistics(Builder builder) {
+		this.sent = builder.sent;
+		this.coalesced = builder.coalesced;
+		this.flushes = builder.flushes;
+		this.flushedMessages = builder.flushedMessages;
+		this.maxFlushSize = builder.maxFlushSize;
+		this.failed = builder.failed;
+		this.inFlight = builder.inFlight;
+		this.maxInFlight = builder.maxInFlight;
+		this.acknowledged = builder.acknowledged;
+		this.totalLatencyNanos = builder.totalLatencyNanos;
+		this.maxLatencyNanos = builder.maxLatencyNanos;
+		this.local = builder.local;
+	}
+
+	/**
+	 * Creates a builder for statistics, all values not set are 0
+	 *
+	 * @return the new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Get's {@link #sent sent}
+	 *
+	 * @return the number of messages sent to the broker
+	 */
+	public long getSent() {
+		return this.sent;
+	}
+
+	/**
+	 * Get's {@link #coalesced coalesced}
+	 *
+	 * @return the number of retained messages not sent, because a newer message on the same topic replaced them
+	 */
+	public long getCoalesced() {
+		return this.coalesced;
+	}
+
+	/**
+	 * Get's {@link #flushes flushes}
+	 *
+	 * @return the number of windows of retained messages sent
+	 */
+	public long getFlushes() {
+		return this.flushes;
+	}
+
+	/**
+	 * @return the average number of retained messages sent at the end of a window, 0 if no window was sent
+	 */
+	public double getAverageFlushSize() {
+		return this.flushes == 0 ? 0 : (double) this.flushedMessages / this.flushes;
+	}
+
+	/**
+	 * Get's {@link #maxFlushSize maxFlushSize}
+	 *
+	 * @return the largest number of retained messages sent at the end of one window
+	 */
+	public long getMaxFlushSize() {
+		return this.maxFlushSize;
+	}
+
+	/**
+	 * Get's {@link #failed failed}
+	 *
+	 * @return the number of messages, which could not be handed to the client
+	 */
+	public long getFailed() {
+		return this.failed;
+	}
+
+	/**
+	 * Get's {@link #inFlight inFlight}
+	 *
+	 * @return the number of messages waiting for the acknowledgement of the broker
+	 */
+	public int getInFlight() {
+		return this.inFlight;
+	}
+
+	/**
+	 * Get's {@link #maxInFlight maxInFlight}
+	 *
+	 * @return the maximal number of messages waiting for the acknowledgement of the broker
+	 */
+	public int getMaxInFlight() {
+		return this.maxInFlight;
+	}
+
+	/**
+	 * Get's {@link #acknowledged acknowledged}
+	 *
+	 * @return the number of completed publishes
+	 */
+	public long getAcknowledged() {
+		return this.acknowledged;
+	}
+
+	/**
+	 * @return the average time from sending to completion in nanoseconds, 0 if no publish completed
+	 */
+	public long getAverageLatencyNanos() {
+		return this.acknowledged == 0 ? 0 : this.totalLatencyNanos / this.acknowledged;
+	}
+
+	/**
+	 * Get's {@link #maxLatencyNanos maxLatencyNanos}
+	 *
+	 * @return the time from sending to completion of the slowest publish in nanoseconds
+	 */
+	public long getMaxLatencyNanos() {
+		return this.maxLatencyNanos;
+	}
+
+	/**
+	 * Get's {@link #local local}
+	 *
+	 * @return the number of messages delivered in memory without the broker
+	 */
+	public long getLocal() {
+		return this.local;
+	}
+
+	/**
+	 * Creates a copy of this statistics with the given number of messages delivered in memory
+	 *
+	 * @param localMessages
+	 *            the number of messages delivered in memory without the broker
+	 * @return the new statistics
+	 */
+	public PublishStatistics withLocal(long localMessages) {
+		Builder builder = new Builder(this);
+		builder.local = localMessages;
+		return builder.build();
+	}
+
+	@Override
+	public String toString() {
+		return "local " + this.local + ", sent " + this.sent + ", failed " + this.failed + ", coalesced "
+				+ this.coalesced + ", flushed windows " + this.flushes + ", average flush size "
+				+ getAverageFlushSize() + ", max flush size " + this.maxFlushSize + ", in flight " + this.inFlight
+				+ "/" + this.maxInFlight + ", average latency "
+				+ TimeUnit.NANOSECONDS.toMicros(getAverageLatencyNanos()) + "us, max latency "
+				+ TimeUnit.NANOSECONDS.toMicros(this.maxLatencyNanos) + "us";
+	}
+
+	/**
+	 * Builder for {@link PublishStatistics}
+	 */
+	public static final class Builder {
+		private long sent;
+		private long coalesced;
+		private long flushes;
+		private long flushedMessages;
+		private long maxFlushSize;
+		private long failed;
+		private int inFlight;
+		private int maxInFlight;
+		private long acknowledged;
+		private long totalLatencyNanos;
+		private long maxLatencyNanos;
+		private long local;
+
+		private Builder() {
+		}
+
+		private Builder(PublishStatistics statistics) {
+			this.sent = statistics.sent;
+			this.coalesced = statistics.coalesced;
+			this.flushes = statistics.flushes;
+			this.flushedMessages = statistics.flushedMessages;
+			this.maxFlushSize = statistics.maxFlushSize;
+			this.failed = statistics.failed;
+			this.inFlight = statistics.inFlight;
+			this.maxInFlight = statistics.maxInFlight;
+			this.acknowledged = statistics.acknowledged;
+			this.totalLatencyNanos = statistics.totalLatencyNanos;
+			this.maxLatencyNanos = statistics.maxLatencyNanos;
+			this.local = statistics.local;
+		}
+
+		/**
+		 * @param sentMessages
+		 *            the number of messages sent to the broker
+		 * @return this builder
+		 */
+		public Builder sent(long sentMessages) {
+			this.sent = sentMessages;
+			return this;
+		}
+
+		/**
+		 * @param coalescedMessages
+		 *            the number of retained messages not sent, because a newer message on the same topic replaced them
+		 * @return this builder
+		 */
+		public Builder coalesced(long coalescedMessages) {
+			this.coalesced = coalescedMessages;
+			return this;
+		}
+
+		/**
+		 * @param windows
+		 *            the number of windows of retained messages sent
+		 * @param messages
+		 *            the number of retained messages sent at the end of a window
+		 * @param maxSize
+		 *            the largest number of retained messages sent at the end of one window
+		 * @return this builder
+		 */
+		public Builder flushes(long windows, long messages, long maxSize) {
+			this.flushes = windows;
+			this.flushedMessages = messages;
+			this.maxFlushSize = maxSize;
+			return this;
+		}
+
+		/**
+		 * @param failedMessages
+		 *            the number of messages, which could not be handed to the client
+		 * @return this builder
+		 */
+		public Builder failed(long failedMessages) {
+			this.failed = failedMessages;
+			return this;
+		}
+
+		/**
+		 * @param messages
+		 *            the number of messages waiting for the acknowledgement of the broker
+		 * @param maxMessages
+		 *            the maximal number of messages waiting for the acknowledgement of the broker
+		 * @return this builder
+		 */
+		public Builder inFlight(int messages, int maxMessages) {
+			this.inFlight = messages;
+			this.maxInFlight = maxMessages;
+			return this;
+		}
+
+		/**
+		 * @param completed
+		 *            the number of completed publishes
+		 * @param totalNanos
+		 *            the summed up time from sending to completion of all completed publishes
+		 * @param maxNanos
+		 *            the time from sending to completion of the slowest publish
+		 * @return this builder
+		 */
+		public Builder acknowledged(long completed, long totalNanos, long maxNanos) {
+			this.acknowledged = completed;
+			this.totalLatencyNanos = totalNanos;
+			this.maxLatencyNanos = maxNanos;
+			return this;
+		}
+
+		/**
+		 * @param localMessages
+		 *            the number of messages delivered in memory without the broker
+		 * @return this builder
+		 */
+		public Builder local(long localMessages) {
+			this.local = localMessages;
+			return this;
+		}
+
+		/**
+		 * @return the statistics
+		 */
+		public PublishStatistics build() {
+			return new PublishStatistics(this);
+		}
+	}
+}
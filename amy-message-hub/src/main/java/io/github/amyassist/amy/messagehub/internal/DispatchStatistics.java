@@ -0,0 +1,137 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the statistics of a {@link MessageDispatcher}
+ *
+ * @author Leon Kiefer
+ */
+public final class DispatchStatistics {
+
+	private final int lanes;
+	private final int queued;
+	private final int queueCapacity;
+	private final long handled;
+	private final long dropped;
+	private final long totalLatencyNanos;
+	private final long maxLatencyNanos;
+
+	/**
+	 * @param lanes
+	 *            the number of lanes
+	 * @param queued
+	 *            the number of tasks waiting in all lanes
+	 * @param queueCapacity
+	 *            the capacity of the queues of all lanes
+	 * @param handled
+	 *            the number of tasks that have been run
+	 * @param dropped
+	 *            the number of tasks that were dropped
+	 * @param totalLatencyNanos
+	 *            the summed up run time of all tasks
+	 * @param maxLatencyNanos
+	 *            the run time of the slowest task
+	 */
+	public DispatchStatistics(int lanes, int queued, int queueCapacity, long handled, long dropped,
+			long totalLatencyNanos, long maxLatencyNanos) {
+		this.lanes = lanes;
+		this.queued = queued;
+		this.queueCapacity = queueCapacity;
+		this.handled = handled;
+		this.dropped = dropped;
+		this.totalLatencyNanos = totalLatencyNanos;
+		this.maxLatencyNanos = maxLatencyNanos;
+	}
+
+	/**
+	 * Get's {@link #lanes lanes}
+	 *
+	 * @return the number of lanes
+	 */
+	public int getLanes() {
+		return this.lanes;
+	}
+
+	/**
+	 * Get's {@link #queued queued}
+	 *
+	 * @return the number of tasks waiting in all lanes
+	 */
+	public int getQueued() {
+		return this.queued;
+	}
+
+	/**
+	 * Get's {@link #queueCapacity queueCapacity}
+	 *
+	 * @return the capacity of the queues of all lanes
+	 */
+	public int getQueueCapacity() {
+		return this.queueCapacity;
+	}
+
+	/**
+	 * Get's {@link #handled handled}
+	 *
+	 * @return the number of tasks that have been run
+	 */
+	public long getHandled() {
+		return this.handled;
+	}
+
+	/**
+	 * Get's {@link #dropped dropped}
+	 *
+	 * @return the number of tasks that were dropped
+	 */
+	public long getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * @return the average run time of a task in nanoseconds, 0 if no task has been run
+	 */
+	public long getAverageLatencyNanos() {
+		return this.handled == 0 ? 0 : this.totalLatencyNanos / this.handled;
+	}
+
+	/**
+	 * Get's {@link #maxLatencyNanos maxLatencyNanos}
+	 *
+	 * @return the run time of the slowest task in nanoseconds
+	 */
+	public long getMaxLatencyNanos() {
+		return this.maxLatencyNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "lanes " + this.lanes + ", queued " + this.queued + "/" + this.queueCapacity + ", handled "
+				+ this.handled + ", dropped " + this.dropped + ", average latency "
+				+ TimeUnit.NANOSECONDS.toMicros(getAverageLatencyNanos()) + "us, max latency "
+				+ TimeUnit.NANOSECONDS.toMicros(this.maxLatencyNanos) + "us";
+	}
+}
@@ -27,13 +27,15 @@ import java.lang.reflect.Method;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 import org.slf4j.Logger;
 
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
 import io.github.amyassist.amy.core.di.ServiceLocator;
 import io.github.amyassist.amy.core.di.annotation.PostConstruct;
 import io.github.amyassist.amy.core.di.annotation.PreDestroy;
@@ -41,6 +43,7 @@ import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.di.annotation.Service;
 import io.github.amyassist.amy.messagehub.Message;
 import io.github.amyassist.amy.messagehub.MessagingAdapter;
+import io.github.amyassist.amy.messagehub.PublishStatistics;
 import io.github.amyassist.amy.messagehub.topic.TopicFactory;
 import io.github.amyassist.amy.messagehub.topic.TopicFilter;
 import io.github.amyassist.amy.messagehub.topic.TopicName;
@@ -52,6 +55,14 @@ import io.github.amyassist.amy.messagehub.topic.TopicName;
  */
 @Service(InternalMessageHubService.class)
 public class InternalMessageHubService {
+	private static final String CONFIG_NAME = "messagehub.config";
+	private static final String KEY_DISPATCH_THREADS = "dispatch.threads";
+	private static final String KEY_DISPATCH_QUEUE_CAPACITY = "dispatch.queueCapacity";
+	private static final String KEY_DISPATCH_OVERFLOW_POLICY = "dispatch.overflowPolicy";
+
+	// in seconds
+	private static final int DISPATCH_SHUTDOWN_TIMEOUT = 2;
+
 	@Reference
 	private Logger logger;
 
@@ -62,14 +73,26 @@ public class InternalMessageHubService {
 	private MessagingAdapter adapter;
 	@Reference
 	private ServiceLocator serviceLocator;
+	@Reference
+	private ConfigurationManager configManager;
 
 	private final Map<UUID, Subscription> eventListener = new ConcurrentHashMap<>();
 	private final Map<TopicFilter, List<UUID>> topicListeners = new ConcurrentHashMap<>();
+	private final Map<UUID, TopicFilter> subscriptionTopics = new ConcurrentHashMap<>();
+	private final SubscriptionTrie<UUID> subscriptionTrie = new SubscriptionTrie<>();
+	private final Map<Class<?>, MessageReceiverInstances> messageReceivers = new ConcurrentHashMap<>();
+
+	private MessageDispatcher dispatcher;
 
 	private volatile boolean adapterFullyConnected = false;
 
 	@PostConstruct
 	private void init() {
+		Properties config = this.configManager.getConfigurationWithDefaults(CONFIG_NAME);
+		this.dispatcher = new MessageDispatcher(Integer.parseInt(config.getProperty(KEY_DISPATCH_THREADS)),
+				Integer.parseInt(config.getProperty(KEY_DISPATCH_QUEUE_CAPACITY)),
+				MessageDispatcher.OverflowPolicy.valueOf(config.getProperty(KEY_DISPATCH_OVERFLOW_POLICY)),
+				"messagehub-dispatch");
 		this.adapter.setCallback(this::messageArrived);
 		this.adapter.setStartCallback(this::doSubscriptionsInAdapter);
 	}
@@ -77,6 +100,16 @@ public class InternalMessageHubService {
 	@PreDestroy
 	private void destroy() {
 		this.adapter.setCallback(null);
+		try {
+			if (!this.dispatcher.shutdown(DISPATCH_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				this.logger.warn("Not all messages could be handled before shutdown");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (MessageReceiverInstances instances : this.messageReceivers.values()) {
+			instances.destroy(this.serviceLocator);
+		}
 	}
 
 	private void executeHandler(Subscription handler, Message msg, TopicName topic) {
@@ -89,13 +122,14 @@ public class InternalMessageHubService {
 	}
 
 	private void messageArrived(TopicName topic, Message message) {
-		for (Entry<TopicFilter, List<UUID>> entry : this.topicListeners.entrySet()) {
-			TopicFilter filter = entry.getKey();
-			if (filter.doesFilterMatch(topic)) {
-				for (UUID uuid : entry.getValue()) {
-					Subscription handler = this.eventListener.get(uuid);
-					this.executeHandler(handler, message, topic);
-				}
+		this.dispatcher.dispatch(topic, () -> this.deliver(topic, message));
+	}
+
+	private void deliver(TopicName topic, Message message) {
+		for (UUID uuid : this.subscriptionTrie.match(topic)) {
+			Subscription handler = this.eventListener.get(uuid);
+			if (handler != null) {
+				this.executeHandler(handler, message, topic);
 			}
 		}
 	}
@@ -130,7 +164,8 @@ public class InternalMessageHubService {
 	 * @return The uuid of the subscription.
 	 */
 	public UUID subscribe(TopicFilter topic, Class<?> cls, Method method) {
-		return this.subscribe(topic, new SubscriptionObject(cls, method));
+		MessageReceiverInstances instances = this.messageReceivers.computeIfAbsent(cls, MessageReceiverInstances::new);
+		return this.subscribe(topic, new SubscriptionObject(instances, method));
 	}
 
 	/**
@@ -156,6 +191,14 @@ public class InternalMessageHubService {
 			}
 
 			this.eventListener.put(uuid, subscription);
+			this.subscriptionTopics.put(uuid, topic);
+			this.subscriptionTrie.add(topic, uuid);
+
+			// retained messages kept by the adapter only go to the new subscription
+			for (Map.Entry<TopicName, Message> retained : this.adapter.getRetained(topic).entrySet()) {
+				TopicName name = retained.getKey();
+				this.dispatcher.dispatch(name, () -> this.executeHandler(subscription, retained.getValue(), name));
+			}
 		}
 
 		return uuid;
@@ -169,19 +212,28 @@ public class InternalMessageHubService {
 	public void unsubscribe(UUID identifier) {
 		synchronized (this.topicListeners) {
 			this.eventListener.remove(identifier);
-			for (Entry<TopicFilter, List<UUID>> entry : this.topicListeners.entrySet()) {
-				if (entry.getValue().contains(identifier)) {
-					entry.getValue().remove(identifier);
-					if (entry.getValue().isEmpty()) {
-						this.topicListeners.remove(entry.getKey());
-						this.adapter.unsubscribe(entry.getKey());
-					}
-					break;
-				}
+			TopicFilter topic = this.subscriptionTopics.remove(identifier);
+			if (topic == null)
+				return;
+			this.subscriptionTrie.remove(topic, identifier);
+			List<UUID> listeners = this.topicListeners.get(topic);
+			listeners.remove(identifier);
+			if (listeners.isEmpty()) {
+				this.topicListeners.remove(topic);
+				this.adapter.unsubscribe(topic);
 			}
 		}
 	}
 
+	/**
+	 * Get's the statistics of the dispatching of incoming messages to the handlers
+	 *
+	 * @return a snapshot of the statistics
+	 */
+	public DispatchStatistics getDispatchStatistics() {
+		return this.dispatcher.getStatistics();
+	}
+
 	/**
 	 * @param topic
 	 *            The topic to publish to
@@ -196,4 +248,28 @@ public class InternalMessageHubService {
 	public void publish(TopicName topic, String payload, int qualityOfService, boolean retain) {
 		this.adapter.publish(topic, payload, qualityOfService, retain);
 	}
+
+	/**
+	 * @param topic
+	 *            The topic to publish to
+	 * @param payload
+	 *            The payload to publish
+	 * @param qualityOfService
+	 *            The qos to publish with
+	 * @param retain
+	 *            Whether to retain the message
+	 * @see io.github.amyassist.amy.messagehub.MessageHub#publish(TopicName, byte[], int, boolean)
+	 */
+	public void publish(TopicName topic, byte[] payload, int qualityOfService, boolean retain) {
+		this.adapter.publish(topic, payload, qualityOfService, retain);
+	}
+
+	/**
+	 * Get's the statistics of the published messages
+	 *
+	 * @return a snapshot of the statistics
+	 */
+	public PublishStatistics getPublishStatistics() {
+		return this.adapter.getPublishStatistics();
+	}
 }
@@ -0,0 +1,187 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs message handlers on a fixed number of lanes, so a slow handler does not block the thread receiving messages.
+ * <p>
+ * Every lane is a single thread with a bounded queue. All tasks with the same key are run on the same lane, which
+ * keeps them in order. What happens when the queue of a lane is full is decided by the {@link OverflowPolicy}.
+ * <p>
+ * With zero lanes the tasks are run directly on the calling thread.
+ *
+ * @author Leon Kiefer
+ */
+public class MessageDispatcher {
+
+	/**
+	 * What to do with a task if the queue of its lane is full
+	 */
+	public enum OverflowPolicy {
+		/** wait until the lane has room, this slows down the receiving thread */
+		BLOCK,
+		/** drop the new task */
+		DROP_NEWEST,
+		/** drop the oldest waiting task of the lane to make room */
+		DROP_OLDEST
+	}
+
+	private final ThreadPoolExecutor[] lanes;
+	private final int queueCapacity;
+	private final OverflowPolicy overflowPolicy;
+
+	private final LongAdder handled = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder totalLatency = new LongAdder();
+	private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Creates a new dispatcher and starts its threads
+	 *
+	 * @param laneCount
+	 *            the number of lanes, 0 to run tasks on the calling thread
+	 * @param queueCapacity
+	 *            the maximal number of waiting tasks per lane
+	 * @param overflowPolicy
+	 *            what to do with a task if the queue of its lane is full
+	 * @param threadName
+	 *            the prefix for the names of the threads
+	 */
+	public MessageDispatcher(int laneCount, int queueCapacity, OverflowPolicy overflowPolicy, String threadName) {
+		if (laneCount < 0)
+			throw new IllegalArgumentException("The number of lanes can't be negative.");
+		if (queueCapacity < 1)
+			throw new IllegalArgumentException("The queue capacity must be at least 1.");
+		this.queueCapacity = queueCapacity;
+		this.overflowPolicy = overflowPolicy;
+		this.lanes = new ThreadPoolExecutor[laneCount];
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = r -> {
+			Thread thread = new Thread(r, threadName + "-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+		for (int i = 0; i < laneCount; i++) {
+			this.lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(queueCapacity), threadFactory, this::rejected);
+		}
+	}
+
+	/**
+	 * Runs the given task on the lane of the given key
+	 *
+	 * @param key
+	 *            the key deciding the lane, tasks with equal keys are run in the order they are dispatched
+	 * @param task
+	 *            the task to run
+	 */
+	public void dispatch(Object key, Runnable task) {
+		if (this.lanes.length == 0) {
+			run(task);
+			return;
+		}
+		int lane = (key.hashCode() & Integer.MAX_VALUE) % this.lanes.length;
+		this.lanes[lane].execute(() -> run(task));
+	}
+
+	private void run(Runnable task) {
+		long start = System.nanoTime();
+		try {
+			task.run();
+		} finally {
+			long latency = System.nanoTime() - start;
+			this.handled.increment();
+			this.totalLatency.add(latency);
+			this.maxLatency.accumulate(latency);
+		}
+	}
+
+	private void rejected(Runnable task, ThreadPoolExecutor lane) {
+		if (lane.isShutdown()) {
+			this.dropped.increment();
+			return;
+		}
+		switch (this.overflowPolicy) {
+		case BLOCK:
+			try {
+				lane.getQueue().put(task);
+			} catch (InterruptedException e) {
+				this.dropped.increment();
+				Thread.currentThread().interrupt();
+			}
+			break;
+		case DROP_OLDEST:
+			if (lane.getQueue().poll() != null) {
+				this.dropped.increment();
+			}
+			lane.execute(task);
+			break;
+		case DROP_NEWEST:
+			this.dropped.increment();
+			break;
+		default:
+			throw new IllegalStateException("Unknown overflow policy " + this.overflowPolicy);
+		}
+	}
+
+	/**
+	 * Get's the current statistics of this dispatcher
+	 *
+	 * @return a snapshot of the statistics
+	 */
+	public DispatchStatistics getStatistics() {
+		int queued = 0;
+		for (ThreadPoolExecutor lane : this.lanes) {
+			queued += lane.getQueue().size();
+		}
+		return new DispatchStatistics(this.lanes.length, queued, this.lanes.length * this.queueCapacity,
+				this.handled.sum(), this.dropped.sum(), this.totalLatency.sum(), this.maxLatency.get());
+	}
+
+	/**
+	 * Stops accepting tasks and waits for the waiting tasks to finish
+	 *
+	 * @param timeout
+	 *            the maximal time to wait for each lane
+	 * @param unit
+	 *            the unit of the timeout
+	 * @return true if all tasks were finished in time
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+		for (ThreadPoolExecutor lane : this.lanes) {
+			lane.shutdown();
+		}
+		boolean terminated = true;
+		for (ThreadPoolExecutor lane : this.lanes) {
+			terminated &= lane.awaitTermination(timeout, unit);
+		}
+		return terminated;
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.amyassist.amy.core.di.ServiceLocator;
+import io.github.amyassist.amy.messagehub.annotations.MessageReceiver;
+import io.github.amyassist.amy.messagehub.annotations.MessageReceiver.Lifecycle;
+
+/**
+ * Provides the instances of a {@link MessageReceiver} class according to its {@link Lifecycle}. All subscriptions of
+ * a class share the same instances.
+ * 
+ * @author Leon Kiefer
+ */
+class MessageReceiverInstances {
+
+	private final Class<?> messageReceiverClass;
+	private final Lifecycle lifecycle;
+	private final int poolSize;
+
+	private volatile Object singleton;
+	private final Queue<Object> pool = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+
+	/**
+	 * @param cls
+	 *            the {@link MessageReceiver} class
+	 */
+	MessageReceiverInstances(Class<?> cls) {
+		this.messageReceiverClass = cls;
+		MessageReceiver annotation = cls.getAnnotation(MessageReceiver.class);
+		this.lifecycle = annotation == null ? Lifecycle.PER_MESSAGE : annotation.lifecycle();
+		this.poolSize = annotation == null ? 0 : annotation.poolSize();
+	}
+
+	/**
+	 * Get's an instance to handle one message with. It must be given back with {@link #release(Object, ServiceLocator)}
+	 * after the message is handled.
+	 * 
+	 * @param serviceLocator
+	 *            the ServiceLocator to create new instances with
+	 * @return the instance
+	 */
+	Object acquire(ServiceLocator serviceLocator) {
+		switch (this.lifecycle) {
+		case SINGLETON:
+			Object instance = this.singleton;
+			if (instance == null) {
+				synchronized (this) {
+					instance = this.singleton;
+					if (instance == null) {
+						instance = serviceLocator.createAndInitialize(this.messageReceiverClass);
+						this.singleton = instance;
+					}
+				}
+			}
+			return instance;
+		case POOLED:
+			Object idle = this.pool.poll();
+			if (idle != null) {
+				this.pooled.decrementAndGet();
+				return idle;
+			}
+			return serviceLocator.createAndInitialize(this.messageReceiverClass);
+		default:
+			return serviceLocator.createAndInitialize(this.messageReceiverClass);
+		}
+	}
+
+	/**
+	 * Gives back an instance after it has handled a message
+	 * 
+	 * @param instance
+	 *            the instance from {@link #acquire(ServiceLocator)}
+	 * @param serviceLocator
+	 *            the ServiceLocator to destroy instances with
+	 */
+	void release(Object instance, ServiceLocator serviceLocator) {
+		switch (this.lifecycle) {
+		case SINGLETON:
+			break;
+		case POOLED:
+			if (this.pooled.incrementAndGet() <= this.poolSize) {
+				this.pool.offer(instance);
+			} else {
+				this.pooled.decrementAndGet();
+				serviceLocator.preDestroy(instance);
+			}
+			break;
+		default:
+			serviceLocator.preDestroy(instance);
+		}
+	}
+
+	/**
+	 * Gives back an instance after it failed to handle a message. Its state may be broken, so a pooled instance is
+	 * destroyed instead of being reused. The singleton is kept.
+	 * 
+	 * @param instance
+	 *            the instance from {@link #acquire(ServiceLocator)}
+	 * @param serviceLocator
+	 *            the ServiceLocator to destroy instances with
+	 */
+	void discard(Object instance, ServiceLocator serviceLocator) {
+		if (this.lifecycle != Lifecycle.SINGLETON) {
+			serviceLocator.preDestroy(instance);
+		}
+	}
+
+	/**
+	 * Destroys all instances that are kept for later messages
+	 * 
+	 * @param serviceLocator
+	 *            the ServiceLocator to destroy instances with
+	 */
+	synchronized void destroy(ServiceLocator serviceLocator) {
+		if (this.singleton != null) {
+			serviceLocator.preDestroy(this.singleton);
+			this.singleton = null;
+		}
+		Object idle;
+		while ((idle = this.pool.poll()) != null) {
+			this.pooled.decrementAndGet();
+			serviceLocator.preDestroy(idle);
+		}
+	}
+}
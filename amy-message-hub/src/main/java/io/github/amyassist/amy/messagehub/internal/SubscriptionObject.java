@@ -23,7 +23,9 @@
 
 package io.github.amyassist.amy.messagehub.internal;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import io.github.amyassist.amy.core.di.ServiceLocator;
@@ -33,58 +35,59 @@ import io.github.amyassist.amy.messagehub.topic.TopicName;
 
 /**
  * A Subscription from a MessageReciever
+ * <p>
+ * The method is bound once to a {@link MethodHandle} taking the receiver, the payload and the topic name, so handling
+ * a message does not use reflection.
  * 
  * @author Leon Kiefer
  */
 class SubscriptionObject implements Subscription {
 
-	private final Class<?> messageReceiverClass;
+	private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class, String.class,
+			TopicName.class);
+
+	private final MessageReceiverInstances instances;
 	private final Method method;
-	private final boolean withTopicName;
+	private final MethodHandle handle;
 
 	/**
-	 * @param cls
-	 *            the {@link MessageReceiver} class
+	 * @param instances
+	 *            the instances of the {@link MessageReceiver} class
 	 * @param method
 	 *            the method of the {@link io.github.amyassist.amy.messagehub.annotations.Subscription}
 	 */
-	public SubscriptionObject(Class<?> cls, Method method) {
+	SubscriptionObject(MessageReceiverInstances instances, Method method) {
 		SubscriptionUtil.assertValidSubscriptionMethod(method);
-		this.messageReceiverClass = cls;
+		this.instances = instances;
 		this.method = method;
-		Class<?>[] parameterTypes = this.method.getParameterTypes();
+		MethodHandle methodHandle;
+		try {
+			methodHandle = MethodHandles.publicLookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("can not access method " + method, e);
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
 		if (parameterTypes.length == 1) {
-			this.withTopicName = false;
-		} else if (parameterTypes.length == 2) {
-			this.withTopicName = true;
-		} else {
+			methodHandle = MethodHandles.dropArguments(methodHandle, 2, TopicName.class);
+		} else if (parameterTypes.length != 2) {
 			throw new IllegalArgumentException(
 					"Subscription can only have the message and the topicname as parameter.");
 		}
+		this.handle = methodHandle.asType(HANDLER_TYPE);
 	}
 
 	@Override
 	public void handle(TopicName topic, Message msg, ServiceLocator serviceLocator) {
-		Object messageReceiver = serviceLocator.createAndInitialize(this.messageReceiverClass);
-
+		Object messageReceiver = this.instances.acquire(serviceLocator);
 		try {
-			if (this.withTopicName) {
-				this.method.invoke(messageReceiver, msg.getPayload(), topic);
-			} else {
-				this.method.invoke(messageReceiver, msg.getPayload());
-			}
-
-		} catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("tried to invoke method " + this.method + " but got an error", e);
-		} catch (InvocationTargetException e) {
-			Throwable cause = e.getCause();
-
-			if (cause instanceof RuntimeException) {
-				throw (RuntimeException) cause;
-			}
-			throw new IllegalArgumentException("method " + this.method + " throw an exception", cause);
+			this.handle.invokeExact(messageReceiver, msg.getPayload(), topic);
+		} catch (RuntimeException | Error e) {
+			this.instances.discard(messageReceiver, serviceLocator);
+			throw e;
+		} catch (Throwable e) {
+			this.instances.discard(messageReceiver, serviceLocator);
+			throw new IllegalArgumentException("method " + this.method + " throw an exception", e);
 		}
-
-		serviceLocator.preDestroy(messageReceiver);
+		this.instances.release(messageReceiver, serviceLocator);
 	}
 }
@@ -0,0 +1,150 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import io.github.amyassist.amy.messagehub.topic.Constants;
+import io.github.amyassist.amy.messagehub.topic.TopicFilter;
+import io.github.amyassist.amy.messagehub.topic.TopicLevel;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+
+/**
+ * A trie of subscriptions keyed by the levels of their topic filter.
+ * <p>
+ * Each node has one child per normal level and a child for each wildcard, so finding all subscriptions matching a
+ * topic name only walks the levels of the name instead of every topic filter. Special topics are kept in a separate
+ * trie, because filters starting with a wildcard must not match them.
+ * <p>
+ * Modifications are serialized, lookups do not lock and may run concurrently to modifications.
+ *
+ * @param <T>
+ *            the type of the subscriptions
+ *
+ * @author Leon Kiefer
+ */
+class SubscriptionTrie<T> {
+	private static final String SINGLE_LEVEL_WILDCARD = Character.toString(Constants.SINGLE_LEVEL_WILDCARD);
+	private static final String MULTI_LEVEL_WILDCARD = Character.toString(Constants.MULTI_LEVEL_WILDCARD);
+
+	private final Node<T> root = new Node<>();
+	private final Node<T> specialRoot = new Node<>();
+
+	/**
+	 * Adds a subscription for the given topic filter
+	 *
+	 * @param filter
+	 *            the topic filter of the subscription
+	 * @param subscription
+	 *            the subscription
+	 */
+	public synchronized void add(TopicFilter filter, T subscription) {
+		Node<T> node = filter.isSpecialTopic() ? this.specialRoot : this.root;
+		for (TopicLevel level : filter.getTopicLevels()) {
+			node = node.children.computeIfAbsent(level.getStringRepresentation(), k -> new Node<>());
+		}
+		node.subscriptions.add(subscription);
+	}
+
+	/**
+	 * Removes a subscription of the given topic filter and all nodes that are no longer needed
+	 *
+	 * @param filter
+	 *            the topic filter of the subscription
+	 * @param subscription
+	 *            the subscription
+	 * @return true if the subscription was in this trie
+	 */
+	public synchronized boolean remove(TopicFilter filter, T subscription) {
+		List<TopicLevel> levels = filter.getTopicLevels();
+		List<Node<T>> path = new ArrayList<>(levels.size() + 1);
+		Node<T> node = filter.isSpecialTopic() ? this.specialRoot : this.root;
+		path.add(node);
+		for (TopicLevel level : levels) {
+			node = node.children.get(level.getStringRepresentation());
+			if (node == null)
+				return false;
+			path.add(node);
+		}
+		if (!node.subscriptions.remove(subscription))
+			return false;
+
+		for (int i = levels.size(); i > 0 && path.get(i).isEmpty(); i--) {
+			path.get(i - 1).children.remove(levels.get(i - 1).getStringRepresentation());
+		}
+		return true;
+	}
+
+	/**
+	 * Get's all subscriptions with a topic filter matching the given topic name
+	 *
+	 * @param name
+	 *            the topic name
+	 * @return the matching subscriptions
+	 */
+	public List<T> match(TopicName name) {
+		List<T> result = new ArrayList<>();
+		Node<T> start = name.isSpecialTopic() ? this.specialRoot : this.root;
+		collect(start, name.getTopicLevels(), 0, result);
+		return result;
+	}
+
+	private static <T> void collect(Node<T> node, List<TopicLevel> levels, int index, List<T> result) {
+		Node<T> multi = node.children.get(MULTI_LEVEL_WILDCARD);
+		if (multi != null) {
+			result.addAll(multi.subscriptions);
+		}
+		if (index == levels.size()) {
+			result.addAll(node.subscriptions);
+			return;
+		}
+		Node<T> exact = node.children.get(levels.get(index).getStringRepresentation());
+		if (exact != null) {
+			collect(exact, levels, index + 1, result);
+		}
+		Node<T> single = node.children.get(SINGLE_LEVEL_WILDCARD);
+		if (single != null) {
+			collect(single, levels, index + 1, result);
+		}
+	}
+
+	/**
+	 * A node of the trie
+	 *
+	 * @param <T>
+	 *            the type of the subscriptions
+	 */
+	private static class Node<T> {
+		private final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+		private final Set<T> subscriptions = new CopyOnWriteArraySet<>();
+
+		private boolean isEmpty() {
+			return this.children.isEmpty() && this.subscriptions.isEmpty();
+		}
+	}
+}
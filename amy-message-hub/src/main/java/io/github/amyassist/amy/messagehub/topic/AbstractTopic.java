@@ -23,7 +23,6 @@
 
 package io.github.amyassist.amy.messagehub.topic;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -34,8 +33,19 @@ import java.util.List;
  * @author Tim Neumann
  */
 abstract class AbstractTopic implements Topic {
+	/**
+	 * The maximal number of bytes of the UTF-8 encoded topic string
+	 */
+	private static final int MAX_ENCODED_LENGTH = 65535;
+	/**
+	 * The maximal number of bytes a char can take in UTF-8, surrogate pairs take 4 bytes for 2 chars
+	 */
+	private static final int MAX_BYTES_PER_CHAR = 3;
+
+	private final String topicString;
 	private final List<TopicLevel> topicLevels;
-	private boolean special = false;
+	private final boolean special;
+	private final int hash;
 
 	/**
 	 * Create a new abstract topic with the given string
@@ -53,19 +63,21 @@ abstract class AbstractTopic implements Topic {
 
 		validateTopicString(topicString);
 
-		if (topicString.charAt(0) == Constants.SPECIAL_TOPIC_PREFIX) {
-			this.special = true;
-		}
-
-		this.topicLevels = new ArrayList<>();
+		this.topicString = topicString;
+		this.special = topicString.charAt(0) == Constants.SPECIAL_TOPIC_PREFIX;
 
-		String[] tokens = topicString.split(Character.toString(Constants.TOPIC_LEVEL_SEPERATOR), -1);
-
-		for (String token : tokens) {
-			this.topicLevels.add(new TopicLevelImpl(token));
+		List<TopicLevel> levels = new ArrayList<>();
+		int levelStart = 0;
+		int separator;
+		while ((separator = topicString.indexOf(Constants.TOPIC_LEVEL_SEPERATOR, levelStart)) != -1) {
+			levels.add(new TopicLevelImpl(topicString.substring(levelStart, separator)));
+			levelStart = separator + 1;
 		}
+		levels.add(new TopicLevelImpl(topicString.substring(levelStart)));
 
-		validateTopicLevels(this.topicLevels);
+		validateTopicLevels(levels);
+		this.topicLevels = Collections.unmodifiableList(levels);
+		this.hash = levels.hashCode() + (this.special ? 0 : 1);
 	}
 
 	/**
@@ -83,13 +95,40 @@ abstract class AbstractTopic implements Topic {
 		if (topicString.isEmpty())
 			throw new TopicFormatException("The topic String must be at least one character long.");
 
-		if (topicString.contains(Character.toString(Constants.ILLEGAL_NULL_CHARACTER)))
+		if (topicString.indexOf(Constants.ILLEGAL_NULL_CHARACTER) != -1)
 			throw new TopicFormatException("The topic String can't contain a Null character(U+0000).");
 
-		if (topicString.getBytes(StandardCharsets.UTF_8).length > 65535)
+		if (topicString.length() * MAX_BYTES_PER_CHAR > MAX_ENCODED_LENGTH
+				&& encodedLength(topicString) > MAX_ENCODED_LENGTH)
 			throw new TopicFormatException("The topic String can't encode to more than 65535 bytes.");
 	}
 
+	/**
+	 * Counts the bytes of the UTF-8 encoding of the given String without encoding it
+	 *
+	 * @param string
+	 *            The string to count the bytes of
+	 * @return The number of bytes
+	 */
+	private static int encodedLength(String string) {
+		int length = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c < 0x80) {
+				length += 1;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+					&& Character.isLowSurrogate(string.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
 	/**
 	 * Checks that the given list are valid topic levels.
 	 * <p>
@@ -112,15 +151,7 @@ abstract class AbstractTopic implements Topic {
 	 */
 	@Override
 	public String getStringRepresentation() {
-		StringBuilder result = new StringBuilder();
-
-		result.append(this.topicLevels.get(0).getStringRepresentation());
-		for (int i = 1; i < this.topicLevels.size(); i++) {
-			result.append(Constants.TOPIC_LEVEL_SEPERATOR);
-			result.append(this.topicLevels.get(i).getStringRepresentation());
-		}
-
-		return result.toString();
+		return this.topicString;
 	}
 
 	/**
@@ -128,7 +159,7 @@ abstract class AbstractTopic implements Topic {
 	 */
 	@Override
 	public List<TopicLevel> getTopicLevels() {
-		return Collections.unmodifiableList(this.topicLevels);
+		return this.topicLevels;
 	}
 
 	/**
@@ -154,7 +185,7 @@ abstract class AbstractTopic implements Topic {
 	 */
 	@Override
 	public int hashCode() {
-		return this.topicLevels.hashCode() + (this.special ? 0 : 1);
+		return this.hash;
 	}
 
 	/**
@@ -162,10 +193,12 @@ abstract class AbstractTopic implements Topic {
 	 */
 	@Override
 	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
 		if (!(obj instanceof AbstractTopic))
 			return false;
 		AbstractTopic t = (AbstractTopic) obj;
-		return (t.topicLevels.equals(this.topicLevels) && (t.special == this.special));
+		return (t.hash == this.hash && t.topicLevels.equals(this.topicLevels) && (t.special == this.special));
 	}
 
 }
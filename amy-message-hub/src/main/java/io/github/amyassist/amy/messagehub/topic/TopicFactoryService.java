@@ -23,23 +23,40 @@
 
 package io.github.amyassist.amy.messagehub.topic;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import io.github.amyassist.amy.core.di.annotation.Service;
 
 /**
  * Implementation of {@link TopicFactory}.
+ * <p>
+ * Topics are immutable, so parsed topics are kept in a bounded cache and returned again for the same String. Messages
+ * on a fixed set of topics therefore don't parse or allocate topics.
  *
  * @author Tim Neumann
  */
 @Service
 public class TopicFactoryService implements TopicFactory {
+	/**
+	 * The maximal number of cached topic names and of cached topic filters
+	 */
+	static final int MAX_CACHED_TOPICS = 10000;
+
+	private final Map<String, TopicFilter> topicFilters = new ConcurrentHashMap<>();
+	private final Map<String, TopicName> topicNames = new ConcurrentHashMap<>();
 
 	/**
 	 * @see io.github.amyassist.amy.messagehub.topic.TopicFactory#createTopicFilter(java.lang.String)
 	 */
 	@Override
 	public TopicFilter createTopicFilter(String topicFilterString) {
+		TopicFilter cached = this.topicFilters.get(topicFilterString);
+		if (cached != null)
+			return cached;
 		try {
-			return new TopicFilterImpl(topicFilterString);
+			return cache(this.topicFilters, topicFilterString, new TopicFilterImpl(topicFilterString));
 		} catch (TopicFormatException e) {
 			throw new IllegalArgumentException("Illegal topic filter string", e);
 		}
@@ -50,11 +67,37 @@ public class TopicFactoryService implements TopicFactory {
 	 */
 	@Override
 	public TopicName createTopicName(String topicNameString) {
+		TopicName cached = this.topicNames.get(topicNameString);
+		if (cached != null)
+			return cached;
 		try {
-			return new TopicNameImpl(topicNameString);
+			return cache(this.topicNames, topicNameString, new TopicNameImpl(topicNameString));
 		} catch (TopicFormatException e) {
 			throw new IllegalArgumentException("Illegal topic name string", e);
 		}
 	}
 
+	/**
+	 * Adds a parsed topic to the given cache. If the cache is full an arbitrary entry is removed.
+	 *
+	 * @param cache
+	 *            The cache to add the topic to
+	 * @param topicString
+	 *            The String the topic was parsed from
+	 * @param topic
+	 *            The parsed topic
+	 * @return The topic in the cache for the String
+	 */
+	private static <T extends Topic> T cache(Map<String, T> cache, String topicString, T topic) {
+		if (cache.size() >= MAX_CACHED_TOPICS) {
+			Iterator<String> iterator = cache.keySet().iterator();
+			if (iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+			}
+		}
+		T existing = cache.putIfAbsent(topicString, topic);
+		return existing != null ? existing : topic;
+	}
+
 }
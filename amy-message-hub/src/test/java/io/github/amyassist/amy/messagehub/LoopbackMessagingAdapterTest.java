@@ -0,0 +1,161 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.messagehub.topic.TopicFactory;
+import io.github.amyassist.amy.messagehub.topic.TopicFactoryService;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+import io.github.amyassist.amy.test.FrameworkExtension;
+import io.github.amyassist.amy.test.TestFramework;
+
+/**
+ * Tests the {@link LoopbackMessagingAdapter}
+ * 
+ * @author Leon Kiefer
+ */
+@ExtendWith(FrameworkExtension.class)
+class LoopbackMessagingAdapterTest {
+	@Reference
+	private TestFramework testFramework;
+
+	private Properties config;
+	private TopicFactory tf;
+	private List<String> received;
+
+	@BeforeEach
+	void setup() {
+		this.config = new Properties();
+		this.config.setProperty("adapter.localTopics", "");
+		ConfigurationManager configManager = this.testFramework.mockService(ConfigurationManager.class);
+		when(configManager.getConfigurationWithDefaults("messagehub.config")).thenReturn(this.config);
+		this.tf = this.testFramework.registerService(TopicFactory.class, TopicFactoryService.class);
+		this.received = new ArrayList<>();
+	}
+
+	private LoopbackMessagingAdapter adapter(String mode) {
+		this.config.setProperty("adapter.mode", mode);
+		LoopbackMessagingAdapter adapter = this.testFramework.setServiceUnderTest(LoopbackMessagingAdapter.class);
+		adapter.setCallback((topic, message) -> this.received.add(topic.getStringRepresentation() + "="
+				+ message.getPayload() + (message.wasRetained() ? " retained" : "")));
+		return adapter;
+	}
+
+	@Test
+	void testLoopback() {
+		LoopbackMessagingAdapter adapter = adapter("LOOPBACK");
+		Runnable started = mock(Runnable.class);
+		adapter.setStartCallback(started);
+		assertFalse(adapter.isRunning());
+		adapter.start();
+		assertTrue(adapter.isRunning());
+		verify(started).run();
+
+		TopicName topic = this.tf.createTopicName("user/all/notification");
+		adapter.publish(topic, "hello", 2, false);
+		adapter.publish(topic, "bytes".getBytes(StandardCharsets.UTF_8), 0, false);
+
+		assertEquals(2, this.received.size());
+		assertEquals("user/all/notification=hello", this.received.get(0));
+		assertEquals("user/all/notification=bytes", this.received.get(1));
+		assertEquals(2, adapter.getPublishStatistics().getLocal());
+		adapter.stop();
+		assertFalse(adapter.isRunning());
+	}
+
+	@Test
+	void testRetained() {
+		LoopbackMessagingAdapter adapter = adapter("LOOPBACK");
+		adapter.start();
+		adapter.publish(this.tf.createTopicName("smarthome/all/living/mute"), "true", 2, true);
+		adapter.publish(this.tf.createTopicName("smarthome/all/all/mute"), "true", 2, true);
+		adapter.publish(this.tf.createTopicName("smarthome/all/all/mute"), "", 2, true);
+		adapter.publish(this.tf.createTopicName("user/all/notification"), "hello", 2, true);
+		this.received.clear();
+
+		// retained messages are not sent through the callback, that would reach all existing subscriptions
+		adapter.subscribe(this.tf.createTopicFilter("smarthome/+/+/mute"));
+		assertEquals(0, this.received.size());
+
+		Map<TopicName, Message> retained = adapter.getRetained(this.tf.createTopicFilter("smarthome/+/+/mute"));
+		assertEquals(1, retained.size());
+		Message message = retained.get(this.tf.createTopicName("smarthome/all/living/mute"));
+		assertEquals("true", message.getPayload());
+		assertTrue(message.wasRetained());
+	}
+
+	@Test
+	void testHybrid() {
+		this.config.setProperty("adapter.localTopics", "smarthome/#, user/+/notification");
+		MQTTAdapter mqtt = this.testFramework.mockService(MQTTAdapter.class);
+		when(mqtt.getPublishStatistics()).thenReturn(PublishStatistics.builder().sent(3).inFlight(0, 10)
+				.acknowledged(3, 0, 0).build());
+		LoopbackMessagingAdapter adapter = adapter("HYBRID");
+		adapter.start();
+		verify(mqtt).start();
+
+		adapter.publish(this.tf.createTopicName("smarthome/all/all/mute"), "true", 2, false);
+		adapter.publish(this.tf.createTopicName("system/node"), "up", 2, false);
+
+		assertEquals(1, this.received.size());
+		assertEquals("smarthome/all/all/mute=true", this.received.get(0));
+		verify(mqtt).publish(eq(this.tf.createTopicName("system/node")), eq("up"), eq(2), eq(false));
+		verify(mqtt, never()).publish(eq(this.tf.createTopicName("smarthome/all/all/mute")), anyString(), anyInt(),
+				anyBoolean());
+		PublishStatistics statistics = adapter.getPublishStatistics();
+		assertEquals(1, statistics.getLocal());
+		assertEquals(3, statistics.getSent());
+	}
+
+	@Test
+	void testMqtt() {
+		this.config.setProperty("adapter.localTopics", "smarthome/#");
+		MQTTAdapter mqtt = this.testFramework.mockService(MQTTAdapter.class);
+		LoopbackMessagingAdapter adapter = adapter("MQTT");
+		verify(mqtt).setCallback(any());
+
+		TopicName topic = this.tf.createTopicName("smarthome/all/all/mute");
+		adapter.publish(topic, "true", 2, true);
+		adapter.subscribe(this.tf.createTopicFilter("smarthome/#"));
+
+		assertEquals(0, this.received.size());
+		verify(mqtt).publish(topic, "true", 2, true);
+		verify(mqtt).subscribe(this.tf.createTopicFilter("smarthome/#"));
+		assertTrue(adapter.getRetained(this.tf.createTopicFilter("smarthome/#")).isEmpty());
+	}
+}
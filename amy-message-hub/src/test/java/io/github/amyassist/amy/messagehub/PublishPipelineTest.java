@@ -0,0 +1,248 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+
+import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
+import io.github.amyassist.amy.messagehub.topic.TopicFactory;
+import io.github.amyassist.amy.messagehub.topic.TopicFactoryService;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+
+/**
+ * Tests the {@link PublishPipeline}
+ * 
+ * @author Leon Kiefer
+ */
+class PublishPipelineTest {
+
+	private final TopicFactory tf = new TopicFactoryService();
+	private TaskScheduler scheduler;
+	private Logger logger;
+	private boolean connected;
+	private List<String> sent;
+	private List<Object> contexts;
+
+	@BeforeEach
+	void setup() {
+		this.scheduler = mock(TaskScheduler.class);
+		this.logger = mock(Logger.class);
+		this.connected = true;
+		this.sent = new ArrayList<>();
+		this.contexts = new ArrayList<>();
+	}
+
+	private PublishPipeline pipeline(long coalesceMillis, int maxInFlight) {
+		return pipeline(coalesceMillis, maxInFlight, 10);
+	}
+
+	private PublishPipeline pipeline(long coalesceMillis, int maxInFlight, long inFlightTimeoutMillis) {
+		return new PublishPipeline((topic, msg, context) -> {
+			this.sent.add(topic.getStringRepresentation() + "=" + new String(msg.getPayload(), StandardCharsets.UTF_8)
+					+ (msg.isRetained() ? " retained" : ""));
+			this.contexts.add(context);
+		}, () -> this.connected, this.scheduler, this.logger, coalesceMillis, maxInFlight, inFlightTimeoutMillis);
+	}
+
+	private static byte[] bytes(String payload) {
+		return payload.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void testNotRetainedIsSentDirectly() {
+		PublishPipeline pipeline = pipeline(20, 10);
+		pipeline.publish(this.tf.createTopicName("user/all/notification"), bytes("a"), 2, false);
+		pipeline.publish(this.tf.createTopicName("user/all/notification"), bytes("b"), 2, false);
+
+		assertEquals(Arrays.asList("user/all/notification=a", "user/all/notification=b"), this.sent);
+		verifyZeroInteractions(this.scheduler);
+	}
+
+	@Test
+	void testRetainedAreCoalesced() {
+		PublishPipeline pipeline = pipeline(20, 10);
+		TopicName mute = this.tf.createTopicName("smarthome/all/all/mute");
+		TopicName living = this.tf.createTopicName("smarthome/all/living/mute");
+		pipeline.publish(mute, bytes("true"), 2, true);
+		pipeline.publish(living, bytes("true"), 2, true);
+		pipeline.publish(mute, bytes("false"), 2, true);
+		pipeline.publish(mute, bytes("true"), 2, true);
+
+		assertEquals(Collections.emptyList(), this.sent);
+		ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.scheduler).schedule(flush.capture(), eq(20L), eq(TimeUnit.MILLISECONDS));
+		flush.getValue().run();
+
+		assertEquals(Arrays.asList("smarthome/all/all/mute=true retained", "smarthome/all/living/mute=true retained"),
+				this.sent);
+		PublishStatistics statistics = pipeline.getStatistics();
+		assertEquals(2, statistics.getCoalesced());
+		assertEquals(1, statistics.getFlushes());
+		assertEquals(2, statistics.getMaxFlushSize());
+		assertEquals(2, statistics.getSent());
+	}
+
+	@Test
+	void testOrderOnTopicIsKept() {
+		PublishPipeline pipeline = pipeline(20, 10);
+		TopicName mute = this.tf.createTopicName("smarthome/all/all/mute");
+		pipeline.publish(mute, bytes("true"), 2, true);
+		pipeline.publish(mute, bytes("false"), 2, false);
+
+		assertEquals(Arrays.asList("smarthome/all/all/mute=true retained", "smarthome/all/all/mute=false"), this.sent);
+		pipeline.flush();
+		assertEquals(2, this.sent.size());
+	}
+
+	@Test
+	void testWithoutWindow() {
+		PublishPipeline pipeline = pipeline(0, 10);
+		pipeline.publish(this.tf.createTopicName("smarthome/all/all/mute"), bytes("true"), 2, true);
+
+		assertEquals(Arrays.asList("smarthome/all/all/mute=true retained"), this.sent);
+		verifyZeroInteractions(this.scheduler);
+	}
+
+	@Test
+	void testInFlightWindow() {
+		PublishPipeline pipeline = pipeline(0, 2);
+		TopicName topic = this.tf.createTopicName("user/all/notification");
+		pipeline.publish(topic, bytes("a"), 2, false);
+		pipeline.publish(topic, bytes("b"), 2, false);
+		assertEquals(2, pipeline.getStatistics().getInFlight());
+
+		assertTrue(pipeline.completed(this.contexts.get(0)));
+		assertTrue(pipeline.completed(this.contexts.get(0)));
+		assertFalse(pipeline.completed("Subscribe"));
+		PublishStatistics statistics = pipeline.getStatistics();
+		assertEquals(1, statistics.getInFlight());
+		assertEquals(1, statistics.getAcknowledged());
+
+		// the window is full, so the message is sent without a slot after the timeout
+		pipeline.publish(topic, bytes("c"), 2, false);
+		pipeline.publish(topic, bytes("d"), 2, false);
+		assertEquals(4, this.sent.size());
+		assertEquals(2, pipeline.getStatistics().getInFlight());
+		this.contexts.forEach(pipeline::completed);
+		assertEquals(0, pipeline.getStatistics().getInFlight());
+	}
+
+	@Test
+	void testSendFailure() {
+		PublishPipeline pipeline = new PublishPipeline((topic, msg, context) -> {
+			throw new MqttException(MqttException.REASON_CODE_CLIENT_NOT_CONNECTED);
+		}, () -> true, this.scheduler, this.logger, 0, 1, 10);
+		TopicName topic = this.tf.createTopicName("user/all/notification");
+
+		assertThrows(IllegalStateException.class, () -> pipeline.publish(topic, bytes("a"), 2, false));
+		assertEquals(0, pipeline.getStatistics().getInFlight());
+		assertEquals(1, pipeline.getStatistics().getFailed());
+	}
+
+	@Test
+	void testFlushFailureKeepsSending() {
+		TopicName mute = this.tf.createTopicName("smarthome/all/all/mute");
+		TopicName living = this.tf.createTopicName("smarthome/all/living/mute");
+		PublishPipeline pipeline = new PublishPipeline((topic, msg, context) -> {
+			if (topic.equals(mute))
+				throw new MqttException(MqttException.REASON_CODE_CLIENT_EXCEPTION);
+			this.sent.add(topic.getStringRepresentation());
+		}, () -> true, this.scheduler, this.logger, 20, 10, 10);
+		pipeline.publish(mute, bytes("true"), 2, true);
+		pipeline.publish(living, bytes("true"), 2, true);
+
+		pipeline.flush();
+
+		assertEquals(Arrays.asList("smarthome/all/living/mute"), this.sent);
+		PublishStatistics statistics = pipeline.getStatistics();
+		assertEquals(1, statistics.getSent());
+		assertEquals(1, statistics.getFailed());
+		assertEquals(1, statistics.getInFlight());
+		verify(this.logger).warn(anyString(), eq(mute), any(IllegalStateException.class));
+	}
+
+	@Test
+	void testNoWaitWhileDisconnected() {
+		PublishPipeline pipeline = pipeline(0, 1, TimeUnit.MINUTES.toMillis(1));
+		TopicName topic = this.tf.createTopicName("user/all/notification");
+		this.connected = false;
+
+		// the window is full after the first message, but waiting would block for a minute
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			pipeline.publish(topic, bytes("a"), 2, false);
+			pipeline.publish(topic, bytes("b"), 2, false);
+			pipeline.publish(topic, bytes("c"), 2, false);
+		});
+		assertEquals(3, this.sent.size());
+		assertEquals(1, pipeline.getStatistics().getInFlight());
+	}
+
+	@Test
+	void testNoWaitOnCallbackThread() {
+		PublishPipeline pipeline = pipeline(0, 1, TimeUnit.MINUTES.toMillis(1));
+		TopicName topic = this.tf.createTopicName("user/all/notification");
+
+		// a subscriber publishing while the client delivers a message must not block the acknowledgements
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			pipeline.enterCallback();
+			pipeline.publish(topic, bytes("a"), 2, false);
+			pipeline.publish(topic, bytes("b"), 2, false);
+		});
+		assertEquals(2, this.sent.size());
+		assertEquals(1, pipeline.getStatistics().getInFlight());
+	}
+
+	@Test
+	void testConnectionLostReleasesSlots() {
+		PublishPipeline pipeline = pipeline(0, 2);
+		TopicName topic = this.tf.createTopicName("user/all/notification");
+		pipeline.publish(topic, bytes("a"), 2, false);
+		pipeline.publish(topic, bytes("b"), 2, false);
+		assertEquals(2, pipeline.getStatistics().getInFlight());
+
+		pipeline.connectionLost();
+		assertEquals(0, pipeline.getStatistics().getInFlight());
+
+		// the acknowledgement after the reconnect is still counted, but does not free a slot twice
+		assertTrue(pipeline.completed(this.contexts.get(0)));
+		PublishStatistics statistics = pipeline.getStatistics();
+		assertEquals(0, statistics.getInFlight());
+		assertEquals(1, statistics.getAcknowledged());
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.messagehub.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.messagehub.LoopbackMessagingAdapter;
+import io.github.amyassist.amy.messagehub.MessagingAdapter;
+import io.github.amyassist.amy.messagehub.topic.TopicFactory;
+import io.github.amyassist.amy.messagehub.topic.TopicFactoryService;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+import io.github.amyassist.amy.test.FrameworkExtension;
+import io.github.amyassist.amy.test.TestFramework;
+
+/**
+ * Tests the delivery of retained messages of the {@link InternalMessageHubService}
+ * 
+ * @author Leon Kiefer
+ */
+@ExtendWith(FrameworkExtension.class)
+class InternalMessageHubServiceTest {
+	private static final long TIMEOUT = 5;
+
+	@Reference
+	private TestFramework testFramework;
+
+	private TopicFactory tf;
+	private MessagingAdapter adapter;
+	private InternalMessageHubService messageHub;
+
+	@BeforeEach
+	void setup() {
+		Properties config = new Properties();
+		config.setProperty("dispatch.threads", "1");
+		config.setProperty("dispatch.queueCapacity", "100");
+		config.setProperty("dispatch.overflowPolicy", "BLOCK");
+		config.setProperty("adapter.mode", "LOOPBACK");
+		config.setProperty("adapter.localTopics", "");
+		ConfigurationManager configManager = this.testFramework.mockService(ConfigurationManager.class);
+		when(configManager.getConfigurationWithDefaults("messagehub.config")).thenReturn(config);
+		this.tf = this.testFramework.registerService(TopicFactory.class, TopicFactoryService.class);
+		this.adapter = this.testFramework.registerService(MessagingAdapter.class, LoopbackMessagingAdapter.class);
+		this.messageHub = this.testFramework.setServiceUnderTest(InternalMessageHubService.class);
+		((LoopbackMessagingAdapter) this.adapter).start();
+	}
+
+	private BlockingQueue<String> subscribe(String filter) {
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		this.messageHub.subscribe(this.tf.createTopicFilter(filter), (topic, message) -> received.add(
+				topic.getStringRepresentation() + "=" + message.getPayload() + (message.wasRetained() ? " retained" : "")));
+		return received;
+	}
+
+	private void awaitHandled(long messages) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+		while (this.messageHub.getDispatchStatistics().getHandled() < messages) {
+			assertTrue(System.nanoTime() < deadline, "message not handled in time");
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	void testRetainedOnlyToNewSubscription() throws InterruptedException {
+		BlockingQueue<String> existing = subscribe("smarthome/#");
+		TopicName mute = this.tf.createTopicName("smarthome/all/living/mute");
+		this.messageHub.publish(mute, "true", 2, true);
+		assertEquals("smarthome/all/living/mute=true", existing.poll(TIMEOUT, TimeUnit.SECONDS));
+
+		BlockingQueue<String> added = subscribe("smarthome/+/+/mute");
+		assertEquals("smarthome/all/living/mute=true retained", added.poll(TIMEOUT, TimeUnit.SECONDS));
+
+		// a later message shows that nothing else was queued for the existing subscription
+		this.messageHub.publish(mute, "false", 2, false);
+		assertEquals("smarthome/all/living/mute=false", existing.poll(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals("smarthome/all/living/mute=false", added.poll(TIMEOUT, TimeUnit.SECONDS));
+		assertTrue(existing.isEmpty());
+	}
+
+	@Test
+	void testRetainedToSecondSubscriptionOfFilter() throws InterruptedException {
+		this.messageHub.publish(this.tf.createTopicName("smarthome/all/living/mute"), "true", 2, true);
+		// the live message must be handled before subscribing, else it reaches the new subscription too
+		awaitHandled(1);
+
+		BlockingQueue<String> first = subscribe("smarthome/+/+/mute");
+		assertEquals("smarthome/all/living/mute=true retained", first.poll(TIMEOUT, TimeUnit.SECONDS));
+
+		BlockingQueue<String> second = subscribe("smarthome/+/+/mute");
+		assertEquals("smarthome/all/living/mute=true retained", second.poll(TIMEOUT, TimeUnit.SECONDS));
+
+		this.messageHub.publish(this.tf.createTopicName("smarthome/all/all/mute"), "false", 2, false);
+		assertEquals("smarthome/all/all/mute=false", first.poll(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals("smarthome/all/all/mute=false", second.poll(TIMEOUT, TimeUnit.SECONDS));
+		assertTrue(first.isEmpty());
+	}
+}
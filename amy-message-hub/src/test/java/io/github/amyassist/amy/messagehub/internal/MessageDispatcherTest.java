@@ -0,0 +1,157 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.amyassist.amy.messagehub.internal.MessageDispatcher.OverflowPolicy;
+
+/**
+ * Tests the {@link MessageDispatcher}
+ * 
+ * @author Leon Kiefer
+ */
+class MessageDispatcherTest {
+
+	private MessageDispatcher dispatcher;
+
+	@AfterEach
+	void shutdown() throws InterruptedException {
+		if (this.dispatcher != null) {
+			this.dispatcher.shutdown(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void testOrderPerKey() throws InterruptedException {
+		this.dispatcher = new MessageDispatcher(4, 1000, OverflowPolicy.BLOCK, "test");
+		List<List<Integer>> results = new ArrayList<>();
+		for (int key = 0; key < 8; key++) {
+			results.add(Collections.synchronizedList(new ArrayList<>()));
+		}
+		for (int i = 0; i < 500; i++) {
+			for (int key = 0; key < 8; key++) {
+				List<Integer> result = results.get(key);
+				int value = i;
+				this.dispatcher.dispatch("key" + key, () -> result.add(value));
+			}
+		}
+		assertTrue(this.dispatcher.shutdown(5, TimeUnit.SECONDS));
+
+		for (List<Integer> result : results) {
+			assertEquals(500, result.size());
+			for (int i = 0; i < 500; i++) {
+				assertEquals(i, result.get(i).intValue());
+			}
+		}
+		DispatchStatistics statistics = this.dispatcher.getStatistics();
+		assertEquals(4000, statistics.getHandled());
+		assertEquals(0, statistics.getDropped());
+		assertEquals(0, statistics.getQueued());
+	}
+
+	@Test
+	void testSlowHandlerDoesNotBlockCaller() throws InterruptedException {
+		this.dispatcher = new MessageDispatcher(1, 10, OverflowPolicy.BLOCK, "test");
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		this.dispatcher.dispatch("a", () -> await(release));
+		this.dispatcher.dispatch("a", done::countDown);
+
+		assertEquals(1, this.dispatcher.getStatistics().getQueued());
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testDropNewest() throws InterruptedException {
+		this.dispatcher = new MessageDispatcher(1, 2, OverflowPolicy.DROP_NEWEST, "test");
+		List<Integer> result = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.dispatcher.dispatch("a", () -> {
+			started.countDown();
+			await(release);
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 5; i++) {
+			int value = i;
+			this.dispatcher.dispatch("a", () -> result.add(value));
+		}
+		release.countDown();
+		assertTrue(this.dispatcher.shutdown(5, TimeUnit.SECONDS));
+
+		assertEquals(Arrays.asList(0, 1), result);
+		assertEquals(3, this.dispatcher.getStatistics().getDropped());
+	}
+
+	@Test
+	void testDropOldest() throws InterruptedException {
+		this.dispatcher = new MessageDispatcher(1, 2, OverflowPolicy.DROP_OLDEST, "test");
+		List<Integer> result = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.dispatcher.dispatch("a", () -> {
+			started.countDown();
+			await(release);
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 5; i++) {
+			int value = i;
+			this.dispatcher.dispatch("a", () -> result.add(value));
+		}
+		release.countDown();
+		assertTrue(this.dispatcher.shutdown(5, TimeUnit.SECONDS));
+
+		assertEquals(Arrays.asList(3, 4), result);
+		assertEquals(3, this.dispatcher.getStatistics().getDropped());
+	}
+
+	@Test
+	void testInline() {
+		this.dispatcher = new MessageDispatcher(0, 1, OverflowPolicy.BLOCK, "test");
+		Thread[] thread = new Thread[1];
+		this.dispatcher.dispatch("a", () -> thread[0] = Thread.currentThread());
+
+		assertSame(Thread.currentThread(), thread[0]);
+		assertEquals(1, this.dispatcher.getStatistics().getHandled());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
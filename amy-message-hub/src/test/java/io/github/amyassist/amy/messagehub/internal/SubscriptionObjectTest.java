@@ -0,0 +1,222 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.amyassist.amy.core.di.ServiceLocator;
+import io.github.amyassist.amy.messagehub.Message;
+import io.github.amyassist.amy.messagehub.annotations.MessageReceiver;
+import io.github.amyassist.amy.messagehub.annotations.MessageReceiver.Lifecycle;
+import io.github.amyassist.amy.messagehub.annotations.Subscription;
+import io.github.amyassist.amy.messagehub.topic.TopicFactoryService;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+
+/**
+ * Tests the lifecycles of the {@link SubscriptionObject}
+ * 
+ * @author Leon Kiefer
+ */
+class SubscriptionObjectTest {
+
+	private ServiceLocator serviceLocator;
+	private List<Object> created;
+	private Message message;
+	private TopicName topic;
+
+	@BeforeEach
+	void setup() {
+		this.created = new ArrayList<>();
+		this.serviceLocator = mock(ServiceLocator.class);
+		when(this.serviceLocator.createAndInitialize(any())).thenAnswer(invocation -> {
+			Object receiver = ((Class<?>) invocation.getArgument(0)).getDeclaredConstructor().newInstance();
+			this.created.add(receiver);
+			return receiver;
+		});
+		this.message = mock(Message.class);
+		when(this.message.getPayload()).thenReturn("payload");
+		this.topic = new TopicFactoryService().createTopicName("smarthome/home/living/mute");
+	}
+
+	@Test
+	void testPerMessage() throws NoSuchMethodException {
+		SubscriptionObject subscription = subscription(PerMessageReceiver.class, "sub", String.class,
+				TopicName.class);
+		subscription.handle(this.topic, this.message, this.serviceLocator);
+		subscription.handle(this.topic, this.message, this.serviceLocator);
+
+		assertEquals(2, this.created.size());
+		for (Object receiver : this.created) {
+			assertEquals(1, ((PerMessageReceiver) receiver).messages.size());
+			assertEquals("payload " + this.topic, ((PerMessageReceiver) receiver).messages.get(0));
+			verify(this.serviceLocator).preDestroy(receiver);
+		}
+	}
+
+	@Test
+	void testSingleton() throws NoSuchMethodException {
+		MessageReceiverInstances instances = new MessageReceiverInstances(SingletonReceiver.class);
+		SubscriptionObject first = new SubscriptionObject(instances,
+				SingletonReceiver.class.getMethod("sub", String.class));
+		SubscriptionObject second = new SubscriptionObject(instances,
+				SingletonReceiver.class.getMethod("other", String.class));
+		first.handle(this.topic, this.message, this.serviceLocator);
+		second.handle(this.topic, this.message, this.serviceLocator);
+		first.handle(this.topic, this.message, this.serviceLocator);
+
+		assertEquals(1, this.created.size());
+		assertEquals(3, ((SingletonReceiver) this.created.get(0)).count);
+		verify(this.serviceLocator, never()).preDestroy(any());
+
+		instances.destroy(this.serviceLocator);
+		verify(this.serviceLocator).preDestroy(this.created.get(0));
+	}
+
+	@Test
+	void testPooled() throws NoSuchMethodException {
+		SubscriptionObject subscription = subscription(PooledReceiver.class, "sub", String.class);
+		for (int i = 0; i < 5; i++) {
+			subscription.handle(this.topic, this.message, this.serviceLocator);
+		}
+
+		assertEquals(1, this.created.size());
+		assertEquals(5, ((PooledReceiver) this.created.get(0)).count);
+		verify(this.serviceLocator, never()).preDestroy(any());
+	}
+
+	@Test
+	void testExceptionReleasesReceiver() throws NoSuchMethodException {
+		SubscriptionObject subscription = subscription(PerMessageReceiver.class, "fail", String.class);
+
+		assertThrows(IllegalStateException.class,
+				() -> subscription.handle(this.topic, this.message, this.serviceLocator));
+		verify(this.serviceLocator).preDestroy(this.created.get(0));
+	}
+
+	@Test
+	void testExceptionDiscardsPooledReceiver() throws NoSuchMethodException {
+		MessageReceiverInstances instances = new MessageReceiverInstances(PooledReceiver.class);
+		SubscriptionObject sub = new SubscriptionObject(instances, PooledReceiver.class.getMethod("sub", String.class));
+		SubscriptionObject fail = new SubscriptionObject(instances,
+				PooledReceiver.class.getMethod("fail", String.class));
+		sub.handle(this.topic, this.message, this.serviceLocator);
+
+		assertThrows(IllegalStateException.class, () -> fail.handle(this.topic, this.message, this.serviceLocator));
+		verify(this.serviceLocator).preDestroy(this.created.get(0));
+
+		// the failed instance is not reused
+		sub.handle(this.topic, this.message, this.serviceLocator);
+		assertEquals(2, this.created.size());
+		assertEquals(1, ((PooledReceiver) this.created.get(1)).count);
+		verify(this.serviceLocator, never()).preDestroy(this.created.get(1));
+	}
+
+	@Test
+	void testExceptionKeepsSingleton() throws NoSuchMethodException {
+		MessageReceiverInstances instances = new MessageReceiverInstances(SingletonReceiver.class);
+		SubscriptionObject fail = new SubscriptionObject(instances,
+				SingletonReceiver.class.getMethod("fail", String.class));
+		SubscriptionObject sub = new SubscriptionObject(instances,
+				SingletonReceiver.class.getMethod("sub", String.class));
+
+		assertThrows(IllegalStateException.class, () -> fail.handle(this.topic, this.message, this.serviceLocator));
+		sub.handle(this.topic, this.message, this.serviceLocator);
+
+		assertEquals(1, this.created.size());
+		verify(this.serviceLocator, never()).preDestroy(any());
+	}
+
+	private static SubscriptionObject subscription(Class<?> cls, String name, Class<?>... parameterTypes)
+			throws NoSuchMethodException {
+		Method method = cls.getMethod(name, parameterTypes);
+		return new SubscriptionObject(new MessageReceiverInstances(cls), method);
+	}
+
+	/**
+	 * Receiver with a new instance per message
+	 */
+	@MessageReceiver
+	public static class PerMessageReceiver {
+		private final List<String> messages = new ArrayList<>();
+
+		@Subscription("smarthome/#")
+		public void sub(String message, TopicName topicName) {
+			this.messages.add(message + " " + topicName);
+		}
+
+		@Subscription("smarthome/#")
+		public void fail(String message) {
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Receiver with one instance
+	 */
+	@MessageReceiver(lifecycle = Lifecycle.SINGLETON)
+	public static class SingletonReceiver {
+		private int count;
+
+		@Subscription("smarthome/#")
+		public void sub(String message) {
+			this.count++;
+		}
+
+		@Subscription("smarthome/+/+/mute")
+		public void other(String message) {
+			this.count++;
+		}
+
+		@Subscription("smarthome/#")
+		public void fail(String message) {
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Receiver with pooled instances
+	 */
+	@MessageReceiver(lifecycle = Lifecycle.POOLED, poolSize = 2)
+	public static class PooledReceiver {
+		private int count;
+
+		@Subscription("smarthome/#")
+		public void sub(String message) {
+			this.count++;
+		}
+
+		@Subscription("smarthome/#")
+		public void fail(String message) {
+			throw new IllegalStateException(message);
+		}
+	}
+}
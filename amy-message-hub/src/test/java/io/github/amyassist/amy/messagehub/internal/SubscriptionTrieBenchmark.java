@@ -0,0 +1,148 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.amyassist.amy.messagehub.topic.TopicFactory;
+import io.github.amyassist.amy.messagehub.topic.TopicFactoryService;
+import io.github.amyassist.amy.messagehub.topic.TopicFilter;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+import io.github.amyassist.amy.messagehub.topics.RoomTopics;
+import io.github.amyassist.amy.messagehub.topics.SmarthomeFunctionTopics;
+import io.github.amyassist.amy.messagehub.topics.Topics;
+
+/**
+ * Compares matching a topic name with the {@link SubscriptionTrie} and with a linear scan over all topic filters, with
+ * thousands of per room smarthome subscriptions. Run the main method from the test classpath, the benchmark is not
+ * part of the unit tests.
+ * 
+ * @author Leon Kiefer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscriptionTrieBenchmark {
+
+	private static final int LOCATIONS = 20;
+	private static final int ROOMS = 50;
+	private static final String[] FUNCTIONS = { SmarthomeFunctionTopics.MUTE, "light", "temperature", "window",
+			"music" };
+
+	@Param({ "5000" })
+	private int subscriptions;
+
+	private List<TopicFilter> filters;
+
+	private SubscriptionTrie<TopicFilter> trie;
+
+	private List<TopicName> names;
+
+	/**
+	 * creates the subscriptions and the topic names to match
+	 */
+	@Setup
+	public void setup() {
+		TopicFactory topicFactory = new TopicFactoryService();
+		this.filters = new ArrayList<>();
+		this.names = new ArrayList<>();
+		for (int l = 0; l < LOCATIONS; l++) {
+			for (int r = 0; r < ROOMS; r++) {
+				String room = r == 0 ? RoomTopics.LIVING : "room" + r;
+				for (String function : FUNCTIONS) {
+					String topic = Topics.smarthome("location" + l, room, function);
+					if (this.filters.size() < this.subscriptions) {
+						this.filters.add(topicFactory.createTopicFilter(topic));
+					}
+					if (r % 10 == 0) {
+						this.names.add(topicFactory.createTopicName(topic));
+					}
+				}
+			}
+		}
+		for (String function : FUNCTIONS) {
+			this.filters.add(topicFactory.createTopicFilter(Topics.smarthome(RoomTopics.ALL, RoomTopics.ALL, function)));
+			this.filters.add(topicFactory.createTopicFilter(Topics.smarthome("+", "+", function)));
+		}
+		this.filters.add(topicFactory.createTopicFilter(Topics.from("smarthome", "#")));
+
+		this.trie = new SubscriptionTrie<>();
+		for (TopicFilter filter : this.filters) {
+			this.trie.add(filter, filter);
+		}
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the matching filters
+	 */
+	@Benchmark
+	public void trie(Blackhole blackhole) {
+		for (TopicName name : this.names) {
+			blackhole.consume(this.trie.match(name));
+		}
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the matching filters
+	 */
+	@Benchmark
+	public void linearScan(Blackhole blackhole) {
+		for (TopicName name : this.names) {
+			List<TopicFilter> result = new ArrayList<>();
+			for (TopicFilter filter : this.filters) {
+				if (filter.doesFilterMatch(name)) {
+					result.add(filter);
+				}
+			}
+			blackhole.consume(result);
+		}
+	}
+
+	/**
+	 * runs the benchmark
+	 * 
+	 * @param args
+	 *            not used
+	 * @throws RunnerException
+	 *             if the benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(SubscriptionTrieBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.messagehub.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.github.amyassist.amy.messagehub.topic.TopicFactory;
+import io.github.amyassist.amy.messagehub.topic.TopicFactoryService;
+import io.github.amyassist.amy.messagehub.topic.TopicFilter;
+import io.github.amyassist.amy.messagehub.topic.TopicName;
+
+/**
+ * Tests the {@link SubscriptionTrie} against {@link TopicFilter#doesFilterMatch(TopicName)}
+ * 
+ * @author Leon Kiefer
+ */
+class SubscriptionTrieTest {
+
+	private static final List<String> FILTERS = Arrays.asList("home", "/home", "home/topic/test", "/", "////", "#",
+			"+", "/#", "/+", "+/+", "home/#", "home/+", "home/+/test", "/home/#", "/home/+/#", "/home/level/+",
+			"/home/level/+/", "/+/level/test", "+/level/test", "$test/topic", "$test/#", "$test/+", "$/test/topic",
+			"$", "$/#", "home/TOPIC/test", "home/topic/test/");
+
+	private final TopicFactory topicFactory = new TopicFactoryService();
+
+	@ParameterizedTest
+	@MethodSource("names")
+	void testMatchesLikeFilters(String nameString) {
+		SubscriptionTrie<String> trie = new SubscriptionTrie<>();
+		for (String filter : FILTERS) {
+			trie.add(this.topicFactory.createTopicFilter(filter), filter);
+		}
+		TopicName name = this.topicFactory.createTopicName(nameString);
+
+		Set<String> expected = FILTERS.stream()
+				.filter(f -> this.topicFactory.createTopicFilter(f).doesFilterMatch(name)).collect(Collectors.toSet());
+		List<String> matched = trie.match(name);
+		assertEquals(expected, new HashSet<>(matched));
+		assertEquals(expected.size(), matched.size());
+	}
+
+	static Stream<String> names() {
+		return Stream.of("home", "/home", "home/topic/test", "home/topic/test/", "home/TOPIC/test", "/", "////",
+				"/home/level/test", "/home/level/", "/home/level", "home/level/test", "$test/topic", "$test",
+				"$/test/topic", "$", "$home/test", "a/b/c/d/e", "home/topic");
+	}
+
+	@Test
+	void testRemove() {
+		SubscriptionTrie<Integer> trie = new SubscriptionTrie<>();
+		TopicFilter filter = this.topicFactory.createTopicFilter("smarthome/+/living/mute");
+		TopicName name = this.topicFactory.createTopicName("smarthome/home/living/mute");
+		trie.add(filter, 1);
+		trie.add(filter, 2);
+
+		assertEquals(Arrays.asList(1, 2), trie.match(name));
+		assertTrue(trie.remove(filter, 1));
+		assertFalse(trie.remove(filter, 1));
+		assertFalse(trie.remove(this.topicFactory.createTopicFilter("smarthome/#"), 2));
+		assertEquals(Arrays.asList(2), trie.match(name));
+		assertTrue(trie.remove(filter, 2));
+		assertEquals(Collections.emptyList(), trie.match(name));
+
+		trie.add(filter, 3);
+		assertEquals(Arrays.asList(3), trie.match(name));
+	}
+
+	@Test
+	void testMatchDuringModification() throws InterruptedException {
+		SubscriptionTrie<Integer> trie = new SubscriptionTrie<>();
+		TopicName name = this.topicFactory.createTopicName("smarthome/home/living/mute");
+		trie.add(this.topicFactory.createTopicFilter("smarthome/+/+/mute"), -1);
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < 10000; i++) {
+				TopicFilter filter = this.topicFactory.createTopicFilter("smarthome/home/room" + (i % 50) + "/mute");
+				trie.add(filter, i);
+				trie.remove(filter, i);
+			}
+			running.set(false);
+		});
+		writer.start();
+		while (running.get()) {
+			assertEquals(Arrays.asList(-1), trie.match(name));
+		}
+		writer.join();
+	}
+}
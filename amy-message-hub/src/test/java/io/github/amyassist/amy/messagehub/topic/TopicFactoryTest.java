@@ -127,6 +127,35 @@ class TopicFactoryTest {
 						ThrowableMatchers.tossed(Matchers.instanceOf(TopicFormatException.class))));
 	}
 
+	/**
+	 * Test that the same topic name and filter object is returned for the same string
+	 * 
+	 * @param name
+	 *            The name of the topic.
+	 */
+	@ParameterizedTest
+	@MethodSource("normalNames")
+	void testTopicsAreCached(String name) {
+		Assertions.assertSame(this.tf.createTopicName(name), this.tf.createTopicName(name));
+		Assertions.assertSame(this.tf.createTopicFilter(name), this.tf.createTopicFilter(name));
+		Assertions.assertEquals(this.tf.createTopicName(name), this.tf.createTopicName(new String(name)));
+	}
+
+	/**
+	 * Test that the cache does not grow over its limit and still creates correct topics
+	 */
+	@Test
+	void testCacheIsBounded() {
+		TopicFactoryService factory = (TopicFactoryService) this.tf;
+		for (int i = 0; i < TopicFactoryService.MAX_CACHED_TOPICS + 10; i++) {
+			Assertions.assertEquals("smarthome/room" + i + "/mute",
+					factory.createTopicName("smarthome/room" + i + "/mute").getStringRepresentation());
+		}
+		TopicName name = factory.createTopicName("smarthome/room0/mute");
+		Assertions.assertEquals(3, name.getTopicLevels().size());
+		Assertions.assertSame(name, factory.createTopicName("smarthome/room0/mute"));
+	}
+
 	/**
 	 * @return A stream of normal topic names
 	 */
@@ -49,7 +49,9 @@ public interface SoundFactory {
 	public Sound loadSound(AudioInputStream data) throws IOException;
 
 	/**
-	 * Creates a new sound from the file at the given URL.
+	 * Loads the sound from the file at the given URL.
+	 * <p>
+	 * Loaded files are cached, so the returned sound may be shared with everyone else loading the same file.
 	 * 
 	 * @param location
 	 *            The URL of the file to load
@@ -62,7 +64,11 @@ public interface SoundFactory {
 	public Sound loadSound(URL location) throws UnsupportedAudioFileException, IOException;
 
 	/**
-	 * Creates a new sound from the file at the given Path.
+	 * Loads the sound from the file at the given Path.
+	 * <p>
+	 * Loaded files are cached, so the returned sound may be shared with everyone else loading the same file. The file
+	 * may be memory-mapped, so it must not be modified while the sound is in use. To change it, replace the file
+	 * instead; a replaced file is loaded again.
 	 * 
 	 * @param location
 	 *            The Path of the file to load
@@ -23,6 +23,8 @@
 
 package io.github.amyassist.amy.core.plugin.api;
 
+import java.util.Map;
+
 /**
  * Interface that defines the storage provided by the core.
  * 
@@ -66,4 +68,29 @@ public interface IStorage {
 	 */
 	void delete(String key);
 
+	/**
+	 * Stores all given values at once
+	 * 
+	 * @param values
+	 *            the values to store mapped by their keys
+	 */
+	void putAll(Map<String, String> values);
+
+	/**
+	 * Returns all values with keys starting with the prefix
+	 * 
+	 * @param prefix
+	 *            the prefix of the keys, the empty string for all values
+	 * @return the values mapped by their keys
+	 */
+	Map<String, String> getAll(String prefix);
+
+	/**
+	 * delete all values with keys starting with the prefix
+	 * 
+	 * @param prefix
+	 *            the prefix of the keys of the data to delete
+	 */
+	void deleteByPrefix(String prefix);
+
 }
@@ -0,0 +1,56 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio;
+
+import java.util.UUID;
+
+import asg.cliche.Command;
+import io.github.amyassist.amy.core.audio.environment.InputStreamStatistics;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+
+/**
+ * Console commands to inspect the audio environments
+ * 
+ * @author Tim Neumann
+ */
+public class AudioConsole {
+	@Reference
+	private InternalAudioManager audioManager;
+
+	/**
+	 * @return the counters of all input streams of all audio environments
+	 */
+	@Command(name = "AudioInputStatistics", abbrev = "audio:input",
+			description = "Prints the lag and overruns of the input streams of all audio environments")
+	public String inputStatistics() {
+		StringBuilder builder = new StringBuilder();
+		for (UUID identifier : this.audioManager.getAllRegisteredAudioEnvironments()) {
+			builder.append(identifier).append('\n');
+			for (InputStreamStatistics statistics : this.audioManager.getInputStreamStatistics(identifier)) {
+				builder.append("  ").append(statistics).append('\n');
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -23,9 +23,11 @@
 
 package io.github.amyassist.amy.core.audio;
 
+import java.util.List;
 import java.util.UUID;
 
 import io.github.amyassist.amy.core.audio.environment.AudioEnvironment;
+import io.github.amyassist.amy.core.audio.environment.InputStreamStatistics;
 
 /**
  * The interface for a internal audio manager. This interface is a more potent version of the {@link AudioManager} and
@@ -51,4 +53,13 @@ public interface InternalAudioManager extends AudioManager {
 	 *            The identifier of the audio environment to remove.
 	 */
 	public void unregisterAudioEnvironment(UUID environmentIdentifier);
+
+	/**
+	 * Get the statistics of the open input streams of the audio environment described by the given identifier.
+	 * 
+	 * @param environmentIdentifier
+	 *            The identifier of the audio environment.
+	 * @return The statistics of each input stream
+	 */
+	public List<InputStreamStatistics> getInputStreamStatistics(UUID environmentIdentifier);
 }
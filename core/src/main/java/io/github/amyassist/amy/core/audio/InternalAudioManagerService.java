@@ -36,6 +36,7 @@ import javax.sound.sampled.AudioSystem;
 import org.slf4j.Logger;
 
 import io.github.amyassist.amy.core.audio.environment.AudioEnvironment;
+import io.github.amyassist.amy.core.audio.environment.InputStreamStatistics;
 import io.github.amyassist.amy.core.di.annotation.PostConstruct;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.di.annotation.Service;
@@ -124,6 +125,12 @@ public class InternalAudioManagerService implements InternalAudioManager, Runnab
 		return ae.getAudioInputStream();
 	}
 
+	@Override
+	public List<InputStreamStatistics> getInputStreamStatistics(UUID identifier) {
+		AudioEnvironment ae = safelyGetEnv(identifier);
+		return ae.getInputStreamStatistics();
+	}
+
 	@Override
 	public void start() {
 		synchronized (this.registry) {
@@ -31,6 +31,7 @@ import javax.sound.sampled.LineUnavailableException;
 
 import org.slf4j.Logger;
 
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
 import io.github.amyassist.amy.core.audio.environment.AudioEnvironment;
 import io.github.amyassist.amy.core.audio.environment.LocalAudioEnvironment;
 import io.github.amyassist.amy.core.configuration.ConfigurationManager;
@@ -48,6 +49,9 @@ public class LocalAudioService implements LocalAudio {
 
 	private static final String CONFIG_NAME = "localAudio.config";
 	private static final String PROPERTY_ENABLE = "enable";
+	private static final String PROPERTY_INPUT_FRAME_SIZE = "inputFrameSize";
+	private static final String PROPERTY_INPUT_BUFFER_SIZE = "inputBufferSize";
+	private static final String PROPERTY_INPUT_OVERFLOW_POLICY = "inputOverflowPolicy";
 
 	@Reference
 	private Logger logger;
@@ -70,7 +74,10 @@ public class LocalAudioService implements LocalAudio {
 		if (Boolean.parseBoolean(this.config.getProperty(PROPERTY_ENABLE))) {
 			try {
 				AudioEnvironment localAe = new LocalAudioEnvironment(this.am.getDefaultInputAudioFormat(),
-						this.am.getDefaultOutputAudioFormat());
+						this.am.getDefaultOutputAudioFormat(),
+						Integer.parseInt(this.config.getProperty(PROPERTY_INPUT_FRAME_SIZE)),
+						Integer.parseInt(this.config.getProperty(PROPERTY_INPUT_BUFFER_SIZE)),
+						OverflowPolicy.valueOf(this.config.getProperty(PROPERTY_INPUT_OVERFLOW_POLICY)));
 				this.am.registerAudioEnvironment(localAe);
 				this.identifier = localAe.getAudioEnvironmentIdentifier();
 			} catch (LineUnavailableException e) {
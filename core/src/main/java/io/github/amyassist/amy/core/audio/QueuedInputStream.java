@@ -26,69 +26,376 @@ package io.github.amyassist.amy.core.audio;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A queued input stream used for splitting the audio input to multiple input streams.
+ * <p>
+ * The bytes are stored in a ring buffer with one writing and one reading thread. The threads only advance their own
+ * position, except the writer dropping the oldest bytes, so no locks are needed. A thread waiting for data or free
+ * space is parked and woken up by the other one.
+ * <p>
+ * What happens with data published to a full stream is defined by the {@link OverflowPolicy} of the stream. The
+ * number of dropped bytes is counted as overruns.
  * 
  * @author Tim Neumann
  */
 public class QueuedInputStream extends InputStream {
 
-	private static final int QUEUE_SIZE = 10000;
-
 	/**
-	 * The queue of this input stream. Every normal value v should follow this rule: 0<=v<255 A -1 signals the end of
-	 * this stream. Other values are not allowed.
+	 * What to do with published data if the stream is full, because the reader is too slow
 	 */
-	private BlockingQueue<Integer> queue;
+	public enum OverflowPolicy {
+		/** wait until the reader made room */
+		BLOCK,
+		/** drop the data that doesn't fit */
+		DROP_NEWEST,
+		/** drop the oldest unread data to make room */
+		DROP_OLDEST
+	}
 
-	/**
-	 * Whether the queue has been closed.
-	 */
-	private boolean closed;
+	/** The default capacity of the buffer, must be a power of two */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/** The maximum time to park, so a missed wake up only delays and never blocks a thread */
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/** The ring buffer of this input stream */
+	private final byte[] buffer;
+
+	private final int mask;
+
+	/** The total number of bytes written, only advanced by the writer */
+	private final AtomicLong writePosition = new AtomicLong();
+
+	/** The total number of bytes read or dropped, advanced by the reader and by the writer dropping old bytes */
+	private final AtomicLong readPosition = new AtomicLong();
+
+	private final OverflowPolicy overflowPolicy;
+
+	/** The number of bytes dropped, only changed by the writer */
+	private volatile long overruns;
+
+	private volatile Thread waitingReader;
+
+	private volatile Thread waitingWriter;
 
 	/**
-	 * Whether this stream has come to an end.
+	 * Whether the queue has been closed.
 	 */
-	private boolean ended;
+	private volatile boolean closed;
 
 	/**
 	 * Whether to automatically end this stream, when the queue runs dry.
 	 */
-	private boolean autoEnding;
+	private volatile boolean autoEnding;
 
 	/**
 	 * Initializes this queued input stream
 	 */
 	public QueuedInputStream() {
-		this.queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
-		this.closed = false;
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Initializes this queued input stream with the given capacity
+	 * 
+	 * @param capacity
+	 *            the number of bytes the stream can hold, must be a power of two
+	 */
+	public QueuedInputStream(int capacity) {
+		this(capacity, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Initializes this queued input stream with the given capacity and overflow policy
+	 * 
+	 * @param capacity
+	 *            the number of bytes the stream can hold, must be a power of two
+	 * @param overflowPolicy
+	 *            what {@link #publish(byte[], int, int)} does if the stream is full
+	 */
+	public QueuedInputStream(int capacity, OverflowPolicy overflowPolicy) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("The capacity must be a power of two.");
+		this.buffer = new byte[capacity];
+		this.mask = capacity - 1;
+		this.overflowPolicy = overflowPolicy;
 	}
 
 	@Override
 	public int read() throws IOException {
-		if (this.closed)
-			throw new IOException("Stream closed.");
-		if (this.ended)
-			return -1;
-		if (this.autoEnding && this.queue.isEmpty()) {
-			this.ended = true;
-			return -1;
+		while (true) {
+			if (awaitData() < 0)
+				return -1;
+			long position = this.readPosition.get();
+			int value = Byte.toUnsignedInt(this.buffer[(int) (position & this.mask)]);
+			// fails if the writer dropped the byte meanwhile
+			if (this.readPosition.compareAndSet(position, position + 1)) {
+				wake(this.waitingWriter);
+				return value;
+			}
+		}
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || len > b.length - off)
+			throw new IndexOutOfBoundsException();
+		if (len == 0)
+			return 0;
+		while (true) {
+			if (awaitData() < 0)
+				return -1;
+			long position = this.readPosition.get();
+			int count = (int) Math.min(this.writePosition.get() - position, len);
+			if (count <= 0)
+				continue;
+			copy(position, b, off, count, false);
+			// fails if the writer dropped some of the copied bytes meanwhile
+			if (this.readPosition.compareAndSet(position, position + count)) {
+				wake(this.waitingWriter);
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Waits until data is available
+	 * 
+	 * @return the number of bytes available or -1 if the stream has ended
+	 * @throws IOException
+	 *             if the stream is closed or the thread is interrupted
+	 */
+	private int awaitData() throws IOException {
+		while (true) {
+			if (this.closed)
+				throw new IOException("Stream closed.");
+			// read autoEnding first, so all bytes written before the stream was ended are seen
+			boolean ending = this.autoEnding;
+			int available = size();
+			if (available > 0)
+				return available;
+			if (ending)
+				return -1;
+
+			this.waitingReader = Thread.currentThread();
+			if (size() == 0 && !this.autoEnding && !this.closed) {
+				LockSupport.parkNanos(this, MAX_PARK_NANOS);
+			}
+			this.waitingReader = null;
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+	}
+
+	/**
+	 * Publishes the bytes to this stream according to the {@link OverflowPolicy} of this stream. Must only be called by
+	 * one thread at a time.
+	 * 
+	 * @param b
+	 *            the data
+	 * @param off
+	 *            the start offset in the data
+	 * @param len
+	 *            the number of bytes to publish
+	 * @throws InterruptedException
+	 *             When the policy is {@link OverflowPolicy#BLOCK} and the thread was interrupted while waiting
+	 */
+	public void publish(byte[] b, int off, int len) throws InterruptedException {
+		int written;
+		switch (this.overflowPolicy) {
+		case BLOCK:
+			written = write(b, off, len);
+			break;
+		case DROP_NEWEST:
+			written = offer(b, off, len);
+			break;
+		case DROP_OLDEST:
+			int skipped = Math.max(0, len - this.buffer.length);
+			dropOldest(len - skipped);
+			this.overruns += skipped;
+			written = skipped + offer(b, off + skipped, len - skipped);
+			break;
+		default:
+			throw new IllegalStateException("Unknown overflow policy");
+		}
+		if (written < len && !this.closed) {
+			this.overruns += len - written;
+		}
+	}
+
+	/**
+	 * Drops the oldest unread bytes until there is room for the given number of bytes
+	 * 
+	 * @param needed
+	 *            the number of bytes to make room for, at most the capacity
+	 */
+	private void dropOldest(int needed) {
+		while (true) {
+			long position = this.readPosition.get();
+			long free = this.buffer.length - (this.writePosition.get() - position);
+			if (free >= needed)
+				return;
+			if (this.readPosition.compareAndSet(position, position + (needed - free))) {
+				this.overruns += needed - free;
+				return;
+			}
 		}
-		try {
-			int i = this.queue.take();
-			if (i == -1) {
-				this.ended = true;
+	}
+
+	/**
+	 * Writes all bytes to this stream, blocking while the buffer is full. Must only be called by one thread at a
+	 * time.
+	 * 
+	 * @param b
+	 *            the data
+	 * @param off
+	 *            the start offset in the data
+	 * @param len
+	 *            the number of bytes to write
+	 * @return the number of bytes written, less than len if the stream has been closed
+	 * @throws InterruptedException
+	 *             When the thread was interrupted while waiting for free space
+	 */
+	public int write(byte[] b, int off, int len) throws InterruptedException {
+		return write(b, off, len, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Writes the bytes to this stream, blocking at most the timeout while the buffer is full. Must only be called by
+	 * one thread at a time.
+	 * 
+	 * @param b
+	 *            the data
+	 * @param off
+	 *            the start offset in the data
+	 * @param len
+	 *            the number of bytes to write
+	 * @param timeout
+	 *            the maximum time to wait for free space
+	 * @param unit
+	 *            the unit of the timeout
+	 * @return the number of bytes written, less than len if the timeout elapsed or the stream has been closed
+	 * @throws InterruptedException
+	 *             When the thread was interrupted while waiting for free space
+	 */
+	public int write(byte[] b, int off, int len, long timeout, TimeUnit unit) throws InterruptedException {
+		if (off < 0 || len < 0 || len > b.length - off)
+			throw new IndexOutOfBoundsException();
+		long deadline = System.nanoTime() + Math.min(unit.toNanos(timeout), Long.MAX_VALUE / 2);
+		int written = 0;
+		while (written < len && !this.closed) {
+			written += offer(b, off + written, len - written);
+			if (written == len)
+				break;
+
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				break;
+			this.waitingWriter = Thread.currentThread();
+			if (remainingCapacity() == 0 && !this.closed) {
+				LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
 			}
-			return i;
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			throw new InterruptedIOException();
+			this.waitingWriter = null;
+			if (Thread.interrupted())
+				throw new InterruptedException();
+		}
+		return written;
+	}
+
+	/**
+	 * Writes as many bytes as fit into the buffer without blocking. Must only be called by one thread at a time.
+	 * 
+	 * @param b
+	 *            the data
+	 * @param off
+	 *            the start offset in the data
+	 * @param len
+	 *            the maximum number of bytes to write
+	 * @return the number of bytes written
+	 */
+	public int offer(byte[] b, int off, int len) {
+		if (this.closed)
+			return 0;
+		int count = Math.min(remainingCapacity(), len);
+		if (count > 0) {
+			long position = this.writePosition.get();
+			copy(position, b, off, count, true);
+			this.writePosition.set(position + count);
+			wake(this.waitingReader);
+		}
+		return count;
+	}
+
+	private void copy(long position, byte[] b, int off, int len, boolean toBuffer) {
+		int index = (int) (position & this.mask);
+		int first = Math.min(len, this.buffer.length - index);
+		if (toBuffer) {
+			System.arraycopy(b, off, this.buffer, index, first);
+			System.arraycopy(b, off + first, this.buffer, 0, len - first);
+		} else {
+			System.arraycopy(this.buffer, index, b, off, first);
+			System.arraycopy(this.buffer, 0, b, off + first, len - first);
+		}
+	}
+
+	private static void wake(Thread thread) {
+		if (thread != null) {
+			LockSupport.unpark(thread);
 		}
 	}
 
+	/**
+	 * @return the number of bytes in the buffer
+	 */
+	public int size() {
+		return (int) (this.writePosition.get() - this.readPosition.get());
+	}
+
+	/**
+	 * @return the number of bytes that can be written without blocking
+	 */
+	public int remainingCapacity() {
+		return this.buffer.length - size();
+	}
+
+	/**
+	 * @return the capacity of the buffer
+	 */
+	public int getCapacity() {
+		return this.buffer.length;
+	}
+
+	/**
+	 * Get's {@link #overflowPolicy overflowPolicy}
+	 * 
+	 * @return overflowPolicy
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * Get's {@link #overruns overruns}
+	 * 
+	 * @return the number of bytes dropped, because the stream was full
+	 */
+	public long getOverruns() {
+		return this.overruns;
+	}
+
+	/**
+	 * @return the total number of bytes written to this stream
+	 */
+	public long getWritten() {
+		return this.writePosition.get();
+	}
+
 	/**
 	 * @see java.io.InputStream#available()
 	 */
@@ -96,7 +403,7 @@ public class QueuedInputStream extends InputStream {
 	public int available() throws IOException {
 		if (this.closed)
 			return 0;
-		return this.queue.size();
+		return size();
 	}
 
 	/**
@@ -105,6 +412,8 @@ public class QueuedInputStream extends InputStream {
 	@Override
 	public void close() throws IOException {
 		this.closed = true;
+		wake(this.waitingWriter);
+		wake(this.waitingReader);
 	}
 
 	/**
@@ -116,15 +425,6 @@ public class QueuedInputStream extends InputStream {
 		return this.closed;
 	}
 
-	/**
-	 * Get's {@link #queue queue}. See {@link #queue queue} for information on what may be written into that.
-	 * 
-	 * @return queue
-	 */
-	public BlockingQueue<Integer> getQueue() {
-		return this.queue;
-	}
-
 	/**
 	 * Get's {@link #autoEnding autoEnding}
 	 * 
@@ -142,5 +442,6 @@ public class QueuedInputStream extends InputStream {
 	 */
 	public void setAutoEnding(boolean autoEnding) {
 		this.autoEnding = autoEnding;
+		wake(this.waitingReader);
 	}
 }
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import javax.sound.sampled.AudioInputStream;
@@ -37,6 +38,7 @@ import javax.sound.sampled.AudioSystem;
 import io.github.amyassist.amy.core.audio.AudioManager;
 import io.github.amyassist.amy.core.audio.AudioOutput;
 import io.github.amyassist.amy.core.audio.QueuedInputStream;
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
 
 /**
  * An Audio Environment, which does the AudioIO.
@@ -55,6 +57,13 @@ public abstract class AbstractAudioEnvironment implements AudioEnvironment {
 	/** The list of streams to copy the input from this audio environment to. */
 	private List<QueuedInputStream> inputStreams;
 
+	/** The number of bytes read from the input and published to the input streams at once */
+	private final int inputFrameSize;
+	/** The capacity of each input stream */
+	private final int inputBufferSize;
+	/** The overflow policy of input streams created without a policy */
+	private final OverflowPolicy defaultOverflowPolicy;
+
 	/** The worker used to transfer the output */
 	private EnvironmentOutputWorker outputWorker;
 	/** The worker used to transfer the input */
@@ -64,8 +73,25 @@ public abstract class AbstractAudioEnvironment implements AudioEnvironment {
 	 * Initializes the audio environment
 	 */
 	public AbstractAudioEnvironment() {
+		this(BYTE_BUFFER_SIZE, QueuedInputStream.DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Initializes the audio environment
+	 * 
+	 * @param inputFrameSize
+	 *            The number of bytes read from the input and published to the input streams at once
+	 * @param inputBufferSize
+	 *            The capacity of each input stream, must be a power of two
+	 * @param defaultOverflowPolicy
+	 *            The overflow policy of input streams created by {@link #getAudioInputStream()}
+	 */
+	public AbstractAudioEnvironment(int inputFrameSize, int inputBufferSize, OverflowPolicy defaultOverflowPolicy) {
+		this.inputFrameSize = inputFrameSize;
+		this.inputBufferSize = inputBufferSize;
+		this.defaultOverflowPolicy = defaultOverflowPolicy;
 		this.outputQueue = new LinkedBlockingDeque<>();
-		this.inputStreams = new ArrayList<>();
+		this.inputStreams = new CopyOnWriteArrayList<>();
 
 		this.outputWorker = new EnvironmentOutputWorker(this);
 		this.inputWorker = new EnvironmentInputWorker(this);
@@ -162,11 +188,32 @@ public abstract class AbstractAudioEnvironment implements AudioEnvironment {
 	 */
 	@Override
 	public AudioInputStream getAudioInputStream() {
-		QueuedInputStream qis = new QueuedInputStream();
+		return getAudioInputStream(this.defaultOverflowPolicy);
+	}
+
+	/**
+	 * @see io.github.amyassist.amy.core.audio.environment.AudioEnvironment#getAudioInputStream(OverflowPolicy)
+	 */
+	@Override
+	public AudioInputStream getAudioInputStream(OverflowPolicy overflowPolicy) {
+		QueuedInputStream qis = new QueuedInputStream(this.inputBufferSize, overflowPolicy);
 		this.inputStreams.add(qis);
 		return new AudioInputStream(qis, getInputFormat(), AudioSystem.NOT_SPECIFIED);
 	}
 
+	/**
+	 * @see io.github.amyassist.amy.core.audio.environment.AudioEnvironment#getInputStreamStatistics()
+	 */
+	@Override
+	public List<InputStreamStatistics> getInputStreamStatistics() {
+		List<InputStreamStatistics> statistics = new ArrayList<>();
+		for (QueuedInputStream qis : this.inputStreams) {
+			statistics.add(new InputStreamStatistics(qis.getOverflowPolicy(), qis.getCapacity(), qis.size(),
+					qis.getOverruns(), qis.getWritten()));
+		}
+		return statistics;
+	}
+
 	/**
 	 * @see io.github.amyassist.amy.core.audio.environment.AudioEnvironment#start()
 	 */
@@ -193,6 +240,15 @@ public abstract class AbstractAudioEnvironment implements AudioEnvironment {
 		return this.outputWorker.isCurrentlyOutputting();
 	}
 
+	/**
+	 * Get's {@link #inputFrameSize inputFrameSize}
+	 * 
+	 * @return inputFrameSize
+	 */
+	protected int getInputFrameSize() {
+		return this.inputFrameSize;
+	}
+
 	/**
 	 * Get's {@link #inputStreams inputStreams}
 	 * 
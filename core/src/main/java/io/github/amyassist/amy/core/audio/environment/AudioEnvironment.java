@@ -23,6 +23,7 @@
 
 package io.github.amyassist.amy.core.audio.environment;
 
+import java.util.List;
 import java.util.UUID;
 
 import javax.sound.sampled.AudioFormat;
@@ -30,6 +31,7 @@ import javax.sound.sampled.AudioInputStream;
 
 import io.github.amyassist.amy.core.audio.AudioManager;
 import io.github.amyassist.amy.core.audio.AudioOutput;
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
 
 /**
  * The interface of a audio environment, which does the audio IO
@@ -90,6 +92,22 @@ public interface AudioEnvironment {
 	 */
 	AudioInputStream getAudioInputStream();
 
+	/**
+	 * Get's a {@link AudioInputStream} from this audio environment like {@link #getAudioInputStream()}, but with the
+	 * given overflow policy. With a policy other than {@link OverflowPolicy#BLOCK} a slow reader loses data instead of
+	 * slowing down the other readers.
+	 * 
+	 * @param overflowPolicy
+	 *            What to do with new input, when the reader of the stream doesn't keep up
+	 * @return The stream.
+	 */
+	AudioInputStream getAudioInputStream(OverflowPolicy overflowPolicy);
+
+	/**
+	 * @return The statistics of all open input streams of this environment
+	 */
+	List<InputStreamStatistics> getInputStreamStatistics();
+
 	/**
 	 * Starts this audio environment
 	 */
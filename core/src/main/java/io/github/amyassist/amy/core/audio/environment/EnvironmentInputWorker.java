@@ -23,10 +23,8 @@
 
 package io.github.amyassist.amy.core.audio.environment;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import io.github.amyassist.amy.core.audio.QueuedInputStream;
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
 
 /**
  * A worker doing to audio input for a audio environment
@@ -35,10 +33,10 @@ import io.github.amyassist.amy.core.audio.QueuedInputStream;
  */
 public class EnvironmentInputWorker extends EnvironmentWorker {
 
-	/** The size of buffer used */
-	private static final int BYTE_BUFFER_SIZE = 1024;
 	/** The parent audio environment */
 	private AbstractAudioEnvironment ae;
+	/** The buffer the input is read into, one frame of the parent */
+	private final byte[] buffer;
 
 	/**
 	 * Creates a new input worker for the given owner
@@ -49,6 +47,7 @@ public class EnvironmentInputWorker extends EnvironmentWorker {
 	public EnvironmentInputWorker(AbstractAudioEnvironment owner) {
 		super("AE<" + owner.getAudioEnvironmentIdentifier().toString() + ">InputWorker");
 		this.ae = owner;
+		this.buffer = new byte[owner.getInputFrameSize()];
 	}
 
 	@Override
@@ -69,61 +68,46 @@ public class EnvironmentInputWorker extends EnvironmentWorker {
 	}
 
 	/**
-	 * Reads up to {@link #BYTE_BUFFER_SIZE} bytes from the parent and writes them all queued input streams of the
-	 * parent.
+	 * Reads up to one frame from the parent and publishes it to all queued input streams of the parent.
 	 * <p>
-	 * Uses {@link #doByteInput(byte)}, so it also ends streams as necessary and removes streams from the parents input
-	 * stream list like described in the JavaDoc of that method.
+	 * Uses {@link #doBlockInput(byte[], int)}, so it also removes streams from the parents input stream list like
+	 * described in the JavaDoc of that method.
 	 * 
 	 * @return Whether the end of the input has been reached.
 	 * @throws InterruptedException
 	 *             When the method was interrupted.
 	 */
 	protected boolean doInputWork() throws InterruptedException {
-		byte[] buffer = new byte[BYTE_BUFFER_SIZE];
-		int bytesRead = this.ae.readFromInput(buffer, 0, buffer.length);
+		int bytesRead = this.ae.readFromInput(this.buffer, 0, this.buffer.length);
 
 		if (bytesRead < 0)
 			return true;
 
-		for (int i = 0; i < bytesRead; i++) {
-			if (this.shouldStop())
-				throw new InterruptedException();
-
-			doByteInput(buffer[i]);
-		}
-
+		doBlockInput(this.buffer, bytesRead);
 		return false;
 	}
 
 	/**
-	 * Copies the given byte to all queued input streams of the parent.
+	 * Publishes the given bytes to all queued input streams of the parent, one bulk operation per stream. Each stream
+	 * handles a full buffer by its own overflow policy, so only streams with {@link OverflowPolicy#BLOCK} can stall the
+	 * input.
 	 * <p>
 	 * Also removes closed queues from the parents input stream list.
 	 * 
-	 * @param b
-	 *            The byte to write.
+	 * @param block
+	 *            The bytes to write.
+	 * @param length
+	 *            The number of bytes to write from the start of the block.
 	 * @throws InterruptedException
 	 *             When the method was interrupted.
 	 */
-	protected void doByteInput(byte b) throws InterruptedException {
-		List<QueuedInputStream> toRemove = new ArrayList<>();
-
-		// toUnsignedInt makes sure the conversion is the reverse from casting a int between 0 and 255 to a byte.
-		Integer value = Byte.toUnsignedInt(b);
-
+	protected void doBlockInput(byte[] block, int length) throws InterruptedException {
 		for (QueuedInputStream qis : this.ae.getInputStreams()) {
 			if (this.shouldStop())
 				throw new InterruptedException();
 
-			// Remove closed streams
-			if (qis.isClosed()) {
-				toRemove.add(qis);
-				continue;
-			}
-
-			qis.getQueue().put(value);
+			qis.publish(block, 0, length);
 		}
-		this.ae.getInputStreams().removeAll(toRemove);
+		this.ae.getInputStreams().removeIf(QueuedInputStream::isClosed);
 	}
 }
@@ -0,0 +1,112 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio.environment;
+
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
+
+/**
+ * A snapshot of the counters of one input stream of an audio environment
+ * 
+ * @author Tim Neumann
+ */
+public class InputStreamStatistics {
+	private final OverflowPolicy overflowPolicy;
+	private final int capacity;
+	private final int lag;
+	private final long overruns;
+	private final long written;
+
+	/**
+	 * Creates a new snapshot
+	 * 
+	 * @param overflowPolicy
+	 *            the overflow policy of the stream
+	 * @param capacity
+	 *            the capacity of the stream in bytes
+	 * @param lag
+	 *            the number of bytes published but not yet read
+	 * @param overruns
+	 *            the number of bytes dropped, because the stream was full
+	 * @param written
+	 *            the total number of bytes written to the stream
+	 */
+	public InputStreamStatistics(OverflowPolicy overflowPolicy, int capacity, int lag, long overruns, long written) {
+		this.overflowPolicy = overflowPolicy;
+		this.capacity = capacity;
+		this.lag = lag;
+		this.overruns = overruns;
+		this.written = written;
+	}
+
+	/**
+	 * Get's {@link #overflowPolicy overflowPolicy}
+	 * 
+	 * @return overflowPolicy
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * Get's {@link #capacity capacity}
+	 * 
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Get's {@link #lag lag}
+	 * 
+	 * @return lag
+	 */
+	public int getLag() {
+		return this.lag;
+	}
+
+	/**
+	 * Get's {@link #overruns overruns}
+	 * 
+	 * @return overruns
+	 */
+	public long getOverruns() {
+		return this.overruns;
+	}
+
+	/**
+	 * Get's {@link #written written}
+	 * 
+	 * @return written
+	 */
+	public long getWritten() {
+		return this.written;
+	}
+
+	@Override
+	public String toString() {
+		return this.overflowPolicy + ": lag " + this.lag + "/" + this.capacity + " bytes, " + this.overruns
+				+ " bytes dropped, " + this.written + " bytes written";
+	}
+}
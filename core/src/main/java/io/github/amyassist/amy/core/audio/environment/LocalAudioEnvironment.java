@@ -31,6 +31,8 @@ import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.TargetDataLine;
 
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
+
 /**
  * The local audio environment
  * 
@@ -56,6 +58,29 @@ public class LocalAudioEnvironment extends AbstractAudioEnvironment {
 		this.tdl = AudioSystem.getTargetDataLine(inputFormat);
 	}
 
+	/**
+	 * Creates a new local audio environment with the given audio formats and input configuration.
+	 * 
+	 * @param inputFormat
+	 *            The format of the microphone input line.
+	 * @param outputFormat
+	 *            The format of the speaker output line.
+	 * @param inputFrameSize
+	 *            The number of bytes read from the microphone and published to the input streams at once
+	 * @param inputBufferSize
+	 *            The capacity of each input stream, must be a power of two
+	 * @param defaultOverflowPolicy
+	 *            The overflow policy of input streams created without a policy
+	 * @throws LineUnavailableException
+	 *             When either the input or output line can't be opened with the given format.
+	 */
+	public LocalAudioEnvironment(AudioFormat inputFormat, AudioFormat outputFormat, int inputFrameSize,
+			int inputBufferSize, OverflowPolicy defaultOverflowPolicy) throws LineUnavailableException {
+		super(inputFrameSize, inputBufferSize, defaultOverflowPolicy);
+		this.sdl = AudioSystem.getSourceDataLine(outputFormat);
+		this.tdl = AudioSystem.getTargetDataLine(inputFormat);
+	}
+
 	/**
 	 * @see io.github.amyassist.amy.core.audio.environment.AbstractAudioEnvironment#getAudioEnvironmentIdentifier()
 	 */
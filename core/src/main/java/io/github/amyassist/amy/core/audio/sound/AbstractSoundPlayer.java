@@ -0,0 +1,145 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio.sound;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Base class for sound players, whose audio stream is read by the audio environment without a thread of the player.
+ * <p>
+ * The stream of the player should block in {@link #awaitStart()} until the player is started and end with
+ * {@link #end(StopReason)}. The stop hook is called once, by the thread ending the playback or by the thread starting
+ * the player if the playback ended before the start.
+ * 
+ * @author Tim Neumann
+ */
+public abstract class AbstractSoundPlayer implements SoundPlayer {
+
+	/** Released when the player is started or ended, reading blocks until then */
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final AtomicBoolean startCalled = new AtomicBoolean();
+	private final AtomicBoolean ended = new AtomicBoolean();
+	private final AtomicBoolean hookCalled = new AtomicBoolean();
+
+	private volatile StopReason stopReason;
+
+	private Consumer<SoundPlayer.StopReason> listener;
+
+	/**
+	 * Ends the playback, if it has not ended yet.
+	 * 
+	 * @param reason
+	 *            The reason for the end
+	 */
+	protected void end(StopReason reason) {
+		if (this.ended.compareAndSet(false, true)) {
+			this.stopReason = reason;
+			this.started.countDown();
+			onEnd();
+			callHook();
+		}
+	}
+
+	/**
+	 * Called once when the playback ends, before the stop hook is called. Can be used to wake up the reader of the
+	 * stream.
+	 */
+	protected void onEnd() {
+		// nothing to do by default
+	}
+
+	/**
+	 * Calls the listener once, when the player is started and the playback has ended.
+	 */
+	private void callHook() {
+		StopReason reason = this.stopReason;
+		if (this.startCalled.get() && reason != null && this.hookCalled.compareAndSet(false, true)
+				&& this.listener != null) {
+			this.listener.accept(reason);
+		}
+	}
+
+	/**
+	 * Waits until the player is started or the playback has ended.
+	 * 
+	 * @return Whether the playback is still running
+	 * @throws InterruptedIOException
+	 *             When the thread is interrupted. The playback ends with {@link StopReason#OTHER} in that case.
+	 */
+	protected boolean awaitStart() throws InterruptedIOException {
+		try {
+			this.started.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			end(StopReason.OTHER);
+			throw new InterruptedIOException();
+		}
+		return !this.ended.get();
+	}
+
+	/**
+	 * @return Whether the player was started
+	 */
+	protected boolean isStarted() {
+		return this.startCalled.get();
+	}
+
+	/**
+	 * Checks if the playback has ended. Unlike {@link #isRunning()} this is also true, when the playback ended before
+	 * the player was started.
+	 * 
+	 * @return Whether the playback has ended
+	 */
+	public boolean isEnded() {
+		return this.ended.get();
+	}
+
+	@Override
+	public void start() {
+		this.startCalled.set(true);
+		this.started.countDown();
+		callHook();
+	}
+
+	@Override
+	public void stop() {
+		end(StopReason.PLAYER_STOPPED);
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.startCalled.get() && !this.ended.get();
+	}
+
+	@Override
+	public void setOnStopHook(Consumer<StopReason> callback) {
+		if (this.startCalled.get())
+			throw new IllegalStateException("Player is already started");
+
+		this.listener = callback;
+	}
+}
@@ -24,11 +24,14 @@
 package io.github.amyassist.amy.core.audio.sound;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
  * The implementatio of {@link Sound}
@@ -36,12 +39,13 @@ import javax.sound.sampled.AudioSystem;
  * @author Tim Neumann
  */
 public class BasicSound implements Sound {
-	private static final int BUFFER_SIZE_INCR = 100;
+	private static final int INITIAL_BUFFER_SIZE = 8192;
+	private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
 
-	private byte[] data;
-	private int frameLength;
+	/** The read-only audio data. The position is always 0 */
+	private final ByteBuffer data;
 
-	private AudioFormat format;
+	private final AudioFormat format;
 
 	/**
 	 * Creates a new sound and reads the data for it from the given {@link AudioInputStream}
@@ -54,18 +58,22 @@ public class BasicSound implements Sound {
 	public BasicSound(AudioInputStream audioData) throws IOException {
 		this.format = audioData.getFormat();
 
-		int initialBufferSize = BUFFER_SIZE_INCR;
+		int frameSize = this.format.getFrameSize();
+		int initialBufferSize = INITIAL_BUFFER_SIZE;
 
 		if (audioData.getFrameLength() != AudioSystem.NOT_SPECIFIED) {
-			initialBufferSize = (int) (audioData.getFrameLength() * audioData.getFormat().getFrameSize());
+			// one more frame, so the end of the stream can be read without growing the buffer
+			initialBufferSize = (int) Math.min((audioData.getFrameLength() + 1) * frameSize, MAX_BUFFER_SIZE);
 		}
 
 		int bytesReadTotal = 0;
 		int bytesRead;
 		byte[] tmp = new byte[initialBufferSize];
 		do {
-			if (bytesReadTotal + BUFFER_SIZE_INCR > tmp.length) {
-				tmp = Arrays.copyOf(tmp, tmp.length + BUFFER_SIZE_INCR);
+			if (bytesReadTotal == tmp.length) {
+				if (tmp.length == MAX_BUFFER_SIZE)
+					throw new IOException("The audio data is too long.");
+				tmp = Arrays.copyOf(tmp, (int) Math.min(tmp.length * 2L, MAX_BUFFER_SIZE));
 			}
 			bytesRead = audioData.read(tmp, bytesReadTotal, tmp.length - bytesReadTotal);
 			if (bytesRead > 0) {
@@ -73,15 +81,62 @@ public class BasicSound implements Sound {
 			}
 		} while (bytesRead != -1);
 
-		this.frameLength = (int) Math.ceil((double) bytesReadTotal / this.format.getFrameSize());
+		int frameLength = (int) Math.ceil((double) bytesReadTotal / frameSize);
 
-		int byteLength = this.frameLength * this.format.getFrameSize();
+		int byteLength = frameLength * frameSize;
 
-		this.data = Arrays.copyOf(tmp, byteLength);
+		this.data = ByteBuffer.wrap(byteLength == tmp.length ? tmp : Arrays.copyOf(tmp, byteLength))
+				.asReadOnlyBuffer();
 
 		audioData.close();
 	}
 
+	/**
+	 * Creates a new sound for the given audio data without copying it.
+	 * 
+	 * @param audioData
+	 *            The remaining bytes of the buffer are the audio data. This must fit the format and must not be changed.
+	 * @param format
+	 *            The format of the audio data.
+	 */
+	BasicSound(ByteBuffer audioData, AudioFormat format) {
+		if ((audioData.remaining() % format.getFrameSize()) != 0)
+			throw new IllegalArgumentException("The audioData does not fit the format.");
+		this.data = audioData.slice().asReadOnlyBuffer();
+		this.format = format;
+	}
+
+	/**
+	 * Creates a sound from the encoded audio file in the given buffer.
+	 * <p>
+	 * If the file contains PCM data of a known length, the sound uses a slice of the buffer as its data. So a
+	 * memory-mapped file is played without ever being copied to the heap. Otherwise the audio data is decoded into a
+	 * new array.
+	 * 
+	 * @param file
+	 *            The remaining bytes of the buffer are the audio file. The buffer must not be changed afterwards.
+	 * @return The sound
+	 * @throws UnsupportedAudioFileException
+	 *             When the file is not in a supported format
+	 * @throws IOException
+	 *             if an input or output error occurs while reading the file
+	 */
+	static BasicSound fromFile(ByteBuffer file) throws UnsupportedAudioFileException, IOException {
+		ByteBuffer buffer = file.slice();
+		AudioInputStream stream = AudioSystem.getAudioInputStream(new ByteBufferInputStream(buffer));
+		AudioFormat format = stream.getFormat();
+		AudioFormat.Encoding encoding = format.getEncoding();
+		long length = stream.getFrameLength() * format.getFrameSize();
+		if ((AudioFormat.Encoding.PCM_SIGNED.equals(encoding) || AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding))
+				&& stream.getFrameLength() != AudioSystem.NOT_SPECIFIED && length <= buffer.remaining()) {
+			// the file reader stops at the start of the audio data
+			ByteBuffer audioData = buffer.slice();
+			audioData.limit((int) length);
+			return new BasicSound(audioData, format);
+		}
+		return new BasicSound(stream);
+	}
+
 	@Override
 	public SoundPlayer getSinglePlayer() {
 		return new BasicSoundPlayer(this.data, this.format, 1);
@@ -101,7 +156,7 @@ public class BasicSound implements Sound {
 
 	@Override
 	public int getFrameLength() {
-		return this.data.length / this.format.getFrameSize();
+		return this.data.remaining() / this.format.getFrameSize();
 	}
 
 	@Override
@@ -109,4 +164,64 @@ public class BasicSound implements Sound {
 		return this.format;
 	}
 
+	/**
+	 * A stream reading the remaining bytes of a buffer. The position of the buffer is the position of the stream.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+		private int mark;
+
+		/**
+		 * @param buffer
+		 *            The buffer to read
+		 */
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.mark = buffer.position();
+		}
+
+		@Override
+		public int read() {
+			return this.buffer.hasRemaining() ? Byte.toUnsignedInt(this.buffer.get()) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			if (!this.buffer.hasRemaining())
+				return -1;
+			int n = Math.min(len, this.buffer.remaining());
+			this.buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+			this.buffer.position(this.buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+			this.mark = this.buffer.position();
+		}
+
+		@Override
+		public synchronized void reset() {
+			this.buffer.position(this.mark);
+		}
+	}
+
 }
@@ -23,56 +23,69 @@
 
 package io.github.amyassist.amy.core.audio.sound;
 
-import java.lang.Thread.State;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 
-import io.github.amyassist.amy.core.audio.QueuedInputStream;
-
 /**
  * Player for sounds
+ * <p>
+ * The audio stream of the player is a read-only view of the audio data, which is shared by all players of a sound and
+ * may be memory-mapped. The stream loops over the data itself, so no thread and no intermediate buffer is needed.
  * 
  * @author Tim Neumann
  */
-public class BasicSoundPlayer implements Runnable, SoundPlayer {
+public class BasicSoundPlayer extends AbstractSoundPlayer {
 
-	private final QueuedInputStream stream;
+	private final SoundStream stream;
 	private final AudioInputStream audioStream;
 
-	private volatile boolean shouldStop = false;
-	private byte[] data;
-	private int remainingLoopCount;
-
-	private Thread playingThread;
+	/** A private view of the shared audio data, only used by the reader of the stream */
+	private final ByteBuffer data;
 
-	private Consumer<SoundPlayer.StopReason> listener;
+	private volatile int remainingLoopCount;
 
 	/**
 	 * Creates a new SoundPlayer for the given audioData with the given format and the given frameLength.
 	 * 
 	 * @param audioData
-	 *            The audio data of the sound. This must fit the format.
+	 *            The audio data of the sound. This must fit the format. The data is not copied and must not be changed.
 	 * @param format
 	 *            The audio format of the sound.
 	 * @param loopCount
 	 *            The amount of times to loop. Can be -1 to indicate infinite looping.
 	 */
 	protected BasicSoundPlayer(byte[] audioData, AudioFormat format, int loopCount) {
+		this(ByteBuffer.wrap(audioData), format, loopCount);
+	}
+
+	/**
+	 * Creates a new SoundPlayer for the remaining audioData with the given format and the given frameLength.
+	 * 
+	 * @param audioData
+	 *            The audio data of the sound. This must fit the format. The data is not copied and must not be changed.
+	 *            The position of the buffer is not changed by the player.
+	 * @param format
+	 *            The audio format of the sound.
+	 * @param loopCount
+	 *            The amount of times to loop. Can be -1 to indicate infinite looping.
+	 */
+	protected BasicSoundPlayer(ByteBuffer audioData, AudioFormat format, int loopCount) {
 		if (loopCount == 0)
 			throw new IllegalArgumentException("Can't loop 0 times.");
 		if (loopCount < -1)
 			throw new IllegalArgumentException("Loop counts below -1 are undefined.");
-		if ((audioData.length % format.getFrameSize()) != 0)
+		if ((audioData.remaining() % format.getFrameSize()) != 0)
 			throw new IllegalArgumentException("The audioData does not fit the format.");
 
-		this.stream = new QueuedInputStream();
-		this.data = audioData;
+		this.stream = new SoundStream();
+		this.data = audioData.slice();
 
-		int singleFrameLength = audioData.length / format.getFrameSize();
+		int singleFrameLength = audioData.remaining() / format.getFrameSize();
 		int frameLength = loopCount * singleFrameLength;
 
 		if (loopCount < 0) {
@@ -81,8 +94,9 @@ public class BasicSoundPlayer implements Runnable, SoundPlayer {
 
 		this.audioStream = new AudioInputStream(this.stream, format, frameLength);
 		this.remainingLoopCount = loopCount;
-
-		this.playingThread = new Thread(this, "SoundPlayerThread");
+		if (!audioData.hasRemaining()) {
+			end(StopReason.END_OF_AUDIO);
+		}
 	}
 
 	@Override
@@ -91,67 +105,96 @@ public class BasicSoundPlayer implements Runnable, SoundPlayer {
 	}
 
 	/**
-	 * Does the output work. At the and calls listener.
+	 * The stream reading the audio data of the player. There must only be one thread reading at a time.
 	 */
-	@Override
-	public void run() {
-		int pos = 0;
-		while (!this.shouldStop && !Thread.interrupted() && this.remainingLoopCount != 0 && !this.stream.isClosed()) {
-			try {
-				if (!this.stream.getQueue().offer(Byte.toUnsignedInt(this.data[pos]), 100,
-						TimeUnit.MILLISECONDS)) {
-					continue;
-				}
-				pos++;
-				if (pos >= this.data.length) {
-					pos = 0;
-					if (this.remainingLoopCount != -1) {
-						this.remainingLoopCount--;
+	private class SoundStream extends InputStream {
+		/** The position in the data */
+		private int position;
+		private volatile boolean closed;
+
+		/**
+		 * Waits for the start of the player
+		 * 
+		 * @return Whether there is data to read
+		 * @throws IOException
+		 *             When the stream is closed or the thread is interrupted
+		 */
+		private boolean awaitData() throws IOException {
+			if (this.closed)
+				throw new IOException("Stream closed.");
+			boolean running = awaitStart();
+			if (this.closed)
+				throw new IOException("Stream closed.");
+			return running;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!awaitData())
+				return -1;
+			int value = Byte.toUnsignedInt(BasicSoundPlayer.this.data.get(this.position));
+			advance(1);
+			return value;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (off < 0 || len < 0 || len > b.length - off)
+				throw new IndexOutOfBoundsException();
+			if (len == 0)
+				return 0;
+			if (!awaitData())
+				return -1;
+			ByteBuffer source = BasicSoundPlayer.this.data;
+			int count = 0;
+			while (count < len && !isEnded()) {
+				int n = Math.min(len - count, source.limit() - this.position);
+				source.position(this.position);
+				source.get(b, off + count, n);
+				count += n;
+				advance(n);
+			}
+			return count;
+		}
+
+		/**
+		 * Advances the position and ends the playback after the last loop
+		 * 
+		 * @param n
+		 *            the number of bytes read
+		 */
+		private void advance(int n) {
+			this.position += n;
+			if (this.position >= BasicSoundPlayer.this.data.limit()) {
+				this.position = 0;
+				int loops = BasicSoundPlayer.this.remainingLoopCount;
+				if (loops != -1) {
+					BasicSoundPlayer.this.remainingLoopCount = loops - 1;
+					if (loops - 1 == 0) {
+						end(StopReason.END_OF_AUDIO);
 					}
 				}
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
 			}
 		}
-		this.stream.setAutoEnding(true);
-		runListener();
-	}
 
-	private void runListener() {
-		if (this.listener != null) {
-			if (this.remainingLoopCount == 0) {
-				this.listener.accept(StopReason.END_OF_AUDIO);
-			} else if (this.stream.isClosed()) {
-				this.listener.accept(StopReason.STREAM_CLOSED);
-			} else if (this.shouldStop) {
-				this.listener.accept(StopReason.PLAYER_STOPPED);
-			} else {
-				this.listener.accept(StopReason.OTHER);
+		@Override
+		public int available() throws IOException {
+			if (this.closed || isEnded() || !isStarted())
+				return 0;
+			int loops = BasicSoundPlayer.this.remainingLoopCount;
+			long remaining = BasicSoundPlayer.this.data.limit() - (long) this.position;
+			if (loops > 1) {
+				remaining += (long) (loops - 1) * BasicSoundPlayer.this.data.limit();
+			} else if (loops == -1) {
+				return Integer.MAX_VALUE;
 			}
+			return (int) Math.min(remaining, Integer.MAX_VALUE);
 		}
-	}
-
-	@Override
-	public void start() {
-		this.playingThread.start();
-	}
 
-	@Override
-	public void stop() {
-		this.shouldStop = true;
-		this.playingThread.interrupt();
-	}
-
-	@Override
-	public boolean isRunning() {
-		return this.playingThread.isAlive();
-	}
-
-	@Override
-	public void setOnStopHook(Consumer<StopReason> callback) {
-		if (this.playingThread.getState() != State.NEW)
-			throw new IllegalStateException("Player is already started");
-
-		this.listener = callback;
+		@Override
+		public void close() throws IOException {
+			this.closed = true;
+			end(StopReason.STREAM_CLOSED);
+		}
 	}
 }
@@ -24,23 +24,48 @@
 package io.github.amyassist.amy.core.audio.sound;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import io.github.amyassist.amy.core.di.annotation.Service;
 
 /**
  * Implementation of {@link SoundFactory}
+ * <p>
+ * Sounds loaded from a file are cached by their location and by their content, so the same sound file is only held
+ * once, even if it is loaded by multiple plugins from their own resources. Files on the file system are
+ * memory-mapped and cached together with their size and last modification time, so a file that was replaced is loaded
+ * again. A mapped file must not be modified in place while its sound is in use, because the sound reads directly from
+ * the mapping.
  * 
  * @author Tim Neumann
  */
 @Service
 public class SoundFactoryService implements SoundFactory {
 
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	private final Map<String, Sound> soundsByLocation = new ConcurrentHashMap<>();
+	private final Map<Path, MappedFile> soundsByFile = new ConcurrentHashMap<>();
+	private final Map<String, Sound> soundsByContent = new ConcurrentHashMap<>();
+
 	@Override
 	public Sound loadSound(AudioInputStream data) throws IOException {
 		return new BasicSound(data);
@@ -48,12 +73,117 @@ public class SoundFactoryService implements SoundFactory {
 
 	@Override
 	public Sound loadSound(URL location) throws UnsupportedAudioFileException, IOException {
-		return loadSound(AudioSystem.getAudioInputStream(location));
+		if ("file".equals(location.getProtocol())) {
+			try {
+				return loadSound(Paths.get(location.toURI()));
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				// not a valid path, so load it like any other URL
+			}
+		}
+		String key = location.toExternalForm();
+		Sound sound = this.soundsByLocation.get(key);
+		if (sound == null) {
+			try (InputStream in = location.openStream()) {
+				ByteBuffer file = ByteBuffer.wrap(readAll(in));
+				sound = load(digest(file.duplicate()), file);
+			}
+			Sound existing = this.soundsByLocation.putIfAbsent(key, sound);
+			if (existing != null) {
+				sound = existing;
+			}
+		}
+		return sound;
 	}
 
 	@Override
 	public Sound loadSound(Path location) throws UnsupportedAudioFileException, IOException {
-		return loadSound(AudioSystem.getAudioInputStream(location.toFile()));
+		Path path = location.toAbsolutePath().normalize();
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		MappedFile cached = this.soundsByFile.get(path);
+		if (cached != null && cached.isCurrent(attributes)) {
+			return cached.sound;
+		}
+		MappedFile mapped;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			String digest = digest(file.duplicate());
+			mapped = new MappedFile(attributes, digest, load(digest, file));
+		}
+		MappedFile previous = this.soundsByFile.put(path, mapped);
+		if (previous != null && !previous.digest.equals(mapped.digest)) {
+			// the old mapping no longer shows the content it was cached for
+			this.soundsByContent.remove(previous.digest, previous.sound);
+		}
+		return mapped.sound;
+	}
+
+	/**
+	 * Loads the sound from the given file content, unless a sound with the same content is already loaded.
+	 * 
+	 * @param digest
+	 *            The digest of the content, used as cache key
+	 * @param file
+	 *            The content of the file
+	 * @return The sound
+	 * @throws UnsupportedAudioFileException
+	 *             When the file is not in a supported format
+	 * @throws IOException
+	 *             if an input or output error occurs while reading the file
+	 */
+	private Sound load(String digest, ByteBuffer file) throws UnsupportedAudioFileException, IOException {
+		Sound sound = this.soundsByContent.get(digest);
+		if (sound == null) {
+			sound = BasicSound.fromFile(file);
+			Sound existing = this.soundsByContent.putIfAbsent(digest, sound);
+			if (existing != null) {
+				sound = existing;
+			}
+		}
+		return sound;
+	}
+
+	private static String digest(ByteBuffer content) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			messageDigest.update(content);
+			return Base64.getEncoder().encodeToString(messageDigest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		byte[] buffer = new byte[Math.max(in.available(), READ_BUFFER_SIZE)];
+		int length = 0;
+		int read;
+		while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+	}
+
+	/**
+	 * A sound loaded from a memory-mapped file, together with the attributes of the file when it was mapped.
+	 */
+	private static final class MappedFile {
+		private final long size;
+		private final long lastModified;
+		private final String digest;
+		private final Sound sound;
+
+		MappedFile(BasicFileAttributes attributes, String digest, Sound sound) {
+			this.size = attributes.size();
+			this.lastModified = attributes.lastModifiedTime().toMillis();
+			this.digest = digest;
+			this.sound = sound;
+		}
+
+		boolean isCurrent(BasicFileAttributes attributes) {
+			return this.size == attributes.size() && this.lastModified == attributes.lastModifiedTime().toMillis();
+		}
 	}
 
 }
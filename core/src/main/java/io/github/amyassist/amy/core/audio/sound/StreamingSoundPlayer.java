@@ -0,0 +1,193 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio.sound;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * A player for audio, which is produced in segments while it is played.
+ * <p>
+ * The segments are played one after another as soon as they are added, so the playback can start before the whole
+ * audio is available. Reading the audio stream blocks until the next segment is added. The playback ends after the
+ * last segment, when {@link #finish()} was called.
+ * 
+ * @author Tim Neumann
+ */
+public class StreamingSoundPlayer extends AbstractSoundPlayer {
+
+	private final AudioFormat format;
+
+	/** Marks the end of the segments */
+	private final AudioInputStream endOfSegments;
+
+	private final BlockingQueue<AudioInputStream> segments = new LinkedBlockingQueue<>();
+
+	private volatile boolean finished;
+
+	private final AudioInputStream audioStream;
+
+	/**
+	 * Creates a new player for segments of the given format
+	 * 
+	 * @param format
+	 *            The format of the audio
+	 */
+	public StreamingSoundPlayer(AudioFormat format) {
+		this.format = format;
+		this.endOfSegments = new AudioInputStream(new ByteArrayInputStream(new byte[0]), format, 0);
+		this.audioStream = new AudioInputStream(new SegmentStream(), format, AudioSystem.NOT_SPECIFIED);
+	}
+
+	/**
+	 * Adds a segment to play after the already added segments. The segment is converted to the format of the player
+	 * if needed. The player closes the segment after playing it. Segments added after the end of the playback are
+	 * ignored.
+	 * 
+	 * @param segment
+	 *            The audio of the segment
+	 * @throws IllegalStateException
+	 *             When {@link #finish()} was already called
+	 * @throws IllegalArgumentException
+	 *             When the segment can not be converted to the format of the player
+	 */
+	public void addSegment(AudioInputStream segment) {
+		if (this.finished)
+			throw new IllegalStateException("The player is already finished");
+		if (isEnded())
+			return;
+		AudioInputStream converted = segment;
+		if (!segment.getFormat().matches(this.format)) {
+			converted = AudioSystem.getAudioInputStream(this.format, segment);
+		}
+		this.segments.add(converted);
+	}
+
+	/**
+	 * Marks that no more segments will be added. The playback ends after the already added segments.
+	 */
+	public void finish() {
+		this.finished = true;
+		this.segments.add(this.endOfSegments);
+	}
+
+	@Override
+	protected void onEnd() {
+		// wake up a reader waiting for the next segment
+		this.segments.add(this.endOfSegments);
+	}
+
+	@Override
+	public AudioInputStream getAudioStream() {
+		return this.audioStream;
+	}
+
+	/**
+	 * The stream reading the segments one after another. There must only be one thread reading at a time.
+	 */
+	private class SegmentStream extends InputStream {
+		private AudioInputStream current;
+		private volatile boolean closed;
+
+		/**
+		 * Get's the segment to read from, waiting for the next segment if needed
+		 * 
+		 * @return The segment or null if the playback has ended
+		 * @throws IOException
+		 *             When the stream is closed or the thread is interrupted
+		 */
+		private AudioInputStream segment() throws IOException {
+			if (this.closed)
+				throw new IOException("Stream closed.");
+			if (!awaitStart())
+				return null;
+			if (this.current == null) {
+				try {
+					this.current = StreamingSoundPlayer.this.segments.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					end(StopReason.OTHER);
+					throw new InterruptedIOException();
+				}
+			}
+			if (this.closed)
+				throw new IOException("Stream closed.");
+			if (this.current == StreamingSoundPlayer.this.endOfSegments) {
+				end(StopReason.END_OF_AUDIO);
+			}
+			return isEnded() ? null : this.current;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : Byte.toUnsignedInt(b[0]);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (off < 0 || len < 0 || len > b.length - off)
+				throw new IndexOutOfBoundsException();
+			if (len == 0)
+				return 0;
+			AudioInputStream segment;
+			while ((segment = segment()) != null) {
+				int read = segment.read(b, off, len);
+				if (read != -1)
+					return read;
+				segment.close();
+				this.current = null;
+			}
+			return -1;
+		}
+
+		@Override
+		public int available() throws IOException {
+			AudioInputStream segment = this.current;
+			if (this.closed || isEnded() || segment == null || segment == StreamingSoundPlayer.this.endOfSegments)
+				return 0;
+			return segment.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.closed = true;
+			end(StopReason.STREAM_CLOSED);
+			if (this.current != null) {
+				this.current.close();
+			}
+			for (AudioInputStream segment : StreamingSoundPlayer.this.segments) {
+				segment.close();
+			}
+		}
+	}
+}
@@ -77,4 +77,11 @@ public interface Output {
 	 * @return whether this output is currently outputting information.
 	 */
 	boolean isCurrentlyOutputting();
+
+	/**
+	 * Get's the statistics of the time to first audio of the voice output
+	 * 
+	 * @return a snapshot of the statistics
+	 */
+	OutputStatistics getStatistics();
 }
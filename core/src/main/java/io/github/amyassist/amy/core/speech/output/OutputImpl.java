@@ -25,10 +25,14 @@ package io.github.amyassist.amy.core.speech.output;
 
 import java.io.IOException;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
+import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.slf4j.Logger;
@@ -38,6 +42,8 @@ import io.github.amyassist.amy.core.audio.LocalAudio;
 import io.github.amyassist.amy.core.audio.sound.Sound;
 import io.github.amyassist.amy.core.audio.sound.SoundFactory;
 import io.github.amyassist.amy.core.audio.sound.SoundPlayer;
+import io.github.amyassist.amy.core.audio.sound.StreamingSoundPlayer;
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
 import io.github.amyassist.amy.core.di.annotation.PostConstruct;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.di.annotation.Service;
@@ -47,12 +53,20 @@ import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
 
 /**
  * This class outputs
+ * <p>
+ * In streaming mode voice outputs with multiple sentences are synthesized sentence by sentence on a worker and played
+ * as soon as the first sentence is ready.
  * 
  * @author Tim Neumann, Kai Menzel
  */
 @Service(Output.class)
 public class OutputImpl implements Output {
 
+	private static final String CONFIG_NAME = "speechOutput.config";
+	private static final String PROPERTY_STREAMING = "streaming";
+	private static final String PROPERTY_SEGMENT_MAX_LENGTH = "segmentMaxLength";
+	private static final String PROPERTY_SEGMENT_PAUSE = "segmentPause";
+
 	@Reference
 	private Logger logger;
 	@Reference
@@ -65,13 +79,29 @@ public class OutputImpl implements Output {
 	private SoundFactory sf;
 	@Reference
 	private TaskScheduler scheduler;
+	@Reference
+	private ConfigurationManager configurationManager;
+
+	private boolean streaming;
+	private int segmentMaxLength;
+	private int segmentPause;
 
 	private Map<Sounds, Sound> soundData = new EnumMap<>(Sounds.class);
 
 	private Queue<SoundPlayer> players = new ConcurrentLinkedQueue<>();
 
+	private long voiceOutputs;
+	private long lastTimeToFirstAudio;
+	private long maxTimeToFirstAudio;
+	private long totalTimeToFirstAudio;
+
 	@PostConstruct
 	private void init() {
+		Properties config = this.configurationManager.getConfigurationWithDefaults(CONFIG_NAME);
+		this.streaming = Boolean.parseBoolean(config.getProperty(PROPERTY_STREAMING));
+		this.segmentMaxLength = Integer.parseInt(config.getProperty(PROPERTY_SEGMENT_MAX_LENGTH));
+		this.segmentPause = Integer.parseInt(config.getProperty(PROPERTY_SEGMENT_PAUSE));
+
 		for (Sounds s : Sounds.values()) {
 			try {
 				this.soundData.put(s, this.sf.loadSound(s.getUrl()));
@@ -81,7 +111,7 @@ public class OutputImpl implements Output {
 		}
 	}
 
-	private void playAudio(SoundPlayer player, Runnable callback) {
+	private boolean playAudio(SoundPlayer player, Runnable callback) {
 		if (this.la.isLocalAudioAvailable()) {
 
 			this.am.playAudio(this.la.getLocalAudioEnvironmentIdentifier(), player.getAudioStream(),
@@ -98,7 +128,9 @@ public class OutputImpl implements Output {
 				}
 			});
 			player.start();
+			return true;
 		}
+		return false;
 	}
 
 	@Override
@@ -113,16 +145,71 @@ public class OutputImpl implements Output {
 	@Override
 	public void voiceOutput(String s, Runnable callback) {
 		this.logger.info("saying: {}", s);
+		long requested = System.nanoTime();
+		if (this.streaming) {
+			List<String> segments = SpeechSegmenter.split(s, this.segmentMaxLength);
+			if (segments.size() > 1) {
+				StreamingSoundPlayer player = new StreamingSoundPlayer(this.tts.getMaryAudioFormat());
+				if (playAudio(player, callback)) {
+					this.scheduler.execute(() -> synthesize(segments, player, requested));
+				}
+				return;
+			}
+		}
 		SoundPlayer player;
 		try {
 			player = this.sf.loadSound(this.tts.getMaryAudio(s)).getSinglePlayer();
 		} catch (IOException e) {
 			throw new IllegalStateException("IO error while reading from mary stream", e);
 		}
+		recordTimeToFirstAudio(requested);
 		playAudio(player, callback);
 
 	}
 
+	/**
+	 * Synthesizes the segments one after another and adds them to the player, until the playback has ended.
+	 * 
+	 * @param segments
+	 *            The segments of the voice output
+	 * @param player
+	 *            The player of the voice output
+	 * @param requested
+	 *            The {@link System#nanoTime()} of the request of the voice output
+	 */
+	private void synthesize(List<String> segments, StreamingSoundPlayer player, long requested) {
+		try {
+			for (int i = 0; i < segments.size() && !player.isEnded(); i++) {
+				boolean last = i == segments.size() - 1;
+				AudioInputStream audio = last ? this.tts.getMaryAudio(segments.get(i))
+						: this.tts.getMaryAudio(segments.get(i), this.segmentPause);
+				if (audio != null) {
+					if (i == 0) {
+						recordTimeToFirstAudio(requested);
+					}
+					player.addSegment(audio);
+				}
+			}
+		} finally {
+			player.finish();
+		}
+	}
+
+	private synchronized void recordTimeToFirstAudio(long requested) {
+		long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requested);
+		this.logger.debug("time to first audio: {} ms", time);
+		this.voiceOutputs++;
+		this.lastTimeToFirstAudio = time;
+		this.maxTimeToFirstAudio = Math.max(this.maxTimeToFirstAudio, time);
+		this.totalTimeToFirstAudio += time;
+	}
+
+	@Override
+	public synchronized OutputStatistics getStatistics() {
+		return new OutputStatistics(this.voiceOutputs, this.lastTimeToFirstAudio, this.maxTimeToFirstAudio,
+				this.totalTimeToFirstAudio);
+	}
+
 	@Override
 	public void soundOutput(Sounds sound) {
 		soundOutput(sound, null);
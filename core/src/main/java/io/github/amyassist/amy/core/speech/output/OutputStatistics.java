@@ -0,0 +1,99 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.speech.output;
+
+/**
+ * Snapshot of the time to first audio of the voice output of the {@link Output}
+ * <p>
+ * The time to first audio is the time from the request of a voice output until the first audio of it is ready to be
+ * played.
+ * 
+ * @author Tim Neumann
+ */
+public final class OutputStatistics {
+
+	private final long voiceOutputs;
+	private final long lastTimeToFirstAudio;
+	private final long maxTimeToFirstAudio;
+	private final long totalTimeToFirstAudio;
+
+	/**
+	 * @param voiceOutputs
+	 *            the number of measured voice outputs
+	 * @param lastTimeToFirstAudio
+	 *            the time to first audio of the last voice output in milliseconds
+	 * @param maxTimeToFirstAudio
+	 *            the longest time to first audio in milliseconds
+	 * @param totalTimeToFirstAudio
+	 *            the sum of the times to first audio in milliseconds
+	 */
+	public OutputStatistics(long voiceOutputs, long lastTimeToFirstAudio, long maxTimeToFirstAudio,
+			long totalTimeToFirstAudio) {
+		this.voiceOutputs = voiceOutputs;
+		this.lastTimeToFirstAudio = lastTimeToFirstAudio;
+		this.maxTimeToFirstAudio = maxTimeToFirstAudio;
+		this.totalTimeToFirstAudio = totalTimeToFirstAudio;
+	}
+
+	/**
+	 * Get's {@link #voiceOutputs voiceOutputs}
+	 * 
+	 * @return the number of measured voice outputs
+	 */
+	public long getVoiceOutputs() {
+		return this.voiceOutputs;
+	}
+
+	/**
+	 * Get's {@link #lastTimeToFirstAudio lastTimeToFirstAudio}
+	 * 
+	 * @return the time to first audio of the last voice output in milliseconds
+	 */
+	public long getLastTimeToFirstAudio() {
+		return this.lastTimeToFirstAudio;
+	}
+
+	/**
+	 * Get's {@link #maxTimeToFirstAudio maxTimeToFirstAudio}
+	 * 
+	 * @return the longest time to first audio in milliseconds
+	 */
+	public long getMaxTimeToFirstAudio() {
+		return this.maxTimeToFirstAudio;
+	}
+
+	/**
+	 * @return the mean time to first audio in milliseconds, 0 if there was no voice output
+	 */
+	public double getMeanTimeToFirstAudio() {
+		return this.voiceOutputs == 0 ? 0 : (double) this.totalTimeToFirstAudio / this.voiceOutputs;
+	}
+
+	@Override
+	public String toString() {
+		return "voice outputs " + this.voiceOutputs + ", time to first audio: last " + this.lastTimeToFirstAudio
+				+ " ms, mean " + String.format("%.1f", getMeanTimeToFirstAudio()) + " ms, max "
+				+ this.maxTimeToFirstAudio + " ms";
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.speech.output;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into segments, which can be synthesized and played one after another.
+ * <p>
+ * The text is split into sentences. Sentences longer than the maximum length are split further after commas, colons
+ * and semicolons. Words are never split, so a segment can still be longer than the maximum length.
+ * 
+ * @author Tim Neumann
+ */
+final class SpeechSegmenter {
+
+	private SpeechSegmenter() {
+		// hide constructor
+	}
+
+	/**
+	 * Splits the given text into segments
+	 * 
+	 * @param text
+	 *            The text to split
+	 * @param maxLength
+	 *            The length above which sentences are split into phrases
+	 * @return The trimmed, non empty segments in order
+	 */
+	static List<String> split(String text, int maxLength) {
+		List<String> segments = new ArrayList<>();
+		BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+		sentences.setText(text);
+		int start = sentences.first();
+		for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+			String sentence = text.substring(start, end).trim();
+			if (sentence.length() > maxLength) {
+				splitPhrases(sentence, maxLength, segments);
+			} else if (!sentence.isEmpty()) {
+				segments.add(sentence);
+			}
+		}
+		return segments;
+	}
+
+	private static void splitPhrases(String sentence, int maxLength, List<String> segments) {
+		int segmentStart = 0;
+		int lastBreak = -1;
+		for (int i = 0; i < sentence.length() - 1; i++) {
+			char c = sentence.charAt(i);
+			if ((c == ',' || c == ';' || c == ':') && Character.isWhitespace(sentence.charAt(i + 1))) {
+				if (i + 1 - segmentStart > maxLength && lastBreak > segmentStart) {
+					segments.add(sentence.substring(segmentStart, lastBreak).trim());
+					segmentStart = lastBreak;
+				}
+				lastBreak = i + 1;
+			}
+		}
+		if (sentence.length() - segmentStart > maxLength && lastBreak > segmentStart) {
+			segments.add(sentence.substring(segmentStart, lastBreak).trim());
+			segmentStart = lastBreak;
+		}
+		segments.add(sentence.substring(segmentStart).trim());
+	}
+}
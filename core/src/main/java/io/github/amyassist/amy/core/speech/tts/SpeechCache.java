@@ -0,0 +1,347 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.speech.tts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.slf4j.Logger;
+
+/**
+ * Cache of synthesized speech
+ * <p>
+ * The cache holds the PCM data of the recently used texts in memory, up to a maximum number of bytes. Optionally the
+ * data is also stored as wave files in a directory, which is limited to a maximum number of bytes as well. So the
+ * speech of common texts survives a restart.
+ * 
+ * @author Kai Menzel
+ */
+class SpeechCache {
+
+	private static final String FILE_EXTENSION = ".wav";
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	private final Logger logger;
+
+	private final long maxBytes;
+	private final Path directory;
+	private final long maxDiskBytes;
+
+	/** The entries in the order of their last use */
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	private long diskBytes;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * Creates a new cache
+	 * 
+	 * @param logger
+	 *            The logger for errors of the disk tier
+	 * @param maxBytes
+	 *            The maximum number of bytes of PCM data held in memory, 0 disables the memory tier
+	 * @param directory
+	 *            The directory of the disk tier or null to disable it
+	 * @param maxDiskBytes
+	 *            The maximum number of bytes of the files in the directory
+	 */
+	SpeechCache(Logger logger, long maxBytes, Path directory, long maxDiskBytes) {
+		this.logger = logger;
+		this.maxBytes = maxBytes;
+		this.directory = directory;
+		this.maxDiskBytes = maxDiskBytes;
+		if (directory != null) {
+			try {
+				Files.createDirectories(directory);
+				for (Path file : files()) {
+					this.diskBytes += Files.size(file);
+				}
+			} catch (IOException e) {
+				this.logger.warn("Could not read the speech cache directory {}", directory, e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the key of the given text of the given voice. Whitespace in the text is normalized.
+	 * 
+	 * @param text
+	 *            The text to synthesize
+	 * @param voice
+	 *            The name of the voice
+	 * @return The key
+	 */
+	static String key(String text, String voice) {
+		return voice + "\n" + text.trim().replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * Get's the cached speech
+	 * 
+	 * @param key
+	 *            The key of the speech
+	 * @return A new stream of the cached speech or null if the speech is not cached
+	 */
+	AudioInputStream get(String key) {
+		Entry entry;
+		synchronized (this) {
+			entry = this.entries.get(key);
+			if (entry != null) {
+				this.hits++;
+				return entry.stream();
+			}
+		}
+		entry = load(key);
+		synchronized (this) {
+			if (entry == null) {
+				this.misses++;
+				return null;
+			}
+			this.hits++;
+			putInMemory(key, entry);
+		}
+		return entry.stream();
+	}
+
+	/**
+	 * Adds the speech to the cache
+	 * 
+	 * @param key
+	 *            The key of the speech
+	 * @param format
+	 *            The format of the data
+	 * @param data
+	 *            The PCM data of the speech, which must not be changed afterwards
+	 */
+	void put(String key, AudioFormat format, byte[] data) {
+		Entry entry = new Entry(format, data);
+		synchronized (this) {
+			putInMemory(key, entry);
+		}
+		store(key, entry);
+	}
+
+	/**
+	 * Reads the speech and adds it to the cache
+	 * 
+	 * @param key
+	 *            The key of the speech
+	 * @param speech
+	 *            The stream of the speech, which is closed afterwards
+	 * @return A new stream of the read speech
+	 * @throws IOException
+	 *             if an input or output error occurs while reading from the stream.
+	 */
+	AudioInputStream put(String key, AudioInputStream speech) throws IOException {
+		byte[] data;
+		try (InputStream in = speech) {
+			data = readAll(in);
+		}
+		put(key, speech.getFormat(), data);
+		return new Entry(speech.getFormat(), data).stream();
+	}
+
+	private void putInMemory(String key, Entry entry) {
+		if (entry.data.length > this.maxBytes)
+			return;
+		Entry old = this.entries.put(key, entry);
+		if (old != null) {
+			this.bytes -= old.data.length;
+		}
+		this.bytes += entry.data.length;
+		Iterator<Entry> eldest = this.entries.values().iterator();
+		while (this.bytes > this.maxBytes) {
+			this.bytes -= eldest.next().data.length;
+			eldest.remove();
+		}
+	}
+
+	private Entry load(String key) {
+		if (this.directory == null)
+			return null;
+		Path file = file(key);
+		if (!Files.exists(file))
+			return null;
+		try (AudioInputStream in = AudioSystem.getAudioInputStream(file.toFile())) {
+			Entry entry = new Entry(in.getFormat(), readAll(in));
+			// the modification time is used to delete the least recently used files
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			return entry;
+		} catch (IOException | UnsupportedAudioFileException e) {
+			this.logger.warn("Could not read the cached speech {}", file, e);
+			return null;
+		}
+	}
+
+	private void store(String key, Entry entry) {
+		if (this.directory == null || entry.data.length > this.maxDiskBytes)
+			return;
+		Path file = file(key);
+		try {
+			Path tmp = Files.createTempFile(this.directory, "speech", ".tmp");
+			try (AudioInputStream in = entry.stream()) {
+				AudioSystem.write(in, AudioFileFormat.Type.WAVE, tmp.toFile());
+				long size = Files.size(tmp);
+				long oldSize = Files.exists(file) ? Files.size(file) : 0;
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				synchronized (this) {
+					this.diskBytes += size - oldSize;
+				}
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+			trimDisk();
+		} catch (IOException e) {
+			this.logger.warn("Could not store the speech in {}", file, e);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files until the directory is small enough
+	 * 
+	 * @throws IOException
+	 *             When the directory can not be read
+	 */
+	private synchronized void trimDisk() throws IOException {
+		if (this.diskBytes <= this.maxDiskBytes)
+			return;
+		List<Path> files = files();
+		files.sort(Comparator.comparing(SpeechCache::lastModified));
+		for (Iterator<Path> it = files.iterator(); this.diskBytes > this.maxDiskBytes && it.hasNext();) {
+			Path file = it.next();
+			long size = Files.size(file);
+			Files.delete(file);
+			this.diskBytes -= size;
+		}
+	}
+
+	private List<Path> files() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + FILE_EXTENSION)) {
+			stream.forEach(files::add);
+		}
+		return files;
+	}
+
+	private static FileTime lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+
+	private Path file(String key) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			StringBuilder name = new StringBuilder();
+			for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+				name.append(String.format("%02x", b));
+			}
+			return this.directory.resolve(name.append(FILE_EXTENSION).toString());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return The number of lookups, which found the speech in memory or on disk
+	 */
+	synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * @return The number of lookups, which did not find the speech
+	 */
+	synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * @return The number of bytes of PCM data held in memory
+	 */
+	synchronized long getBytes() {
+		return this.bytes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "hits " + this.hits + ", misses " + this.misses + ", memory " + this.bytes + "/" + this.maxBytes
+				+ " bytes, " + (this.directory == null ? "no disk" : "disk " + this.diskBytes + "/" + this.maxDiskBytes
+						+ " bytes in " + this.directory);
+	}
+
+	/**
+	 * A cached speech
+	 */
+	private static class Entry {
+		private final AudioFormat format;
+		private final byte[] data;
+
+		Entry(AudioFormat format, byte[] data) {
+			this.format = format;
+			this.data = data;
+		}
+
+		AudioInputStream stream() {
+			return new AudioInputStream(new ByteArrayInputStream(this.data), this.format,
+					this.data.length / this.format.getFrameSize());
+		}
+	}
+}
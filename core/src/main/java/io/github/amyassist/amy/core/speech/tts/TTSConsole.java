@@ -46,4 +46,10 @@ public class TTSConsole {
 	public void stopTextToSpeech() {
 		this.output.stopOutput();
 	}
+
+	@Command(name = "TextToSpeechStatistics", abbrev = "tts:stats",
+			description = "show the time to first audio of the TextToSpeech Service")
+	public String statistics() {
+		return this.output.getStatistics().toString();
+	}
 }
@@ -23,14 +23,24 @@
 
 package io.github.amyassist.amy.core.speech.tts;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 
 import org.slf4j.Logger;
 
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
 import io.github.amyassist.amy.core.di.annotation.PostConstruct;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.di.annotation.Service;
+import io.github.amyassist.amy.core.io.Environment;
+import io.github.amyassist.amy.core.natlang.NatlangInformation;
+import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
 import marytts.LocalMaryInterface;
 import marytts.exceptions.MaryConfigurationException;
 import marytts.exceptions.SynthesisException;
@@ -38,6 +48,9 @@ import marytts.modules.synthesis.Voice;
 
 /**
  * Implementation of the TTS Interface
+ * <p>
+ * The synthesized speech is cached, so recurring texts are only synthesized once. The fixed answers of natlang and
+ * the texts configured to pre-warm the cache are synthesized one after another in the background at startup.
  * 
  * @author Kai Menzel
  */
@@ -46,15 +59,36 @@ public class TextToSpeechImpl implements TextToSpeech {
 
 	private static final int DEFAULT_WAIT_TIME_AFTER_SPEECH = 1000;
 
+	private static final String CONFIG_NAME = "tts.config";
+	private static final String PROPERTY_CACHE_MAX_BYTES = "cache.maxBytes";
+	private static final String PROPERTY_CACHE_DIRECTORY = "cache.directory";
+	private static final String PROPERTY_CACHE_MAX_DISK_BYTES = "cache.maxDiskBytes";
+	private static final String PROPERTY_CACHE_PREWARM = "cache.prewarm";
+	private static final String PREWARM_SEPARATOR = ";";
+
 	@Reference
 	private Logger logger;
 
+	@Reference
+	private ConfigurationManager configurationManager;
+
+	@Reference
+	private Environment environment;
+
+	@Reference
+	private TaskScheduler scheduler;
+
+	@Reference
+	private NatlangInformation natlangInformation;
+
 	private LocalMaryInterface mary;
 
 	private AudioInputStreamWithPauseFactory aisWithPauseFactory;
 
 	private Voice voice;
 
+	private SpeechCache cache;
+
 	@PostConstruct
 	private void init() {
 		this.aisWithPauseFactory = new AudioInputStreamWithPauseFactory();
@@ -66,6 +100,34 @@ public class TextToSpeechImpl implements TextToSpeech {
 			this.logger.error("Mary init error");
 			throw new IllegalStateException(e);
 		}
+		Properties config = this.configurationManager.getConfigurationWithDefaults(CONFIG_NAME);
+		String directory = config.getProperty(PROPERTY_CACHE_DIRECTORY, "").trim();
+		Path cacheDirectory = directory.isEmpty() ? null : this.environment.getWorkingDirectory().resolve(directory);
+		this.cache = new SpeechCache(this.logger, Long.parseLong(config.getProperty(PROPERTY_CACHE_MAX_BYTES)),
+				cacheDirectory, Long.parseLong(config.getProperty(PROPERTY_CACHE_MAX_DISK_BYTES)));
+		List<String> prewarm = new ArrayList<>(this.natlangInformation.getFixedAnswers());
+		for (String text : config.getProperty(PROPERTY_CACHE_PREWARM, "").split(PREWARM_SEPARATOR)) {
+			if (!text.trim().isEmpty()) {
+				prewarm.add(text);
+			}
+		}
+		this.scheduler.execute(() -> prewarm(prewarm));
+	}
+
+	/**
+	 * Synthesizes the given texts, which are not cached yet
+	 * 
+	 * @param texts
+	 *            The texts to cache
+	 */
+	private void prewarm(List<String> texts) {
+		for (String text : texts) {
+			AudioInputStream speech = getSpeech(text);
+			if (speech == null) {
+				this.logger.warn("Could not pre-warm the speech cache with \"{}\"", text);
+			}
+		}
+		this.logger.info("speech cache pre-warmed: {}", this.cache);
 	}
 
 	/**
@@ -78,14 +140,31 @@ public class TextToSpeechImpl implements TextToSpeech {
 
 	@Override
 	public AudioInputStream getMaryAudio(String s, int millisecondsToPausetAfterSpeech) {
+		AudioInputStream speech = getSpeech(s);
+		if (speech == null)
+			return null;
+		return this.aisWithPauseFactory.getAudioInputStreamWithPause(speech, millisecondsToPausetAfterSpeech);
+	}
+
+	/**
+	 * Get's the speech for the given string from the cache or synthesizes and caches it.
+	 * 
+	 * @param s
+	 *            String to voice
+	 * @return The speech without pause or null if it could not be synthesized
+	 */
+	private AudioInputStream getSpeech(String s) {
+		String text = preProcessing(s);
+		String key = SpeechCache.key(text, this.voice.getName());
+		AudioInputStream cached = this.cache.get(key);
+		if (cached != null)
+			return cached;
 		try {
-			return this.aisWithPauseFactory.getAudioInputStreamWithPause(this.mary.generateAudio(preProcessing(s)),
-					millisecondsToPausetAfterSpeech);
-		} catch (SynthesisException e) {
+			return this.cache.put(key, this.mary.generateAudio(text));
+		} catch (SynthesisException | IOException e) {
 			this.logger.error("output error", e);
 			return null;
 		}
-
 	}
 
 	/**
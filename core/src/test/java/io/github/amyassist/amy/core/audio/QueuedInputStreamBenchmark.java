@@ -0,0 +1,118 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares passing one block of microphone input through the ring buffer of {@link QueuedInputStream} with the boxed
+ * byte queue used before. Run the main method from the test classpath, the benchmark is not part of the unit tests.
+ * 
+ * @author Tim Neumann
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueuedInputStreamBenchmark {
+
+	private static final int BLOCK_SIZE = 1024;
+
+	private final byte[] block = new byte[BLOCK_SIZE];
+	private final byte[] out = new byte[BLOCK_SIZE];
+
+	private QueuedInputStream stream;
+
+	private BlockingQueue<Integer> queue;
+
+	/**
+	 * creates the streams
+	 */
+	@Setup
+	public void setup() {
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			this.block[i] = (byte) i;
+		}
+		this.stream = new QueuedInputStream();
+		this.queue = new ArrayBlockingQueue<>(10000);
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the read bytes
+	 * @throws Exception
+	 *             if the transfer fails
+	 */
+	@Benchmark
+	public void ringBuffer(Blackhole blackhole) throws Exception {
+		this.stream.write(this.block, 0, BLOCK_SIZE);
+		int read = 0;
+		while (read < BLOCK_SIZE) {
+			read += this.stream.read(this.out, read, BLOCK_SIZE - read);
+		}
+		blackhole.consume(this.out);
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the read bytes
+	 * @throws Exception
+	 *             if the transfer fails
+	 */
+	@Benchmark
+	public void boxedQueue(Blackhole blackhole) throws Exception {
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			this.queue.put(Byte.toUnsignedInt(this.block[i]));
+		}
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			this.out[i] = (byte) this.queue.take().intValue();
+		}
+		blackhole.consume(this.out);
+	}
+
+	/**
+	 * runs the benchmark
+	 * 
+	 * @param args
+	 *            not used
+	 * @throws RunnerException
+	 *             if the benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(QueuedInputStreamBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+}
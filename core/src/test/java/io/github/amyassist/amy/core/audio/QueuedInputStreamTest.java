@@ -0,0 +1,225 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.amyassist.amy.core.audio.QueuedInputStream.OverflowPolicy;
+
+/**
+ * Test class for {@link QueuedInputStream}
+ * 
+ * @author Tim Neumann
+ */
+class QueuedInputStreamTest {
+
+	@Test
+	void testReadWrittenBytes() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(16);
+		stream.write(new byte[] { 1, (byte) 200, 3 }, 0, 3);
+
+		assertThat(stream.available(), is(3));
+		assertThat(stream.read(), is(1));
+		assertThat(stream.read(), is(200));
+		byte[] b = new byte[4];
+		assertThat(stream.read(b, 1, 3), is(1));
+		assertThat(b[1], is((byte) 3));
+	}
+
+	@Test
+	void testWrapAround() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(8);
+		byte[] data = { 0, 1, 2, 3, 4, 5 };
+		byte[] out = new byte[6];
+		for (int i = 0; i < 5; i++) {
+			assertThat(stream.offer(data, 0, data.length), is(6));
+			assertThat(stream.read(out, 0, out.length), is(6));
+			assertThat(out, is(data));
+		}
+	}
+
+	@Test
+	void testOfferWhenFull() {
+		QueuedInputStream stream = new QueuedInputStream(4);
+
+		assertThat(stream.offer(new byte[6], 0, 6), is(4));
+		assertThat(stream.remainingCapacity(), is(0));
+		assertThat(stream.offer(new byte[1], 0, 1), is(0));
+	}
+
+	@Test
+	void testWriteTimeout() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(4);
+
+		assertThat(stream.write(new byte[6], 0, 6, 20, TimeUnit.MILLISECONDS), is(4));
+	}
+
+	@Test
+	void testPublishDropNewest() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(4, OverflowPolicy.DROP_NEWEST);
+		stream.publish(new byte[] { 1, 2, 3 }, 0, 3);
+		stream.publish(new byte[] { 4, 5, 6 }, 0, 3);
+
+		byte[] b = new byte[4];
+		assertThat(stream.read(b, 0, 4), is(4));
+		assertThat(b, is(new byte[] { 1, 2, 3, 4 }));
+		assertThat(stream.getOverruns(), is(2L));
+	}
+
+	@Test
+	void testPublishDropOldest() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(4, OverflowPolicy.DROP_OLDEST);
+		stream.publish(new byte[] { 1, 2, 3 }, 0, 3);
+		stream.publish(new byte[] { 4, 5, 6 }, 0, 3);
+
+		byte[] b = new byte[4];
+		assertThat(stream.read(b, 0, 4), is(4));
+		assertThat(b, is(new byte[] { 3, 4, 5, 6 }));
+		assertThat(stream.getOverruns(), is(2L));
+	}
+
+	@Test
+	void testPublishDropOldestLargerThanCapacity() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(4, OverflowPolicy.DROP_OLDEST);
+		stream.publish(new byte[] { 1, 2, 3, 4, 5, 6 }, 0, 6);
+
+		byte[] b = new byte[4];
+		assertThat(stream.read(b, 0, 4), is(4));
+		assertThat(b, is(new byte[] { 3, 4, 5, 6 }));
+		assertThat(stream.getOverruns(), is(2L));
+		assertThat(stream.getWritten(), is(4L));
+	}
+
+	@Test
+	void testDropOldestWithConcurrentReader() {
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			QueuedInputStream stream = new QueuedInputStream(64, OverflowPolicy.DROP_OLDEST);
+			int blocks = 10000;
+			Thread writer = new Thread(() -> {
+				ByteBuffer block = ByteBuffer.allocate(48);
+				try {
+					for (int i = 0; i < blocks; i++) {
+						block.clear();
+						while (block.hasRemaining()) {
+							block.putShort((short) i);
+						}
+						stream.publish(block.array(), 0, block.capacity());
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				stream.setAutoEnding(true);
+			});
+			writer.start();
+
+			// all counts are even, so the shorts are never split
+			byte[] b = new byte[16];
+			int last = 0;
+			long read = 0;
+			int count;
+			while ((count = stream.read(b, 0, b.length)) != -1) {
+				ByteBuffer chunk = ByteBuffer.wrap(b, 0, count);
+				while (chunk.hasRemaining()) {
+					int value = Short.toUnsignedInt(chunk.getShort());
+					assertThat(value, greaterThanOrEqualTo(last));
+					last = value;
+				}
+				read += count;
+			}
+			writer.join();
+			assertThat(read + stream.getOverruns(), is(blocks * 48L));
+		});
+	}
+
+	@Test
+	void testAutoEnding() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(4);
+		stream.offer(new byte[] { 7 }, 0, 1);
+		stream.setAutoEnding(true);
+
+		assertThat(stream.read(), is(7));
+		assertThat(stream.read(), is(-1));
+		assertThat(stream.read(new byte[2], 0, 2), is(-1));
+	}
+
+	@Test
+	void testClosed() throws Exception {
+		QueuedInputStream stream = new QueuedInputStream(4);
+		stream.close();
+
+		assertThat(stream.isClosed(), is(true));
+		assertThat(stream.offer(new byte[1], 0, 1), is(0));
+		assertThrows(IOException.class, () -> stream.read());
+	}
+
+	@Test
+	void testInvalidCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> new QueuedInputStream(1000));
+	}
+
+	@Test
+	void testConcurrentTransfer() {
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			QueuedInputStream stream = new QueuedInputStream(64);
+			int total = 100000;
+			Thread writer = new Thread(() -> {
+				byte[] block = new byte[100];
+				try {
+					for (int written = 0; written < total; written += block.length) {
+						for (int i = 0; i < block.length; i++) {
+							block[i] = (byte) (written + i);
+						}
+						stream.write(block, 0, block.length);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				stream.setAutoEnding(true);
+			});
+			writer.start();
+
+			byte[] b = new byte[37];
+			int read = 0;
+			int count;
+			while ((count = stream.read(b, 0, b.length)) != -1) {
+				for (int i = 0; i < count; i++) {
+					assertThat(b[i], is((byte) (read + i)));
+				}
+				read += count;
+			}
+			assertThat(read, is(total));
+			writer.join();
+		});
+	}
+}
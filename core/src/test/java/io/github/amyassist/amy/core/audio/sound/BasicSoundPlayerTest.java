@@ -27,6 +27,7 @@ import java.io.IOException;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -236,23 +237,25 @@ class BasicSoundPlayerTest {
 		});
 
 		try (AudioInputStream ais = player.getAudioStream()) {
-			player.start();
-
-			ais.read(data, 0, 10);
-			this.shouldStop = true;
-			Thread[] threads = new Thread[Thread.activeCount()];
-			Thread.enumerate(threads);
-			for (Thread t : threads) {
-				if (t.getName().equals("SoundPlayerThread")) {
-					t.interrupt();
+			Thread reader = new Thread(() -> {
+				try {
+					ais.read(data, 0, 10);
+				} catch (IOException e) {
+					// expected, the thread is interrupted while waiting for the start
 				}
-			}
+			});
+			this.shouldStop = true;
+			reader.start();
+			reader.interrupt();
+			reader.join(5000);
 
-			while (player.isRunning()) {
-				// this is legitimate, deterministic use of sleep
-				Thread.sleep(100); // NOSONAR
-			}
+			Assertions.assertFalse(reader.isAlive(), "Reader should have been interrupted.");
+			Assertions.assertFalse(this.stopHookExecuted, "Stop hook should not be run before the start.");
 
+			player.start();
+
+			Assertions.assertFalse(player.isRunning(), "Player should not run after the interrupt.");
+			Assertions.assertEquals(-1, ais.read(data, 0, 10), "No data should be read after the interrupt.");
 			Assertions.assertTrue(this.stopHookExecuted, "Did not run stop hook.");
 			Assertions.assertTrue(this.wasShouldStopWhenHookExecuted, "Should not stop yet.");
 			Assertions.assertEquals(StopReason.OTHER, this.reason, "Wrong stop reason.");
@@ -260,6 +263,71 @@ class BasicSoundPlayerTest {
 
 	}
 
+	/**
+	 * Test method for {@link io.github.amyassist.amy.core.audio.sound.BasicSoundPlayer#getAudioStream()} with multiple
+	 * loops.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testLoop() throws IOException {
+		byte[] in = new byte[getFormat().getFrameSize() * 101];
+		fillBuffer(in);
+		byte[] out = new byte[in.length * 3];
+
+		BasicSoundPlayer player = new BasicSoundPlayer(in, getFormat(), 3);
+		player.setOnStopHook(r -> this.reason = r);
+
+		try (AudioInputStream ais = player.getAudioStream()) {
+			Assertions.assertEquals(303, ais.getFrameLength(), "Wrong frame length.");
+
+			player.start();
+
+			int amount = readAll(out, ais);
+			Assertions.assertEquals(out.length, amount, "Wrong number of bytes");
+			for (int i = 0; i < out.length; i++) {
+				Assertions.assertEquals(in[i % in.length], out[i], "Wrong data at " + i);
+			}
+			Assertions.assertEquals(StopReason.END_OF_AUDIO, this.reason, "Wrong stop reason.");
+			Assertions.assertFalse(player.isRunning(), "Player should not run anymore.");
+		}
+	}
+
+	/**
+	 * Test method for {@link io.github.amyassist.amy.core.audio.sound.BasicSoundPlayer#getAudioStream()} with infinite
+	 * looping.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testInfiniteLoop() throws IOException {
+		byte[] in = new byte[getFormat().getFrameSize() * 10];
+		fillBuffer(in);
+		byte[] out = new byte[in.length * 50 + getFormat().getFrameSize() * 3];
+
+		BasicSoundPlayer player = new BasicSoundPlayer(in, getFormat(), -1);
+		player.setOnStopHook(r -> this.reason = r);
+
+		try (AudioInputStream ais = player.getAudioStream()) {
+			Assertions.assertEquals(AudioSystem.NOT_SPECIFIED, ais.getFrameLength(), "Wrong frame length.");
+
+			player.start();
+
+			Assertions.assertEquals(out.length, ais.read(out), "Wrong number of bytes");
+			for (int i = 0; i < out.length; i++) {
+				Assertions.assertEquals(in[i % in.length], out[i], "Wrong data at " + i);
+			}
+			Assertions.assertTrue(player.isRunning(), "Player should still run.");
+
+			player.stop();
+
+			Assertions.assertEquals(-1, ais.read(out), "No data should be read after the stop.");
+			Assertions.assertEquals(StopReason.PLAYER_STOPPED, this.reason, "Wrong stop reason.");
+		}
+	}
+
 	/**
 	 * Test method for
 	 * {@link io.github.amyassist.amy.core.audio.sound.BasicSoundPlayer#setOnStopHook(java.util.function.Consumer)}.
@@ -0,0 +1,233 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.audio.sound;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link SoundFactoryService}
+ * 
+ * @author Tim Neumann
+ */
+class SoundFactoryServiceTest {
+
+	private SoundFactoryService factory;
+	private Path tempDir;
+
+	@BeforeEach
+	public void init() throws IOException {
+		this.factory = new SoundFactoryService();
+		this.tempDir = Files.createTempDirectory(SoundFactoryServiceTest.class.getName());
+	}
+
+	@AfterEach
+	public void cleanUp() throws IOException {
+		for (File file : this.tempDir.toFile().listFiles()) {
+			Files.delete(file.toPath());
+		}
+		Files.delete(this.tempDir);
+	}
+
+	/**
+	 * Test method for {@link SoundFactoryService#loadSound(AudioInputStream)} with an unknown length.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testLoadStreamUnknownLength() throws IOException {
+		byte[] data = createData(100002);
+		AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(data), getFormat(),
+				AudioSystem.NOT_SPECIFIED);
+
+		Sound sound = this.factory.loadSound(stream);
+
+		Assertions.assertEquals(50001, sound.getFrameLength(), "Wrong frame length");
+		Assertions.assertArrayEquals(data, play(sound), "Wrong data");
+	}
+
+	/**
+	 * Test method for {@link SoundFactoryService#loadSound(Path)}.
+	 * 
+	 * @throws Exception
+	 *             When an error occurs
+	 */
+	@Test
+	void testLoadPath() throws Exception {
+		byte[] data = createData(20000);
+		Path file = writeWave(data, "sound.wav");
+
+		Sound sound = this.factory.loadSound(file);
+
+		Assertions.assertEquals(10000, sound.getFrameLength(), "Wrong frame length");
+		Assertions.assertEquals(getFormat().toString(), sound.getFormat().toString(), "Wrong format");
+		Assertions.assertArrayEquals(data, play(sound), "Wrong data");
+		Assertions.assertArrayEquals(data, play(sound), "Wrong data when played again");
+		Assertions.assertSame(sound, this.factory.loadSound(file), "Sound should be cached by path");
+		Assertions.assertSame(sound, this.factory.loadSound(file.toUri().toURL()), "Sound should be cached by url");
+	}
+
+	/**
+	 * Test method for {@link SoundFactoryService#loadSound(Path)} with the same content at different locations.
+	 * 
+	 * @throws Exception
+	 *             When an error occurs
+	 */
+	@Test
+	void testLoadSameContent() throws Exception {
+		byte[] data = createData(2000);
+		Path file1 = writeWave(data, "sound1.wav");
+		Path file2 = writeWave(data, "sound2.wav");
+		Path file3 = writeWave(createData(2002), "sound3.wav");
+
+		Sound sound = this.factory.loadSound(file1);
+
+		Assertions.assertSame(sound, this.factory.loadSound(file2), "Sound should be cached by content");
+		Assertions.assertNotSame(sound, this.factory.loadSound(file3), "Different sounds should not be shared");
+	}
+
+	/**
+	 * Test method for {@link SoundFactoryService#loadSound(Path)} with a file that is replaced after loading it.
+	 * 
+	 * @throws Exception
+	 *             When an error occurs
+	 */
+	@Test
+	void testLoadReplacedFile() throws Exception {
+		Path file = writeWave(createData(2000), "sound.wav");
+		Sound sound = this.factory.loadSound(file);
+
+		byte[] data = createData(2000);
+		data[0] = 1;
+		Path replacement = writeWave(data, "replacement.wav");
+		FileTime lastModified = Files.getLastModifiedTime(file);
+		Files.setLastModifiedTime(replacement, FileTime.fromMillis(lastModified.toMillis() + 10000));
+		Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+
+		Sound replaced = this.factory.loadSound(file);
+		Assertions.assertNotSame(sound, replaced, "Replaced file should be loaded again");
+		Assertions.assertArrayEquals(data, play(replaced), "Wrong data of replaced file");
+		Assertions.assertSame(replaced, this.factory.loadSound(file), "Replaced file should be cached");
+	}
+
+	/**
+	 * Test method for {@link SoundFactoryService#loadSound(URL)} with the sounds of the core.
+	 * 
+	 * @throws Exception
+	 *             When an error occurs
+	 */
+	@Test
+	void testLoadUrl() throws Exception {
+		for (String name : new String[] { "single_call_start_beep.wav", "single_call_stop_beep.wav" }) {
+			URL url = SoundFactoryServiceTest.class.getResource("/io/github/amyassist/amy/core/speech/data/" + name);
+
+			Sound sound = this.factory.loadSound(url);
+
+			try (AudioInputStream expected = AudioSystem.getAudioInputStream(url)) {
+				Assertions.assertEquals(expected.getFormat().toString(), sound.getFormat().toString(),
+						"Wrong format of " + name);
+				Assertions.assertArrayEquals(readAll(expected), play(sound), "Wrong data of " + name);
+			}
+			Assertions.assertSame(sound, this.factory.loadSound(url), "Sound should be cached by url");
+		}
+	}
+
+	/**
+	 * Test method for {@link SoundFactoryService#loadSound(Path)} with a file that is no audio file.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testLoadUnsupported() throws IOException {
+		Path file = this.tempDir.resolve("sound.wav");
+		Files.write(file, createData(100));
+
+		Assertions.assertThrows(UnsupportedAudioFileException.class, () -> this.factory.loadSound(file));
+	}
+
+	private Path writeWave(byte[] data, String name) throws IOException {
+		Path file = this.tempDir.resolve(name);
+		try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(data), getFormat(),
+				data.length / getFormat().getFrameSize())) {
+			AudioSystem.write(stream, AudioFileFormat.Type.WAVE, file.toFile());
+		}
+		return file;
+	}
+
+	private byte[] play(Sound sound) throws IOException {
+		SoundPlayer player = sound.getSinglePlayer();
+		try (AudioInputStream stream = player.getAudioStream()) {
+			player.start();
+			return readAll(stream);
+		}
+	}
+
+	private byte[] readAll(InputStream stream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private byte[] createData(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 7);
+		}
+		return data;
+	}
+
+	private AudioFormat getFormat() {
+		final float sampleRate = 16000.0f;
+		final int sampleSizeInBits = 16;
+		final int channels = 1;
+		final boolean signed = true;
+		final boolean bigEndian = false;
+		return new AudioFormat(sampleRate, sampleSizeInBits, channels, signed, bigEndian);
+	}
+}
@@ -25,15 +25,20 @@ package io.github.amyassist.amy.core.speech.output;
 
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Properties;
 import java.util.UUID;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import io.github.amyassist.amy.core.audio.AudioManager;
@@ -42,6 +47,7 @@ import io.github.amyassist.amy.core.audio.LocalAudio;
 import io.github.amyassist.amy.core.audio.sound.Sound;
 import io.github.amyassist.amy.core.audio.sound.SoundFactory;
 import io.github.amyassist.amy.core.audio.sound.SoundPlayer;
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.speech.data.Sounds;
 import io.github.amyassist.amy.core.speech.tts.TextToSpeech;
@@ -65,6 +71,7 @@ class OutputTest {
 	private LocalAudio la;
 	private Output output;
 	private SoundFactory sf;
+	private TaskScheduler scheduler;
 	private UUID uuid = new UUID(1, 1);
 
 	private AudioInputStream mockedAis;
@@ -79,7 +86,13 @@ class OutputTest {
 		this.am = this.framework.mockService(AudioManager.class);
 		this.la = this.framework.mockService(LocalAudio.class);
 		this.sf = this.framework.mockService(SoundFactory.class);
-		this.framework.mockService(TaskScheduler.class);
+		this.scheduler = this.framework.mockService(TaskScheduler.class);
+		ConfigurationManager configurationManager = this.framework.mockService(ConfigurationManager.class);
+		Properties config = new Properties();
+		config.setProperty("streaming", "true");
+		config.setProperty("segmentMaxLength", "80");
+		config.setProperty("segmentPause", "200");
+		when(configurationManager.getConfigurationWithDefaults("speechOutput.config")).thenReturn(config);
 
 		this.mockedAis = Mockito.mock(AudioInputStream.class);
 
@@ -210,4 +223,45 @@ class OutputTest {
 		verify(sp1).isRunning();
 
 	}
+
+	/**
+	 * Test method for
+	 * {@link io.github.amyassist.amy.core.speech.output.OutputImpl#voiceOutput(java.lang.String)} with multiple
+	 * sentences.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testVoiceOutputStreaming() throws IOException {
+		AudioFormat format = new AudioFormat(16000.0f, 16, 1, true, false);
+		when(this.tts.getMaryAudioFormat()).thenReturn(format);
+		when(this.tts.getMaryAudio("Hello there.", 200))
+				.thenReturn(new AudioInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }), format, 2));
+		when(this.tts.getMaryAudio("How are you?"))
+				.thenReturn(new AudioInputStream(new ByteArrayInputStream(new byte[] { 5, 6 }), format, 1));
+
+		this.output = this.framework.setServiceUnderTest(OutputImpl.class);
+
+		this.output.voiceOutput("Hello there. How are you?");
+
+		ArgumentCaptor<AudioInputStream> stream = ArgumentCaptor.forClass(AudioInputStream.class);
+		verify(this.am).playAudio(eq(this.uuid), stream.capture(), eq(OutputBehavior.QUEUE));
+		verify(this.tts, never()).getMaryAudio("Hello there. How are you?");
+		Assertions.assertTrue(this.output.isCurrentlyOutputting());
+
+		ArgumentCaptor<Runnable> worker = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.scheduler).execute(worker.capture());
+		worker.getValue().run();
+
+		ByteArrayOutputStream played = new ByteArrayOutputStream();
+		byte[] buffer = new byte[16];
+		int read;
+		while ((read = stream.getValue().read(buffer)) != -1) {
+			played.write(buffer, 0, read);
+		}
+		Assertions.assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6 }, played.toByteArray());
+		Assertions.assertFalse(this.output.isCurrentlyOutputting());
+		Assertions.assertEquals(1, this.output.getStatistics().getVoiceOutputs());
+	}
 }
@@ -0,0 +1,72 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.speech.output;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link SpeechSegmenter}
+ * 
+ * @author Tim Neumann
+ */
+class SpeechSegmenterTest {
+
+	/**
+	 * Test method for {@link SpeechSegmenter#split(String, int)} with sentences.
+	 */
+	@Test
+	void testSplitSentences() {
+		Assertions.assertEquals(Arrays.asList("It is 3.5 degrees.", "Do you need a jacket?", "Yes!"),
+				SpeechSegmenter.split("It is 3.5 degrees. Do you need a jacket?  Yes!", 80));
+	}
+
+	/**
+	 * Test method for {@link SpeechSegmenter#split(String, int)} with a single sentence.
+	 */
+	@Test
+	void testSplitSingle() {
+		Assertions.assertEquals(Collections.singletonList("waking up"), SpeechSegmenter.split(" waking up ", 80));
+		Assertions.assertEquals(Collections.emptyList(), SpeechSegmenter.split("", 80));
+	}
+
+	/**
+	 * Test method for {@link SpeechSegmenter#split(String, int)} with a sentence longer than the maximum length.
+	 */
+	@Test
+	void testSplitPhrases() {
+		Assertions.assertEquals(
+				Arrays.asList("Your next appointments are lunch at 12:30, dentist at 14:00,",
+						"meeting with the team at 15:00; and the gym at 18:00.", "Have a nice day."),
+				SpeechSegmenter.split("Your next appointments are lunch at 12:30, dentist at 14:00, "
+						+ "meeting with the team at 15:00; and the gym at 18:00. Have a nice day.", 60));
+		Assertions.assertEquals(Arrays.asList("Supercalifragilistic,", "ok."),
+				SpeechSegmenter.split("Supercalifragilistic, ok.", 10));
+		Assertions.assertEquals(Collections.singletonList("Supercalifragilistic."),
+				SpeechSegmenter.split("Supercalifragilistic.", 10));
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.speech.tts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests {@link SpeechCache}
+ * 
+ * @author Kai Menzel
+ */
+class SpeechCacheTest {
+
+	private static final AudioFormat FORMAT = new AudioFormat(16000.0f, 16, 1, true, false);
+
+	private Path tempDir;
+
+	@BeforeEach
+	void init() throws IOException {
+		this.tempDir = Files.createTempDirectory(SpeechCacheTest.class.getName());
+	}
+
+	@AfterEach
+	void cleanUp() throws IOException {
+		for (File file : this.tempDir.toFile().listFiles()) {
+			Files.delete(file.toPath());
+		}
+		Files.delete(this.tempDir);
+	}
+
+	/**
+	 * Test method for {@link SpeechCache#key(String, String)}.
+	 */
+	@Test
+	void testKey() {
+		Assertions.assertEquals(SpeechCache.key("now sleeping", "voice"), SpeechCache.key(" now \t sleeping\n", "voice"));
+		Assertions.assertNotEquals(SpeechCache.key("now sleeping", "voice"), SpeechCache.key("now sleeping", "other"));
+		Assertions.assertNotEquals(SpeechCache.key("now sleeping", "voice"), SpeechCache.key("Now sleeping", "voice"));
+	}
+
+	/**
+	 * Test method for {@link SpeechCache#get(String)} from memory.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testMemory() throws IOException {
+		SpeechCache cache = createCache(1000, null);
+		byte[] data = createData(100);
+
+		Assertions.assertNull(cache.get("a"));
+		AudioInputStream put = cache.put("a", new AudioInputStream(new ByteArrayInputStream(data), FORMAT, 50));
+		Assertions.assertArrayEquals(data, readAll(put));
+		Assertions.assertArrayEquals(data, readAll(cache.get("a")));
+		Assertions.assertArrayEquals(data, readAll(cache.get("a")));
+
+		Assertions.assertEquals(2, cache.getHits());
+		Assertions.assertEquals(1, cache.getMisses());
+		Assertions.assertEquals(100, cache.getBytes());
+	}
+
+	/**
+	 * Test method for {@link SpeechCache#put(String, AudioFormat, byte[])} when the cache is full.
+	 */
+	@Test
+	void testEviction() {
+		SpeechCache cache = createCache(300, null);
+
+		cache.put("a", FORMAT, createData(100));
+		cache.put("b", FORMAT, createData(100));
+		cache.put("c", FORMAT, createData(100));
+		Assertions.assertNotNull(cache.get("a"));
+		cache.put("d", FORMAT, createData(100));
+
+		Assertions.assertNotNull(cache.get("a"), "Recently used entry should be kept");
+		Assertions.assertNull(cache.get("b"), "Least recently used entry should be evicted");
+		Assertions.assertNotNull(cache.get("c"));
+		Assertions.assertNotNull(cache.get("d"));
+		Assertions.assertEquals(300, cache.getBytes());
+
+		cache.put("e", FORMAT, createData(400));
+		Assertions.assertNull(cache.get("e"), "Entry larger than the cache should not be cached");
+		Assertions.assertEquals(300, cache.getBytes());
+	}
+
+	/**
+	 * Test method for {@link SpeechCache#get(String)} from disk.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testDisk() throws IOException {
+		byte[] data = createData(200);
+		createCache(1000, 10000).put("a", FORMAT, data);
+
+		SpeechCache cache = createCache(1000, 10000);
+		AudioInputStream stream = cache.get("a");
+
+		Assertions.assertNotNull(stream, "Entry should be loaded from disk");
+		Assertions.assertEquals(FORMAT.toString(), stream.getFormat().toString());
+		Assertions.assertArrayEquals(data, readAll(stream));
+		Assertions.assertEquals(200, cache.getBytes(), "Entry should be loaded into memory");
+		Assertions.assertNull(cache.get("b"));
+	}
+
+	/**
+	 * Test method for {@link SpeechCache#put(String, AudioFormat, byte[])} when the directory is full.
+	 * 
+	 * @throws IOException
+	 *             When an io error occurs
+	 */
+	@Test
+	void testDiskTrim() throws IOException {
+		SpeechCache cache = createCache(0, 2000);
+		cache.put("a", FORMAT, createData(800));
+		cache.put("b", FORMAT, createData(800));
+		Assertions.assertEquals(2, this.tempDir.toFile().listFiles().length);
+
+		cache.put("c", FORMAT, createData(800));
+
+		Assertions.assertEquals(2, this.tempDir.toFile().listFiles().length);
+		Assertions.assertNotNull(cache.get("c"));
+	}
+
+	private SpeechCache createCache(long maxBytes, long maxDiskBytes) {
+		return new SpeechCache(LoggerFactory.getLogger(SpeechCacheTest.class), maxBytes, this.tempDir, maxDiskBytes);
+	}
+
+	private SpeechCache createCache(long maxBytes, Path directory) {
+		return new SpeechCache(LoggerFactory.getLogger(SpeechCacheTest.class), maxBytes, directory, 0);
+	}
+
+	private byte[] readAll(AudioInputStream stream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[64];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private byte[] createData(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 3);
+		}
+		return data;
+	}
+}
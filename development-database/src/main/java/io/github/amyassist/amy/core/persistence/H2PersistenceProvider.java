@@ -35,7 +35,8 @@ import io.github.amyassist.amy.core.persistence.provider.PersistenceProvider;
 /**
  * Persistence Provider implementation for local H2 database. This Provider generates the Properties to create and
  * connect to a local embedden h2 database. The location of the database file can be changed with the
- * <i>persistence.properties</i>.
+ * <i>persistence.properties</i>. Connections are pooled with c3p0, the pool can be configured for a single database
+ * with properties prefixed by <i>unit.{name}.</i> in the <i>javax.persistence.properties</i>.
  * 
  * @author Leon Kiefer
  */
@@ -65,7 +66,7 @@ public class H2PersistenceProvider implements PersistenceProvider {
 	public Properties getProperties(String name) {
 		String string = this.environment.getWorkingDirectory().resolve(this.dataDir).resolve(name).toAbsolutePath()
 				.toString();
-		Properties properties = new Properties(this.javaxProperties);
+		Properties properties = PersistenceProvider.unitProperties(this.javaxProperties, name);
 		properties.put("javax.persistence.jdbc.url", "jdbc:h2:" + string);
 		return properties;
 	}
@@ -34,7 +34,8 @@ import io.github.amyassist.amy.core.persistence.provider.PersistenceProvider;
 /**
  * Persistence Provider implementation for JDBC drivers. This Provider use the configuration form the
  * <i>javax.persistence.properties</i>. The property <i>javax.persistence.jdbc.url</i> should contain
- * <i>{databasename}</i> as placeholder for the database name.
+ * <i>{databasename}</i> as placeholder for the database name. Connections are pooled with c3p0, the pool can be
+ * configured for a single database with properties prefixed by <i>unit.{databasename}.</i>
  * 
  * @author Leon Kiefer
  */
@@ -55,7 +56,7 @@ public class GenericJDBCPersistenceProvider implements PersistenceProvider {
 
 	@Override
 	public Properties getProperties(String name) {
-		Properties properties = new Properties(this.javaxProperties);
+		Properties properties = PersistenceProvider.unitProperties(this.javaxProperties, name);
 		String url = properties.getProperty(JAVAX_PERSISTENCE_URL);
 		url = url.replace("{databasename}", name);
 		properties.setProperty(JAVAX_PERSISTENCE_URL, url);
@@ -84,4 +84,16 @@ class GenericJDBCPersistenceProviderTest {
 		assertThat(properties.getProperty("custom"), is("some{databasename}"));
 	}
 
+	@Test
+	void testUnitOverride() {
+		this.testProperties.setProperty("hibernate.c3p0.max_size", "20");
+		this.testProperties.setProperty("unit." + TEST_DATABASENAME + ".hibernate.c3p0.max_size", "5");
+		this.testProperties.setProperty("unit.other.hibernate.c3p0.max_size", "2");
+
+		Properties properties = this.provider.getProperties(TEST_DATABASENAME);
+
+		assertThat(properties.getProperty("hibernate.c3p0.max_size"), is("5"));
+		assertThat(this.provider.getProperties("unknown").getProperty("hibernate.c3p0.max_size"), is("20"));
+	}
+
 }
@@ -52,4 +52,11 @@ public interface NatlangInformation {
 	 */
 	public List<String> getAnySampleSentences(int nmbSentences);
 
+	/**
+	 * provides the fixed answers amy gives independent of the plugins, e.g. when a sentence was not understood
+	 * 
+	 * @return a list of answers
+	 */
+	public List<String> getFixedAnswers();
+
 }
@@ -32,6 +32,8 @@ import io.github.amyassist.amy.natlang.userinteraction.UserIntent;
 /**
  * internal implementation of dialog interface
  * 
+ * A dialog is processed by one thread at a time, see {@link DialogHandlerImpl}
+ * 
  * @author Felix Burk
  */
 public class Dialog {
@@ -51,12 +53,12 @@ public class Dialog {
 	/**
 	 * current intent - if null no intent is started
 	 */
-	private UserIntent intent = null;
+	private volatile UserIntent intent = null;
 
 	/**
 	 * next prompt to process
 	 */
-	private Prompt nextPrompt = null;
+	private volatile Prompt nextPrompt = null;
 
 	/**
 	 * outputs the string to the user in some way
@@ -26,6 +26,7 @@ package io.github.amyassist.amy.natlang;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import io.github.amyassist.amy.core.natlang.Response;
@@ -40,6 +41,9 @@ import io.github.amyassist.amy.natlang.userinteraction.UserIntent;
 
 /**
  * Handles different dialog tasks
+ * 
+ * Dialogs can be processed concurrently. Utterances of the same dialog are processed one after another, because a
+ * dialog holds the state of the current intent.
  *
  * @author Felix Burk
  */
@@ -58,7 +62,7 @@ public class DialogHandlerImpl implements DialogHandler {
 	/**
 	 * internal map of dialogs with corresponding uuid
 	 */
-	private Map<UUID, Dialog> map = new HashMap<>();
+	private Map<UUID, Dialog> map = new ConcurrentHashMap<>();
 
 	@Override
 	public UUID createDialog(Consumer<Response> cons) {
@@ -74,10 +78,17 @@ public class DialogHandlerImpl implements DialogHandler {
 
 	@Override
 	public void process(String naturalLanguageText, UUID uuid) {
-		if (!this.map.containsKey(uuid))
+		Dialog dialog = this.map.get(uuid);
+		if (dialog == null)
 			throw new IllegalArgumentException("wrong UUID");
 
-		Dialog dialog = this.map.get(uuid);
+		synchronized (dialog) {
+			process(naturalLanguageText, dialog);
+		}
+	}
+
+	private void process(String naturalLanguageText, Dialog currentDialog) {
+		Dialog dialog = currentDialog;
 		UserIntent intent = dialog.getIntent();
 
 		if (intent == null) {
@@ -111,10 +122,11 @@ public class DialogHandlerImpl implements DialogHandler {
 
 	@Override
 	public boolean hasDialogUnfinishedIntent(UUID uuid) {
-		if (!this.map.containsKey(uuid))
+		Dialog dialog = this.map.get(uuid);
+		if (dialog == null)
 			throw new IllegalArgumentException("wrong UUID");
 
-		UserIntent intent = this.map.get(uuid).getIntent();
+		UserIntent intent = dialog.getIntent();
 
 		return (intent != null && !intent.isFinished());
 	}
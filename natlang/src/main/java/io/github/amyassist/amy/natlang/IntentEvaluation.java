@@ -0,0 +1,126 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+
+/**
+ * Result of resolving the intent of one utterance without a dialog and without calling the plugin, used to replay
+ * logged utterances against the registered grammars
+ *
+ * @author Felix Burk
+ */
+public final class IntentEvaluation {
+
+	private final String utterance;
+	private final Method intent;
+	private final AGFNode grammar;
+	private final Map<String, String> entities;
+	private final long durationNanos;
+
+	/**
+	 * constructor
+	 * 
+	 * @param utterance
+	 *            the evaluated utterance
+	 * @param intent
+	 *            the method of the matched intent, null if no intent matched
+	 * @param grammar
+	 *            the matched grammar, null if no intent matched
+	 * @param entities
+	 *            entity ids mapped to the captured user input
+	 * @param durationNanos
+	 *            time needed to lex and match the utterance
+	 */
+	public IntentEvaluation(String utterance, Method intent, AGFNode grammar, Map<String, String> entities,
+			long durationNanos) {
+		this.utterance = utterance;
+		this.intent = intent;
+		this.grammar = grammar;
+		this.entities = Collections.unmodifiableMap(entities);
+		this.durationNanos = durationNanos;
+	}
+
+	/**
+	 * Get's {@link #utterance utterance}
+	 * 
+	 * @return the evaluated utterance
+	 */
+	public String getUtterance() {
+		return this.utterance;
+	}
+
+	/**
+	 * @return true if an intent matched the utterance
+	 */
+	public boolean isMatched() {
+		return this.intent != null;
+	}
+
+	/**
+	 * Get's {@link #intent intent}
+	 * 
+	 * @return the method of the matched intent, null if no intent matched
+	 */
+	public Method getIntent() {
+		return this.intent;
+	}
+
+	/**
+	 * Get's {@link #grammar grammar}
+	 * 
+	 * @return the matched grammar, null if no intent matched
+	 */
+	public AGFNode getGrammar() {
+		return this.grammar;
+	}
+
+	/**
+	 * Get's {@link #entities entities}
+	 * 
+	 * @return entity ids mapped to the captured user input
+	 */
+	public Map<String, String> getEntities() {
+		return this.entities;
+	}
+
+	/**
+	 * Get's {@link #durationNanos durationNanos}
+	 * 
+	 * @return time needed to lex and match the utterance in nanoseconds
+	 */
+	public long getDurationNanos() {
+		return this.durationNanos;
+	}
+
+	@Override
+	public String toString() {
+		return this.utterance + " -> " + (isMatched() ? this.intent.getName() + " " + this.entities : "no match");
+	}
+
+}
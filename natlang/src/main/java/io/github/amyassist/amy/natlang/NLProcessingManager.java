@@ -25,9 +25,11 @@ package io.github.amyassist.amy.natlang;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.stream.Stream;
 
 import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
 import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.util.CacheStatistics;
 
 /**
  * Handles natural language processing from registered methods and corresponding intents
@@ -58,10 +60,37 @@ public interface NLProcessingManager {
 	 */
 	Dialog decideIntent(Dialog dialog, String naturalLanguageText);
 
+	/**
+	 * resolves the intent of one utterance without a dialog and without calling the plugin
+	 * @param naturalLanguageText from user
+	 * @return the matched intent and entities
+	 */
+	IntentEvaluation evaluateIntent(String naturalLanguageText);
+
+	/**
+	 * resolves the intents of many utterances in parallel on the common fork join pool, without dialogs and without
+	 * calling plugins. Can be used to replay logged utterances against the registered grammars.
+	 * @param utterances from users
+	 * @return the evaluations in the order of the utterances
+	 */
+	List<IntentEvaluation> evaluateIntents(Stream<String> utterances);
+
 	/**
 	 * returns a list of possible grammars that will be understood by amy
 	 * @return list of agf nodes
 	 */
 	List<AGFNode> getPossibleGrammars();
 
+	/**
+	 * returns the statistics of the cache of stemmed words, can be used to tune the stemCacheSize property
+	 * @return statistics of the stem cache
+	 */
+	CacheStatistics getStemCacheStatistics();
+
+	/**
+	 * returns the fixed answers amy gives independent of the registered intents, e.g. when the input was not understood
+	 * @return list of the fixed answers
+	 */
+	List<String> getFixedAnswers();
+
 }
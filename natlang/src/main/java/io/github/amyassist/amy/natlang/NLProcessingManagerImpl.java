@@ -26,6 +26,9 @@ package io.github.amyassist.amy.natlang;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 
@@ -39,14 +42,15 @@ import io.github.amyassist.amy.core.natlang.Response;
 import io.github.amyassist.amy.natlang.agf.AGFLexer;
 import io.github.amyassist.amy.natlang.agf.AGFParser;
 import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
-import io.github.amyassist.amy.natlang.agf.nodes.AGFNodeType;
-import io.github.amyassist.amy.natlang.agf.nodes.EntityNode;
 import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.languagespecifics.CachingStemmer;
 import io.github.amyassist.amy.natlang.languagespecifics.ChooseLanguage;
+import io.github.amyassist.amy.natlang.languagespecifics.Stemmer;
 import io.github.amyassist.amy.natlang.nl.*;
 import io.github.amyassist.amy.natlang.userinteraction.EntityDataImpl;
 import io.github.amyassist.amy.natlang.userinteraction.UserIntent;
 import io.github.amyassist.amy.natlang.userinteraction.UserIntentTemplate;
+import io.github.amyassist.amy.natlang.util.CacheStatistics;
 
 /**
  * The implementation of the NLProcessingManager. This implementation uses the Parsers in the
@@ -68,6 +72,11 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 
 	private static final String[] QUIT_INTENT_ANSWER = { "ok", "sure", "what else can i do for you?" };
 
+	/**
+	 * minimal number of tokens left when skipping prefixes and suffixes of the user input
+	 */
+	private static final int MIN_SPAN_LENGTH = 3;
+
 	@Reference
 	private Logger logger;
 
@@ -77,7 +86,13 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 	@Reference
 	private ServiceLocator serviceLocator;
 
-	private Map<AGFNode, UserIntentTemplate> nodeToMethodAIMPair = new HashMap<>();
+	private Map<AGFNode, UserIntentTemplate> nodeToMethodAIMPair = new ConcurrentHashMap<>();
+
+	/**
+	 * all registered intent grammars compiled into one automaton. The automaton is immutable and replaced on
+	 * registration, so it can be used by concurrent dialogs without locking
+	 */
+	private volatile GrammarAutomaton intentAutomaton;
 
 	@Reference
 	private ConfigurationManager configurationLoader;
@@ -85,9 +100,26 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 	private static final String CONFIG_NAME = "natlang.config";
 	private static final String PROPERTY_ENABLE_STEMMER = "enableStemmer";
 	private static final String PROBERTY_LANGUAGE = "chooseLanguage";
+	private static final String PROPERTY_STEM_CACHE_SIZE = "stemCacheSize";
+	private static final String PROPERTY_ENTITY_PROVIDER_CACHE = "entityProviderCacheMillis";
 
 	private ChooseLanguage language;
 
+	/**
+	 * how long grammars generated by entity providers are cached
+	 */
+	private long entityProviderCacheMillis;
+
+	/**
+	 * the lexer is stateless and shared by all dialogs
+	 */
+	private NLLexer lexer;
+
+	/**
+	 * the stemmer of the language with a cache of recently stemmed words, null if stemming is disabled
+	 */
+	private CachingStemmer stemmer;
+
 	private AGFNode quitIntentUserInputGram;
 
 	private Random rand = new Random();
@@ -98,7 +130,17 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 				.getProperty(PROPERTY_ENABLE_STEMMER, "true"));
 		String languageString = this.configurationLoader.getConfigurationWithDefaults(CONFIG_NAME)
 				.getProperty(PROBERTY_LANGUAGE, "EN");
+		int stemCacheSize = Integer.parseInt(this.configurationLoader.getConfigurationWithDefaults(CONFIG_NAME)
+				.getProperty(PROPERTY_STEM_CACHE_SIZE, "10000"));
+		this.entityProviderCacheMillis = Long.parseLong(this.configurationLoader
+				.getConfigurationWithDefaults(CONFIG_NAME).getProperty(PROPERTY_ENTITY_PROVIDER_CACHE, "10000"));
 		this.language = new ChooseLanguage(languageString, stemmerEnabled);
+		this.lexer = new NLLexer(this.language);
+		Stemmer languageStemmer = this.language.getStemmer();
+		if (languageStemmer != null) {
+			this.stemmer = new CachingStemmer(languageStemmer, stemCacheSize);
+		}
+		this.intentAutomaton = new GrammarAutomaton(new ArrayList<>(), this.stemmer);
 
 		AGFLexer lex = new AGFLexer(QUIT_INTENT_USER_INPUT);
 		AGFParser parser = new AGFParser(lex);
@@ -110,16 +152,15 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 	 *      io.github.amyassist.amy.natlang.aim.XMLAIMIntent)
 	 */
 	@Override
-	public void register(Method method, XMLAIMIntent intent) {
+	public synchronized void register(Method method, XMLAIMIntent intent) {
 		if (!method.isAnnotationPresent(io.github.amyassist.amy.core.natlang.Intent.class)) {
 			throw new IllegalArgumentException("annotation is not present in " + method.getName());
 		}
 
-		UserIntentTemplate template = new UserIntentTemplate(method, intent);
-
-		// unfortunately we have to use UserIntent here because entity data has to be present
-		UserIntent userIntent = new UserIntent(method, intent);
-		this.nodeToMethodAIMPair.put(userIntent.getGrammar(), template);
+		// the grammars are parsed once here and shared by all dialogs using this intent
+		UserIntentTemplate template = new UserIntentTemplate(method, intent, this.entityProviderCacheMillis);
+		this.nodeToMethodAIMPair.put(template.getGrammar(), template);
+		this.intentAutomaton = this.intentAutomaton.plus(template.getGrammar());
 	}
 
 	/**
@@ -128,19 +169,9 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 	 */
 	@Override
 	public void processIntent(Dialog dialog, String naturalLanguageText) {
-		NLLexer nlLexer = new NLLexer(this.language);
-		List<EndToken> tokens = nlLexer.tokenize(naturalLanguageText);
+		List<EndToken> tokens = this.lexer.tokenize(naturalLanguageText);
 
 		if (!promptGrammarFound(dialog, tokens)) {
-			// try to skip prefixes and suffixes until a grammar matches
-			for (int i = 0; i <= tokens.size(); i++) {
-				for (int j = tokens.size(); j > i; j--) {
-					if (tokens.subList(i, j).size() > 2 && promptGrammarFound(dialog, tokens.subList(i, j))) {
-						return;
-					}
-
-				}
-			}
 			this.logger.debug("no matching grammar found");
 			dialog.output(Response.text(dialog.getNextPrompt().getOutputText()).build());
 		}
@@ -154,28 +185,27 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 
 		promptGrams.add(this.quitIntentUserInputGram);
 
-		INLParser nlParser = new NLParser(promptGrams, this.language.getStemmer());
+		GrammarAutomaton automaton = new GrammarAutomaton(promptGrams, this.stemmer);
 		try {
-			int matchingNodeIndex = nlParser.matchingNodeIndex(tokens);
+			// skips prefixes and suffixes if the whole input does not match
+			NLMatch match = automaton.matchSpan(tokens, MIN_SPAN_LENGTH);
 
-			if (matchingNodeIndex == promptGrams.indexOf(this.quitIntentUserInputGram)) {
+			if (match.getIndex() == promptGrams.indexOf(this.quitIntentUserInputGram)) {
 				dialog.output(Response.text(generateRandomAnswer(QUIT_INTENT_ANSWER)).build());
 				dialog.setIntent(null);
 				return true;
 			}
-			setEntities(promptGrams.get(matchingNodeIndex), dialog);
+			setEntities(match, dialog);
 		} catch (NLParserException e) {
-			this.logger.debug("grammar not directly regocnized - skipping pre and suffixes {}", e.getMessage());
+			this.logger.debug("grammar not recognized {}", e.getMessage());
 			return false;
 		}
 		return true;
 
 	}
 
-	private void setEntities(AGFNode gram, Dialog dialog) {
-		Map<String, String> entityIdToUserContent = getEntityContent(gram);
-
-		for (Entry<String, String> entry : entityIdToUserContent.entrySet()) {
+	private void setEntities(NLMatch match, Dialog dialog) {
+		for (Entry<String, String> entry : match.getEntityContent().entrySet()) {
 			EntityDataImpl data = new EntityDataImpl(entry.getValue(), this.language.getTimeUtility());
 			dialog.getIntent().getEntityList().get(entry.getKey()).setEntityData(data);
 		}
@@ -186,48 +216,18 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 		}
 	}
 
-	/**
-	 * helper method to extract entity contents
-	 * 
-	 * @param node
-	 *            to extract entity content from
-	 * @return Map which is mapping the entity id to the user provided content
-	 */
-	private Map<String, String> getEntityContent(AGFNode node) {
-		Map<String, String> result = new HashMap<>();
-
-		for (EntityNode child : node.getChildEntityNodes()) {
-			if (child.getType() == AGFNodeType.ENTITY && child.getUserProvidedContent() != null) {
-				result.put(child.getContent(), child.getUserProvidedContent());
-			}
-		}
-
-		return result;
-	}
-
 	/**
 	 * @see io.github.amyassist.amy.natlang.NLProcessingManager#decideIntent(io.github.amyassist.amy.natlang.Dialog,
 	 *      java.lang.String)
 	 */
 	@Override
 	public Dialog decideIntent(Dialog dialog, String naturalLanguageText) {
-		NLLexer nlLexer = new NLLexer(this.language);
-		List<EndToken> tokens = nlLexer.tokenize(naturalLanguageText);
+		List<EndToken> tokens = this.lexer.tokenize(naturalLanguageText);
 
 		if (intentFound(dialog, tokens)) {
 			return dialog;
 		}
 
-		// try to skip prefixes and suffixes until a grammar matches
-		for (int i = 0; i <= tokens.size(); i++) {
-			for (int j = tokens.size(); j > i; j--) {
-				if (tokens.subList(i, j).size() > 2 && intentFound(dialog, tokens.subList(i, j))) {
-					return dialog;
-				}
-
-			}
-		}
-
 		this.logger.debug("no matching grammar found");
 		dialog.output(Response.text(generateRandomAnswer(FAILED_TO_UNDERSTAND_ANSWER)).build());
 		return dialog;
@@ -235,29 +235,49 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 	}
 
 	private boolean intentFound(Dialog dialog, List<EndToken> tokens) {
-		INLParser nlParser = new NLParser(new ArrayList<>(this.nodeToMethodAIMPair.keySet()),
-				this.language.getStemmer());
-		AGFNode node;
+		NLMatch match;
 		try {
-			node = nlParser.matchingNode(tokens);
-
+			// skips prefixes and suffixes if the whole input does not match
+			match = this.intentAutomaton.matchSpan(tokens, MIN_SPAN_LENGTH);
 		} catch (NLParserException e) {
-			this.logger.debug("grammar not directly regocnized - skipping pre and suffixes {}", e.getMessage());
+			this.logger.debug("grammar not recognized {}", e.getMessage());
 			return false;
 		}
 
-		Method left = this.nodeToMethodAIMPair.get(node).getMethod();
-		XMLAIMIntent right = this.nodeToMethodAIMPair.get(node).getXml();
-		UserIntent userIntent = new UserIntent(left, right);
-
-		Object object = this.serviceLocator.createAndInitialize(userIntent.getPartialNLIClass());
-		userIntent.updateGrammars(object);
+		UserIntentTemplate template = this.nodeToMethodAIMPair.get(match.getGrammar());
+		UserIntent userIntent = template.createIntent();
+		userIntent.updateGrammars(() -> this.serviceLocator.createAndInitialize(template.getPartialNLIClass()));
 		dialog.setIntent(userIntent);
 
-		setEntities(node, dialog);
+		setEntities(match, dialog);
 		return true;
 	}
 
+	/**
+	 * @see io.github.amyassist.amy.natlang.NLProcessingManager#evaluateIntent(java.lang.String)
+	 */
+	@Override
+	public IntentEvaluation evaluateIntent(String naturalLanguageText) {
+		long start = System.nanoTime();
+		try {
+			List<EndToken> tokens = this.lexer.tokenize(naturalLanguageText);
+			NLMatch match = this.intentAutomaton.matchSpan(tokens, MIN_SPAN_LENGTH);
+			Method method = this.nodeToMethodAIMPair.get(match.getGrammar()).getMethod();
+			return new IntentEvaluation(naturalLanguageText, method, match.getGrammar(), match.getEntityContent(),
+					System.nanoTime() - start);
+		} catch (NLParserException | NLLexerException e) {
+			return new IntentEvaluation(naturalLanguageText, null, null, new HashMap<>(), System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @see io.github.amyassist.amy.natlang.NLProcessingManager#evaluateIntents(java.util.stream.Stream)
+	 */
+	@Override
+	public List<IntentEvaluation> evaluateIntents(Stream<String> utterances) {
+		return utterances.parallel().map(this::evaluateIntent).collect(Collectors.toList());
+	}
+
 	private String generateRandomAnswer(String[] strings) {
 		int rndm = this.rand.nextInt(strings.length);
 		return strings[rndm];
@@ -268,8 +288,27 @@ public class NLProcessingManagerImpl implements NLProcessingManager {
 	 */
 	@Override
 	public List<AGFNode> getPossibleGrammars() {
-		List<AGFNode> list = new ArrayList<>();
-		list.addAll(this.nodeToMethodAIMPair.keySet());
-		return list;
+		return this.intentAutomaton.getGrammars();
+	}
+	/**
+	 * @see io.github.amyassist.amy.natlang.NLProcessingManager#getStemCacheStatistics()
+	 */
+	@Override
+	public CacheStatistics getStemCacheStatistics() {
+		if (this.stemmer == null) {
+			return new CacheStatistics(0, 0, 0, 0);
+		}
+		return this.stemmer.getStatistics();
 	}
+
+	/**
+	 * @see io.github.amyassist.amy.natlang.NLProcessingManager#getFixedAnswers()
+	 */
+	@Override
+	public List<String> getFixedAnswers() {
+		List<String> answers = new ArrayList<>(Arrays.asList(FAILED_TO_UNDERSTAND_ANSWER));
+		answers.addAll(Arrays.asList(QUIT_INTENT_ANSWER));
+		return answers;
+	}
+
 }
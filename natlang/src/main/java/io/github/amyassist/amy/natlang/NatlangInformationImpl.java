@@ -78,6 +78,14 @@ public class NatlangInformationImpl implements NatlangInformation {
 		return result;
 	}
 
+	/**
+	 * @see io.github.amyassist.amy.core.natlang.NatlangInformation#getFixedAnswers()
+	 */
+	@Override
+	public List<String> getFixedAnswers() {
+		return this.manager.getFixedAnswers();
+	}
+
 	/**
 	 * convenience method to generate a valid sentence from a grammar
 	 * 
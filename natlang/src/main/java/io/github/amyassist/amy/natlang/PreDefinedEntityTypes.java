@@ -23,6 +23,7 @@
 
 package io.github.amyassist.amy.natlang;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -41,40 +42,45 @@ import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
  */
 public class PreDefinedEntityTypes {
 
-	private static Map<String, AGFNode> map;
-	private static Map<String, String> grammars;
-
 	private PreDefinedEntityTypes() {
 		// hide constructor
 	}
 
+	/**
+	 * holder of the generated types, the class is initialized by the jvm on first access which is thread safe
+	 */
+	private static final class Holder {
+		private static final Map<String, AGFNode> MAP = generateAGFNodes(grammars());
+
+		private Holder() {
+			// hide constructor
+		}
+	}
+
 	/**
 	 * returns a hashmap of pre defined types
 	 * 
 	 * @return the hashmap
 	 */
 	public static Map<String, AGFNode> getTypes() {
+		return Holder.MAP;
+	}
 
-		if (grammars == null) {
-			grammars = new LinkedHashMap<>();
-			grammars.put("amyinteger", "$(0,1000000000, 1)");
-			grammars.put("amyhour", "$(0,23,1)");
-			grammars.put("amyminute", "$(0,59,1)");
-			grammars.put("amydayofmonth", "$(1,31,1)");
-			grammars.put("amydayofweek", "(monday|tuesday|wednesday|thursday|friday|saturday|sunday)");
-			grammars.put("amymonth",
-					"(january|february|march|april|may|june|july|august|september|october|november|december|$(1,12,1))");
-			grammars.put("amytime", "(({amyhour} (x|oh) {amyminute}| (({amyhour}|quarter|half)"
-					+ " (past|to) {amyminute} )|{amyhour}  [o clock])[am|pm]|now|no)");
-			grammars.put("amyyear", "$(1000,9999,1)");
-			grammars.put("amydate", " ([{amydayofweek} [the]] {amydayofmonth} [of] {amymonth} [{amyyear}]|tomorrow|today)");
-			grammars.put("amydatetime", "{amydate} at {amytime}");
-		}
-		if (map == null) {
-			map = new HashMap<>();
-			generateAGFNodes(grammars);
-		}
-		return map;
+	private static Map<String, String> grammars() {
+		Map<String, String> grammars = new LinkedHashMap<>();
+		grammars.put("amyinteger", "$(0,1000000000, 1)");
+		grammars.put("amyhour", "$(0,23,1)");
+		grammars.put("amyminute", "$(0,59,1)");
+		grammars.put("amydayofmonth", "$(1,31,1)");
+		grammars.put("amydayofweek", "(monday|tuesday|wednesday|thursday|friday|saturday|sunday)");
+		grammars.put("amymonth",
+				"(january|february|march|april|may|june|july|august|september|october|november|december|$(1,12,1))");
+		grammars.put("amytime", "(({amyhour} (x|oh) {amyminute}| (({amyhour}|quarter|half)"
+				+ " (past|to) {amyminute} )|{amyhour}  [o clock])[am|pm]|now|no)");
+		grammars.put("amyyear", "$(1000,9999,1)");
+		grammars.put("amydate", " ([{amydayofweek} [the]] {amydayofmonth} [of] {amymonth} [{amyyear}]|tomorrow|today)");
+		grammars.put("amydatetime", "{amydate} at {amytime}");
+		return grammars;
 	}
 
 	/**
@@ -82,12 +88,15 @@ public class PreDefinedEntityTypes {
 	 * 
 	 * @param grmrs
 	 *            hashmap of grammars to generate
+	 * @return map of the generated nodes
 	 */
-	private static void generateAGFNodes(Map<String, String> grmrs) {
+	private static Map<String, AGFNode> generateAGFNodes(Map<String, String> grmrs) {
+		Map<String, AGFNode> map = new HashMap<>();
 		for (Entry<String, String> entry : grmrs.entrySet()) {
 			AGFLexer lex = new AGFLexer(entry.getValue());
 			AGFParser parser = new AGFParser(lex, map);
 			map.put(entry.getKey().toLowerCase(), parser.parseWholeExpression());
 		}
+		return Collections.unmodifiableMap(map);
 	}
 }
@@ -0,0 +1,72 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.languagespecifics;
+
+import io.github.amyassist.amy.natlang.util.BoundedCache;
+import io.github.amyassist.amy.natlang.util.CacheStatistics;
+
+/**
+ * Stemmer decorator remembering the stems of recently stemmed words. Users say the same few hundred words over and
+ * over again, so most stems can be looked up instead of computed.
+ *
+ * @author Lars Buttgereit, Felix Burk
+ */
+public class CachingStemmer implements Stemmer {
+
+	private final Stemmer stemmer;
+
+	private final BoundedCache<String, String> cache;
+
+	/**
+	 * constructor
+	 * 
+	 * @param stemmer
+	 *            the stemmer to cache, has to be thread safe
+	 * @param maxSize
+	 *            the maximum number of cached stems
+	 */
+	public CachingStemmer(Stemmer stemmer, int maxSize) {
+		this.stemmer = stemmer;
+		this.cache = new BoundedCache<>(maxSize);
+	}
+
+	/**
+	 * @see io.github.amyassist.amy.natlang.languagespecifics.Stemmer#stem(java.lang.String)
+	 */
+	@Override
+	public String stem(String input) {
+		if (input == null) {
+			return this.stemmer.stem(null);
+		}
+		return this.cache.get(input, this.stemmer::stem);
+	}
+
+	/**
+	 * @return the statistics of the stem cache
+	 */
+	public CacheStatistics getStatistics() {
+		return this.cache.getStatistics();
+	}
+
+}
@@ -42,17 +42,17 @@ public abstract class Contraction {
 	 * contains all replacements for all contractions
 	 */
 	protected  Map<String, String> contractions = new HashMap<>();
-	private Pattern pattern;
+	private volatile Pattern pattern;
 
 	/**
 	 * make a pattern out of all contractions. call this in the constructor of a subclass with a hashmap with all
 	 * contractions
 	 * 
 	 */
-	private void compilePattern() {
+	private Pattern compilePattern() {
 
 		String patternString = "(" + StringUtils.join(this.contractions.keySet(), "|") + ")";
-		this.pattern = Pattern.compile(patternString);
+		return Pattern.compile(patternString);
 	}
 
 	/**
@@ -63,10 +63,12 @@ public abstract class Contraction {
 	 * @return the disassembled string
 	 */
 	public String disassemblingContraction(String toDisassemble) {
-		if(this.pattern == null) {
-			compilePattern();
+		Pattern compiled = this.pattern;
+		if(compiled == null) {
+			compiled = compilePattern();
+			this.pattern = compiled;
 		}
-		Matcher matcher = this.pattern.matcher(toDisassemble);
+		Matcher matcher = compiled.matcher(toDisassemble);
 		StringBuffer sb = new StringBuffer();
 		while (matcher.find()) {
 			matcher.appendReplacement(sb, this.contractions.get(matcher.group(1)));
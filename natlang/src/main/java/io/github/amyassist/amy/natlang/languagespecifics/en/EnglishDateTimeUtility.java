@@ -42,6 +42,12 @@ import io.github.amyassist.amy.natlang.languagespecifics.DateTimeUtility;
  */
 public class EnglishDateTimeUtility implements DateTimeUtility {
 
+	private static final Pattern TIME = Pattern.compile("\\d+:?(\\d+)?(\\s(p\\.|a\\.)m\\.)?");
+	private static final Pattern DATE_WITH_POINTS = Pattern.compile("\\d+\\.\\d+.\\d+");
+	private static final Pattern POINT = Pattern.compile("\\.");
+	private static final Pattern DATE_ORDINAL = Pattern.compile("\\d+(th|st|nd|rd)");
+	private static final Pattern ORDINAL_SUFFIX = Pattern.compile("(th|st|nd|rd)");
+
 	private Pattern minute = Pattern.compile("[0-5]?[0-9]");
 	private Pattern hour24 = Pattern.compile("([01]?[0-9]|2[0-3])");
 	private Pattern hour12 = Pattern.compile("([0-9]|1[0-2])");
@@ -144,9 +150,11 @@ public class EnglishDateTimeUtility implements DateTimeUtility {
 
 	@Override
 	public String formatTime(String input) {
-		String regex = "\\d+:?(\\d+)?(\\s(p\\.|a\\.)m\\.)?";
+		if (!containsDigit(input)) {
+			return input;
+		}
 		StringBuffer sb = new StringBuffer();
-		Matcher matcher = Pattern.compile(regex).matcher(input);
+		Matcher matcher = TIME.matcher(input);
 		while (matcher.find()) {
 			matcher.appendReplacement(sb,
 					matcher.group().replace(":", " x ").replace("a.m.", "am").replace("p.m.", "pm"));
@@ -186,22 +194,38 @@ public class EnglishDateTimeUtility implements DateTimeUtility {
 
 	@Override
 	public String formatDate(String input) {
-		Matcher dateWithPoints = Pattern.compile("\\d+\\.\\d+.\\d+").matcher(input);
-		String formattedDateString = replace(dateWithPoints, "\\.", " ");
-		Matcher dateOrdinal = Pattern.compile("\\d+(th|st|nd|rd)").matcher(formattedDateString);
-		formattedDateString = replace(dateOrdinal, "(th|st|nd|rd)", "");
-		return formattedDateString;
+		if (!containsDigit(input)) {
+			return input;
+		}
+		String formattedDateString = replace(DATE_WITH_POINTS.matcher(input), POINT, " ");
+		return replace(DATE_ORDINAL.matcher(formattedDateString), ORDINAL_SUFFIX, "");
 	}
 
-	private String replace(Matcher matcher, String toReplace, String replacement) {
+	private String replace(Matcher matcher, Pattern toReplace, String replacement) {
 		StringBuffer sb = new StringBuffer();
 		while (matcher.find()) {
-			matcher.appendReplacement(sb, matcher.group().replaceAll(toReplace, replacement));
+			matcher.appendReplacement(sb, toReplace.matcher(matcher.group()).replaceAll(replacement));
 		}
 		matcher.appendTail(sb);
 		return sb.toString();
 	}
 
+	/**
+	 * all formatted times and dates contain digits, most user inputs don't
+	 * 
+	 * @param input
+	 *            the input to check
+	 * @return true if the input contains a digit
+	 */
+	private static boolean containsDigit(String input) {
+		for (int i = 0; i < input.length(); i++) {
+			if (Character.isDigit(input.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public LocalDateTime parseDateTime(String toParse) {
 		String[] spiltedString = toParse.split("at");
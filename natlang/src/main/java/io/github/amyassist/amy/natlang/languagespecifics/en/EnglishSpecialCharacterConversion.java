@@ -25,7 +25,6 @@ package io.github.amyassist.amy.natlang.languagespecifics.en;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import io.github.amyassist.amy.natlang.languagespecifics.SpecialCharacterConversion;
 
@@ -36,34 +35,41 @@ import io.github.amyassist.amy.natlang.languagespecifics.SpecialCharacterConvers
  */
 public class EnglishSpecialCharacterConversion implements SpecialCharacterConversion {
 	
-	private Map<String, String> conversion;
+	private Map<Character, String> conversion;
 	
 	public EnglishSpecialCharacterConversion() {
 		this.conversion = new HashMap<>();
 		
-		this.conversion.put("%", "percent");
-		this.conversion.put("$", "dollar");
-		this.conversion.put("€", "euro");
-		this.conversion.put("¢", "cent");
-		this.conversion.put("£", "pound");
-		this.conversion.put("¥", "yen");
-		this.conversion.put("°", "degree");
+		this.conversion.put('%', "percent");
+		this.conversion.put('$', "dollar");
+		this.conversion.put('€', "euro");
+		this.conversion.put('¢', "cent");
+		this.conversion.put('£', "pound");
+		this.conversion.put('¥', "yen");
+		this.conversion.put('°', "degree");
 	}
 	
 	/**
+	 * replaces the special characters in one pass, the replacement is surrounded by spaces so it is lexed as own word
+	 * 
 	 * @see io.github.amyassist.amy.natlang.languagespecifics.SpecialCharacterConversion#format(java.lang.String)
 	 */
 	@Override
 	public String format(String toFormat) {
-		String result = toFormat;
-		//this is kinda ugly buuut regex and special characters is pretty bad
-		for(Entry<String, String> e : this.conversion.entrySet()) {
-			if(result.contains(e.getKey())) {
-				result = toFormat.replaceAll(e.getKey(), e.getValue());
+		StringBuilder result = null;
+		for (int i = 0; i < toFormat.length(); i++) {
+			char c = toFormat.charAt(i);
+			String replacement = this.conversion.get(c);
+			if (replacement != null && result == null) {
+				result = new StringBuilder(toFormat.length() + 16).append(toFormat, 0, i);
+			}
+			if (replacement != null) {
+				result.append(' ').append(replacement).append(' ');
+			} else if (result != null) {
+				result.append(c);
 			}
 		}
-		
-		return result;
+		return result == null ? toFormat : result.toString();
 	}
 
 }
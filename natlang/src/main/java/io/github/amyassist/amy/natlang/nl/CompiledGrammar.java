@@ -0,0 +1,399 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.nl;
+
+import java.util.*;
+
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNodeType;
+import io.github.amyassist.amy.natlang.languagespecifics.Stemmer;
+
+/**
+ * a single grammar compiled for matching. The grammar is copied into immutable {@link GrammarNode GrammarNodes} with
+ * pre stemmed words, sorted OR and optional groups and a precomputed short wildcard stopper deque, so nothing has to
+ * be prepared per match.
+ *
+ * @author Felix Burk
+ */
+final class CompiledGrammar {
+
+	private final AGFNode source;
+
+	private final GrammarNode root;
+
+	/**
+	 * helper nodes telling + wildcards when to stop, in deque order
+	 */
+	private final List<GrammarNode> stoppers;
+
+	/**
+	 * all entity nodes indexed by their capture slot
+	 */
+	private final List<GrammarNode> entityNodes;
+
+	/**
+	 * stemmed words one of which has to be the first token of a match
+	 */
+	private final Set<String> firstStems;
+
+	/**
+	 * true if anything else than a word may be matched first, e.g. a number, a wildcard or nothing at all
+	 */
+	private final boolean anyFirst;
+
+	/**
+	 * stemmed words one of which has to be the last token of a match
+	 */
+	private final Set<String> lastStems;
+
+	/**
+	 * true if anything else than a word may be matched last
+	 */
+	private final boolean anyLast;
+
+	/**
+	 * stemmed words every match has to contain
+	 */
+	private final Set<String> requiredStems;
+
+	private CompiledGrammar(AGFNode source, GrammarNode root, List<GrammarNode> stoppers,
+			List<GrammarNode> entityNodes) {
+		this.source = source;
+		this.root = root;
+		this.stoppers = Collections.unmodifiableList(stoppers);
+		this.entityNodes = Collections.unmodifiableList(entityNodes);
+
+		Set<String> first = new HashSet<>();
+		Edge f = edge(root, first, false);
+		this.anyFirst = f.any || f.nullable;
+		this.firstStems = Collections.unmodifiableSet(first);
+
+		Set<String> last = new HashSet<>();
+		Edge l = edge(root, last, true);
+		// a * wildcard ends the match of all enclosing sequences, even if it could not match
+		this.anyLast = l.any || l.nullable || containsLongWildcard(root);
+		this.lastStems = Collections.unmodifiableSet(last);
+
+		this.requiredStems = Collections.unmodifiableSet(required(root).stems);
+	}
+
+	private static boolean containsLongWildcard(GrammarNode node) {
+		if (node.getType() == AGFNodeType.LONGWC) {
+			return true;
+		}
+		for (GrammarNode child : node.getChildren()) {
+			if (containsLongWildcard(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * compiles a grammar
+	 *
+	 * @param grammar
+	 *            to compile
+	 * @param stemmer
+	 *            to stem the words of the grammar with, may be null
+	 * @return the compiled grammar
+	 */
+	static CompiledGrammar compile(AGFNode grammar, Stemmer stemmer) {
+		List<GrammarNode> entityNodes = new ArrayList<>();
+		GrammarNode root = compileNode(grammar, stemmer, entityNodes);
+		return new CompiledGrammar(grammar, root, new StopperBuilder().build(root), entityNodes);
+	}
+
+	private static GrammarNode compileNode(AGFNode node, Stemmer stemmer, List<GrammarNode> entityNodes) {
+		int slot = -1;
+		if (node.getType() == AGFNodeType.ENTITY) {
+			slot = entityNodes.size();
+			// reserve the slot in preorder, the node itself is set after its children are compiled
+			entityNodes.add(null);
+		}
+
+		List<GrammarNode> children = new ArrayList<>();
+		for (AGFNode child : node.getChilds()) {
+			children.add(compileNode(child, stemmer, entityNodes));
+		}
+
+		String stem = null;
+		if (node.getType() == AGFNodeType.WORD && node.getContent() != null) {
+			stem = stemmer != null ? stemmer.stem(node.getContent()) : node.getContent();
+		}
+
+		GrammarNode compiled = new GrammarNode(node.getType(), node, stem, children, slot, true);
+		if (slot >= 0) {
+			entityNodes.set(slot, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * @return the grammar this was compiled from
+	 */
+	AGFNode getSource() {
+		return this.source;
+	}
+
+	/**
+	 * @return the compiled root node
+	 */
+	GrammarNode getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * @return helper nodes telling + wildcards when to stop, in deque order
+	 */
+	List<GrammarNode> getStoppers() {
+		return this.stoppers;
+	}
+
+	/**
+	 * @return all entity nodes indexed by their capture slot
+	 */
+	List<GrammarNode> getEntityNodes() {
+		return this.entityNodes;
+	}
+
+	/**
+	 * @return stemmed words one of which has to be the first token of a match
+	 */
+	Set<String> getFirstStems() {
+		return this.firstStems;
+	}
+
+	/**
+	 * @return true if a match may start with anything else than a word
+	 */
+	boolean isAnyFirst() {
+		return this.anyFirst;
+	}
+
+	/**
+	 * @return stemmed words one of which has to be the last token of a match
+	 */
+	Set<String> getLastStems() {
+		return this.lastStems;
+	}
+
+	/**
+	 * @return true if a match may end with anything else than a word
+	 */
+	boolean isAnyLast() {
+		return this.anyLast;
+	}
+
+	/**
+	 * @return stemmed words every match has to contain
+	 */
+	Set<String> getRequiredStems() {
+		return this.requiredStems;
+	}
+
+	/**
+	 * result of the first or last set computation of a node
+	 */
+	private static final class Edge {
+		private final boolean nullable;
+		private final boolean any;
+
+		Edge(boolean nullable, boolean any) {
+			this.nullable = nullable;
+			this.any = any;
+		}
+	}
+
+	/**
+	 * collects the stems of all words a match of the given node may start or end with
+	 *
+	 * @param node
+	 *            to inspect
+	 * @param stems
+	 *            to add the stems to
+	 * @param last
+	 *            true to collect the words a match may end with
+	 * @return if the node may match nothing and if it may start or end with something else than a word
+	 */
+	private static Edge edge(GrammarNode node, Set<String> stems, boolean last) {
+		switch (node.getType()) {
+		case WORD:
+			if (node.getStem() != null) {
+				stems.add(node.getStem());
+			}
+			return new Edge(false, false);
+		case NUMBER:
+			//$FALL-THROUGH$
+		case LONGWC:
+			return new Edge(false, true);
+		case SHORTWC:
+			return new Edge(true, true);
+		case OPG:
+			boolean anyOptional = false;
+			for (GrammarNode child : node.getChildren()) {
+				anyOptional = edge(child, stems, last).any || anyOptional;
+			}
+			return new Edge(true, anyOptional);
+		case ORG:
+			boolean nullableOr = false;
+			boolean anyOr = false;
+			for (GrammarNode child : node.getChildren()) {
+				Edge e = edge(child, stems, last);
+				nullableOr = nullableOr || e.nullable;
+				anyOr = anyOr || e.any;
+			}
+			return new Edge(nullableOr, anyOr);
+		default:
+			// sequences: AGF, MORPH and ENTITY
+			List<GrammarNode> children = new ArrayList<>(node.getChildren());
+			if (last) {
+				Collections.reverse(children);
+			}
+			boolean anySeq = false;
+			for (GrammarNode child : children) {
+				Edge e = edge(child, stems, last);
+				anySeq = anySeq || e.any;
+				if (!e.nullable) {
+					return new Edge(false, anySeq);
+				}
+			}
+			return new Edge(true, anySeq);
+		}
+	}
+
+	/**
+	 * result of the required words computation of a node
+	 */
+	private static final class Required {
+		private final Set<String> stems;
+		private final boolean longWildcard;
+
+		Required(Set<String> stems, boolean longWildcard) {
+			this.stems = stems;
+			this.longWildcard = longWildcard;
+		}
+	}
+
+	/**
+	 * collects the stems of all words a match of the given node has to contain. A * wildcard ends the match of all
+	 * enclosing sequences, even if it is inside an OR or optional group, so words behind it are never required.
+	 *
+	 * @param node
+	 *            to inspect
+	 * @return the required stems and if the node contains a * wildcard
+	 */
+	private static Required required(GrammarNode node) {
+		switch (node.getType()) {
+		case WORD:
+			Set<String> word = new HashSet<>();
+			if (node.getStem() != null) {
+				word.add(node.getStem());
+			}
+			return new Required(word, false);
+		case LONGWC:
+			return new Required(new HashSet<>(), true);
+		case OPG:
+			return new Required(new HashSet<>(), containsLongWildcard(node));
+		case ORG:
+			Set<String> common = null;
+			for (GrammarNode child : node.getChildren()) {
+				Set<String> childStems = required(child).stems;
+				if (common == null) {
+					common = childStems;
+				} else {
+					common.retainAll(childStems);
+				}
+			}
+			return new Required(common != null ? common : new HashSet<>(), containsLongWildcard(node));
+		case AGF:
+			//$FALL-THROUGH$
+		case MORPH:
+			//$FALL-THROUGH$
+		case ENTITY:
+			Set<String> all = new HashSet<>();
+			for (GrammarNode child : node.getChildren()) {
+				Required r = required(child);
+				all.addAll(r.stems);
+				if (r.longWildcard) {
+					return new Required(all, true);
+				}
+			}
+			return new Required(all, false);
+		default:
+			// numbers and + wildcards
+			return new Required(new HashSet<>(), false);
+		}
+	}
+
+	/**
+	 * generates the stopper deque for + wildcards e.g. in the grammar "test + testi + testo" the deque would contain
+	 * "testo", "testi". The first + wildcard then knows to stop at "testi", because it is last in the deque. "testi"
+	 * gets removed after + matched. Then the next + knows to stop at testo.
+	 * 
+	 * The stoppers are generated from the grammar in source order, like
+	 * {@link NLParser#generateStopperDeque(AGFNode)} does.
+	 */
+	private static final class StopperBuilder {
+
+		private final LinkedList<GrammarNode> stack = new LinkedList<>();
+
+		private boolean foundShortWC = false;
+
+		private List<GrammarNode> possibleStoppers = new ArrayList<>();
+
+		List<GrammarNode> build(GrammarNode root) {
+			build(root, this.stack);
+			if (!this.possibleStoppers.isEmpty()) {
+				this.stack.push(helperORGroup(this.possibleStoppers));
+			}
+			return new ArrayList<>(this.stack);
+		}
+
+		private void build(GrammarNode node, Deque<GrammarNode> deque) {
+			for (GrammarNode child : node.getSourceOrder()) {
+				if (child.getType() == AGFNodeType.SHORTWC && !this.foundShortWC) {
+					this.foundShortWC = true;
+				} else if (this.foundShortWC) {
+					// optional groups might not be used, so all of their children are possible stoppers
+					if (child.getType() == AGFNodeType.OPG) {
+						this.possibleStoppers.addAll(child.getSourceOrder());
+					} else {
+						this.possibleStoppers.add(child);
+						deque.push(helperORGroup(this.possibleStoppers));
+						this.possibleStoppers = new ArrayList<>();
+						this.foundShortWC = false;
+					}
+				} else {
+					build(child, deque);
+				}
+			}
+		}
+
+		private static GrammarNode helperORGroup(List<GrammarNode> children) {
+			GrammarNode orGroup = new GrammarNode(AGFNodeType.ORG, null, null, children, -1, false);
+			return new GrammarNode(AGFNodeType.AGF, null, null, Collections.singletonList(orGroup), -1, false);
+		}
+	}
+}
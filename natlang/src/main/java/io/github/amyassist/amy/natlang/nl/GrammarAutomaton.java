@@ -0,0 +1,606 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.nl;
+
+import java.util.*;
+
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+import io.github.amyassist.amy.natlang.languagespecifics.Stemmer;
+import io.github.amyassist.amy.natlang.util.CompareWords;
+
+/**
+ * Immutable set of compiled grammars. Grammars are compiled once when they are added and can then be matched from
+ * any number of threads, match state is kept per call and returned as {@link NLMatch}.
+ * 
+ * The automaton indexes the stemmed words each grammar may start and end with. A token list is only tested against
+ * grammars whose first and last word can match the first and last token (exactly or with a word distance of one) or
+ * which may start or end with an entity, number or wildcard. An inverted index from the words every match of a
+ * grammar has to contain to the grammars further restricts the candidates to grammars whose required words were all
+ * said. Candidates are tested in the order the grammars were added, so the first matching grammar wins just like in
+ * {@link NLParser}.
+ * 
+ * {@link #matchSpan(List, int)} is anchored at the start tokens: the first word index and the required words decide
+ * which grammars may start at a token, and each of them is matched once from there to find the longest span it
+ * matches, see {@link GrammarMatcher#longestMatchingEnd(CompiledGrammar, int, int, int)}. A grammar is matched again
+ * only for ends inside the tokens its match read, so the number of matches per start token is bounded by the length
+ * of the grammar and not by the number of tokens.
+ * 
+ * Adding a grammar with {@link #plus(AGFNode)} only indexes the new grammar, the indices of this automaton are
+ * shared copy on write.
+ *
+ * @author Felix Burk
+ */
+public final class GrammarAutomaton implements INLParser {
+
+	/**
+	 * minimal length of a stemmed word to allow a word distance of one
+	 */
+	private static final int MIN_FUZZY_LENGTH = 4;
+
+	private final Stemmer stemmer;
+
+	private final List<CompiledGrammar> grammars;
+
+	/**
+	 * maps stemmed first words and their one-deletion variants to the indices of the grammars starting with them
+	 */
+	private final Map<String, BitSet> firstWordIndex;
+
+	/**
+	 * grammars which may start with anything
+	 */
+	private final BitSet anyFirst;
+
+	/**
+	 * maps stemmed last words and their one-deletion variants to the indices of the grammars ending with them
+	 */
+	private final Map<String, BitSet> lastWordIndex;
+
+	/**
+	 * grammars which may end with anything
+	 */
+	private final BitSet anyLast;
+
+	/**
+	 * maps required stems and their one-deletion variants to the required stems they were generated from
+	 */
+	private final Map<String, Set<String>> requiredWordVariants;
+
+	/**
+	 * maps required stems to the indices of the grammars requiring them
+	 */
+	private final Map<String, BitSet> requiredWordIndex;
+
+	/**
+	 * number of required stems of each grammar
+	 */
+	private final int[] requiredCounts;
+
+	/**
+	 * grammars without required words
+	 */
+	private final BitSet noRequiredWords;
+
+	/**
+	 * compiles all grammars
+	 *
+	 * @param grammars
+	 *            all possible grammars to match
+	 * @param stemmer
+	 *            which stemmer should be used, may be null
+	 */
+	public GrammarAutomaton(List<AGFNode> grammars, Stemmer stemmer) {
+		this(stemmer, compileAll(grammars, stemmer));
+	}
+
+	private GrammarAutomaton(Stemmer stemmer, List<CompiledGrammar> compiled) {
+		this.stemmer = stemmer;
+		this.grammars = Collections.unmodifiableList(compiled);
+		this.firstWordIndex = new HashMap<>();
+		this.anyFirst = new BitSet();
+		this.lastWordIndex = new HashMap<>();
+		this.anyLast = new BitSet();
+		this.requiredWordVariants = new HashMap<>();
+		this.requiredWordIndex = new HashMap<>();
+		this.requiredCounts = new int[compiled.size()];
+		this.noRequiredWords = new BitSet();
+
+		for (int i = 0; i < compiled.size(); i++) {
+			index(compiled.get(i), i);
+		}
+	}
+
+	/**
+	 * copies the indices of an automaton and adds one grammar
+	 */
+	private GrammarAutomaton(GrammarAutomaton automaton, CompiledGrammar grammar) {
+		List<CompiledGrammar> compiled = new ArrayList<>(automaton.grammars);
+		compiled.add(grammar);
+		this.stemmer = automaton.stemmer;
+		this.grammars = Collections.unmodifiableList(compiled);
+		this.firstWordIndex = new HashMap<>(automaton.firstWordIndex);
+		this.anyFirst = (BitSet) automaton.anyFirst.clone();
+		this.lastWordIndex = new HashMap<>(automaton.lastWordIndex);
+		this.anyLast = (BitSet) automaton.anyLast.clone();
+		this.requiredWordVariants = new HashMap<>(automaton.requiredWordVariants);
+		this.requiredWordIndex = new HashMap<>(automaton.requiredWordIndex);
+		this.requiredCounts = Arrays.copyOf(automaton.requiredCounts, compiled.size());
+		this.noRequiredWords = (BitSet) automaton.noRequiredWords.clone();
+
+		index(grammar, compiled.size() - 1);
+	}
+
+	/**
+	 * adds a grammar to the indices. The bit sets and sets in the index maps may be shared with other automatons, so
+	 * they are copied before they are changed.
+	 */
+	private void index(CompiledGrammar grammar, int grammarIndex) {
+		if (grammar.isAnyFirst()) {
+			this.anyFirst.set(grammarIndex);
+		}
+		if (grammar.isAnyLast()) {
+			this.anyLast.set(grammarIndex);
+		}
+		index(this.firstWordIndex, grammar.getFirstStems(), grammarIndex);
+		index(this.lastWordIndex, grammar.getLastStems(), grammarIndex);
+
+		Set<String> required = grammar.getRequiredStems();
+		this.requiredCounts[grammarIndex] = required.size();
+		if (required.isEmpty()) {
+			this.noRequiredWords.set(grammarIndex);
+		}
+		for (String stem : required) {
+			set(this.requiredWordIndex, stem, grammarIndex);
+			addVariant(stem, stem);
+			if (stem.length() >= MIN_FUZZY_LENGTH) {
+				for (String variant : deletionVariants(stem)) {
+					addVariant(variant, stem);
+				}
+			}
+		}
+	}
+
+	private void addVariant(String variant, String stem) {
+		Set<String> stems = this.requiredWordVariants.get(variant);
+		if (stems == null || !stems.contains(stem)) {
+			Set<String> copy = stems == null ? new HashSet<>() : new HashSet<>(stems);
+			copy.add(stem);
+			this.requiredWordVariants.put(variant, copy);
+		}
+	}
+
+	private static List<CompiledGrammar> compileAll(List<AGFNode> grammars, Stemmer stemmer) {
+		List<CompiledGrammar> compiled = new ArrayList<>(grammars.size());
+		for (AGFNode grammar : grammars) {
+			compiled.add(CompiledGrammar.compile(grammar, stemmer));
+		}
+		return compiled;
+	}
+
+	private static void index(Map<String, BitSet> wordIndex, Set<String> stems, int grammarIndex) {
+		for (String stem : stems) {
+			set(wordIndex, stem, grammarIndex);
+			if (stem.length() >= MIN_FUZZY_LENGTH) {
+				for (String variant : deletionVariants(stem)) {
+					set(wordIndex, variant, grammarIndex);
+				}
+			}
+		}
+	}
+
+	private static void set(Map<String, BitSet> wordIndex, String key, int grammarIndex) {
+		BitSet indices = wordIndex.get(key);
+		BitSet copy = indices == null ? new BitSet() : (BitSet) indices.clone();
+		copy.set(grammarIndex);
+		wordIndex.put(key, copy);
+	}
+
+	/**
+	 * all strings resulting from deleting one character. Two words with a Damerau-Levenshtein distance of one always
+	 * share one of these variants or one is a variant of the other.
+	 * 
+	 * @param word
+	 *            to generate the variants of
+	 * @return the variants
+	 */
+	private static Set<String> deletionVariants(String word) {
+		Set<String> variants = new HashSet<>();
+		for (int i = 0; i < word.length(); i++) {
+			variants.add(word.substring(0, i) + word.substring(i + 1));
+		}
+		return variants;
+	}
+
+	/**
+	 * returns a new automaton containing all grammars of this one and the given grammar. Already compiled grammars are
+	 * reused.
+	 *
+	 * @param grammar
+	 *            to add
+	 * @return the new automaton
+	 */
+	public GrammarAutomaton plus(AGFNode grammar) {
+		return new GrammarAutomaton(this, CompiledGrammar.compile(grammar, this.stemmer));
+	}
+
+	/**
+	 * returns all grammars of this automaton in the order they were added
+	 *
+	 * @return list of agf nodes
+	 */
+	public List<AGFNode> getGrammars() {
+		List<AGFNode> result = new ArrayList<>(this.grammars.size());
+		for (CompiledGrammar grammar : this.grammars) {
+			result.add(grammar.getSource());
+		}
+		return result;
+	}
+
+	/**
+	 * matches the tokens against all grammars
+	 *
+	 * @param nl
+	 *            the natural language tokens
+	 * @return the match of the first matching grammar
+	 * @throws NLParserException
+	 *             if no grammar matches
+	 */
+	public NLMatch match(List<EndToken> nl) {
+		GrammarMatcher matcher = new GrammarMatcher(nl, this.stemmer);
+		NLMatch match = matchSpan(matcher, requiredWordCandidates(matcher), 0, nl.size());
+		if (match == null) {
+			throw new NLParserException("could not find matching grammar for tokens" + nl);
+		}
+		return match;
+	}
+
+	/**
+	 * matches the whole token list or, if no grammar matches it, a contiguous span of tokens. This skips prefixes and
+	 * suffixes the user said around a command.
+	 * 
+	 * Spans are tried in the order of their first token and longer spans first, for every span the first matching
+	 * grammar is returned. This is the same result as matching every sub list in this order. Instead of parsing every
+	 * span, the grammars which may start at a token and whose required words are said after it are matched once
+	 * anchored at this token, which yields the longest span they match. Spans not containing all required words of a
+	 * grammar are not matched with it.
+	 * 
+	 * A grammar whose match depends on all tokens up to the end of the input, e.g. one failing on the last token, is
+	 * matched again for the shorter spans, but at most as often as it has tokens to read, so grammars that may start
+	 * with anything are matched O(n) times instead of once for each of the O(n²) spans.
+	 * {@code GrammarAutomatonSpanBenchmark} measures this case.
+	 *
+	 * @param nl
+	 *            the natural language tokens
+	 * @param minSpanLength
+	 *            minimal number of tokens of a span
+	 * @return the match of the first matching span and grammar
+	 * @throws NLParserException
+	 *             if no grammar matches any span
+	 */
+	public NLMatch matchSpan(List<EndToken> nl, int minSpanLength) {
+		GrammarMatcher matcher = new GrammarMatcher(nl, this.stemmer);
+		BitSet allowed = requiredWordCandidates(matcher);
+		NLMatch match = matchSpan(matcher, allowed, 0, nl.size());
+		if (match != null) {
+			return match;
+		}
+
+		RequiredWordPositions positions = new RequiredWordPositions(matcher);
+		for (int from = 0; nl.size() - from >= minSpanLength && from < nl.size(); from++) {
+			BitSet candidates = candidates(matcher, from, this.firstWordIndex, this.anyFirst);
+			candidates.and(allowed);
+			match = matchAnchored(matcher, positions, candidates, from, minSpanLength);
+			if (match != null) {
+				return match;
+			}
+		}
+		throw new NLParserException("could not find matching grammar for any span of tokens" + nl);
+	}
+
+	/**
+	 * finds the longest span starting at a token which one of the candidates matches
+	 * 
+	 * @return the match of the first matching candidate for the longest span or null
+	 */
+	private NLMatch matchAnchored(GrammarMatcher matcher, RequiredWordPositions positions, BitSet candidates,
+			int from, int minSpanLength) {
+		int size = matcher.getTokens().size();
+		int longest = -1;
+		int longestEnd = from + minSpanLength - 1;
+		for (int i = candidates.nextSetBit(0); i >= 0 && longestEnd < size; i = candidates.nextSetBit(i + 1)) {
+			int requiredEnd = positions.minEnd(this.grammars.get(i), from);
+			if (requiredEnd < 0) {
+				continue;
+			}
+			// a later grammar only wins with a longer span
+			int end = matcher.longestMatchingEnd(this.grammars.get(i), from, Math.max(longestEnd + 1, requiredEnd),
+					size);
+			if (end >= 0) {
+				longest = i;
+				longestEnd = end;
+			}
+		}
+		if (longest < 0) {
+			return null;
+		}
+		// match again to capture the entities of this span
+		CompiledGrammar grammar = this.grammars.get(longest);
+		matcher.matches(grammar, from, longestEnd);
+		return new NLMatch(grammar.getSource(), longest, matcher.getEntityContent(grammar), from, longestEnd);
+	}
+
+	/**
+	 * matches a span against all allowed grammars which can match its first and last token
+	 * 
+	 * @return the match or null
+	 */
+	private NLMatch matchSpan(GrammarMatcher matcher, BitSet allowed, int from, int to) {
+		BitSet candidates;
+		if (from == to) {
+			candidates = new BitSet();
+			candidates.set(0, this.grammars.size());
+		} else {
+			candidates = candidates(matcher, from, this.firstWordIndex, this.anyFirst);
+			candidates.and(candidates(matcher, to - 1, this.lastWordIndex, this.anyLast));
+			candidates.and(allowed);
+		}
+		return matchCandidates(matcher, candidates, from, to);
+	}
+
+	/**
+	 * finds all grammars whose required words are all contained in the tokens, exactly or with a word distance of
+	 * one. Every span of the tokens can only be matched by these grammars.
+	 * 
+	 * @param matcher
+	 *            the matcher for the tokens
+	 * @return indices of all candidate grammars
+	 */
+	private BitSet requiredWordCandidates(GrammarMatcher matcher) {
+		RequiredWordCounter counter = new RequiredWordCounter();
+		for (int i = 0; i < matcher.getTokens().size(); i++) {
+			counter.add(requiredWordsSaid(matcher, i));
+		}
+		return counter.candidates();
+	}
+
+	/**
+	 * finds the required stems a token matches
+	 * 
+	 * @param matcher
+	 *            the matcher for the tokens
+	 * @param index
+	 *            of the token
+	 * @return the required stems or null if the token has no content and may match anything
+	 */
+	private Set<String> requiredWordsSaid(GrammarMatcher matcher, int index) {
+		if (matcher.getTokens().get(index).getContent() == null) {
+			return null;
+		}
+		Set<String> said = new HashSet<>();
+		String stem = matcher.tokenStem(index);
+		addRequiredWords(stem, stem, said);
+		for (String variant : deletionVariants(stem)) {
+			addRequiredWords(variant, stem, said);
+		}
+		return said;
+	}
+
+	/**
+	 * adds all required stems generating the given variant which match the token stem like {@link GrammarMatcher}
+	 * matches words
+	 */
+	private void addRequiredWords(String variant, String tokenStem, Set<String> said) {
+		Set<String> stems = this.requiredWordVariants.get(variant);
+		if (stems != null) {
+			for (String stem : stems) {
+				if (stem.equals(tokenStem)
+						|| (stem.length() >= MIN_FUZZY_LENGTH && CompareWords.isDistanceAtMostOne(stem, tokenStem))) {
+					said.add(stem);
+				}
+			}
+		}
+	}
+
+	/**
+	 * counts the required stems said in a span of tokens, to find the grammars whose required words are all
+	 * contained in the span
+	 */
+	private final class RequiredWordCounter {
+
+		/**
+		 * the required stems said in the span
+		 */
+		private final Set<String> saidStems = new HashSet<>();
+
+		/**
+		 * number of required stems of each grammar said in the span
+		 */
+		private final int[] found = new int[GrammarAutomaton.this.grammars.size()];
+
+		/**
+		 * grammars with all required stems said in the span
+		 */
+		private final BitSet complete = new BitSet();
+
+		/**
+		 * number of tokens without content in the span
+		 */
+		private int unknown;
+
+		/**
+		 * @param said
+		 *            the required stems a token of the span matches, null if the token may match anything
+		 */
+		void add(Set<String> said) {
+			if (said == null) {
+				this.unknown++;
+				return;
+			}
+			for (String stem : said) {
+				if (this.saidStems.add(stem)) {
+					BitSet indices = GrammarAutomaton.this.requiredWordIndex.get(stem);
+					for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+						this.found[i]++;
+						if (this.found[i] == GrammarAutomaton.this.requiredCounts[i]) {
+							this.complete.set(i);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return indices of all grammars, whose required words are all said in the span
+		 */
+		BitSet candidates() {
+			BitSet result = (BitSet) GrammarAutomaton.this.noRequiredWords.clone();
+			if (this.unknown > 0) {
+				result.set(0, GrammarAutomaton.this.grammars.size());
+			} else {
+				result.or(this.complete);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * knows where the required stems are said in the tokens, to find the shortest span starting at a token which
+	 * contains all required words of a grammar
+	 */
+	private final class RequiredWordPositions {
+
+		/**
+		 * the ascending indices of the tokens matching each required stem
+		 */
+		private final Map<String, List<Integer>> positions = new HashMap<>();
+
+		/**
+		 * index of the next token without content at or after each index, the number of tokens if there is none
+		 */
+		private final int[] nextUnknown;
+
+		RequiredWordPositions(GrammarMatcher matcher) {
+			int size = matcher.getTokens().size();
+			this.nextUnknown = new int[size + 1];
+			this.nextUnknown[size] = size;
+			for (int i = size - 1; i >= 0; i--) {
+				this.nextUnknown[i] = matcher.getTokens().get(i).getContent() == null ? i : this.nextUnknown[i + 1];
+			}
+			for (int i = 0; i < size; i++) {
+				Set<String> said = requiredWordsSaid(matcher, i);
+				if (said != null) {
+					for (String stem : said) {
+						this.positions.computeIfAbsent(stem, k -> new ArrayList<>()).add(i);
+					}
+				}
+			}
+		}
+
+		/**
+		 * @param grammar
+		 *            the grammar
+		 * @param from
+		 *            index of the first token of the span
+		 * @return the smallest exclusive end of a span containing all required words of the grammar or -1 if the
+		 *         tokens after from don't contain them
+		 */
+		int minEnd(CompiledGrammar grammar, int from) {
+			int size = this.nextUnknown.length - 1;
+			int end = from;
+			for (String stem : grammar.getRequiredStems()) {
+				int next = this.nextUnknown[from];
+				List<Integer> indices = this.positions.get(stem);
+				if (indices != null) {
+					int k = Collections.binarySearch(indices, from);
+					k = k < 0 ? -k - 1 : k;
+					if (k < indices.size()) {
+						next = Math.min(next, indices.get(k));
+					}
+				}
+				if (next == size) {
+					return -1;
+				}
+				end = Math.max(end, next + 1);
+			}
+			return end;
+		}
+	}
+
+	private NLMatch matchCandidates(GrammarMatcher matcher, BitSet candidates, int from, int to) {
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			CompiledGrammar grammar = this.grammars.get(i);
+			if (matcher.matches(grammar, from, to)) {
+				return new NLMatch(grammar.getSource(), i, matcher.getEntityContent(grammar), from, to);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * finds all grammars that could match a token at the start or end of a match
+	 * 
+	 * @param matcher
+	 *            the matcher for the tokens
+	 * @param index
+	 *            of the token
+	 * @param wordIndex
+	 *            the first or last word index
+	 * @param any
+	 *            grammars that may start or end with anything
+	 * @return indices of all candidate grammars
+	 */
+	private BitSet candidates(GrammarMatcher matcher, int index, Map<String, BitSet> wordIndex, BitSet any) {
+		if (matcher.getTokens().get(index).getContent() == null) {
+			BitSet all = new BitSet();
+			all.set(0, this.grammars.size());
+			return all;
+		}
+
+		BitSet result = (BitSet) any.clone();
+		String stem = matcher.tokenStem(index);
+		addCandidates(wordIndex, stem, result);
+		for (String variant : deletionVariants(stem)) {
+			addCandidates(wordIndex, variant, result);
+		}
+		return result;
+	}
+
+	private static void addCandidates(Map<String, BitSet> wordIndex, String key, BitSet result) {
+		BitSet indices = wordIndex.get(key);
+		if (indices != null) {
+			result.or(indices);
+		}
+	}
+
+	@Override
+	public AGFNode matchingNode(List<EndToken> nl) {
+		return match(nl).getGrammar();
+	}
+
+	@Override
+	public int matchingNodeIndex(List<EndToken> nl) {
+		return match(nl).getIndex();
+	}
+
+}
@@ -0,0 +1,448 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.nl;
+
+import java.util.*;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.github.amyassist.amy.natlang.agf.AGFParseException;
+import io.github.amyassist.amy.natlang.agf.nodes.NumberNode;
+import io.github.amyassist.amy.natlang.agf.nodes.ShortWNode;
+import io.github.amyassist.amy.natlang.languagespecifics.Stemmer;
+import io.github.amyassist.amy.natlang.util.CompareWords;
+
+/**
+ * holds the state of matching one token list against compiled grammars. The matching rules are the same as in
+ * {@link NLParser}, but all state lives in this object, so the compiled grammars can be shared.
+ * 
+ * A matcher is created per token list and must not be shared between threads.
+ *
+ * @author Felix Burk
+ */
+final class GrammarMatcher {
+
+	/**
+	 * all tokens of the utterance
+	 */
+	private final List<EndToken> tokens;
+
+	private final Stemmer stemmer;
+
+	/**
+	 * stems of all tokens, computed on first use and shared by all spans
+	 */
+	private final String[] tokenStems;
+
+	/**
+	 * the span of tokens currently matched
+	 */
+	private List<EndToken> mRead;
+
+	/**
+	 * index of the first token of the current span
+	 */
+	private int offset;
+
+	private int currentIndex;
+
+	private Deque<GrammarNode> shortWCStopper;
+
+	private List<String> matchedStrings;
+
+	/**
+	 * entity captures indexed by capture slot
+	 */
+	private String[] captures;
+
+	/**
+	 * if this is true everything will be skipped and return true, set by infinite * wildcards
+	 */
+	private boolean wildcardSkip;
+
+	/**
+	 * index of the last token of the current span the match depended on, relative to the span, -1 if none
+	 */
+	private int lastRead;
+
+	/**
+	 * constructor
+	 *
+	 * @param tokens
+	 *            to match
+	 * @param stemmer
+	 *            to stem the tokens with, may be null
+	 */
+	GrammarMatcher(List<EndToken> tokens, Stemmer stemmer) {
+		this.tokens = tokens;
+		this.stemmer = stemmer;
+		this.tokenStems = new String[tokens.size()];
+	}
+
+	/**
+	 * tries to match the whole token list with a grammar
+	 *
+	 * @param grammar
+	 *            to match
+	 * @return true if the grammar matched all tokens
+	 */
+	boolean matches(CompiledGrammar grammar) {
+		return matches(grammar, 0, this.tokens.size());
+	}
+
+	/**
+	 * tries to match a span of the token list with a grammar. The grammar only sees the tokens of the span, so the
+	 * result is the same as matching a sub list of the tokens.
+	 *
+	 * @param grammar
+	 *            to match
+	 * @param from
+	 *            index of the first token of the span, inclusive
+	 * @param to
+	 *            index of the last token of the span, exclusive
+	 * @return true if the grammar matched all tokens of the span
+	 */
+	boolean matches(CompiledGrammar grammar, int from, int to) {
+		this.mRead = this.tokens.subList(from, to);
+		this.offset = from;
+		this.currentIndex = 0;
+		this.shortWCStopper = new ArrayDeque<>(grammar.getStoppers());
+		this.matchedStrings = new ArrayList<>();
+		this.captures = new String[grammar.getEntityNodes().size()];
+		this.wildcardSkip = false;
+		this.lastRead = -1;
+		boolean matched = checkNode(grammar.getRoot());
+		if (this.currentIndex < this.mRead.size()) {
+			read(this.currentIndex);
+			return false;
+		}
+		return matched;
+	}
+
+	/**
+	 * finds the longest span starting at a token, which a grammar matches. The matching is greedy and never
+	 * backtracks into the tokens it skipped, so a match of the span [from, to) takes the same decisions for every
+	 * shorter span still containing all tokens the match depended on. One match of the longest span therefore decides
+	 * all of these spans at once and only the spans ending inside the tokens it read are matched again. A long
+	 * wildcard consumes the rest of any span without depending on its tokens, so a grammar ending with it is matched
+	 * once per start token.
+	 *
+	 * @param grammar
+	 *            to match
+	 * @param from
+	 *            index of the first token of the spans, inclusive
+	 * @param minTo
+	 *            smallest end of the spans, exclusive
+	 * @param maxTo
+	 *            largest end of the spans, exclusive
+	 * @return the end of the longest span the grammar matched or -1
+	 */
+	int longestMatchingEnd(CompiledGrammar grammar, int from, int minTo, int maxTo) {
+		int min = Math.max(minTo, from);
+		int to = maxTo;
+		while (to >= min) {
+			if (matches(grammar, from, to)) {
+				return to;
+			}
+			to = from + this.lastRead;
+		}
+		return -1;
+	}
+
+	/**
+	 * returns the entity contents of the last successful match
+	 *
+	 * @param grammar
+	 *            the grammar that matched
+	 * @return Map which is mapping the entity id to the user provided content
+	 */
+	Map<String, String> getEntityContent(CompiledGrammar grammar) {
+		Map<String, String> result = new LinkedHashMap<>();
+		List<GrammarNode> entityNodes = grammar.getEntityNodes();
+		for (int i = 0; i < entityNodes.size(); i++) {
+			if (this.captures[i] != null) {
+				result.put(entityNodes.get(i).getContent(), this.captures[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all tokens of the utterance
+	 */
+	List<EndToken> getTokens() {
+		return this.tokens;
+	}
+
+	/**
+	 * returns the stem of a token
+	 *
+	 * @param index
+	 *            of the token inside the whole token list
+	 * @return the stemmed token content
+	 */
+	String tokenStem(int index) {
+		if (this.tokenStems[index] == null) {
+			String content = this.tokens.get(index).getContent();
+			this.tokenStems[index] = this.stemmer != null ? this.stemmer.stem(content) : content;
+		}
+		return this.tokenStems[index];
+	}
+
+	/**
+	 * recursive method to check each node preorder style
+	 *
+	 * @param node
+	 *            current node to check
+	 * @return success
+	 */
+	private boolean checkNode(GrammarNode node) {
+		switch (node.getType()) {
+		case AGF:
+			int traceBack = this.currentIndex;
+			for (GrammarNode child : node.getChildren()) {
+				if (!checkNode(child)) {
+					this.currentIndex = traceBack;
+					this.matchedStrings.subList(this.currentIndex, this.matchedStrings.size()).clear();
+					clearCaptures(node);
+					return false;
+				}
+				if (this.wildcardSkip) {
+					return true;
+				}
+			}
+			break;
+		case OPG:
+			for (GrammarNode child : node.getChildren()) {
+				checkNode(child);
+			}
+			break;
+		case ORG:
+			for (GrammarNode child : node.getChildren()) {
+				if (checkNode(child)) {
+					return true;
+				}
+			}
+			return false;
+		case MORPH:
+			for (GrammarNode child : node.getChildren()) {
+				if (!checkNode(child)) {
+					return false;
+				}
+			}
+			break;
+		case SHORTWC:
+			return matchShortWC(node);
+		case LONGWC:
+			return matchLongWC();
+		case WORD:
+			return match(node);
+		case NUMBER:
+			return matchNumber(node);
+		case ENTITY:
+			return fillEntity(node);
+		default:
+			return false;
+		}
+		return true;
+	}
+
+	private void clearCaptures(GrammarNode node) {
+		for (int slot : node.getDescendantSlots()) {
+			this.captures[slot] = null;
+		}
+	}
+
+	/**
+	 * matches a greedy long wildcard * with infinite input this consumes the whole input left! only use * at the end
+	 * of a grammar
+	 * 
+	 * @return if it matches
+	 */
+	private boolean matchLongWC() {
+		this.wildcardSkip = true;
+		// match at least one token
+		if (this.currentIndex == this.mRead.size()) {
+			return false;
+		}
+		read(this.currentIndex);
+		// the rest is consumed whatever it is, so only the first token is read
+		while (this.currentIndex < this.mRead.size()) {
+			this.matchedStrings.add(this.mRead.get(this.currentIndex++).getContent());
+		}
+		return true;
+	}
+
+	/**
+	 * matches a short non greedy wildcard with fixed skip size this uses the stopper deque to check the end of the
+	 * wildcards
+	 * 
+	 * @param node
+	 *            to check
+	 * @return if the short wildcard matched
+	 */
+	private boolean matchShortWC(GrammarNode node) {
+		GrammarNode endNode = this.shortWCStopper.peekLast();
+		if (endNode == null) {
+			return false;
+		}
+
+		ShortWNode wc = (ShortWNode) node.getSource();
+		int skips = 0;
+		int index = this.currentIndex;
+		for (int i = 0; (i < wc.getMaxWordLength() && i < this.mRead.size() - index); i++) {
+			read(index + i);
+			EndToken token = lookAhead(0);
+			if (checkNode(endNode)) {
+				// undo consume from checkNode
+				this.currentIndex = index + skips;
+				this.shortWCStopper.pollLast();
+				break;
+			} else if (token != null) {
+				// skip current word because it did not match the end criteria
+				this.matchedStrings.add(token.getContent());
+				skips++;
+				consume();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * fills entity content and checks if the entity matches
+	 *
+	 * @param node
+	 *            to match
+	 * @return true if the entity matched
+	 */
+	private boolean fillEntity(GrammarNode node) {
+		int startIndex = this.currentIndex;
+		boolean matched = true;
+		for (GrammarNode child : node.getChildren()) {
+			matched = checkNode(child) && matched;
+		}
+		int endIndex = this.currentIndex;
+
+		if (matched) {
+			this.captures[node.getEntitySlot()] = StringUtils.join(this.matchedStrings.subList(startIndex, endIndex),
+					" ");
+		}
+		return matched;
+	}
+
+	/**
+	 * does the current token match the expected word?
+	 *
+	 * @param node
+	 *            the word node to match
+	 * @return if it matched
+	 */
+	private boolean match(GrammarNode node) {
+		if (node.getStem() == null || this.currentIndex >= this.mRead.size()) {
+			return false;
+		}
+		read(this.currentIndex);
+		if (this.mRead.get(this.currentIndex).getContent() == null) {
+			return false;
+		}
+
+		String nodeContent = node.getStem();
+		String tokenContent = tokenStem(this.offset + this.currentIndex);
+
+		if (nodeContent.equals(tokenContent)
+				|| (nodeContent.length() > 3 && CompareWords.isDistanceAtMostOne(nodeContent, tokenContent))) {
+			this.matchedStrings.add(node.getContent());
+			consume();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * checks if a number is at the current index and if the number matches the conditions of the NumberNode e.g. is in
+	 * correct range and stepsize
+	 *
+	 * @param node
+	 *            to match
+	 * @return true if the node matches
+	 */
+	private boolean matchNumber(GrammarNode node) {
+		EndToken token = lookAhead(0);
+		if (token == null || token.getContent() == null) {
+			return false;
+		}
+		try {
+			NumberNode numberNode = (NumberNode) node.getSource();
+			numberNode.setContainedNumber(token.getContent().trim());
+			consume();
+		} catch (ClassCastException e) {
+			throw new NLParserException("Node Type Number was no NumberNode " + e);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		this.matchedStrings.add(token.getContent());
+		return true;
+	}
+
+	/**
+	 * consume a token
+	 *
+	 * @return consumed token
+	 */
+	private EndToken consume() {
+		if (this.mRead.size() > this.currentIndex) {
+			read(this.currentIndex);
+			return this.mRead.get(this.currentIndex++);
+		}
+		throw new AGFParseException("could not consume token, end of input");
+	}
+
+	/**
+	 * remembers that the match depends on a token of the span
+	 *
+	 * @param index
+	 *            of the token inside the span
+	 */
+	private void read(int index) {
+		if (index > this.lastRead) {
+			this.lastRead = index;
+		}
+	}
+
+	/**
+	 * look ahead as many tokens as needed
+	 *
+	 * @param distance
+	 *            needed
+	 * @return token at distance
+	 */
+	private EndToken lookAhead(int distance) {
+		int index = this.currentIndex + distance;
+		if (this.mRead.size() > index) {
+			read(index);
+			return this.mRead.get(index);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.nl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNodeType;
+
+/**
+ * immutable node of a compiled grammar. Compiled nodes never hold match state, everything a match produces is kept
+ * in the {@link GrammarMatcher} of the current match
+ *
+ * @author Felix Burk
+ */
+final class GrammarNode {
+
+	private final AGFNodeType type;
+
+	/**
+	 * the AGFNode this node was compiled from
+	 */
+	private final AGFNode source;
+
+	/**
+	 * stemmed content of word nodes, null for all other node types
+	 */
+	private final String stem;
+
+	/**
+	 * children in the order of the source grammar
+	 */
+	private final List<GrammarNode> sourceOrder;
+
+	/**
+	 * children in matching order, OR groups and optional groups are sorted by number of leafes
+	 */
+	private final List<GrammarNode> children;
+
+	/**
+	 * capture slot of entity nodes, -1 for all other node types
+	 */
+	private final int entitySlot;
+
+	/**
+	 * capture slots of all entity nodes below this node
+	 */
+	private final int[] descendantSlots;
+
+	private final int leafes;
+
+	/**
+	 * constructor
+	 *
+	 * @param type
+	 *            of the node
+	 * @param source
+	 *            the AGFNode this node was compiled from
+	 * @param stem
+	 *            stemmed content of word nodes
+	 * @param children
+	 *            children in source order
+	 * @param entitySlot
+	 *            capture slot of entity nodes
+	 * @param sortChildren
+	 *            if the children of OR groups and optional groups should be sorted
+	 */
+	GrammarNode(AGFNodeType type, AGFNode source, String stem, List<GrammarNode> children, int entitySlot,
+			boolean sortChildren) {
+		this.type = type;
+		this.source = source;
+		this.stem = stem;
+		this.entitySlot = entitySlot;
+		this.sourceOrder = Collections.unmodifiableList(new ArrayList<>(children));
+
+		List<GrammarNode> ordered = new ArrayList<>(children);
+		if (sortChildren && (type == AGFNodeType.OPG || type == AGFNodeType.ORG)) {
+			// same order NLParser#sortChildsOfOrAndOp produces, the parser is greedy and has to try the longest
+			// sentences first
+			ordered.sort((n1, n2) -> Integer.compare(n1.leafes, n2.leafes));
+			Collections.reverse(ordered);
+		}
+		this.children = Collections.unmodifiableList(ordered);
+
+		int count = 0;
+		List<Integer> slots = new ArrayList<>();
+		for (GrammarNode child : children) {
+			count += child.leafes;
+			if (child.entitySlot >= 0) {
+				slots.add(child.entitySlot);
+			}
+			for (int slot : child.descendantSlots) {
+				slots.add(slot);
+			}
+		}
+		this.leafes = children.isEmpty() ? 1 : count;
+		this.descendantSlots = slots.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * @return the node type
+	 */
+	AGFNodeType getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return the AGFNode this node was compiled from
+	 */
+	AGFNode getSource() {
+		return this.source;
+	}
+
+	/**
+	 * @return the unstemmed content of the source node
+	 */
+	String getContent() {
+		return this.source == null ? null : this.source.getContent();
+	}
+
+	/**
+	 * @return stemmed content of word nodes
+	 */
+	String getStem() {
+		return this.stem;
+	}
+
+	/**
+	 * @return children in matching order
+	 */
+	List<GrammarNode> getChildren() {
+		return this.children;
+	}
+
+	/**
+	 * @return children in the order of the source grammar
+	 */
+	List<GrammarNode> getSourceOrder() {
+		return this.sourceOrder;
+	}
+
+	/**
+	 * @return capture slot of entity nodes, -1 otherwise
+	 */
+	int getEntitySlot() {
+		return this.entitySlot;
+	}
+
+	/**
+	 * @return capture slots of all entity nodes below this node
+	 */
+	int[] getDescendantSlots() {
+		return this.descendantSlots;
+	}
+
+}
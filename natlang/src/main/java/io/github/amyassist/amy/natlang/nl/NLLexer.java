@@ -36,21 +36,24 @@ import io.github.amyassist.amy.natlang.languagespecifics.NumberConversion;
  * 
  * filters bad characters and splits input in words
  * 
+ * words are classified in the same pass by looking them up in the number words of the language, so the lexer holds
+ * no state of its own and one instance can be shared by all threads
+ * 
  * @author Felix Burk
  */
 public class NLLexer {
 
 	private final Logger logger = LoggerFactory.getLogger(NLLexer.class);
 
-	/**
-	 * contains regex with the corresponding WordTokenType
-	 */
-	private final Map<String, EndTokenType> regexTokenType = new LinkedHashMap<>();
-
 	private ChooseLanguage language;
 
 	private NumberConversion numberConversion;
 
+	/**
+	 * written numbers of the language mapped to their value, shared with the {@link NumberConversion}
+	 */
+	private Map<String, Integer> wordToNumber;
+
 	/**
 	 * this class handles natural language input of any type
 	 * 
@@ -61,15 +64,10 @@ public class NLLexer {
 	public NLLexer(ChooseLanguage language) {
 		this.language = language;
 		this.numberConversion = language.getNumberConversion();
-		if (!this.numberConversion.getWordToNumber().isEmpty()) {
-			String regex = "((\\b" + String.join("\\b|\\b", this.numberConversion.getWordToNumber().keySet())
-					+ "\\b)\\s{0,1})+";
-			this.regexTokenType.put(regex, EndTokenType.NUMBER);
-		} else {
+		this.wordToNumber = this.numberConversion.getWordToNumber();
+		if (this.wordToNumber.isEmpty()) {
 			this.logger.error("problem with numbers file, written numbers will not be recognized");
 		}
-		this.regexTokenType.put("[0-9]+", EndTokenType.NUMBER);
-		this.regexTokenType.put("(\\p{Lo}|\\p{L})+", EndTokenType.WORD);
 	}
 
 	/**
@@ -80,94 +78,102 @@ public class NLLexer {
 	 * @return returns processed list of WordTokens
 	 */
 	public List<EndToken> tokenize(String nlInput) {
-		List<EndToken> list = new LinkedList<>();
 		String toLex = nlInput.toLowerCase().trim();
 		toLex = this.language.getTimeUtility().formatTime(toLex);
 		toLex = this.language.getTimeUtility().formatDate(toLex);
 		toLex = this.language.getContraction().disassemblingContraction(toLex);
 		toLex = this.language.getSpecialCharacterConversion().format(toLex);
 
-		StringBuilder currentWord = new StringBuilder();
-		if (!toLex.isEmpty()) {
-			for (int mIndex = 0; mIndex < toLex.length(); mIndex++) {
-				char c = toLex.charAt(mIndex);
-				switch (Character.getType(c)) {
-				case Character.LOWERCASE_LETTER:
-					//$FALL-THROUGH$
-				case Character.OTHER_LETTER:
-					//$FALL-THROUGH$
-				case Character.DECIMAL_DIGIT_NUMBER:
-					currentWord.append(c);
-					break;
-				// handles single whitespace characters but not newline, tab or carriage return
-				case Character.SPACE_SEPARATOR:
-					//$FALL-THROUGH$
-				default:
-					if (currentWord.length() != 0) {
-						list.add(parse(new EndToken(currentWord.toString())));
-						currentWord = new StringBuilder();
-						break;
-					}
-					continue;
+		List<EndToken> list = new ArrayList<>();
+		// written numbers not yet merged into one number token
+		List<EndToken> numbers = new ArrayList<>();
+		int wordStart = -1;
+		for (int mIndex = 0; mIndex <= toLex.length(); mIndex++) {
+			if (mIndex < toLex.length() && isWordCharacter(toLex.charAt(mIndex))) {
+				if (wordStart == -1) {
+					wordStart = mIndex;
+				}
+			} else if (wordStart != -1) {
+				EndToken token = parse(toLex.substring(wordStart, mIndex));
+				wordStart = -1;
+				if (token.getType() == EndTokenType.NUMBER && this.wordToNumber.containsKey(token.getContent())) {
+					numbers.add(token);
+				} else {
+					addNumbers(numbers, list);
+					list.add(token);
 				}
 			}
-			if(currentWord.length() != 0) {
-				list.add(parse(new EndToken(currentWord.toString())));
-			}
-			return concatNumbers(list);
 		}
-		return new ArrayList<>();
+		addNumbers(numbers, list);
+		return list;
+	}
+
+	/**
+	 * handles single whitespace characters but not newline, tab or carriage return as separators
+	 * 
+	 * @param c
+	 *            the character
+	 * @return true if c belongs to a word
+	 */
+	private static boolean isWordCharacter(char c) {
+		switch (Character.getType(c)) {
+		case Character.LOWERCASE_LETTER:
+			//$FALL-THROUGH$
+		case Character.OTHER_LETTER:
+			//$FALL-THROUGH$
+		case Character.DECIMAL_DIGIT_NUMBER:
+			return true;
+		default:
+			return false;
+		}
 	}
 
 	/**
 	 * this method changes WordToken content of numbers to decimal numbers and adds numbers together not surrounded by
 	 * words
 	 * 
-	 * @param list
-	 *            of all tokens containing potential written numbers that have to be merged
-	 * @return final list containing the correct numbers
+	 * @param numbers
+	 *            written numbers that have to be merged, the list is cleared afterwards
+	 * @param result
+	 *            list to add the merged number to
 	 */
-	private List<EndToken> concatNumbers(List<EndToken> list) {
-		List<EndToken> result = new ArrayList<>();
-		List<EndToken> numbers = new ArrayList<>();
-		for (EndToken wordToken : list) {
-			if (wordToken.getType() == EndTokenType.NUMBER && wordToken.getContent().matches("[a-zA-Z]+")) {
-				numbers.add(wordToken);
-			} else {
-				if (!numbers.isEmpty()) {
-					result.add(this.fromNumbers(numbers));
-					numbers.clear();
-				}
-				result.add(wordToken);
-			}
-		}
+	private void addNumbers(List<EndToken> numbers, List<EndToken> result) {
 		if (!numbers.isEmpty()) {
-			result.add(this.fromNumbers(numbers));
+			int finalNumber = this.numberConversion.calcNumber(numbers);
+			EndToken t = new EndToken(String.valueOf(finalNumber));
+			t.setType(EndTokenType.NUMBER);
+			result.add(t);
+			numbers.clear();
 		}
-		return result;
-	}
-
-	private EndToken fromNumbers(List<EndToken> numbers) {
-		int finalNumber = this.numberConversion.calcNumber(numbers);
-		EndToken t = new EndToken(String.valueOf(finalNumber));
-		t.setType(EndTokenType.NUMBER);
-		return t;
 	}
 
 	/**
-	 * sets WordTokenType
+	 * creates the WordToken and sets the WordTokenType
 	 * 
-	 * @param next
-	 *            the WordToken
+	 * @param word
+	 *            the content of the WordToken
 	 * @return the parsed WordToken
 	 */
-	private EndToken parse(EndToken next) {
-		for (Map.Entry<String, EndTokenType> entry : this.regexTokenType.entrySet()) {
-			if (next.getContent().matches(entry.getKey())) {
-				next.setType(entry.getValue());
-				return next;
-			}
+	private EndToken parse(String word) {
+		EndToken next = new EndToken(word);
+		if (this.wordToNumber.containsKey(word)) {
+			next.setType(EndTokenType.NUMBER);
+			return next;
+		}
+		boolean digits = true;
+		boolean letters = true;
+		for (int i = 0; i < word.length(); i++) {
+			char c = word.charAt(i);
+			digits &= c >= '0' && c <= '9';
+			letters &= Character.isLetter(c);
+		}
+		if (digits) {
+			next.setType(EndTokenType.NUMBER);
+		} else if (letters) {
+			next.setType(EndTokenType.WORD);
+		} else {
+			throw new NLLexerException("no matching word type found");
 		}
-		throw new NLLexerException("no matching word type found");
+		return next;
 	}
 }
@@ -0,0 +1,116 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.nl;
+
+import java.util.Collections;
+import java.util.Map;
+
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+
+/**
+ * result of matching natural language against a {@link GrammarAutomaton}. Entity captures are kept here instead of
+ * being written into the grammar nodes.
+ *
+ * @author Felix Burk
+ */
+public final class NLMatch {
+
+	private final AGFNode grammar;
+
+	private final int index;
+
+	private final Map<String, String> entityContent;
+
+	private final int start;
+
+	private final int end;
+
+	/**
+	 * constructor
+	 *
+	 * @param grammar
+	 *            the matching grammar
+	 * @param index
+	 *            of the matching grammar inside the automaton
+	 * @param entityContent
+	 *            mapping the entity id to the user provided content
+	 * @param start
+	 *            index of the first matched token, inclusive
+	 * @param end
+	 *            index of the last matched token, exclusive
+	 */
+	NLMatch(AGFNode grammar, int index, Map<String, String> entityContent, int start, int end) {
+		this.grammar = grammar;
+		this.index = index;
+		this.entityContent = Collections.unmodifiableMap(entityContent);
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Get's {@link #grammar grammar}
+	 * 
+	 * @return the matching grammar
+	 */
+	public AGFNode getGrammar() {
+		return this.grammar;
+	}
+
+	/**
+	 * Get's {@link #index index}
+	 * 
+	 * @return index of the matching grammar inside the automaton
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Get's {@link #entityContent entityContent}
+	 * 
+	 * @return Map which is mapping the entity id to the user provided content
+	 */
+	public Map<String, String> getEntityContent() {
+		return this.entityContent;
+	}
+
+	/**
+	 * Get's {@link #start start}
+	 * 
+	 * @return index of the first matched token, inclusive
+	 */
+	public int getStart() {
+		return this.start;
+	}
+
+	/**
+	 * Get's {@link #end end}
+	 * 
+	 * @return index of the last matched token, exclusive
+	 */
+	public int getEnd() {
+		return this.end;
+	}
+
+}
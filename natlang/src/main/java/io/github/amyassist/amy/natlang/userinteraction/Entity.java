@@ -56,6 +56,20 @@ public class Entity {
 		this.required = required;
 	}
 
+	/**
+	 * copies an entity without its entity data, the grammar and prompt are shared
+	 * 
+	 * @param prototype
+	 *            entity to copy
+	 */
+	public Entity(Entity prototype) {
+		this.entityId = prototype.entityId;
+		this.grammar = prototype.grammar;
+		this.prompt = prototype.prompt;
+		this.method = prototype.method;
+		this.required = prototype.required;
+	}
+
 	/**
 	 * Set's {@link #entityData entityData}
 	 * 
@@ -26,6 +26,7 @@ package io.github.amyassist.amy.natlang.userinteraction;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 
@@ -36,15 +37,13 @@ import org.slf4j.LoggerFactory;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.natlang.NLIAnnotationReader;
 import io.github.amyassist.amy.natlang.PreDefinedEntityTypes;
-import io.github.amyassist.amy.natlang.agf.AGFLexer;
-import io.github.amyassist.amy.natlang.agf.AGFParser;
 import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
 import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
-import io.github.amyassist.amy.natlang.aim.XMLEntityTemplate;
-import io.github.amyassist.amy.natlang.aim.XMLPrompt;
+import io.github.amyassist.amy.natlang.userinteraction.UserIntentTemplate.ProvidedGrammars;
 
 /**
- * The user intent class load all needed grammars and answers from the xml. the entities were saved here.
+ * The user intent class holds the entities the user provided for one intent. All grammars are shared with the
+ * {@link UserIntentTemplate} the intent was created from, only the entities are copied.
  *
  * @author Lars Buttgereit, Felix Burk
  */
@@ -53,6 +52,8 @@ public class UserIntent {
 	@Reference
 	private Logger logger = LoggerFactory.getLogger(UserIntent.class);
 
+	@Nonnull
+	private final UserIntentTemplate template;
 	@Nonnull
 	private final Method method;
 	@Nonnull
@@ -68,7 +69,7 @@ public class UserIntent {
 	private Map<String, Entity> entityList = new LinkedHashMap<>();
 
 	/**
-	 * Represents an intent of a user
+	 * Represents an intent of a user, all grammars are parsed for this intent only
 	 *
 	 * @param method
 	 *            plugin method to call
@@ -76,52 +77,25 @@ public class UserIntent {
 	 *            corresponding aimintent from xml
 	 */
 	public UserIntent(@Nonnull Method method, @Nonnull XMLAIMIntent aimIntent) {
-		this.method = method;
-		this.partialNLIClass = method.getDeclaringClass();
-		this.aimIntent = aimIntent;
-
-		registerEntities();
-		this.grammar = parseStringToAGF(this.aimIntent.getGram());
-	}
-
-	private void registerEntities() {
-		Map<String, AGFNode> customEntities = PreDefinedEntityTypes.getTypes();
-		for (Entry<String, AGFNode> e : customEntities.entrySet()) {
-			this.entityList.put(e.getKey(), new Entity(e.getKey(), e.getValue(), false));
-		}
-
-		for (XMLEntityTemplate xmlEntityTemplate : this.aimIntent.getTemplates()) {
-			Entity e = new Entity(xmlEntityTemplate.getEntityId(), parseStringToAGF(xmlEntityTemplate.getGrammar()),
-					Boolean.parseBoolean(xmlEntityTemplate.getRequired()));
-			this.entityList.put(xmlEntityTemplate.getEntityId(), e);
-			e.setMethod(NLIAnnotationReader.getValidEnityProviderMethod(this.partialNLIClass, e.getEntityId()));
-
-		}
-
-		for (XMLPrompt xmlPrompt : this.aimIntent.getPrompts()) {
-			Entity e = this.entityList.get(xmlPrompt.getEntityTemplateId());
-			e.setPrompt(new Prompt(parseStringToAGF(xmlPrompt.getGram()), xmlPrompt.getText()));
-			e.setMethod(NLIAnnotationReader.getValidEnityProviderMethod(this.partialNLIClass, e.getEntityId()));
-			this.entityList.replace(xmlPrompt.getEntityTemplateId(), e);
-		}
-
+		this(new UserIntentTemplate(method, aimIntent));
 	}
 
 	/**
-	 * parse a string to agf
+	 * Represents an intent of a user sharing the grammars of the template
 	 *
-	 * @param toParse
-	 *            String to parse
-	 * @return a agf node
+	 * @param template
+	 *            the template of the intent
 	 */
-	private AGFNode parseStringToAGF(String toParse) {
-		HashMap<String, AGFNode> idToGram = new HashMap<>();
-		for (Entry<String, Entity> e : this.entityList.entrySet()) {
-			idToGram.put(e.getKey(), e.getValue().getGrammar());
+	public UserIntent(@Nonnull UserIntentTemplate template) {
+		this.template = template;
+		this.method = template.getMethod();
+		this.partialNLIClass = template.getPartialNLIClass();
+		this.aimIntent = template.getXml();
+		this.grammar = template.getGrammar();
+
+		for (Entry<String, Entity> e : template.getEntities().entrySet()) {
+			this.entityList.put(e.getKey(), new Entity(e.getValue()));
 		}
-		AGFLexer lex = new AGFLexer(toParse);
-		AGFParser parse = new AGFParser(lex, idToGram);
-		return parse.parseWholeExpression();
 	}
 
 	/**
@@ -209,37 +183,26 @@ public class UserIntent {
 	 *            to receive new grammars from
 	 */
 	public void updateGrammars(Object object) {
-		List<Entity> toUpdate = new ArrayList<>();
-		for (Entry<String, Entity> entry : this.entityList.entrySet()) {
-			if (entry.getValue().getMethod() != null) {
-				StringBuilder builder = new StringBuilder();
-				List<String> providedEntities = NLIAnnotationReader
-						.callNLIGetEntityProviderMethod(entry.getValue().getMethod(), object);
-				if (!providedEntities.isEmpty()) {
-					builder.append("(").append(providedEntities.get(0));
-					for (int i = 1; i < providedEntities.size(); i++) {
-						builder.append("|").append(providedEntities.get(i));
-					}
-					builder.append(")");
-				}
-				AGFNode node = parseStringToAGF(builder.toString());
-				Entity e = entry.getValue();
-				e.setGrammar(node);
-				toUpdate.add(e);
-			}
-		}
+		updateGrammars(() -> object);
+	}
 
-		for (Entity e : toUpdate) {
-			this.entityList.replace(e.getEntityId(), e);
+	/**
+	 * sets the grammars generated from the entity providers. They are cached by the template, so the providers might
+	 * not be called at all.
+	 * 
+	 * @param instance
+	 *            supplies the object to receive new grammars from
+	 */
+	public void updateGrammars(Supplier<?> instance) {
+		ProvidedGrammars provided = this.template.getProvidedGrammars(instance);
+		if (provided == null) {
+			return;
 		}
-
-		Map<String, Prompt> idToPrompt = new HashMap<>();
-		for (XMLPrompt xmlPrompt : this.aimIntent.getPrompts()) {
-			idToPrompt.put(xmlPrompt.getEntityTemplateId(),
-					new Prompt(parseStringToAGF(xmlPrompt.getGram()), xmlPrompt.getText()));
-			Entity e = this.entityList.get(xmlPrompt.getEntityTemplateId());
-			e.setPrompt(idToPrompt.get(xmlPrompt.getEntityTemplateId()));
-			this.entityList.replace(xmlPrompt.getEntityTemplateId(), e);
+		for (Entry<String, AGFNode> entry : provided.getGrammars().entrySet()) {
+			this.entityList.get(entry.getKey()).setGrammar(entry.getValue());
+		}
+		for (Entry<String, Prompt> entry : provided.getPrompts().entrySet()) {
+			this.entityList.get(entry.getKey()).setPrompt(entry.getValue());
 		}
 	}
 }
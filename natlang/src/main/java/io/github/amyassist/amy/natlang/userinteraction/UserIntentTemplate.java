@@ -24,27 +24,205 @@
 package io.github.amyassist.amy.natlang.userinteraction;
 
 import java.lang.reflect.Method;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import io.github.amyassist.amy.natlang.NLIAnnotationReader;
+import io.github.amyassist.amy.natlang.PreDefinedEntityTypes;
+import io.github.amyassist.amy.natlang.agf.AGFLexer;
+import io.github.amyassist.amy.natlang.agf.AGFParser;
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
 import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.aim.XMLEntityTemplate;
+import io.github.amyassist.amy.natlang.aim.XMLPrompt;
 
 /**
- * Helper Template class
+ * Prototype of a {@link UserIntent}. The grammars of the intent, its entities and prompts are parsed once when the
+ * template is created and shared by all user intents created from it. The grammars generated from the entity
+ * providers of the plugin are cached for a configurable time, and only parsed again if a provider returns different
+ * entities.
  * 
  * @author Felix Burk
  */
 public class UserIntentTemplate {
-	
+
 	private final Method method;
 	private final XMLAIMIntent xml;
-	
+	private final Class<?> partialNLIClass;
+
 	/**
-	 * constructor
-	 * @param method to use
-	 * @param xml to use
+	 * the parsed grammar of the intent
+	 */
+	private final AGFNode grammar;
+
+	/**
+	 * prototypes of all entities, they never contain entity data
+	 */
+	private final Map<String, Entity> entities;
+
+	/**
+	 * how long provided grammars are used without asking the entity providers again, in nanoseconds
+	 */
+	private final long providerCacheTime;
+
+	private final boolean hasEntityProviders;
+
+	private volatile ProvidedGrammars providedGrammars;
+
+	/**
+	 * constructor, grammars of entity providers are not cached
+	 * 
+	 * @param method
+	 *            to use
+	 * @param xml
+	 *            to use
 	 */
 	public UserIntentTemplate(Method method, XMLAIMIntent xml) {
+		this(method, xml, 0);
+	}
+
+	/**
+	 * constructor
+	 * 
+	 * @param method
+	 *            to use
+	 * @param xml
+	 *            to use
+	 * @param providerCacheMillis
+	 *            how long the grammars of entity providers are cached in milliseconds
+	 */
+	public UserIntentTemplate(Method method, XMLAIMIntent xml, long providerCacheMillis) {
 		this.method = method;
 		this.xml = xml;
+		this.partialNLIClass = method.getDeclaringClass();
+		this.providerCacheTime = TimeUnit.MILLISECONDS.toNanos(providerCacheMillis);
+
+		Map<String, Entity> entityList = new LinkedHashMap<>();
+		for (Entry<String, AGFNode> e : PreDefinedEntityTypes.getTypes().entrySet()) {
+			entityList.put(e.getKey(), new Entity(e.getKey(), e.getValue(), false));
+		}
+
+		for (XMLEntityTemplate xmlEntityTemplate : xml.getTemplates()) {
+			Entity e = new Entity(xmlEntityTemplate.getEntityId(),
+					parseStringToAGF(xmlEntityTemplate.getGrammar(), grammars(entityList)),
+					Boolean.parseBoolean(xmlEntityTemplate.getRequired()));
+			e.setMethod(NLIAnnotationReader.getValidEnityProviderMethod(this.partialNLIClass, e.getEntityId()));
+			entityList.put(xmlEntityTemplate.getEntityId(), e);
+		}
+
+		boolean providers = false;
+		for (Entity e : entityList.values()) {
+			providers = providers || e.getMethod() != null;
+		}
+		this.hasEntityProviders = providers;
+
+		Map<String, AGFNode> entityGrammars = grammars(entityList);
+		for (XMLPrompt xmlPrompt : xml.getPrompts()) {
+			entityList.get(xmlPrompt.getEntityTemplateId())
+					.setPrompt(new Prompt(parseStringToAGF(xmlPrompt.getGram(), entityGrammars), xmlPrompt.getText()));
+		}
+
+		this.entities = Collections.unmodifiableMap(entityList);
+		this.grammar = parseStringToAGF(xml.getGram(), entityGrammars);
+	}
+
+	private static Map<String, AGFNode> grammars(Map<String, Entity> entityList) {
+		Map<String, AGFNode> idToGram = new HashMap<>();
+		for (Entry<String, Entity> e : entityList.entrySet()) {
+			idToGram.put(e.getKey(), e.getValue().getGrammar());
+		}
+		return idToGram;
+	}
+
+	/**
+	 * parse a string to agf
+	 *
+	 * @param toParse
+	 *            String to parse
+	 * @param idToGram
+	 *            grammars of the entities
+	 * @return a agf node
+	 */
+	private static AGFNode parseStringToAGF(String toParse, Map<String, AGFNode> idToGram) {
+		AGFLexer lex = new AGFLexer(toParse);
+		AGFParser parse = new AGFParser(lex, idToGram);
+		return parse.parseWholeExpression();
+	}
+
+	/**
+	 * creates a new user intent sharing the grammars of this template
+	 * 
+	 * @return the user intent
+	 */
+	public UserIntent createIntent() {
+		return new UserIntent(this);
+	}
+
+	/**
+	 * returns the grammars generated from the entity providers. The providers are only called if the cached grammars
+	 * are older than the cache time, and the grammars are only parsed again if a provider returned different entities.
+	 * 
+	 * @param instance
+	 *            supplies the instance of the plugin class to call the entity providers on
+	 * @return the grammars or null if this intent has no entity providers
+	 */
+	ProvidedGrammars getProvidedGrammars(Supplier<?> instance) {
+		if (!this.hasEntityProviders) {
+			return null;
+		}
+		ProvidedGrammars cached = this.providedGrammars;
+		long now = System.nanoTime();
+		if (cached != null && now - cached.timestamp < this.providerCacheTime) {
+			return cached;
+		}
+
+		Object object = instance.get();
+		Map<String, List<String>> provided = new HashMap<>();
+		for (Entity e : this.entities.values()) {
+			if (e.getMethod() != null) {
+				provided.put(e.getEntityId(), NLIAnnotationReader.callNLIGetEntityProviderMethod(e.getMethod(), object));
+			}
+		}
+
+		ProvidedGrammars result;
+		if (cached != null && cached.provided.equals(provided)) {
+			result = new ProvidedGrammars(provided, cached.grammars, cached.prompts, now);
+		} else {
+			result = parseProvidedGrammars(provided, now);
+		}
+		this.providedGrammars = result;
+		return result;
+	}
+
+	private ProvidedGrammars parseProvidedGrammars(Map<String, List<String>> provided, long timestamp) {
+		Map<String, AGFNode> idToGram = grammars(this.entities);
+		Map<String, AGFNode> updated = new HashMap<>();
+		for (Entity e : this.entities.values()) {
+			List<String> providedEntities = provided.get(e.getEntityId());
+			if (providedEntities != null) {
+				String grammarString = providedEntities.isEmpty() ? ""
+						: "(" + String.join("|", providedEntities) + ")";
+				AGFNode node = parseStringToAGF(grammarString, idToGram);
+				idToGram.put(e.getEntityId(), node);
+				updated.put(e.getEntityId(), node);
+			}
+		}
+
+		Map<String, Prompt> prompts = new HashMap<>();
+		for (XMLPrompt xmlPrompt : this.xml.getPrompts()) {
+			prompts.put(xmlPrompt.getEntityTemplateId(),
+					new Prompt(parseStringToAGF(xmlPrompt.getGram(), idToGram), xmlPrompt.getText()));
+		}
+		return new ProvidedGrammars(provided, updated, prompts, timestamp);
+	}
+
+	/**
+	 * drops the cached grammars of the entity providers, the next user intent will call the providers again
+	 */
+	public void invalidateProvidedGrammars() {
+		this.providedGrammars = null;
 	}
 
 	/**
@@ -62,6 +240,61 @@ public class UserIntentTemplate {
 	public XMLAIMIntent getXml() {
 		return this.xml;
 	}
-	
-	
+
+	/**
+	 * Get's the partialNLI class
+	 * @return partialNLIClass
+	 */
+	public Class<?> getPartialNLIClass() {
+		return this.partialNLIClass;
+	}
+
+	/**
+	 * Get's {@link #grammar grammar}
+	 * @return grammar
+	 */
+	public AGFNode getGrammar() {
+		return this.grammar;
+	}
+
+	/**
+	 * Get's {@link #entities entities}
+	 * @return prototypes of all entities
+	 */
+	public Map<String, Entity> getEntities() {
+		return this.entities;
+	}
+
+	/**
+	 * immutable grammars generated from the entity providers
+	 */
+	static final class ProvidedGrammars {
+		private final Map<String, List<String>> provided;
+		private final Map<String, AGFNode> grammars;
+		private final Map<String, Prompt> prompts;
+		private final long timestamp;
+
+		ProvidedGrammars(Map<String, List<String>> provided, Map<String, AGFNode> grammars,
+				Map<String, Prompt> prompts, long timestamp) {
+			this.provided = provided;
+			this.grammars = grammars;
+			this.prompts = prompts;
+			this.timestamp = timestamp;
+		}
+
+		/**
+		 * @return entity ids mapped to the grammars generated from their providers
+		 */
+		Map<String, AGFNode> getGrammars() {
+			return this.grammars;
+		}
+
+		/**
+		 * @return entity ids mapped to the prompts parsed with the provided grammars
+		 */
+		Map<String, Prompt> getPrompts() {
+			return this.prompts;
+		}
+	}
+
 }
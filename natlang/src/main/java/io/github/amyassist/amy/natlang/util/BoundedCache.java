@@ -0,0 +1,114 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A small concurrent memo cache with a fixed maximum size. Lookups are lock free. If the cache is full an arbitrary
+ * entry is evicted, which is good enough for caches of values that are cheap to recompute, like word stems.
+ *
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ * 
+ * @author Felix Burk
+ */
+public final class BoundedCache<K, V> {
+
+	private final Map<K, V> map = new ConcurrentHashMap<>();
+
+	private final int maxSize;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * constructor
+	 * 
+	 * @param maxSize
+	 *            the maximum number of cached entries, 0 disables caching
+	 */
+	public BoundedCache(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("max size must not be negative");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * returns the cached value or computes and caches it
+	 * 
+	 * @param key
+	 *            of the value, must not be null
+	 * @param loader
+	 *            to compute the value if it is not cached, must not return null
+	 * @return the value
+	 */
+	public V get(K key, Function<K, V> loader) {
+		V value = this.map.get(key);
+		if (value != null) {
+			this.hits.increment();
+			return value;
+		}
+		this.misses.increment();
+		value = loader.apply(key);
+		if (this.maxSize > 0) {
+			if (this.map.size() >= this.maxSize) {
+				evictOne();
+			}
+			this.map.putIfAbsent(key, value);
+		}
+		return value;
+	}
+
+	private void evictOne() {
+		Iterator<K> iterator = this.map.keySet().iterator();
+		if (iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * removes all entries, the statistics are kept
+	 */
+	public void clear() {
+		this.map.clear();
+	}
+
+	/**
+	 * @return the current statistics of this cache
+	 */
+	public CacheStatistics getStatistics() {
+		return new CacheStatistics(this.hits.sum(), this.misses.sum(), this.map.size(), this.maxSize);
+	}
+
+}
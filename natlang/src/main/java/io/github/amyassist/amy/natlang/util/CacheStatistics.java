@@ -0,0 +1,106 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.natlang.util;
+
+/**
+ * Snapshot of the statistics of a {@link BoundedCache}, used to size the cache
+ *
+ * @author Felix Burk
+ */
+public final class CacheStatistics {
+
+	private final long hitCount;
+	private final long missCount;
+	private final int size;
+	private final int maxSize;
+
+	/**
+	 * constructor
+	 * 
+	 * @param hitCount
+	 *            number of lookups that found a cached value
+	 * @param missCount
+	 *            number of lookups that had to compute the value
+	 * @param size
+	 *            current number of entries
+	 * @param maxSize
+	 *            maximum number of entries
+	 */
+	public CacheStatistics(long hitCount, long missCount, int size, int maxSize) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.size = size;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Get's {@link #hitCount hitCount}
+	 * 
+	 * @return number of lookups that found a cached value
+	 */
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * Get's {@link #missCount missCount}
+	 * 
+	 * @return number of lookups that had to compute the value
+	 */
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * @return hits divided by all lookups, 0 if there were no lookups
+	 */
+	public double getHitRate() {
+		long total = this.hitCount + this.missCount;
+		return total == 0 ? 0 : (double) this.hitCount / total;
+	}
+
+	/**
+	 * Get's {@link #size size}
+	 * 
+	 * @return current number of entries
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Get's {@link #maxSize maxSize}
+	 * 
+	 * @return maximum number of entries
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	@Override
+	public String toString() {
+		return "hits " + this.hitCount + ", misses " + this.missCount + ", size " + this.size + "/" + this.maxSize;
+	}
+
+}
@@ -64,8 +64,61 @@ public class CompareWords {
 	public static boolean isDistanceBigger(String source, String target, int comparison) {
 		if (Math.abs(source.length() - target.length()) > comparison)
 			return true;
+		if (comparison == 0)
+			return !source.equals(target);
+		if (comparison == 1)
+			return !isDistanceAtMostOne(source, target);
 		return wordDistance(source, target) > comparison;
 	}
+
+	/**
+	 * checks in one pass and without allocations if the optimal string alignment distance 
+	 * of two words is at most one. This is the check done for every word of the fuzzy matcher
+	 * 
+	 * @param source charsequence to compare
+	 * @param target second charsequence to compare
+	 * @return true if the words are equal or one edit apart
+	 */
+	public static boolean isDistanceAtMostOne(CharSequence source, CharSequence target) {
+		int lengthSource = source.length();
+		int lengthTarget = target.length();
+		if (lengthSource < lengthTarget) {
+			return lengthTarget - lengthSource == 1 && isOneInsertion(source, target);
+		} else if (lengthSource > lengthTarget) {
+			return lengthSource - lengthTarget == 1 && isOneInsertion(target, source);
+		}
+
+		int i = 0;
+		while (i < lengthSource && source.charAt(i) == target.charAt(i)) {
+			i++;
+		}
+		if (i >= lengthSource - 1) {
+			return true;
+		}
+		int rest = i + 1;
+		if (source.charAt(i) == target.charAt(i + 1) && source.charAt(i + 1) == target.charAt(i)) {
+			// transposition of two adjacent chars
+			rest = i + 2;
+		}
+		return regionEquals(source, target, rest, rest, lengthSource - rest);
+	}
+
+	private static boolean isOneInsertion(CharSequence shorter, CharSequence longer) {
+		int i = 0;
+		while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+			i++;
+		}
+		return regionEquals(shorter, longer, i, i + 1, shorter.length() - i);
+	}
+
+	private static boolean regionEquals(CharSequence a, CharSequence b, int offsetA, int offsetB, int length) {
+		for (int k = 0; k < length; k++) {
+			if (a.charAt(offsetA + k) != b.charAt(offsetB + k)) {
+				return false;
+			}
+		}
+		return true;
+	}
 	
 	
 	/**
@@ -25,6 +25,9 @@ package io.github.amyassist.amy.core.natlang;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import io.github.amyassist.amy.natlang.util.CompareWords;
@@ -53,4 +56,26 @@ public class CompareWordsTest {
 		assertEquals(1, CompareWords.wordDistance("one", "on"));
 	}
 
+	@Test
+	public void testDistanceAtMostOne() {
+		List<String> words = new ArrayList<>();
+		collectWords("", 4, words);
+		for (String source : words) {
+			for (String target : words) {
+				boolean expected = CompareWords.wordDistance(source, target) <= 1;
+				assertEquals(expected, CompareWords.isDistanceAtMostOne(source, target), source + " " + target);
+				assertEquals(!expected, CompareWords.isDistanceBigger(source, target, 1), source + " " + target);
+			}
+		}
+	}
+
+	private static void collectWords(String prefix, int maxLength, List<String> words) {
+		words.add(prefix);
+		if (prefix.length() < maxLength) {
+			for (char c = 'a'; c <= 'c'; c++) {
+				collectWords(prefix + c, maxLength, words);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,179 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.core.io.Environment;
+import io.github.amyassist.amy.natlang.DialogHandlerImpl;
+import io.github.amyassist.amy.natlang.NLProcessingManager;
+import io.github.amyassist.amy.natlang.NLProcessingManagerImpl;
+import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.aim.XMLAmyInteractionModel;
+import io.github.amyassist.amy.natlang.userinteraction.EntityDataImpl;
+import io.github.amyassist.amy.test.FrameworkExtension;
+import io.github.amyassist.amy.test.TestFramework;
+
+/**
+ * Stress test for concurrent dialogs. Runs the same conversations sequentially and on many threads and expects the
+ * same answers.
+ * 
+ * @author Felix Burk
+ */
+@ExtendWith(FrameworkExtension.class)
+public class DialogHandlerConcurrencyTest {
+
+	private static final int THREADS = 8;
+	private static final int DIALOGS = 400;
+
+	private static final String[][] CONVERSATIONS = { { "greet me", "with good evening" },
+			{ "greet me with hello" }, { "set a timer for 15 minutes" }, { "set timer on 90 minutes" },
+			{ "wake me up at 10 oh 20" }, { "wake me at 7 x 45" }, { "search for cheap flights to rome please" },
+			{ "greet me", "with good morning" }, { "please greet me with good morning" } };
+
+	@Reference
+	private TestFramework testFramework;
+
+	private DialogHandlerImpl dialogHandler;
+
+	@BeforeEach
+	public void setup() throws JAXBException, NoSuchMethodException {
+		this.testFramework.mockService(Environment.class);
+		ConfigurationManager loader = this.testFramework.mockService(ConfigurationManager.class);
+		Properties prop = new Properties();
+		prop.setProperty("enableStemmer", "true");
+		when(loader.getConfigurationWithDefaults(Mockito.anyString())).thenReturn(prop);
+
+		NLProcessingManager manager = this.testFramework.registerService(NLProcessingManager.class,
+				NLProcessingManagerImpl.class);
+		this.dialogHandler = this.testFramework.setServiceUnderTest(DialogHandlerImpl.class);
+
+		InputStream aim = this.getClass().getResourceAsStream("concurrentDialogs.aim.xml");
+		XMLAmyInteractionModel model = (XMLAmyInteractionModel) JAXBContext
+				.newInstance(XMLAmyInteractionModel.class).createUnmarshaller().unmarshal(aim);
+		for (XMLAIMIntent intent : model.getIntents()) {
+			String ref = intent.getReference();
+			String methodName = ref.substring(ref.lastIndexOf('.') + 1);
+			Method method = Plugin.class.getMethod(methodName, Map.class);
+			manager.register(method, intent);
+		}
+	}
+
+	@Test
+	public void concurrentDialogsGiveSequentialResults() throws InterruptedException, ExecutionException {
+		List<List<String>> sequential = new ArrayList<>();
+		for (int i = 0; i < DIALOGS; i++) {
+			sequential.add(converse(CONVERSATIONS[i % CONVERSATIONS.length]));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<List<String>>> futures = new ArrayList<>();
+			for (int i = 0; i < DIALOGS; i++) {
+				String[] conversation = CONVERSATIONS[i % CONVERSATIONS.length];
+				futures.add(executor.submit(() -> converse(conversation)));
+			}
+			for (int i = 0; i < DIALOGS; i++) {
+				assertThat(futures.get(i).get(), is(sequential.get(i)));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(sequential.get(0), contains("how should i greet you?", "good evening"));
+		assertThat(sequential.get(2), contains("timer 15"));
+		assertThat(sequential.get(4), contains("alarm 10:20"));
+		assertThat(sequential.get(6), contains("search cheap flights to rome"));
+	}
+
+	@Test
+	public void concurrentUtterancesOfOneDialog() throws InterruptedException {
+		List<String> answers = Collections.synchronizedList(new ArrayList<>());
+		UUID uuid = this.dialogHandler.createDialog(response -> answers.add(response.getText()));
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		for (int i = 0; i < DIALOGS; i++) {
+			executor.execute(() -> this.dialogHandler.process("set a timer for 15 minutes", uuid));
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(1, TimeUnit.MINUTES), is(true));
+
+		assertThat(answers, hasSize(DIALOGS));
+		assertThat(answers, everyItem(is("timer 15")));
+		assertThat(this.dialogHandler.hasDialogUnfinishedIntent(uuid), is(false));
+	}
+
+	private List<String> converse(String[] utterances) {
+		List<String> answers = new ArrayList<>();
+		UUID uuid = this.dialogHandler.createDialog(response -> answers.add(response.getText()));
+		for (String utterance : utterances) {
+			this.dialogHandler.process(utterance, uuid);
+		}
+		this.dialogHandler.deleteDialog(uuid);
+		return answers;
+	}
+
+	/**
+	 * the plugin answering the intents of concurrentDialogs.aim.xml
+	 */
+	public static class Plugin {
+
+		@Intent
+		public String greet(Map<String, EntityDataImpl> entities) {
+			return entities.get("greeting").getString();
+		}
+
+		@Intent
+		public String timer(Map<String, EntityDataImpl> entities) {
+			return "timer " + entities.get("minutes").getNumber();
+		}
+
+		@Intent
+		public String alarm(Map<String, EntityDataImpl> entities) {
+			return "alarm " + entities.get("amytime").getTime();
+		}
+
+		@Intent
+		public String search(Map<String, EntityDataImpl> entities) {
+			return "search " + entities.get("query").getString();
+		}
+	}
+}
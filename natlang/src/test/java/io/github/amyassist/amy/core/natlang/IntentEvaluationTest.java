@@ -0,0 +1,125 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.core.io.Environment;
+import io.github.amyassist.amy.natlang.IntentEvaluation;
+import io.github.amyassist.amy.natlang.NLProcessingManager;
+import io.github.amyassist.amy.natlang.NLProcessingManagerImpl;
+import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.aim.XMLAmyInteractionModel;
+import io.github.amyassist.amy.test.FrameworkExtension;
+import io.github.amyassist.amy.test.TestFramework;
+
+/**
+ * Tests the batch evaluation of intents
+ * 
+ * @author Felix Burk
+ */
+@ExtendWith(FrameworkExtension.class)
+public class IntentEvaluationTest {
+
+	@Reference
+	private TestFramework testFramework;
+
+	private NLProcessingManager manager;
+
+	@BeforeEach
+	public void setup() throws JAXBException, NoSuchMethodException {
+		this.testFramework.mockService(Environment.class);
+		ConfigurationManager loader = this.testFramework.mockService(ConfigurationManager.class);
+		Properties prop = new Properties();
+		prop.setProperty("enableStemmer", "true");
+		when(loader.getConfigurationWithDefaults(Mockito.anyString())).thenReturn(prop);
+
+		this.manager = this.testFramework.setServiceUnderTest(NLProcessingManagerImpl.class);
+
+		InputStream aim = this.getClass().getResourceAsStream("concurrentDialogs.aim.xml");
+		XMLAmyInteractionModel model = (XMLAmyInteractionModel) JAXBContext
+				.newInstance(XMLAmyInteractionModel.class).createUnmarshaller().unmarshal(aim);
+		for (XMLAIMIntent intent : model.getIntents()) {
+			String ref = intent.getReference();
+			String methodName = ref.substring(ref.lastIndexOf('.') + 1);
+			Method method = DialogHandlerConcurrencyTest.Plugin.class.getMethod(methodName, Map.class);
+			this.manager.register(method, intent);
+		}
+	}
+
+	@Test
+	public void evaluateIntent() {
+		IntentEvaluation evaluation = this.manager.evaluateIntent("please set a timer for 15 minutes");
+		assertThat(evaluation.isMatched(), is(true));
+		assertThat(evaluation.getIntent().getName(), is("timer"));
+		assertThat(evaluation.getEntities(), hasEntry("minutes", "15"));
+		assertThat(evaluation.getDurationNanos(), greaterThan(0L));
+
+		IntentEvaluation noMatch = this.manager.evaluateIntent("what is the weather like");
+		assertThat(noMatch.isMatched(), is(false));
+		assertThat(noMatch.getEntities().entrySet(), empty());
+	}
+
+	@Test
+	public void evaluateIntentsInOrder() {
+		List<String> utterances = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			utterances.add("set a timer for " + (i % 120 + 1) + " minutes");
+			utterances.add("wake me up at 10 oh " + (i % 50 + 10));
+			utterances.add("greet me with good morning");
+			utterances.add("this is no command " + i);
+		}
+
+		List<IntentEvaluation> evaluations = this.manager.evaluateIntents(utterances.stream());
+
+		assertThat(evaluations.stream().map(IntentEvaluation::getUtterance).collect(Collectors.toList()),
+				is(utterances));
+		for (int i = 0; i < utterances.size(); i++) {
+			IntentEvaluation expected = this.manager.evaluateIntent(utterances.get(i));
+			assertThat(evaluations.get(i).getIntent(), is(expected.getIntent()));
+			assertThat(evaluations.get(i).getEntities(), is(expected.getEntities()));
+		}
+		assertThat(evaluations.get(0).getEntities(), hasEntry("minutes", "1"));
+		assertThat(evaluations.get(2).getIntent().getName(), is("greet"));
+		assertThat(evaluations.get(3).isMatched(), is(false));
+	}
+
+}
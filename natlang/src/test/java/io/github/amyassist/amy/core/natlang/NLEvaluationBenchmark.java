@@ -0,0 +1,212 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang;
+
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.natlang.nl.NLLexerBenchmark;
+import io.github.amyassist.amy.core.io.Environment;
+import io.github.amyassist.amy.natlang.IntentEvaluation;
+import io.github.amyassist.amy.natlang.NLProcessingManager;
+import io.github.amyassist.amy.natlang.NLProcessingManagerImpl;
+import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.aim.XMLAmyInteractionModel;
+import io.github.amyassist.amy.natlang.userinteraction.EntityDataImpl;
+import io.github.amyassist.amy.test.TestFrameworkImpl;
+
+/**
+ * Throughput of the batch evaluation of the {@link NLProcessingManager} with the intents of all plugins. The AIM
+ * files are read from the plugins directory given by the system property amy.plugins.dir, by default ../plugins. The
+ * utterances of the lexer benchmark corpus are repeated to get a large batch. Run the main method from the test
+ * classpath, the benchmark is not part of the unit tests.
+ * 
+ * @author Felix Burk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NLEvaluationBenchmark {
+
+	private static final int CORPUS_REPETITIONS = 100;
+
+	private TestFrameworkImpl testFramework;
+
+	private NLProcessingManager manager;
+
+	private List<String> utterances;
+
+	/**
+	 * registers the intents of all plugins
+	 * 
+	 * @throws IOException
+	 *             if an AIM file or the corpus could not be read
+	 * @throws JAXBException
+	 *             if an AIM file is invalid
+	 */
+	@Setup
+	public void setup() throws IOException, JAXBException {
+		this.testFramework = new TestFrameworkImpl();
+		this.manager = createManager(this.testFramework);
+		registerPluginIntents(this.manager, Paths.get(System.getProperty("amy.plugins.dir", "../plugins")));
+
+		List<String> corpus = NLLexerBenchmark.readCorpus();
+		this.utterances = new ArrayList<>();
+		for (int i = 0; i < CORPUS_REPETITIONS; i++) {
+			this.utterances.addAll(corpus);
+		}
+	}
+
+	/**
+	 * cleans up the test framework
+	 */
+	@TearDown
+	public void tearDown() {
+		this.testFramework.after();
+	}
+
+	/**
+	 * @return evaluations of all utterances on the fork join pool
+	 */
+	@Benchmark
+	public List<IntentEvaluation> parallel() {
+		return this.manager.evaluateIntents(this.utterances.stream());
+	}
+
+	/**
+	 * @return evaluations of all utterances on the calling thread
+	 */
+	@Benchmark
+	public List<IntentEvaluation> sequential() {
+		return this.utterances.stream().map(this.manager::evaluateIntent).collect(Collectors.toList());
+	}
+
+	/**
+	 * creates the NLProcessingManager with stemming enabled and mocked dependencies
+	 * 
+	 * @param testFramework
+	 *            to create the manager with
+	 * @return the manager
+	 */
+	static NLProcessingManager createManager(TestFrameworkImpl testFramework) {
+		testFramework.mockService(Environment.class);
+		ConfigurationManager loader = testFramework.mockService(ConfigurationManager.class);
+		Properties prop = new Properties();
+		prop.setProperty("enableStemmer", "true");
+		when(loader.getConfigurationWithDefaults(Mockito.anyString())).thenReturn(prop);
+		NLProcessingManager manager = testFramework.setServiceUnderTest(NLProcessingManagerImpl.class);
+		testFramework.before();
+		return manager;
+	}
+
+	/**
+	 * registers all intents of the AIM files of the plugins, the intents are bound to {@link #intent(Map)}
+	 * 
+	 * @param manager
+	 *            to register the intents at
+	 * @param pluginsDir
+	 *            directory containing the plugin modules
+	 * @throws IOException
+	 *             if an AIM file could not be read
+	 * @throws JAXBException
+	 *             if an AIM file is invalid
+	 */
+	static void registerPluginIntents(NLProcessingManager manager, Path pluginsDir) throws IOException, JAXBException {
+		Method method;
+		try {
+			method = NLEvaluationBenchmark.class.getMethod("intent", Map.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		Unmarshaller unmarshaller = JAXBContext.newInstance(XMLAmyInteractionModel.class).createUnmarshaller();
+		List<Path> aimFiles;
+		try (Stream<Path> files = Files.walk(pluginsDir)) {
+			aimFiles = files.filter(p -> p.toString().endsWith(".aim.xml"))
+					.filter(p -> p.toString().contains("src" + p.getFileSystem().getSeparator() + "main"))
+					.sorted().collect(Collectors.toList());
+		}
+		for (Path aimFile : aimFiles) {
+			try (InputStream stream = Files.newInputStream(aimFile)) {
+				XMLAmyInteractionModel model = (XMLAmyInteractionModel) unmarshaller.unmarshal(stream);
+				for (XMLAIMIntent intent : model.getIntents()) {
+					manager.register(method, intent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * intent all plugin grammars are registered for, never called
+	 * 
+	 * @param entities
+	 *            not used
+	 * @return nothing
+	 */
+	@Intent
+	public static String intent(Map<String, EntityDataImpl> entities) {
+		return null;
+	}
+
+	/**
+	 * runs the benchmark
+	 * 
+	 * @param args
+	 *            not used
+	 * @throws RunnerException
+	 *             if the benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(NLEvaluationBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+}
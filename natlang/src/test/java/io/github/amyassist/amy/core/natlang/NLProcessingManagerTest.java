@@ -93,6 +93,13 @@ public class NLProcessingManagerTest {
 		assertEquals(true, this.quitIntent.contains(this.check));
 	}
 
+	@Test
+	public void testFixedAnswers() {
+		List<String> answers = new ArrayList<>(this.failedToUnderstand);
+		answers.addAll(this.quitIntent);
+		assertEquals(answers, this.manager.getFixedAnswers());
+	}
+
 	private void consumerMethodForDialog(Response response) {
 		this.check = response.getText();
 	}
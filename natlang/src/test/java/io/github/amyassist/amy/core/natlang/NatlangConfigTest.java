@@ -0,0 +1,94 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.annotation.Reference;
+import io.github.amyassist.amy.core.io.Environment;
+import io.github.amyassist.amy.natlang.NLProcessingManager;
+import io.github.amyassist.amy.natlang.NLProcessingManagerImpl;
+import io.github.amyassist.amy.natlang.util.CacheStatistics;
+import io.github.amyassist.amy.test.FrameworkExtension;
+import io.github.amyassist.amy.test.TestFramework;
+
+/**
+ * Tests that the shipped natlang configuration is used by the {@link NLProcessingManagerImpl}
+ * 
+ * @author Felix Burk
+ */
+@ExtendWith(FrameworkExtension.class)
+public class NatlangConfigTest {
+
+	@Reference
+	private TestFramework testFramework;
+
+	private Properties config;
+
+	@BeforeEach
+	void setup() throws IOException {
+		this.testFramework.mockService(Environment.class);
+		ConfigurationManager loader = this.testFramework.mockService(ConfigurationManager.class);
+		this.config = new Properties();
+		try (InputStream in = NatlangConfigTest.class.getResourceAsStream("/META-INF/natlang.config.properties")) {
+			this.config.load(in);
+		}
+		when(loader.getConfigurationWithDefaults(Mockito.anyString())).thenReturn(this.config);
+	}
+
+	@Test
+	void testShippedStemCacheSize() {
+		NLProcessingManager manager = this.testFramework.setServiceUnderTest(NLProcessingManagerImpl.class);
+
+		assertThat(manager.getStemCacheStatistics().getMaxSize(),
+				equalTo(Integer.parseInt(this.config.getProperty("stemCacheSize"))));
+	}
+
+	@Test
+	void testStemCacheBoundedByConfiguredSize() {
+		this.config.setProperty("stemCacheSize", "2");
+		NLProcessingManager manager = this.testFramework.setServiceUnderTest(NLProcessingManagerImpl.class);
+
+		manager.evaluateIntent("please set a timer for fifteen minutes");
+
+		CacheStatistics statistics = manager.getStemCacheStatistics();
+		assertThat(statistics.getMaxSize(), equalTo(2));
+		assertThat(statistics.getMissCount(), greaterThan(2L));
+		assertThat(statistics.getSize(), equalTo(2));
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang.languagespecifics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.amyassist.amy.natlang.languagespecifics.CachingStemmer;
+import io.github.amyassist.amy.natlang.languagespecifics.en.EnglishStemmer;
+import io.github.amyassist.amy.natlang.util.CacheStatistics;
+
+/**
+ * Test class for CachingStemmer
+ * 
+ * @author Lars Buttgereit
+ */
+public class TestCachingStemmer {
+
+	@Test
+	void testSameStems() {
+		EnglishStemmer englishStemmer = new EnglishStemmer();
+		CachingStemmer stemmer = new CachingStemmer(englishStemmer, 100);
+		String[] words = { "caresses", "ponies", "running", "hopping", "generalization", "ponies", "running" };
+		for (String word : words) {
+			assertThat(stemmer.stem(word), equalTo(englishStemmer.stem(word)));
+		}
+		CacheStatistics statistics = stemmer.getStatistics();
+		assertThat(statistics.getHitCount(), equalTo(2L));
+		assertThat(statistics.getMissCount(), equalTo(5L));
+		assertThat(statistics.getSize(), equalTo(5));
+	}
+
+	@Test
+	void testBounded() {
+		CachingStemmer stemmer = new CachingStemmer(new EnglishStemmer(), 3);
+		for (int i = 0; i < 20; i++) {
+			stemmer.stem("word" + i);
+		}
+		assertThat(stemmer.getStatistics().getSize(), equalTo(3));
+		assertThat(stemmer.getStatistics().getMissCount(), equalTo(20L));
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang.nl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.amyassist.amy.natlang.agf.AGFLexer;
+import io.github.amyassist.amy.natlang.agf.AGFParser;
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+import io.github.amyassist.amy.natlang.languagespecifics.ChooseLanguage;
+import io.github.amyassist.amy.natlang.nl.EndToken;
+import io.github.amyassist.amy.natlang.nl.GrammarAutomaton;
+import io.github.amyassist.amy.natlang.nl.NLLexer;
+import io.github.amyassist.amy.natlang.nl.NLParserException;
+
+/**
+ * Measures the worst case of {@link GrammarAutomaton#matchSpan(List, int)}: grammars that may start and end with
+ * anything and have no required words may start at every token. Each of them is matched anchored at every token, so
+ * the time grows linearly with the number of tokens. The input matches no grammar, so all spans are tried. Grammars
+ * with a required word, which is only said at the end of the input, are only matched for the spans containing it.
+ * Matching every sub list with {@link GrammarAutomaton#match(List)} is the quadratic baseline. Run the main method from the test classpath, the benchmark is
+ * not part of the unit tests.
+ * 
+ * @author Felix Burk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrammarAutomatonSpanBenchmark {
+
+	/**
+	 * number of tokens of the input
+	 */
+	@Param({ "8", "16", "32", "64" })
+	public int tokenCount;
+
+	private List<EndToken> tokens;
+
+	private GrammarAutomaton edgeWildcards;
+
+	private GrammarAutomaton requiredWords;
+
+	/**
+	 * creates the input and the automatons
+	 */
+	@Setup
+	public void setup() {
+		NLLexer lexer = new NLLexer(new ChooseLanguage("en", false));
+		StringBuilder input = new StringBuilder();
+		for (int i = 1; i < this.tokenCount; i++) {
+			input.append(i % 2 == 0 ? "some " : "words ");
+		}
+		input.append("stop");
+		this.tokens = lexer.tokenize(input.toString());
+
+		List<AGFNode> edge = new ArrayList<>();
+		List<AGFNode> required = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			// may start and end with anything, but the input contains no number
+			edge.add(parse("[please] + $(0,100," + (i + 1) + ") [now] *"));
+			// the * wildcard needs a token after the last word of the input
+			required.add(parse("[please] + stop [now] *"));
+		}
+		this.edgeWildcards = new GrammarAutomaton(edge, null);
+		this.requiredWords = new GrammarAutomaton(required, null);
+	}
+
+	private static AGFNode parse(String grammar) {
+		return new AGFParser(new AGFLexer(grammar)).parseWholeExpression();
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the result
+	 */
+	@Benchmark
+	public void edgeWildcards(Blackhole blackhole) {
+		blackhole.consume(matchSpan(this.edgeWildcards));
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the result
+	 */
+	@Benchmark
+	public void requiredWords(Blackhole blackhole) {
+		blackhole.consume(matchSpan(this.requiredWords));
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the result
+	 */
+	@Benchmark
+	public void subLists(Blackhole blackhole) {
+		for (int from = 0; from < this.tokens.size(); from++) {
+			for (int to = this.tokens.size(); to - from >= 3; to--) {
+				try {
+					blackhole.consume(this.edgeWildcards.match(this.tokens.subList(from, to)));
+				} catch (NLParserException e) {
+					blackhole.consume(e);
+				}
+			}
+		}
+	}
+
+	private Object matchSpan(GrammarAutomaton automaton) {
+		try {
+			return automaton.matchSpan(this.tokens, 3);
+		} catch (NLParserException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * runs the benchmark
+	 * 
+	 * @param args
+	 *            not used
+	 * @throws RunnerException
+	 *             if the benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(GrammarAutomatonSpanBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+}
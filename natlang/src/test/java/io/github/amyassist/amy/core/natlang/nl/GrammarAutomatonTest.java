@@ -0,0 +1,380 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang.nl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.amyassist.amy.natlang.agf.AGFLexer;
+import io.github.amyassist.amy.natlang.agf.AGFParser;
+import io.github.amyassist.amy.natlang.agf.nodes.AGFNode;
+import io.github.amyassist.amy.natlang.agf.nodes.EntityNode;
+import io.github.amyassist.amy.natlang.aim.XMLAmyInteractionModel;
+import io.github.amyassist.amy.natlang.languagespecifics.ChooseLanguage;
+import io.github.amyassist.amy.natlang.nl.*;
+import io.github.amyassist.amy.natlang.userinteraction.UserIntent;
+
+/**
+ * Tests for the {@link GrammarAutomaton}
+ * 
+ * @author Felix Burk
+ */
+public class GrammarAutomatonTest {
+
+	private List<AGFNode> grammars;
+
+	private NLLexer lex;
+
+	@BeforeEach
+	public void setup() throws JAXBException, IOException {
+		InputStream inputResource = this.getClass()
+				.getResourceAsStream("../userinteraction/testXMLUserInteraction.aim.xml");
+		try (InputStreamReader inputStreamReader = new InputStreamReader(inputResource, StandardCharsets.UTF_8);
+				BufferedReader reader = new BufferedReader(inputStreamReader)) {
+			String xml = reader.lines().collect(Collectors.joining());
+			JAXBContext jc = JAXBContext.newInstance(XMLAmyInteractionModel.class);
+			Unmarshaller unmarshaller = jc.createUnmarshaller();
+			XMLAmyInteractionModel aimmodel = (XMLAmyInteractionModel) unmarshaller
+					.unmarshal(new StringReader(xml));
+
+			this.grammars = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				this.grammars.add(
+						new UserIntent(this.getClass().getMethods()[0], aimmodel.getIntents().get(i)).getGrammar());
+			}
+		}
+		this.lex = new NLLexer(new ChooseLanguage("en", false));
+	}
+
+	@Test
+	public void entityContent() {
+		GrammarAutomaton automaton = new GrammarAutomaton(this.grammars, null);
+		NLMatch match = automaton.match(this.lex.tokenize("greet me with good morning test ten oh twenty"));
+
+		assertThat(match.getIndex(), is(0));
+		assertThat(match.getGrammar(), sameInstance(this.grammars.get(0)));
+		assertThat(match.getEntityContent(), hasEntry("greeting", "good morning"));
+		assertThat(match.getEntityContent(), hasEntry("amytime", "10 oh 20"));
+
+		for (EntityNode entity : match.getGrammar().getChildEntityNodes()) {
+			assertThat(entity.getUserProvidedContent(), nullValue());
+		}
+	}
+
+	@Test
+	public void shortWildcardStopper() {
+		GrammarAutomaton automaton = new GrammarAutomaton(this.grammars, null);
+		NLMatch match = automaton.match(this.lex.tokenize("best transport from stuttgart test to berlin x test"));
+
+		assertThat(match.getIndex(), is(3));
+		assertThat(match.getEntityContent(), hasEntry("start", "stuttgart test"));
+		assertThat(match.getEntityContent(), hasEntry("end", "berlin"));
+	}
+
+	@Test
+	public void noMatch() {
+		GrammarAutomaton automaton = new GrammarAutomaton(this.grammars, null);
+		List<EndToken> tokens = this.lex.tokenize("this is not a command");
+		assertThrows(NLParserException.class, () -> automaton.match(tokens));
+	}
+
+	@Test
+	public void plus() {
+		GrammarAutomaton automaton = new GrammarAutomaton(new ArrayList<>(), null);
+		for (AGFNode grammar : this.grammars) {
+			automaton = automaton.plus(grammar);
+		}
+		assertThat(automaton.getGrammars(), contains(this.grammars.toArray()));
+		assertThat(automaton.matchingNodeIndex(this.lex.tokenize("test the four sign wildcard long here")), is(1));
+	}
+
+	@Test
+	public void fuzzyFirstWord() {
+		GrammarAutomaton automaton = new GrammarAutomaton(this.grammars, null);
+		assertThat(automaton.matchingNodeIndex(this.lex.tokenize("grete me")), is(0));
+		assertThat(automaton.matchingNodeIndex(this.lex.tokenize("gret me")), is(0));
+		assertThat(automaton.matchingNodeIndex(this.lex.tokenize("greets me")), is(0));
+	}
+
+	@Test
+	public void requiredWordsOfManyGrammars() {
+		List<AGFNode> devices = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			devices.add(parse("(switch|turn) on [the] " + name(i) + " (light|lamp)"));
+		}
+		GrammarAutomaton incremental = new GrammarAutomaton(new ArrayList<>(), null);
+		for (AGFNode device : devices) {
+			incremental = incremental.plus(device);
+		}
+		GrammarAutomaton automaton = incremental;
+
+		assertThat(automaton.matchSpan(this.lex.tokenize("please turn on the " + name(250) + " lamp"), 3).getIndex(),
+				is(250));
+		// a word distance of one is allowed for required words too
+		assertThat(automaton.matchSpan(this.lex.tokenize("switch on " + name(42) + "x light now"), 3).getIndex(),
+				is(42));
+		List<EndToken> tokens = this.lex.tokenize("turn on the lamp");
+		assertThrows(NLParserException.class, () -> automaton.matchSpan(tokens, 3));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "search for cats", "play my favourite tune", "play a song", "tell me a joke",
+			"a good joke", "some words" })
+	public void noRequiredWordsBehindLongWildcard(String input) {
+		List<AGFNode> grammars = new ArrayList<>();
+		grammars.add(parse("search for *"));
+		grammars.add(parse("play * song"));
+		grammars.add(parse("(tell me|*) joke"));
+		grammars.add(parse("[tell me] * joke"));
+		GrammarAutomaton automaton = new GrammarAutomaton(grammars, null);
+		NLParser parser = new NLParser(grammars, null);
+		List<EndToken> tokens = this.lex.tokenize(input);
+
+		int expected;
+		try {
+			expected = parser.matchingNodeIndex(tokens);
+		} catch (NLParserException e) {
+			expected = -1;
+		}
+		if (expected >= 0) {
+			assertThat(automaton.matchingNodeIndex(tokens), is(expected));
+		} else {
+			assertThrows(NLParserException.class, () -> automaton.matchingNodeIndex(tokens));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "well search for cats please", "now play my favourite song and stop",
+			"could you tell me a joke", "a joke about a song", "so play a joke song", "nothing at all here" })
+	public void edgeWildcardSpansSameAsSubLists(String input) {
+		List<AGFNode> grammars = new ArrayList<>();
+		grammars.add(parse("search for *"));
+		grammars.add(parse("play * song"));
+		grammars.add(parse("(tell me|*) joke"));
+		grammars.add(parse("[tell me] * joke"));
+		GrammarAutomaton automaton = new GrammarAutomaton(grammars, null);
+		List<EndToken> tokens = this.lex.tokenize(input);
+
+		int expected = -1;
+		for (int i = 0; i < tokens.size() && expected < 0; i++) {
+			for (int j = tokens.size(); j - i >= 3 && expected < 0; j--) {
+				try {
+					expected = new NLParser(grammars, null).matchingNodeIndex(tokens.subList(i, j));
+				} catch (NLParserException e) {
+					// try next span
+				}
+			}
+		}
+
+		if (expected < 0) {
+			assertThrows(NLParserException.class, () -> automaton.matchSpan(tokens, 3));
+		} else {
+			assertThat(automaton.matchSpan(tokens, 3).getIndex(), is(expected));
+		}
+	}
+
+	@Test
+	public void anchoredSpansSameAsSubLists() {
+		List<AGFNode> all = new ArrayList<>(this.grammars);
+		all.add(parse("search for *"));
+		all.add(parse("tell me about *"));
+		all.add(parse("play + song"));
+		all.add(parse("[tell me] * joke"));
+		all.add(parse("(switch|turn) on [the] lamp"));
+		all.add(parse("dim [to] $(0,100,5) [percent] now"));
+		GrammarAutomaton automaton = new GrammarAutomaton(all, null);
+		String[] words = ("greet me with good morning test ten oh twenty 10 15 x best transport from stuttgart to "
+				+ "berlin at blah the wildcard really long four sign here search for play song tell about joke switch "
+				+ "turn on lamp dim percent now 50").split(" ");
+		Random random = new Random(42);
+
+		for (int n = 0; n < 2000; n++) {
+			StringBuilder input = new StringBuilder();
+			for (int i = random.nextInt(10); i >= 0; i--) {
+				input.append(words[random.nextInt(words.length)]).append(' ');
+			}
+			List<EndToken> tokens = this.lex.tokenize(input.toString().trim());
+
+			SubListMatch expected = matchSubList(automaton, tokens, 0, tokens.size());
+			for (int i = 0; i < tokens.size() && expected == null; i++) {
+				for (int j = tokens.size(); j - i >= 3 && expected == null; j--) {
+					expected = matchSubList(automaton, tokens, i, j);
+				}
+			}
+
+			if (expected == null) {
+				assertThrows(NLParserException.class, () -> automaton.matchSpan(tokens, 3), input.toString());
+			} else {
+				NLMatch match = automaton.matchSpan(tokens, 3);
+				assertThat(input.toString(), match.getIndex(), is(expected.match.getIndex()));
+				assertThat(input.toString(), match.getStart(), is(expected.from));
+				assertThat(input.toString(), match.getEnd(), is(expected.to));
+				assertThat(input.toString(), match.getEntityContent(), is(expected.match.getEntityContent()));
+			}
+		}
+		all.forEach(AGFNode::deleteEntityContent);
+	}
+
+	/**
+	 * @return the match of the sub list or null
+	 */
+	private static SubListMatch matchSubList(GrammarAutomaton automaton, List<EndToken> tokens, int from, int to) {
+		try {
+			return new SubListMatch(automaton.match(tokens.subList(from, to)), from, to);
+		} catch (NLParserException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * match of a sub list and its position in the tokens
+	 */
+	private static final class SubListMatch {
+		final NLMatch match;
+		final int from;
+		final int to;
+
+		SubListMatch(NLMatch match, int from, int to) {
+			this.match = match;
+			this.from = from;
+			this.to = to;
+		}
+	}
+
+	private static AGFNode parse(String grammar) {
+		return new AGFParser(new AGFLexer(grammar)).parseWholeExpression();
+	}
+
+	/**
+	 * @return a word of letters only, unique for every number
+	 */
+	private static String name(int i) {
+		StringBuilder name = new StringBuilder("dev");
+		int rest = i;
+		do {
+			name.append((char) ('a' + rest % 26)).append((char) ('a' + rest % 26));
+			rest /= 26;
+		} while (rest > 0);
+		return name.toString();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "greet me", "greet me with hello", "greet me with good morning test ten oh twenty",
+			"greet me test 10 x 15", "test the four sign wildcard long here", "test the wildcard really really long",
+			"best transport from stuttgart to berlin", "best transport from a b c to d e at blah x test",
+			"best transport from stuttgart test to berlin x test", "test the here", "greet", "hello" })
+	public void sameResultAsNLParser(String input) {
+		List<EndToken> tokens = this.lex.tokenize(input);
+		GrammarAutomaton automaton = new GrammarAutomaton(this.grammars, null);
+
+		for (int i = 0; i < this.grammars.size(); i++) {
+			List<AGFNode> single = new ArrayList<>();
+			single.add(this.grammars.get(i));
+			NLParser parser = new NLParser(single, null);
+			GrammarAutomaton singleAutomaton = new GrammarAutomaton(single, null);
+
+			boolean parserMatched;
+			try {
+				parser.matchingNode(tokens);
+				parserMatched = true;
+			} catch (NLParserException e) {
+				parserMatched = false;
+			}
+
+			if (parserMatched) {
+				NLMatch match = singleAutomaton.match(tokens);
+				for (EntityNode entity : this.grammars.get(i).getChildEntityNodes()) {
+					if (entity.getUserProvidedContent() != null) {
+						assertThat(match.getEntityContent(),
+								hasEntry(entity.getContent(), entity.getUserProvidedContent()));
+					}
+				}
+			} else {
+				assertThrows(NLParserException.class, () -> singleAutomaton.match(tokens));
+			}
+		}
+		automaton.getGrammars().forEach(AGFNode::deleteEntityContent);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "hey amy greet me with hello please", "amy could you greet me", "greet me",
+			"so best transport from stuttgart to berlin at blah thanks", "i said test the wildcard really long",
+			"what about test the four sign wildcard here now", "nothing matches in this sentence", "a b",
+			"please test the here and greet me with good morning test ten oh twenty" })
+	public void spanSameAsSubLists(String input) {
+		List<EndToken> tokens = this.lex.tokenize(input);
+		GrammarAutomaton automaton = new GrammarAutomaton(this.grammars, null);
+
+		int expected = parseWithNLParser(tokens);
+		for (int i = 0; i <= tokens.size() && expected < 0; i++) {
+			for (int j = tokens.size(); j > i && expected < 0; j--) {
+				if (j - i > 2) {
+					expected = parseWithNLParser(tokens.subList(i, j));
+				}
+			}
+		}
+
+		if (expected < 0) {
+			assertThrows(NLParserException.class, () -> automaton.matchSpan(tokens, 3));
+		} else {
+			assertThat(automaton.matchSpan(tokens, 3).getIndex(), is(expected));
+		}
+		this.grammars.forEach(AGFNode::deleteEntityContent);
+	}
+
+	/**
+	 * @return index of the first grammar the NLParser matches or -1
+	 */
+	private int parseWithNLParser(List<EndToken> tokens) {
+		for (int i = 0; i < this.grammars.size(); i++) {
+			List<AGFNode> single = new ArrayList<>();
+			single.add(this.grammars.get(i));
+			try {
+				new NLParser(single, null).matchingNode(tokens);
+				return i;
+			} catch (NLParserException e) {
+				// try next grammar
+			}
+		}
+		return -1;
+	}
+
+}
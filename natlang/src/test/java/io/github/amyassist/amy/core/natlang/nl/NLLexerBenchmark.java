@@ -0,0 +1,129 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang.nl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.amyassist.amy.natlang.languagespecifics.ChooseLanguage;
+import io.github.amyassist.amy.natlang.nl.NLLexer;
+
+/**
+ * Compares the throughput of the {@link NLLexer} with the {@link LegacyNLLexer} on a corpus of user inputs. Run the
+ * main method from the test classpath, the benchmark is not part of the unit tests.
+ * 
+ * @author Felix Burk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NLLexerBenchmark {
+
+	private List<String> corpus;
+
+	private NLLexer lexer;
+
+	private LegacyNLLexer legacyLexer;
+
+	/**
+	 * reads the corpus and creates the lexers
+	 * 
+	 * @throws IOException
+	 *             if the corpus could not be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		this.corpus = readCorpus();
+		ChooseLanguage language = new ChooseLanguage("en", true);
+		this.lexer = new NLLexer(language);
+		this.legacyLexer = new LegacyNLLexer(language);
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the tokens
+	 */
+	@Benchmark
+	public void singlePass(Blackhole blackhole) {
+		for (String utterance : this.corpus) {
+			blackhole.consume(this.lexer.tokenize(utterance));
+		}
+	}
+
+	/**
+	 * @param blackhole
+	 *            consumes the tokens
+	 */
+	@Benchmark
+	public void legacy(Blackhole blackhole) {
+		for (String utterance : this.corpus) {
+			blackhole.consume(this.legacyLexer.tokenize(utterance));
+		}
+	}
+
+	/**
+	 * reads the corpus of user inputs, one per line
+	 * 
+	 * @return the user inputs
+	 * @throws IOException
+	 *             if the corpus could not be read
+	 */
+	public static List<String> readCorpus() throws IOException {
+		InputStream stream = NLLexerBenchmark.class
+				.getResourceAsStream("/io/github/amyassist/amy/core/natlang/nlLexerCorpus.txt");
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			return reader.lines().filter(l -> !l.isEmpty()).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * runs the benchmark
+	 * 
+	 * @param args
+	 *            not used
+	 * @throws RunnerException
+	 *             if the benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(NLLexerBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+}
@@ -27,6 +27,7 @@ import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -204,4 +205,41 @@ public class NLLexerTest {
 
 	}
 
+	/**
+	 * returns the user inputs of the benchmark corpus
+	 * 
+	 * @return the stream
+	 * @throws IOException
+	 *             if the corpus could not be read
+	 */
+	public static Stream<String> corpus() throws IOException {
+		return NLLexerBenchmark.readCorpus().stream();
+	}
+
+	/**
+	 * tests if the single pass lexer creates the same tokens as the old lexer
+	 * 
+	 * @param utterance
+	 *            to lex
+	 */
+	@ParameterizedTest
+	@MethodSource("corpus")
+	public void testSameTokensAsLegacy(String utterance) {
+		List<EndToken> expected = new LegacyNLLexer(this.lang).tokenize(utterance);
+		List<EndToken> actual = new NLLexer(this.lang).tokenize(utterance);
+		assertThat(Lists.transform(actual, EndToken::getContent), is(Lists.transform(expected, EndToken::getContent)));
+		assertThat(Lists.transform(actual, EndToken::getType), is(Lists.transform(expected, EndToken::getType)));
+	}
+
+	/**
+	 * tests if special characters become words of their own
+	 */
+	@Test
+	public void testSpecialCharacters() {
+		NLLexer lex = new NLLexer(this.lang);
+		List<EndToken> tokenize = lex.tokenize("it costs 5€ or 6$");
+		assertThat(Lists.transform(tokenize, EndToken::getContent),
+				contains("it", "costs", "5", "euro", "or", "6", "dollar"));
+	}
+
 }
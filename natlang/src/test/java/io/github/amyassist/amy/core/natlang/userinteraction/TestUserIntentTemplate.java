@@ -0,0 +1,156 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.natlang.userinteraction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.amyassist.amy.core.natlang.EntityProvider;
+import io.github.amyassist.amy.core.natlang.Intent;
+import io.github.amyassist.amy.core.natlang.SpeechCommand;
+import io.github.amyassist.amy.natlang.aim.XMLAIMIntent;
+import io.github.amyassist.amy.natlang.aim.XMLAmyInteractionModel;
+import io.github.amyassist.amy.natlang.userinteraction.EntityDataImpl;
+import io.github.amyassist.amy.natlang.userinteraction.UserIntent;
+import io.github.amyassist.amy.natlang.userinteraction.UserIntentTemplate;
+
+/**
+ * Tests for the {@link UserIntentTemplate}
+ * 
+ * @author Felix Burk
+ */
+public class TestUserIntentTemplate {
+
+	private XMLAIMIntent greetIntent;
+
+	private Plugin plugin;
+
+	@BeforeEach
+	public void setup() throws JAXBException, IOException {
+		InputStream inputResource = this.getClass().getResourceAsStream("testXMLUserInteraction.aim.xml");
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(inputResource, StandardCharsets.UTF_8))) {
+			String xml = reader.lines().collect(Collectors.joining());
+			XMLAmyInteractionModel model = (XMLAmyInteractionModel) JAXBContext
+					.newInstance(XMLAmyInteractionModel.class).createUnmarshaller().unmarshal(new StringReader(xml));
+			this.greetIntent = model.getIntents().get(0);
+		}
+		this.plugin = new Plugin();
+	}
+
+	@Test
+	public void sharedGrammars() throws NoSuchMethodException {
+		UserIntentTemplate template = new UserIntentTemplate(Plugin.class.getMethod("greet", Map.class),
+				this.greetIntent);
+		UserIntent first = template.createIntent();
+		UserIntent second = template.createIntent();
+
+		assertThat(first.getGrammar(), sameInstance(template.getGrammar()));
+		assertThat(second.getGrammar(), sameInstance(template.getGrammar()));
+		assertThat(first.getEntityList().get("greeting"), not(sameInstance(second.getEntityList().get("greeting"))));
+		assertThat(first.getEntityList().get("greeting").getPrompt(),
+				sameInstance(second.getEntityList().get("greeting").getPrompt()));
+
+		first.getEntityList().get("greeting").setEntityData(new EntityDataImpl("hello", null));
+		assertThat(second.getEntityList().get("greeting").getEntityData(), nullValue());
+		assertThat(template.getEntities().get("greeting").getEntityData(), nullValue());
+	}
+
+	@Test
+	public void providedGrammarsCached() throws NoSuchMethodException {
+		UserIntentTemplate template = new UserIntentTemplate(Plugin.class.getMethod("greet", Map.class),
+				this.greetIntent, 60000);
+		UserIntent first = template.createIntent();
+		first.updateGrammars(this.plugin);
+		UserIntent second = template.createIntent();
+		second.updateGrammars(this.plugin);
+
+		assertThat(this.plugin.calls, is(1));
+		assertThat(second.getEntityList().get("greeting").getGrammar(),
+				sameInstance(first.getEntityList().get("greeting").getGrammar()));
+		assertThat(second.getEntityList().get("greeting").getGrammar(),
+				not(sameInstance(template.getEntities().get("greeting").getGrammar())));
+
+		template.invalidateProvidedGrammars();
+		template.createIntent().updateGrammars(this.plugin);
+		assertThat(this.plugin.calls, is(2));
+	}
+
+	@Test
+	public void providedGrammarsParsedOnChange() throws NoSuchMethodException {
+		UserIntentTemplate template = new UserIntentTemplate(Plugin.class.getMethod("greet", Map.class),
+				this.greetIntent);
+		UserIntent first = template.createIntent();
+		first.updateGrammars(this.plugin);
+		UserIntent second = template.createIntent();
+		second.updateGrammars(this.plugin);
+
+		assertThat(this.plugin.calls, is(2));
+		assertThat(second.getEntityList().get("greeting").getGrammar(),
+				sameInstance(first.getEntityList().get("greeting").getGrammar()));
+
+		this.plugin.greetings = Arrays.asList("hi", "hey");
+		UserIntent third = template.createIntent();
+		third.updateGrammars(this.plugin);
+		assertThat(third.getEntityList().get("greeting").getGrammar(),
+				not(sameInstance(first.getEntityList().get("greeting").getGrammar())));
+		assertThat(third.getEntityList().get("greeting").getPrompt(),
+				not(sameInstance(first.getEntityList().get("greeting").getPrompt())));
+	}
+
+	/**
+	 * plugin providing the greetings
+	 */
+	@SpeechCommand
+	public static class Plugin {
+		int calls = 0;
+		List<String> greetings = new ArrayList<>(Arrays.asList("hello", "good morning"));
+
+		@Intent
+		public String greet(Map<String, EntityDataImpl> entities) {
+			return "hello";
+		}
+
+		@EntityProvider("greeting")
+		public List<String> greetings() {
+			this.calls++;
+			return this.greetings;
+		}
+	}
+
+}
@@ -46,4 +46,11 @@ public interface Persistence {
 	 *            the entity class to register in the Persistence manager
 	 */
 	void register(@Nonnull Class<?> entity);
+
+	/**
+	 * Get's the statistics of the EntityManagerFactories of the persistence units
+	 * 
+	 * @return a snapshot of the statistics
+	 */
+	PersistenceStatistics getStatistics();
 }
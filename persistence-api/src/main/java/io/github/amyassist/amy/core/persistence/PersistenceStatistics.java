@@ -0,0 +1,87 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+package io.github.amyassist.amy.core.persistence;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of the statistics of the EntityManagerFactories of the {@link Persistence} service
+ * 
+ * @author Leon Kiefer
+ */
+public final class PersistenceStatistics {
+
+	private final int activeFactories;
+	private final int retiredFactories;
+	private final Map<String, Long> buildTimes;
+
+	/**
+	 * @param activeFactories
+	 *            the number of open EntityManagerFactories in use
+	 * @param retiredFactories
+	 *            the number of EntityManagerFactories replaced because entities were added to their unit, which stay
+	 *            open until their EntityManagers are closed
+	 * @param buildTimes
+	 *            the time in milliseconds it took to build the factory of each persistence unit
+	 */
+	public PersistenceStatistics(int activeFactories, int retiredFactories, Map<String, Long> buildTimes) {
+		this.activeFactories = activeFactories;
+		this.retiredFactories = retiredFactories;
+		this.buildTimes = Collections.unmodifiableMap(buildTimes);
+	}
+
+	/**
+	 * Get's {@link #activeFactories activeFactories}
+	 * 
+	 * @return the number of open EntityManagerFactories in use
+	 */
+	public int getActiveFactories() {
+		return this.activeFactories;
+	}
+
+	/**
+	 * Get's {@link #retiredFactories retiredFactories}
+	 * 
+	 * @return the number of EntityManagerFactories replaced because entities were added to their unit, which stay
+	 *         open until their EntityManagers are closed
+	 */
+	public int getRetiredFactories() {
+		return this.retiredFactories;
+	}
+
+	/**
+	 * Get's {@link #buildTimes buildTimes}
+	 * 
+	 * @return the time in milliseconds it took to build the last factory of each persistence unit
+	 */
+	public Map<String, Long> getBuildTimes() {
+		return this.buildTimes;
+	}
+
+	@Override
+	public String toString() {
+		return "active factories " + this.activeFactories + ", retired factories " + this.retiredFactories
+				+ ", build times " + this.buildTimes;
+	}
+}
@@ -34,9 +34,39 @@ import java.util.Properties;
  */
 public interface PersistenceProvider {
 	/**
+	 * The prefix of properties only used for one persistence unit, e.g. <i>unit.{name}.hibernate.c3p0.max_size</i>
+	 */
+	String UNIT_PROPERTY_PREFIX = "unit.";
+
+
+	/**
+	 * Called once per persistence unit, when the shared EntityManagerFactory of the unit is built. The properties can
+	 * also configure the connection pool of the unit.
+	 * 
 	 * @param name
 	 *            the name of the persistence unit
 	 * @return the properties used to create the EntityManagerFactory
 	 */
 	Properties getProperties(String name);
+
+	/**
+	 * Create the properties of a persistence unit. Properties with the prefix <i>unit.{name}.</i> override the
+	 * property of the same name without the prefix, so for example the pool size can be configured per unit.
+	 * 
+	 * @param defaults
+	 *            the properties shared by all persistence units
+	 * @param name
+	 *            the name of the persistence unit
+	 * @return the properties of the persistence unit backed by the defaults
+	 */
+	static Properties unitProperties(Properties defaults, String name) {
+		Properties properties = new Properties(defaults);
+		String prefix = UNIT_PROPERTY_PREFIX + name + ".";
+		for (String key : defaults.stringPropertyNames()) {
+			if (key.startsWith(prefix)) {
+				properties.setProperty(key.substring(prefix.length()), defaults.getProperty(key));
+			}
+		}
+		return properties;
+	}
 }
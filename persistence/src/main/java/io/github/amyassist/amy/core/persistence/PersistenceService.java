@@ -23,7 +23,13 @@
 
 package io.github.amyassist.amy.core.persistence;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.persistence.Entity;
@@ -33,15 +39,22 @@ import javax.persistence.PersistenceUnit;
 import javax.persistence.spi.PersistenceProviderResolverHolder;
 import javax.persistence.spi.PersistenceUnitInfo;
 
+import org.slf4j.Logger;
+
 import com.google.common.collect.Lists;
 
 import io.github.amyassist.amy.core.di.annotation.PostConstruct;
+import io.github.amyassist.amy.core.di.annotation.PreDestroy;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.di.annotation.Service;
 import io.github.amyassist.amy.core.persistence.provider.PersistenceProvider;
 
 /**
  * The Persistence Service implementation
+ * <p>
+ * The EntityManagerFactory of a persistence unit is built when the first EntityManager of the unit is requested and
+ * then shared by all EntityManagers of the unit. If an entity is added to a unit, the factory of the unit is replaced
+ * and the old factory is closed as soon as all of its EntityManagers are closed.
  * 
  * @author Leon Kiefer
  */
@@ -49,6 +62,16 @@ import io.github.amyassist.amy.core.persistence.provider.PersistenceProvider;
 public class PersistenceService implements Persistence {
 	private Map<String, List<Class<?>>> persistenceUnits = new HashMap<>();
 
+	private final Map<String, SharedFactory> entityManagerFactories = new ConcurrentHashMap<>();
+	/**
+	 * factories replaced because entities were added to their unit, which still have open EntityManagers
+	 */
+	private final Set<SharedFactory> retiredFactories = new HashSet<>();
+	private final Map<String, Long> buildTimes = new ConcurrentHashMap<>();
+
+	@Reference
+	private Logger logger;
+
 	@Reference
 	private PersistenceProvider persistenceAdapter;
 
@@ -60,16 +83,54 @@ public class PersistenceService implements Persistence {
 				.getPersistenceProviders().get(0);
 	}
 
+	@PreDestroy
+	private synchronized void destroy() {
+		for (SharedFactory factory : this.entityManagerFactories.values()) {
+			factory.factory.close();
+		}
+		this.entityManagerFactories.clear();
+		for (SharedFactory factory : this.retiredFactories) {
+			factory.factory.close();
+		}
+		this.retiredFactories.clear();
+	}
+
 	@Override
 	public @Nonnull EntityManager getEntityManager(@Nonnull String name) {
 		if (name.isEmpty()) {
 			throw new IllegalArgumentException("The persistence unit name should not be empty");
 		}
+		while (true) {
+			SharedFactory entityManagerFactory = this.entityManagerFactories.get(name);
+			if (entityManagerFactory == null) {
+				entityManagerFactory = getOrCreateEntityManagerFactory(name);
+			}
+			EntityManager entityManager = entityManagerFactory.createEntityManager();
+			if (entityManager != null)
+				return entityManager;
+			// the factory was retired and closed in the meantime, so use the new factory of the unit
+		}
+	}
+
+	private synchronized SharedFactory getOrCreateEntityManagerFactory(String name) {
+		SharedFactory entityManagerFactory = this.entityManagerFactories.get(name);
+		if (entityManagerFactory != null)
+			return entityManagerFactory;
 		if (!this.persistenceUnits.containsKey(name)) {
 			throw new NoSuchElementException();
 		}
+		long start = System.nanoTime();
+		entityManagerFactory = new SharedFactory(createEntityManagerFactory(name));
+		long buildTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		this.buildTimes.put(name, buildTime);
+		this.entityManagerFactories.put(name, entityManagerFactory);
+		this.logger.debug("Built EntityManagerFactory of persistence unit {} in {} ms", name, buildTime);
+		return entityManagerFactory;
+	}
+
+	private EntityManagerFactory createEntityManagerFactory(String name) {
 		List<Class<?>> entities = this.persistenceUnits.get(name);
-		List<String> entitiesNames = Lists.transform(entities, Class::getName);
+		List<String> entitiesNames = new ArrayList<>(Lists.transform(entities, Class::getName));
 
 		Properties properties = this.persistenceAdapter.getProperties(name);
 
@@ -81,13 +142,22 @@ public class PersistenceService implements Persistence {
 		PersistenceUnitInfo persistenceUnitInfo = new PersistenceUnitInfoImpl(name, entitiesNames,
 				entities.get(0).getClassLoader(), hibernateFix);
 
-		EntityManagerFactory entityManagerFactory = this.persistenceProvider
-				.createContainerEntityManagerFactory(persistenceUnitInfo, null);
-		return entityManagerFactory.createEntityManager();
+		return this.persistenceProvider.createContainerEntityManagerFactory(persistenceUnitInfo, null);
 	}
 
 	@Override
-	public void register(@Nonnull Class<?> entity) {
+	public synchronized PersistenceStatistics getStatistics() {
+		int active = 0;
+		for (SharedFactory factory : this.entityManagerFactories.values()) {
+			if (factory.factory.isOpen()) {
+				active++;
+			}
+		}
+		return new PersistenceStatistics(active, this.retiredFactories.size(), new HashMap<>(this.buildTimes));
+	}
+
+	@Override
+	public synchronized void register(@Nonnull Class<?> entity) {
 		if (!entity.isAnnotationPresent(Entity.class)) {
 			throw new IllegalArgumentException("@Entity annotation missing!");
 		}
@@ -111,6 +181,107 @@ public class PersistenceService implements Persistence {
 			this.persistenceUnits.put(unitName, set);
 		}
 
+		if (set.contains(entity))
+			return;
 		set.add(entity);
+
+		SharedFactory outdated = this.entityManagerFactories.remove(unitName);
+		if (outdated != null && !outdated.retire()) {
+			// EntityManagers of the old factory are still in use, it is closed when the last of them is closed
+			this.retiredFactories.add(outdated);
+		}
+	}
+
+	private synchronized void closed(SharedFactory retired) {
+		this.retiredFactories.remove(retired);
+	}
+
+	/**
+	 * An EntityManagerFactory shared by the EntityManagers of a persistence unit, which counts its open
+	 * EntityManagers, so it can be closed when it was retired and the last of them is closed
+	 */
+	private final class SharedFactory {
+		private final EntityManagerFactory factory;
+		private int openEntityManagers;
+		private boolean retired;
+
+		SharedFactory(EntityManagerFactory factory) {
+			this.factory = factory;
+		}
+
+		/**
+		 * @return a new EntityManager which must be closed after use or null if the factory is already closed
+		 */
+		synchronized EntityManager createEntityManager() {
+			if (this.retired && this.openEntityManagers == 0) {
+				return null;
+			}
+			EntityManager entityManager = this.factory.createEntityManager();
+			this.openEntityManagers++;
+			return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+					new Class<?>[] { EntityManager.class }, new CountingHandler(entityManager));
+		}
+
+		/**
+		 * Retire this factory and close it, if no EntityManager is open
+		 * 
+		 * @return whether the factory was closed
+		 */
+		synchronized boolean retire() {
+			this.retired = true;
+			return closeIfUnused();
+		}
+
+		private void release() {
+			boolean closed;
+			synchronized (this) {
+				this.openEntityManagers--;
+				closed = this.retired && closeIfUnused();
+			}
+			if (closed) {
+				closed(this);
+			}
+		}
+
+		private boolean closeIfUnused() {
+			if (this.openEntityManagers > 0) {
+				return false;
+			}
+			if (this.factory.isOpen()) {
+				this.factory.close();
+			}
+			return true;
+		}
+
+		/**
+		 * Delegates to the EntityManager and releases it from the factory when it is closed the first time
+		 */
+		private final class CountingHandler implements InvocationHandler {
+			private final EntityManager entityManager;
+			private boolean closed;
+
+			CountingHandler(EntityManager entityManager) {
+				this.entityManager = entityManager;
+			}
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Object result;
+				try {
+					result = method.invoke(this.entityManager, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+				if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+					synchronized (this) {
+						if (this.closed)
+							return result;
+						this.closed = true;
+					}
+					release();
+				}
+				return result;
+			}
+		}
 	}
 }
@@ -23,69 +23,275 @@
 
 package io.github.amyassist.amy.core.persistence.storage;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.slf4j.Logger;
 
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
 import io.github.amyassist.amy.core.di.annotation.*;
 import io.github.amyassist.amy.core.persistence.Persistence;
 import io.github.amyassist.amy.core.plugin.api.IStorage;
 import io.github.amyassist.amy.core.pluginloader.IPlugin;
+import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
 
 /**
  * Implementation of IStorage for Plugins using JPA
+ * <p>
+ * All values of the plugin are loaded once and reads are served from memory. The changes of one call are written to
+ * the database in one transaction with batched statements. By default they are written before the call returns and
+ * only applied to memory after the transaction was committed, so a failed write changes nothing. In write-behind mode
+ * the changes are applied to memory immediately, collected and written by a background flush after
+ * <i>flushDelayMillis</i>. A failed background flush is retried after the same delay. The mode is configured in the
+ * <i>databasestorage.properties</i>.
  * 
  * @author Leon Kiefer
  */
 @Service
 public class DatabaseStorage implements IStorage {
+	private static final String CONFIG_NAME = "databasestorage";
+	private static final String PERSISTENCE_UNIT = "DatabaseStorage";
+
 	@Reference
 	private Persistence persistence;
 
+	@Reference
+	private ConfigurationManager configurationManager;
+
+	@Reference
+	private TaskScheduler taskScheduler;
+
+	@Reference
+	private Logger logger;
+
 	@Context(io.github.amyassist.amy.core.di.Context.PLUGIN)
 	private IPlugin plugin;
 
-	private EntityManager entityManager;
-
 	private String prefix;
 
+	private boolean writeBehind;
+	private long flushDelayMillis;
+
+	/**
+	 * the values of the plugin mapped by the key without the plugin prefix
+	 */
+	private final Map<String, String> values = new ConcurrentHashMap<>();
+	/**
+	 * changes not yet written to the database, an empty Optional marks a deleted key
+	 */
+	private final Map<String, Optional<String>> pending = new ConcurrentHashMap<>();
+
+	private ScheduledFuture<?> scheduledFlush;
+	/**
+	 * whether a flush is scheduled that has not started yet, changes made while a flush is writing need a new one
+	 */
+	private boolean flushScheduled;
+	private boolean destroyed;
+
 	@PostConstruct
 	private void setup() {
 		this.prefix = this.plugin.getUniqueName() + ":";
-		this.entityManager = this.persistence.getEntityManager("DatabaseStorage");
+		Properties config = this.configurationManager.getConfigurationWithDefaults(CONFIG_NAME,
+				DatabaseStorage.class.getClassLoader());
+		this.writeBehind = Boolean.parseBoolean(config.getProperty("writeBehind"));
+		this.flushDelayMillis = Long.parseLong(config.getProperty("flushDelayMillis"));
+
+		EntityManager entityManager = this.persistence.getEntityManager(PERSISTENCE_UNIT);
+		try {
+			CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+			CriteriaQuery<SimpleData> query = builder.createQuery(SimpleData.class);
+			Root<SimpleData> root = query.from(SimpleData.class);
+			query.where(builder.like(root.get("key"), escapeLike(this.prefix) + "%", '\\'));
+			List<SimpleData> stored = entityManager.createQuery(query).getResultList();
+			for (SimpleData data : stored) {
+				this.values.put(data.getKey().substring(this.prefix.length()), data.getValue());
+			}
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
 	}
 
 	@Override
 	public void put(String key, String value) {
-		SimpleData simpleData = new SimpleData(this.prefix + key, value);
-		this.entityManager.getTransaction().begin();
-		this.entityManager.merge(simpleData);
-		this.entityManager.getTransaction().commit();
+		change(Collections.singletonMap(key, Optional.of(value)));
 	}
 
 	@Override
 	public String get(String key) {
-		return this.entityManager.find(SimpleData.class, this.prefix + key).getValue();
+		return this.values.get(key);
 	}
 
 	@Override
 	public boolean has(String key) {
-		SimpleData find = this.entityManager.find(SimpleData.class, this.prefix + key);
-		return find != null;
+		return this.values.containsKey(key);
 	}
 
 	@Override
 	public void delete(String key) {
-		this.entityManager.getTransaction().begin();
+		change(Collections.singletonMap(key, Optional.empty()));
+	}
+
+	@Override
+	public void putAll(Map<String, String> newValues) {
+		Map<String, Optional<String>> changes = new HashMap<>();
+		for (Map.Entry<String, String> entry : newValues.entrySet()) {
+			changes.put(entry.getKey(), Optional.of(entry.getValue()));
+		}
+		change(changes);
+	}
+
+	@Override
+	public Map<String, String> getAll(String keyPrefix) {
+		Map<String, String> result = new HashMap<>();
+		for (Map.Entry<String, String> entry : this.values.entrySet()) {
+			if (entry.getKey().startsWith(keyPrefix)) {
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void deleteByPrefix(String keyPrefix) {
+		Map<String, Optional<String>> changes = new HashMap<>();
+		for (String key : this.values.keySet()) {
+			if (key.startsWith(keyPrefix)) {
+				changes.put(key, Optional.empty());
+			}
+		}
+		change(changes);
+	}
+
+	/**
+	 * Apply changes to memory and the database
+	 * 
+	 * @param changes
+	 *            the new values by key, an empty Optional deletes the key
+	 */
+	private void change(Map<String, Optional<String>> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		if (!this.writeBehind) {
+			synchronized (this) {
+				write(changes);
+				apply(changes);
+			}
+			return;
+		}
+		synchronized (this.pending) {
+			apply(changes);
+			this.pending.putAll(changes);
+		}
+		scheduleFlush();
+	}
+
+	private void apply(Map<String, Optional<String>> changes) {
+		for (Map.Entry<String, Optional<String>> change : changes.entrySet()) {
+			if (change.getValue().isPresent()) {
+				this.values.put(change.getKey(), change.getValue().get());
+			} else {
+				this.values.remove(change.getKey());
+			}
+		}
+	}
+
+	private synchronized void scheduleFlush() {
+		if (!this.flushScheduled) {
+			this.flushScheduled = true;
+			this.scheduledFlush = this.taskScheduler.schedule(this::flush, this.flushDelayMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Write all pending changes to the database in one transaction. If writing fails the changes stay pending and the
+	 * flush is retried after <i>flushDelayMillis</i>.
+	 */
+	synchronized void flush() {
+		this.flushScheduled = false;
+		if (this.pending.isEmpty()) {
+			return;
+		}
+		Map<String, Optional<String>> changes = new HashMap<>(this.pending);
 		try {
-			SimpleData find = this.entityManager.find(SimpleData.class, this.prefix + key);
-			this.entityManager.remove(find);
+			write(changes);
+		} catch (RuntimeException e) {
+			this.logger.error("Could not write {} changes of {} to the database", changes.size(),
+					this.plugin.getUniqueName(), e);
+			if (!this.destroyed) {
+				scheduleFlush();
+			}
+			return;
+		}
+		for (Map.Entry<String, Optional<String>> change : changes.entrySet()) {
+			this.pending.remove(change.getKey(), change.getValue());
+		}
+	}
+
+	/**
+	 * Write changes to the database in one transaction, which is rolled back if writing fails
+	 * 
+	 * @param changes
+	 *            the new values by key, an empty Optional deletes the key
+	 */
+	private void write(Map<String, Optional<String>> changes) {
+		Map<String, Optional<String>> byId = new HashMap<>();
+		for (Map.Entry<String, Optional<String>> change : changes.entrySet()) {
+			byId.put(this.prefix + change.getKey(), change.getValue());
+		}
+
+		EntityManager entityManager = this.persistence.getEntityManager(PERSISTENCE_UNIT);
+		EntityTransaction transaction = entityManager.getTransaction();
+		try {
+			transaction.begin();
+			CriteriaQuery<SimpleData> query = entityManager.getCriteriaBuilder().createQuery(SimpleData.class);
+			Root<SimpleData> root = query.from(SimpleData.class);
+			query.where(root.get("key").in(byId.keySet()));
+			List<SimpleData> existing = entityManager.createQuery(query).getResultList();
+			for (SimpleData data : existing) {
+				Optional<String> change = byId.remove(data.getKey());
+				if (change.isPresent()) {
+					data.setValue(change.get());
+				} else {
+					entityManager.remove(data);
+				}
+			}
+			for (Map.Entry<String, Optional<String>> change : byId.entrySet()) {
+				if (change.getValue().isPresent()) {
+					entityManager.persist(new SimpleData(change.getKey(), change.getValue().get()));
+				}
+			}
+			transaction.commit();
 		} finally {
-			this.entityManager.getTransaction().commit();
+			if (transaction.isActive()) {
+				transaction.rollback();
+			}
+			entityManager.close();
 		}
 	}
 
 	@PreDestroy
 	private void destroy() {
-		this.entityManager.close();
+		synchronized (this) {
+			this.destroyed = true;
+			if (this.scheduledFlush != null) {
+				this.scheduledFlush.cancel(false);
+			}
+		}
+		flush();
 	}
 
 }
@@ -73,4 +73,14 @@ public class SimpleData {
 	public String getValue() {
 		return this.value;
 	}
+
+	/**
+	 * Set's {@link #value value}
+	 * 
+	 * @param value
+	 *            value
+	 */
+	void setValue(String value) {
+		this.value = value;
+	}
 }
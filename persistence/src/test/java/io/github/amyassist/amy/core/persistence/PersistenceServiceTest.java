@@ -0,0 +1,213 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.Properties;
+import java.util.UUID;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Id;
+import javax.persistence.PersistenceUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import io.github.amyassist.amy.core.di.Configuration;
+import io.github.amyassist.amy.core.di.DependencyInjection;
+import io.github.amyassist.amy.core.di.ServiceLocator;
+import io.github.amyassist.amy.core.di.provider.SingletonServiceProvider;
+import io.github.amyassist.amy.core.persistence.provider.PersistenceProvider;
+
+/**
+ * Tests the {@link PersistenceService} against in-memory H2 databases
+ * 
+ * @author Leon Kiefer
+ */
+class PersistenceServiceTest {
+	private static final String UNIT = "test";
+	private static final String OTHER_UNIT = "other";
+
+	private Properties config;
+	private PersistenceProvider provider;
+	private ServiceLocator serviceLocator;
+	private Persistence persistence;
+
+	@BeforeEach
+	void setup() {
+		this.config = new Properties();
+		this.config.setProperty("javax.persistence.jdbc.driver", "org.h2.Driver");
+		this.config.setProperty("javax.persistence.jdbc.url", url());
+		this.config.setProperty("javax.persistence.jdbc.user", "sa");
+		this.config.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		this.config.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+		this.provider = mock(PersistenceProvider.class);
+		when(this.provider.getProperties(anyString()))
+				.thenAnswer(invocation -> PersistenceProvider.unitProperties(this.config, invocation.getArgument(0)));
+
+		DependencyInjection dependencyInjection = new DependencyInjection();
+		Configuration configuration = dependencyInjection.getConfiguration();
+		configuration.register(new SingletonServiceProvider<>(PersistenceProvider.class, this.provider));
+		configuration.register(new SingletonServiceProvider<>(Logger.class, mock(Logger.class)));
+		configuration.register(PersistenceService.class);
+		this.serviceLocator = dependencyInjection.getServiceLocator();
+		this.persistence = this.serviceLocator.getService(Persistence.class);
+		this.persistence.register(First.class);
+		this.persistence.register(OtherUnit.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.serviceLocator.preDestroy(this.persistence);
+	}
+
+	private static String url() {
+		return "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+	}
+
+	@Test
+	void testFactoryPerUnit() {
+		EntityManager first = this.persistence.getEntityManager(UNIT);
+		EntityManager second = this.persistence.getEntityManager(UNIT);
+		EntityManager other = this.persistence.getEntityManager(OTHER_UNIT);
+
+		assertSame(first.getEntityManagerFactory(), second.getEntityManagerFactory());
+		assertNotSame(first.getEntityManagerFactory(), other.getEntityManagerFactory());
+		verify(this.provider, times(1)).getProperties(UNIT);
+		verify(this.provider, times(1)).getProperties(OTHER_UNIT);
+		PersistenceStatistics statistics = this.persistence.getStatistics();
+		assertEquals(2, statistics.getActiveFactories());
+		assertEquals(0, statistics.getRetiredFactories());
+		assertTrue(statistics.getBuildTimes().containsKey(UNIT));
+		assertTrue(statistics.getBuildTimes().containsKey(OTHER_UNIT));
+		first.close();
+		second.close();
+		other.close();
+	}
+
+	@Test
+	void testUnitProperties() {
+		String otherUrl = url();
+		this.config.setProperty("unit." + OTHER_UNIT + ".javax.persistence.jdbc.url", otherUrl);
+
+		EntityManager entityManager = this.persistence.getEntityManager(UNIT);
+		EntityManager other = this.persistence.getEntityManager(OTHER_UNIT);
+
+		assertEquals(this.config.getProperty("javax.persistence.jdbc.url"),
+				entityManager.getEntityManagerFactory().getProperties().get("javax.persistence.jdbc.url"));
+		assertEquals(otherUrl, other.getEntityManagerFactory().getProperties().get("javax.persistence.jdbc.url"));
+		entityManager.close();
+		other.close();
+	}
+
+	@Test
+	void testRetiredFactoryClosedWithLastEntityManager() {
+		EntityManager entityManager = this.persistence.getEntityManager(UNIT);
+		EntityManagerFactory retired = entityManager.getEntityManagerFactory();
+
+		this.persistence.register(Second.class);
+		assertTrue(retired.isOpen());
+		assertEquals(1, this.persistence.getStatistics().getRetiredFactories());
+
+		EntityManager current = this.persistence.getEntityManager(UNIT);
+		assertNotSame(retired, current.getEntityManagerFactory());
+		current.getTransaction().begin();
+		current.persist(new Second(1));
+		current.getTransaction().commit();
+		current.close();
+
+		entityManager.close();
+		assertFalse(retired.isOpen());
+		assertEquals(0, this.persistence.getStatistics().getRetiredFactories());
+		assertEquals(1, this.persistence.getStatistics().getActiveFactories());
+	}
+
+	@Test
+	void testUnusedFactoryClosedOnRetirement() {
+		EntityManager entityManager = this.persistence.getEntityManager(UNIT);
+		EntityManagerFactory retired = entityManager.getEntityManagerFactory();
+		entityManager.close();
+
+		this.persistence.register(Second.class);
+		assertFalse(retired.isOpen());
+		assertEquals(0, this.persistence.getStatistics().getRetiredFactories());
+	}
+
+	@Test
+	void testRegisterTwice() {
+		EntityManager entityManager = this.persistence.getEntityManager(UNIT);
+		EntityManagerFactory factory = entityManager.getEntityManagerFactory();
+		entityManager.close();
+
+		this.persistence.register(First.class);
+		assertTrue(factory.isOpen());
+		EntityManager again = this.persistence.getEntityManager(UNIT);
+		assertSame(factory, again.getEntityManagerFactory());
+		again.close();
+	}
+
+	/**
+	 * Entity of the test unit
+	 */
+	@PersistenceUnit(unitName = UNIT)
+	@Entity
+	public static class First {
+		@Id
+		private int id;
+	}
+
+	/**
+	 * Entity added to the test unit after its factory was built
+	 */
+	@PersistenceUnit(unitName = UNIT)
+	@Entity
+	public static class Second {
+		@Id
+		private int id;
+
+		Second() {
+		}
+
+		Second(int id) {
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Entity of the other unit
+	 */
+	@PersistenceUnit(unitName = OTHER_UNIT)
+	@Entity
+	public static class OtherUnit {
+		@Id
+		private int id;
+	}
+}
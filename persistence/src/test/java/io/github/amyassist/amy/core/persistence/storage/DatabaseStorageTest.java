@@ -0,0 +1,320 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.core.persistence.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.Configuration;
+import io.github.amyassist.amy.core.di.Context;
+import io.github.amyassist.amy.core.di.DependencyInjection;
+import io.github.amyassist.amy.core.di.ServiceLocator;
+import io.github.amyassist.amy.core.di.provider.SingletonServiceProvider;
+import io.github.amyassist.amy.core.persistence.Persistence;
+import io.github.amyassist.amy.core.persistence.PersistenceUnitInfoImpl;
+import io.github.amyassist.amy.core.plugin.api.IStorage;
+import io.github.amyassist.amy.core.pluginloader.IPlugin;
+import io.github.amyassist.amy.core.taskscheduler.api.TaskScheduler;
+
+/**
+ * Tests the {@link DatabaseStorage} against an in-memory H2 database
+ * 
+ * @author Leon Kiefer
+ */
+class DatabaseStorageTest {
+	private static final String UNIT = "DatabaseStorage";
+
+	private EntityManagerFactory entityManagerFactory;
+	private Statistics statistics;
+	private Persistence persistence;
+	private boolean databaseDown;
+	private Properties config;
+	private Deque<Runnable> scheduled;
+	private boolean running;
+	private Runnable onGetEntityManager;
+	private TaskScheduler taskScheduler;
+	private ServiceLocator serviceLocator;
+
+	@BeforeEach
+	void setup() {
+		Properties properties = new Properties();
+		properties.setProperty("javax.persistence.jdbc.driver", "org.h2.Driver");
+		properties.setProperty("javax.persistence.jdbc.url",
+				"jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+		properties.setProperty("javax.persistence.jdbc.user", "sa");
+		properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+		properties.setProperty("hibernate.jdbc.batch_size", "50");
+		properties.setProperty("hibernate.generate_statistics", "true");
+		this.entityManagerFactory = new HibernatePersistenceProvider().createContainerEntityManagerFactory(
+				new PersistenceUnitInfoImpl(UNIT, Collections.singletonList(SimpleData.class.getName()),
+						SimpleData.class.getClassLoader(), properties),
+				null);
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		this.persistence = mock(Persistence.class);
+		when(this.persistence.getEntityManager(UNIT)).thenAnswer(invocation -> {
+			if (this.databaseDown)
+				throw new PersistenceException("database down");
+			if (this.onGetEntityManager != null) {
+				Runnable action = this.onGetEntityManager;
+				this.onGetEntityManager = null;
+				action.run();
+			}
+			return this.entityManagerFactory.createEntityManager();
+		});
+
+		this.config = new Properties();
+		this.config.setProperty("writeBehind", "false");
+		this.config.setProperty("flushDelayMillis", "500");
+		ConfigurationManager configurationManager = mock(ConfigurationManager.class);
+		when(configurationManager.getConfigurationWithDefaults(eq("databasestorage"), any())).thenReturn(this.config);
+
+		this.scheduled = new ArrayDeque<>();
+		ScheduledFuture<?> future = mock(ScheduledFuture.class);
+		when(future.isDone()).thenAnswer(invocation -> this.scheduled.isEmpty() && !this.running);
+		this.taskScheduler = mock(TaskScheduler.class);
+		doAnswer(invocation -> {
+			this.scheduled.add(invocation.getArgument(0));
+			return future;
+		}).when(this.taskScheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+		IPlugin plugin = mock(IPlugin.class);
+		when(plugin.getUniqueName()).thenReturn("test");
+
+		DependencyInjection dependencyInjection = new DependencyInjection();
+		Configuration configuration = dependencyInjection.getConfiguration();
+		configuration.register(new SingletonServiceProvider<>(Persistence.class, this.persistence));
+		configuration.register(new SingletonServiceProvider<>(ConfigurationManager.class, configurationManager));
+		configuration.register(new SingletonServiceProvider<>(TaskScheduler.class, this.taskScheduler));
+		configuration.register(new SingletonServiceProvider<>(Logger.class, mock(Logger.class)));
+		configuration.registerContextProvider(Context.PLUGIN, consumer -> plugin);
+		configuration.register(DatabaseStorage.class);
+		this.serviceLocator = dependencyInjection.getServiceLocator();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.entityManagerFactory.close();
+	}
+
+	private DatabaseStorage storage() {
+		return (DatabaseStorage) this.serviceLocator.getService(IStorage.class);
+	}
+
+	private void store(String key, String value) {
+		EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		entityManager.persist(new SimpleData(key, value));
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	private String stored(String key) {
+		EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+		try {
+			SimpleData data = entityManager.find(SimpleData.class, key);
+			return data == null ? null : data.getValue();
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private void runScheduled() {
+		Runnable task = this.scheduled.poll();
+		assertNotNull(task, "no flush scheduled");
+		this.running = true;
+		try {
+			task.run();
+		} finally {
+			this.running = false;
+		}
+	}
+
+	private static String tooLong() {
+		char[] value = new char[300];
+		Arrays.fill(value, 'x');
+		return new String(value);
+	}
+
+	@Test
+	void testLoadOnce() {
+		store("test:a", "1");
+		store("test:b", "2");
+		store("other:a", "3");
+		this.statistics.clear();
+
+		DatabaseStorage storage = storage();
+		for (int i = 0; i < 10; i++) {
+			assertEquals("1", storage.get("a"));
+			assertTrue(storage.has("b"));
+			assertFalse(storage.has("c"));
+		}
+		Map<String, String> expected = new HashMap<>();
+		expected.put("a", "1");
+		expected.put("b", "2");
+		assertEquals(expected, storage.getAll(""));
+
+		assertEquals(1, this.statistics.getQueryExecutionCount());
+		verify(this.persistence, times(1)).getEntityManager(UNIT);
+	}
+
+	@Test
+	void testBatching() {
+		DatabaseStorage storage = storage();
+		store("test:old", "0");
+		Map<String, String> values = new HashMap<>();
+		for (int i = 0; i < 20; i++) {
+			values.put("key" + i, String.valueOf(i));
+		}
+		this.statistics.clear();
+
+		storage.putAll(values);
+
+		assertEquals(1, this.statistics.getSuccessfulTransactionCount());
+		assertEquals(20, this.statistics.getEntityInsertCount());
+		// the select of the existing values and one statement for all inserts
+		assertEquals(2, this.statistics.getPrepareStatementCount());
+		assertEquals("7", stored("test:key7"));
+
+		this.statistics.clear();
+		storage.deleteByPrefix("key");
+		assertEquals(1, this.statistics.getSuccessfulTransactionCount());
+		assertEquals(20, this.statistics.getEntityDeleteCount());
+		assertNull(stored("test:key7"));
+		assertTrue(storage.getAll("key").isEmpty());
+	}
+
+	@Test
+	void testSynchronousFailureKeepsMemory() {
+		store("test:a", "1");
+		DatabaseStorage storage = storage();
+
+		assertThrows(PersistenceException.class, () -> storage.put("a", tooLong()));
+		assertEquals("1", storage.get("a"));
+
+		Map<String, String> values = new HashMap<>();
+		values.put("b", "2");
+		values.put("c", tooLong());
+		assertThrows(PersistenceException.class, () -> storage.putAll(values));
+		assertFalse(storage.has("b"));
+		assertNull(stored("test:b"));
+
+		this.databaseDown = true;
+		assertThrows(PersistenceException.class, () -> storage.delete("a"));
+		assertEquals("1", storage.get("a"));
+
+		this.databaseDown = false;
+		storage.delete("a");
+		assertFalse(storage.has("a"));
+		assertNull(stored("test:a"));
+	}
+
+	@Test
+	void testWriteBehind() {
+		this.config.setProperty("writeBehind", "true");
+		DatabaseStorage storage = storage();
+
+		storage.put("a", "1");
+		storage.put("b", "2");
+		storage.put("a", "3");
+		storage.delete("b");
+		assertEquals("3", storage.get("a"));
+		assertFalse(storage.has("b"));
+		assertNull(stored("test:a"));
+		assertEquals(1, this.scheduled.size());
+		this.statistics.clear();
+
+		runScheduled();
+		assertEquals("3", stored("test:a"));
+		assertNull(stored("test:b"));
+		assertEquals(1, this.statistics.getSuccessfulTransactionCount());
+		assertEquals(1, this.statistics.getEntityInsertCount());
+	}
+
+	@Test
+	void testWriteBehindRetry() {
+		this.config.setProperty("writeBehind", "true");
+		DatabaseStorage storage = storage();
+
+		this.databaseDown = true;
+		storage.put("a", "1");
+		runScheduled();
+		assertEquals("1", storage.get("a"));
+		assertEquals(1, this.scheduled.size());
+
+		storage.put("b", "2");
+		assertEquals(1, this.scheduled.size());
+		this.databaseDown = false;
+		runScheduled();
+		assertEquals("1", stored("test:a"));
+		assertEquals("2", stored("test:b"));
+		assertTrue(this.scheduled.isEmpty());
+	}
+
+	@Test
+	void testChangeDuringFlush() {
+		this.config.setProperty("writeBehind", "true");
+		DatabaseStorage storage = storage();
+		storage.put("a", "1");
+
+		this.onGetEntityManager = () -> storage.put("b", "2");
+		runScheduled();
+		assertEquals("1", stored("test:a"));
+		assertNull(stored("test:b"));
+		assertEquals(1, this.scheduled.size(), "the change during the flush needs another flush");
+
+		runScheduled();
+		assertEquals("2", stored("test:b"));
+		assertTrue(this.scheduled.isEmpty());
+	}
+
+	@Test
+	void testDestroyFlushes() {
+		this.config.setProperty("writeBehind", "true");
+		DatabaseStorage storage = storage();
+		storage.put("a", "1");
+
+		this.serviceLocator.preDestroy(storage);
+		assertEquals("1", stored("test:a"));
+	}
+}
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.messagehub.annotations.MessageReceiver;
+import io.github.amyassist.amy.messagehub.annotations.MessageReceiver.Lifecycle;
 import io.github.amyassist.amy.messagehub.annotations.Subscription;
 import io.github.amyassist.amy.messagehub.topics.SmarthomeFunctionTopics;
 import io.github.amyassist.amy.messagehub.topics.SystemTopics;
@@ -36,7 +37,7 @@ import io.github.amyassist.amy.messagehub.topics.SystemTopics;
  * 
  * @author Patrick Gebhardt
  */
-@MessageReceiver
+@MessageReceiver(lifecycle = Lifecycle.SINGLETON)
 public class AlarmMessageReceiver {
 
 	@Reference
@@ -23,14 +23,10 @@
 
 package io.github.amyassist.amy.plugin.timer;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashSet;
 import java.util.Set;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.slf4j.Logger;
@@ -82,10 +78,8 @@ public class TimerBeepService {
 	@PostConstruct
 
 	private void init() {
-		InputStream resolve = this.getClass().getResourceAsStream(ALARMSOUND);
-		try (InputStream bufferedIn = new BufferedInputStream(resolve);
-				AudioInputStream soundIn = AudioSystem.getAudioInputStream(bufferedIn);) {
-			this.beepSound = this.sf.loadSound(soundIn);
+		try {
+			this.beepSound = this.sf.loadSound(this.getClass().getResource(ALARMSOUND));
 		} catch (IOException | UnsupportedAudioFileException e) {
 			this.logger.error("Cant load alarm sound", e);
 		}
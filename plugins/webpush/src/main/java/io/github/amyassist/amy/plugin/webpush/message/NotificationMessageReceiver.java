@@ -27,6 +27,7 @@ import java.util.Collections;
 
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.messagehub.annotations.MessageReceiver;
+import io.github.amyassist.amy.messagehub.annotations.MessageReceiver.Lifecycle;
 import io.github.amyassist.amy.messagehub.annotations.Subscription;
 import io.github.amyassist.amy.messagehub.topic.TopicName;
 import io.github.amyassist.amy.messagehub.topics.SystemTopics;
@@ -40,7 +41,7 @@ import io.github.amyassist.amy.plugin.webpush.model.NotificationImp;
  * 
  * @author Leon Kiefer
  */
-@MessageReceiver
+@MessageReceiver(lifecycle = Lifecycle.SINGLETON)
 public class NotificationMessageReceiver {
 
 	@Reference
@@ -23,19 +23,48 @@
 
 package io.github.amyassist.amy.registry;
 
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
 import io.github.amyassist.amy.core.di.annotation.PostConstruct;
+import io.github.amyassist.amy.core.di.annotation.PreDestroy;
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.core.persistence.Persistence;
+import io.github.amyassist.amy.messagehub.MessageHub;
+import io.github.amyassist.amy.messagehub.topics.SystemTopics;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.persistence.Entity;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Abstract persistent registry
  *
+ * EntityManagers are not thread-safe, so every operation uses its own short-lived EntityManager from the shared
+ * EntityManagerFactory of the persistence unit. The returned entities are detached.
+ *
+ * Reads can be served from a cache, which is enabled in the <i>registry.cache.properties</i>. The cache is
+ * invalidated on every change and the change is announced on the message hub, so other nodes sharing the database
+ * drop their caches too. The cache returns copies of the entities, see {@link #copy(RegistryEntity)}.
+ *
  * @author Benno Krauß
  */
 public abstract class AbstractRegistry<T extends RegistryEntity> implements IRegistry<T> {
@@ -46,7 +75,25 @@ public abstract class AbstractRegistry<T extends RegistryEntity> implements IReg
     @Reference
     protected Persistence persistence;
 
-    protected EntityManager entityManager;
+    @Reference
+    private ConfigurationManager configurationManager;
+
+    @Reference
+    private MessageHub messageHub;
+
+    private static final String CACHE_CONFIG = "registry.cache";
+    private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+    private static final int FETCH_SIZE = 100;
+    private static final String INVALIDATION_TOPIC = SystemTopics.SYSTEM + "/registry/";
+
+    /**
+     * Identifies the invalidation messages of this registry instance
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private RegistryCache<T> cache;
+
+    private UUID invalidationSubscription;
 
     protected abstract String getPersistenceUnitName();
 
@@ -78,7 +125,109 @@ public abstract class AbstractRegistry<T extends RegistryEntity> implements IReg
         Class<? extends T> tClass = getEntityClass();
 
         this.persistence.register(tClass);
-        this.entityManager = persistence.getEntityManager(getPersistenceUnitName());
+
+        Properties config = this.configurationManager.getConfigurationWithDefaults(CACHE_CONFIG,
+                AbstractRegistry.class.getClassLoader());
+        if (Boolean.parseBoolean(getCacheProperty(config, "cache.enabled"))) {
+            this.cache = new RegistryCache<>(Integer.parseInt(getCacheProperty(config, "cache.maxSize")),
+                    Long.parseLong(getCacheProperty(config, "cache.ttlSeconds")), TimeUnit.SECONDS, this::copy);
+            this.invalidationSubscription = this.messageHub.subscribe(getInvalidationTopic(), sender -> {
+                if (!this.instanceId.equals(sender)) {
+                    this.cache.invalidate();
+                }
+            });
+        } else {
+            this.cache = new RegistryCache<>(0, 0, TimeUnit.SECONDS, this::copy);
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (this.invalidationSubscription != null) {
+            this.messageHub.unsubscribe(this.invalidationSubscription);
+        }
+    }
+
+    private String getCacheProperty(Properties config, String key) {
+        return config.getProperty(getPersistenceUnitName() + "." + key, config.getProperty(key));
+    }
+
+    private String getInvalidationTopic() {
+        return INVALIDATION_TOPIC + getPersistenceUnitName();
+    }
+
+    /**
+     * Drop the cached entities of this registry and tell the registries of the same persistence unit on other nodes
+     * to do the same
+     */
+    protected void invalidateCache() {
+        this.cache.invalidate();
+        if (this.cache.isEnabled()) {
+            this.messageHub.publish(getInvalidationTopic(), this.instanceId);
+        }
+    }
+
+    /**
+     * Create a copy of an entity for the cache. The default copies all fields of the entity class and its super
+     * classes, which is enough for entities with immutable attribute values. Entities with mutable attribute values,
+     * e.g. collections, must override this and copy them too.
+     * @param entity the entity to copy
+     * @return the copy
+     */
+    protected T copy(T entity) {
+        return copyFields(entity);
+    }
+
+    /**
+     * Create a new object of the class of the source with the no-arg constructor every entity has and copy all non
+     * static fields of the class and its super classes
+     * @param source the object to copy
+     * @param <X> the type of the object
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    static <X> X copyFields(X source) {
+        try {
+            Constructor<?> constructor = source.getClass().getDeclaredConstructor();
+            constructor.setAccessible(true);
+            X copy = (X) constructor.newInstance();
+            for (Class<?> cls = source.getClass(); cls != Object.class; cls = cls.getSuperclass()) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        field.set(copy, field.get(source));
+                    }
+                }
+            }
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not copy entity " + source, e);
+        }
+    }
+
+    /**
+     * Get a list of entities from the cache or run the query
+     * @param key the unique key of the query in this registry
+     * @param query the query to run if the list is not cached
+     * @return the entities, the list can be modified by the caller
+     */
+    protected List<T> cachedList(String key, Supplier<List<T>> query) {
+        return this.cache.getList(key, query);
+    }
+
+    /**
+     * Run an operation with a new EntityManager, which is closed afterwards
+     * @param operation the operation using the EntityManager
+     * @param <R> the type of the result
+     * @return the result of the operation
+     */
+    protected <R> R withEntityManager(Function<EntityManager, R> operation) {
+        EntityManager entityManager = this.persistence.getEntityManager(getPersistenceUnitName());
+        try {
+            return operation.apply(entityManager);
+        } finally {
+            entityManager.close();
+        }
     }
 
     /**
@@ -90,7 +239,81 @@ public abstract class AbstractRegistry<T extends RegistryEntity> implements IReg
         Class<? extends T> type = getEntityClass();
         // This requires an explicit cast from List<? extends T> to List<T> because Java doesn't
         // do it automatically
-        return (List<T>)this.entityManager.createQuery("SELECT x FROM " + type.getName() + " x", type).getResultList();
+        return cachedList("all", () -> (List<T>) withEntityManager(
+                entityManager -> entityManager.createQuery("SELECT x FROM " + type.getName() + " x", type)
+                        .getResultList()));
+    }
+
+    /**
+     * Get a page of entities ordered by their primary key
+     * @param afterId the primary key of the last entity of the previous page, 0 for the first page
+     * @param limit the maximum number of entities
+     * @return the entities with a primary key greater than afterId
+     */
+    @Override
+    public List<T> getPage(int afterId, int limit) {
+        return getPage(afterId, limit, (builder, root) -> builder.conjunction());
+    }
+
+    /**
+     * A filter of a query
+     */
+    @FunctionalInterface
+    protected interface Filter {
+        /**
+         * Create the predicate of the filter
+         * @param builder the builder of the query
+         * @param root the root of the query
+         * @return the predicate
+         */
+        Predicate create(CriteriaBuilder builder, Root<?> root);
+    }
+
+    /**
+     * Get a page of filtered entities ordered by their primary key
+     * @param afterId the primary key of the last entity of the previous page, 0 for the first page
+     * @param limit the maximum number of entities
+     * @param filter the filter of the entities
+     * @return the entities with a primary key greater than afterId matching the filter
+     */
+    @SuppressWarnings("unchecked")
+    protected List<T> getPage(int afterId, int limit, Filter filter) {
+        return (List<T>) withEntityManager(
+                entityManager -> createPageQuery(entityManager, getEntityClass(), afterId, filter)
+                        .setMaxResults(limit).getResultList());
+    }
+
+    /**
+     * Pass all entities ordered by their primary key to the action. The entities are streamed from the database, so
+     * they don't have to fit in memory at once.
+     * @param action the action called for each entity
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        withEntityManager(entityManager -> {
+            TypedQuery<? extends T> query = createPageQuery(entityManager, getEntityClass(), 0,
+                    (builder, root) -> builder.conjunction());
+            query.setHint(FETCH_SIZE_HINT, FETCH_SIZE);
+            try (Stream<? extends T> stream = query.getResultStream()) {
+                stream.forEach(entity -> {
+                    action.accept(entity);
+                    entityManager.detach(entity);
+                });
+            }
+            return null;
+        });
+    }
+
+    private static <X> TypedQuery<X> createPageQuery(EntityManager entityManager, Class<X> entityClass, int afterId,
+            Filter filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<X> query = builder.createQuery(entityClass);
+        Root<X> root = query.from(entityClass);
+        EntityType<X> entityType = entityManager.getMetamodel().entity(entityClass);
+        Path<Integer> id = root.get(entityType.getId(entityType.getIdType().getJavaType()).getName());
+
+        query.select(root).where(builder.gt(id, afterId), filter.create(builder, root)).orderBy(builder.asc(id));
+        return entityManager.createQuery(query);
     }
 
     /**
@@ -99,21 +322,28 @@ public abstract class AbstractRegistry<T extends RegistryEntity> implements IReg
      * @return the entity instance with this id
      */
     public T getById(Object id) {
-        return this.entityManager.find(getEntityClass(), id);
+        return this.cache.getEntity(id,
+                () -> withEntityManager(entityManager -> entityManager.find(getEntityClass(), id)));
     }
 
-    @FunctionalInterface
-    public interface TransactionBlock {
-        void perform();
-    }
-
-    private void transaction(TransactionBlock block) {
-        entityManager.getTransaction().begin();
-        try {
-            block.perform();
-        } finally {
-            entityManager.getTransaction().commit();
-        }
+    /**
+     * Run a block in a transaction of a new EntityManager. The transaction is rolled back if the block fails.
+     * @param block the block using the EntityManager
+     */
+    protected void transaction(Consumer<EntityManager> block) {
+        withEntityManager(entityManager -> {
+            EntityTransaction transaction = entityManager.getTransaction();
+            transaction.begin();
+            try {
+                block.accept(entityManager);
+                transaction.commit();
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            }
+            return null;
+        });
     }
 
     /**
@@ -123,11 +353,11 @@ public abstract class AbstractRegistry<T extends RegistryEntity> implements IReg
     public void save(T t) {
         // If the entity has been persisted before, we need to update it instead
         if (t.getPersistentId() != 0) {
-            transaction(() -> entityManager.merge(t));
+            transaction(entityManager -> entityManager.merge(t));
         } else {
-            transaction(() -> entityManager.persist(t));
-            transaction(() -> entityManager.detach(t));
+            transaction(entityManager -> entityManager.persist(t));
         }
+        invalidateCache();
     }
 
     /**
@@ -140,9 +370,10 @@ public abstract class AbstractRegistry<T extends RegistryEntity> implements IReg
             throw new RegistryException("The deleteById method takes the primary key as a parameter, not the entity");
         }
 
-        transaction(() -> {
-            T entity = getById(key);
+        transaction(entityManager -> {
+            T entity = entityManager.find(getEntityClass(), key);
             entityManager.remove(entity);
         });
+        invalidateCache();
     }
 }
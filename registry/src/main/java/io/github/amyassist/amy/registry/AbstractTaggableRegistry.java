@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.Nonnull;
+import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -74,14 +75,33 @@ public abstract class AbstractTaggableRegistry<T extends RegistryEntity & Taggab
 	 */
 	@Override
 	public @Nonnull List<T> getEntitiesWithTag(String tagValue) {
-		CriteriaQuery<? extends T> selectFrom = this.createTagQuery(getEntityClass(), tagValue);
-		TypedQuery<? extends T> typedQuery = this.entityManager.createQuery(selectFrom);
+		return cachedList("tag:" + tagValue, () -> withEntityManager(entityManager -> {
+			CriteriaQuery<? extends T> selectFrom = createTagQuery(entityManager, getEntityClass(), tagValue);
+			TypedQuery<? extends T> typedQuery = entityManager.createQuery(selectFrom);
 
-		return new ArrayList<>(typedQuery.getResultList());
+			return new ArrayList<>(typedQuery.getResultList());
+		}));
 	}
 
-	private <X> CriteriaQuery<X> createTagQuery(Class<X> entityClass, String tagValue) {
-		CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+	/**
+	 * Get a page of entities with tag tagValue ordered by their primary key
+	 * 
+	 * @param tagValue
+	 *            the tag of the requested entities
+	 * @param afterId
+	 *            the primary key of the last entity of the previous page, 0 for the first page
+	 * @param limit
+	 *            the maximum number of entities
+	 * @return the entities with a primary key greater than afterId or an empty list
+	 */
+	@Override
+	public @Nonnull List<T> getPageWithTag(String tagValue, int afterId, int limit) {
+		return getPage(afterId, limit, (builder, root) -> builder.equal(root.get("tag"), tagValue));
+	}
+
+	private static <X> CriteriaQuery<X> createTagQuery(EntityManager entityManager, Class<X> entityClass,
+			String tagValue) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
 		CriteriaQuery<X> query = builder.createQuery(entityClass);
 		Root<X> root = query.from(entityClass);
 
@@ -24,6 +24,7 @@
 package io.github.amyassist.amy.registry;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 
@@ -47,6 +48,21 @@ public interface IRegistry<T> {
      */
     List<T> getAll();
 
+    /**
+     * Get a page of entities ordered by their primary key. The next page starts after the primary key of the last
+     * entity of this page.
+     * @param afterId the primary key of the last entity of the previous page, 0 for the first page
+     * @param limit the maximum number of entities
+     * @return the entities with a primary key greater than afterId
+     */
+    List<T> getPage(int afterId, int limit);
+
+    /**
+     * Pass all entities ordered by their primary key to the action without loading all of them at once
+     * @param action the action called for each entity
+     */
+    void forEach(Consumer<? super T> action);
+
     /**
      * Get the entity with this exact id
      * @param id the primary key of the requested entity
@@ -39,4 +39,13 @@ public interface ITaggableRegistry<T> extends IRegistry<T> {
      * @return all entities or an empty list
      */
     @Nonnull List<T> getEntitiesWithTag(String tagValue);
+
+    /**
+     * Get a page of entities with tag tagValue ordered by their primary key
+     * @param tagValue the tag of the requested entities
+     * @param afterId the primary key of the last entity of the previous page, 0 for the first page
+     * @param limit the maximum number of entities
+     * @return the entities with a primary key greater than afterId or an empty list
+     */
+    @Nonnull List<T> getPageWithTag(String tagValue, int afterId, int limit);
 }
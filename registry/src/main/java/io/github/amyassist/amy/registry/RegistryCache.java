@@ -0,0 +1,205 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.registry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-through cache of a registry. Entities are cached by id and lists of entities by a query key, e.g. the tag
+ * value. Every entry expires after the time to live and all entries are dropped with {@link #invalidate()}.
+ * 
+ * A value loaded while the cache is invalidated is returned but not cached, so a concurrent save can never be hidden
+ * by an older query result.
+ * 
+ * The cache keeps its own copies of the entities and every caller gets new copies, so changing a returned entity
+ * without saving it does not change the cache.
+ * 
+ * @author Benno Krauß
+ * @param <T>
+ *            entity class
+ */
+class RegistryCache<T> {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final UnaryOperator<T> copier;
+	private final LongSupplier nanoTime;
+
+	private final Map<Object, Entry<T>> entities = new ConcurrentHashMap<>();
+	private final Map<String, Entry<List<T>>> lists = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Creates a new cache
+	 * 
+	 * @param maxSize
+	 *            the maximum number of cached entities and of cached lists, 0 disables the cache
+	 * @param ttl
+	 *            the time to live of an entry
+	 * @param unit
+	 *            the unit of the ttl
+	 * @param copier
+	 *            creates a copy of an entity
+	 */
+	RegistryCache(int maxSize, long ttl, TimeUnit unit, UnaryOperator<T> copier) {
+		this(maxSize, ttl, unit, copier, System::nanoTime);
+	}
+
+	/**
+	 * Creates a new cache with the given clock
+	 * 
+	 * @param maxSize
+	 *            the maximum number of cached entities and of cached lists, 0 disables the cache
+	 * @param ttl
+	 *            the time to live of an entry
+	 * @param unit
+	 *            the unit of the ttl
+	 * @param copier
+	 *            creates a copy of an entity
+	 * @param nanoTime
+	 *            the clock in nanoseconds
+	 */
+	RegistryCache(int maxSize, long ttl, TimeUnit unit, UnaryOperator<T> copier, LongSupplier nanoTime) {
+		this.maxSize = maxSize;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.copier = copier;
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * @return if values are cached at all
+	 */
+	boolean isEnabled() {
+		return this.maxSize > 0 && this.ttlNanos > 0;
+	}
+
+	/**
+	 * Get the entity with the id from the cache or load it
+	 * 
+	 * @param id
+	 *            the id of the entity
+	 * @param loader
+	 *            loads the entity if it is not cached, may return null
+	 * @return a new copy of the entity or null
+	 */
+	T getEntity(Object id, Supplier<T> loader) {
+		if (!isEnabled()) {
+			return loader.get();
+		}
+		T entity = get(this.entities, id, () -> copy(loader.get()));
+		return copy(entity);
+	}
+
+	/**
+	 * Get a list of entities from the cache or load it
+	 * 
+	 * @param key
+	 *            the key of the query
+	 * @param loader
+	 *            loads the list if it is not cached
+	 * @return a new list of new copies, which can be modified by the caller
+	 */
+	List<T> getList(String key, Supplier<List<T>> loader) {
+		if (!isEnabled()) {
+			return new ArrayList<>(loader.get());
+		}
+		return copyAll(get(this.lists, key, () -> copyAll(loader.get())));
+	}
+
+	/**
+	 * Drop all cached values
+	 */
+	void invalidate() {
+		this.generation.incrementAndGet();
+		this.entities.clear();
+		this.lists.clear();
+	}
+
+	/**
+	 * @return the number of cached entities and lists
+	 */
+	int size() {
+		return this.entities.size() + this.lists.size();
+	}
+
+	private T copy(T entity) {
+		return entity == null ? null : this.copier.apply(entity);
+	}
+
+	private List<T> copyAll(List<T> entities) {
+		List<T> copies = new ArrayList<>(entities.size());
+		for (T entity : entities) {
+			copies.add(copy(entity));
+		}
+		return copies;
+	}
+
+	private <K, V> V get(Map<K, Entry<V>> cache, K key, Supplier<V> loader) {
+		long now = this.nanoTime.getAsLong();
+		Entry<V> entry = cache.get(key);
+		if (entry != null && now - entry.created < this.ttlNanos) {
+			return entry.value;
+		}
+
+		long loadGeneration = this.generation.get();
+		V value = loader.get();
+		if (value != null) {
+			if (cache.size() >= this.maxSize && !cache.containsKey(key)) {
+				evictOne(cache);
+			}
+			cache.put(key, new Entry<>(value, now));
+			if (this.generation.get() != loadGeneration) {
+				cache.remove(key);
+			}
+		}
+		return value;
+	}
+
+	private static <K, V> void evictOne(Map<K, Entry<V>> cache) {
+		Iterator<K> iterator = cache.keySet().iterator();
+		if (iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long created;
+
+		Entry(V value, long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+}
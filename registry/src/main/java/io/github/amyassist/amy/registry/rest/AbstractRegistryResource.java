@@ -25,14 +25,27 @@ package io.github.amyassist.amy.registry.rest;
 
 import io.github.amyassist.amy.core.di.annotation.Reference;
 import io.github.amyassist.amy.registry.IRegistry;
+import io.github.amyassist.amy.registry.ITaggableRegistry;
 import io.github.amyassist.amy.registry.RegistryException;
 import io.github.amyassist.amy.registry.RegistryInvalidRequestException;
 import io.github.amyassist.amy.utility.rest.Resource;
 import io.github.amyassist.amy.utility.rest.ResourceEntity;
 
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.List;
 
 /**
@@ -52,15 +65,115 @@ import java.util.List;
  */
 public abstract class AbstractRegistryResource<R extends IRegistry<E>, E, I extends E, P> implements Resource {
 
+    /**
+     * The maximum number of entities of a page
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Reference
     protected R registry;
 
+    @Context
+    private Providers providers;
+
+    /**
+     * Get all entities as JSON array. The entities are streamed from the database and written one by one, so the
+     * response is sent chunked and the registry doesn't have to fit in memory. The JSON writer is looked up before the
+     * response is started, so a missing writer is reported with an error status. Once entities were written the status
+     * can't be changed anymore, so if reading the registry fails while streaming, the response is aborted and the
+     * client gets an incomplete response instead of a truncated array.
+     * @return the streamed entities
+     */
     @GET
     @Path("all")
     @Consumes(MediaType.TEXT_PLAIN)
     @Produces(MediaType.APPLICATION_JSON)
-    public List<E> getAll() {
-        return handleErrors(() -> registry.getAll());
+    public StreamingOutput getAll() {
+        Class<I> type = getEntityImplementationClass();
+        MessageBodyWriter<I> writer = this.providers.getMessageBodyWriter(type, type, new Annotation[0],
+                MediaType.APPLICATION_JSON_TYPE);
+        if (writer == null) {
+            throw new InternalServerErrorException("No JSON writer for " + type.getName());
+        }
+        return output -> {
+            OutputStream entityOutput = new FilterOutputStream(output) {
+                @Override
+                public void close() throws IOException {
+                    // the writer of an entity must not close the response
+                    flush();
+                }
+            };
+            output.write('[');
+            boolean[] first = { true };
+            try {
+                registry.forEach(entity -> {
+                    try {
+                        if (!first[0]) {
+                            output.write(',');
+                        }
+                        first[0] = false;
+                        writer.writeTo(type.cast(entity), type, type, new Annotation[0],
+                                MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<>(), entityOutput);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // the status may already be sent, so abort the response instead of closing the array
+                throw new IOException("Streaming the registry failed", e);
+            }
+            output.write(']');
+            output.flush();
+        };
+    }
+
+    /**
+     * Get the entity implementation class given as type argument by the concrete resource class
+     * @return the class of I
+     */
+    @SuppressWarnings("unchecked")
+    private Class<I> getEntityImplementationClass() {
+        Class<?> cls = getClass();
+        while (cls.getSuperclass() != AbstractRegistryResource.class) {
+            cls = cls.getSuperclass();
+        }
+        Type type = ((ParameterizedType) cls.getGenericSuperclass()).getActualTypeArguments()[2];
+        if (type instanceof ParameterizedType) {
+            type = ((ParameterizedType) type).getRawType();
+        }
+        if (!(type instanceof Class)) {
+            throw new IllegalStateException(cls.getName() + " must give the entity implementation class");
+        }
+        return (Class<I>) type;
+    }
+
+    /**
+     * Get a page of entities ordered by their id
+     * @param after the id of the last entity of the previous page, 0 for the first page
+     * @param limit the maximum number of entities, at most {@link #MAX_PAGE_SIZE}
+     * @param tag only return entities with this tag, only possible for taggable registries
+     * @return the entities with an id greater than after
+     */
+    @GET
+    @Path("page")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<E> getPage(@QueryParam("after") @DefaultValue("0") int after,
+            @QueryParam("limit") @DefaultValue("50") int limit, @QueryParam("tag") String tag) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new WebApplicationException("The limit must be between 1 and " + MAX_PAGE_SIZE,
+                    Response.Status.BAD_REQUEST);
+        }
+        if (tag == null) {
+            return handleErrors(() -> registry.getPage(after, limit));
+        }
+        if (!(registry instanceof ITaggableRegistry)) {
+            throw new WebApplicationException("This registry has no tags", Response.Status.BAD_REQUEST);
+        }
+        @SuppressWarnings("unchecked")
+        ITaggableRegistry<E> taggableRegistry = (ITaggableRegistry<E>) registry;
+        return handleErrors(() -> taggableRegistry.getPageWithTag(tag, after, limit));
     }
 
     /**
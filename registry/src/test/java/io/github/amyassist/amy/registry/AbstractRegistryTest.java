@@ -0,0 +1,109 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.registry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the pages and the streaming of the {@link AbstractRegistry} with the {@link LocationRegistryImpl}
+ *
+ * @author Benno Krauß
+ */
+class AbstractRegistryTest {
+
+    private TestLocationRegistry testRegistry;
+    private LocationRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        this.testRegistry = new TestLocationRegistry();
+        this.registry = this.testRegistry.getRegistry();
+        this.testRegistry.save("a", Tags.HOME);
+        this.testRegistry.save("b", null);
+        this.testRegistry.save("c", Tags.WORK);
+        this.testRegistry.save("d", Tags.HOME);
+        this.testRegistry.save("e", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.testRegistry.close();
+    }
+
+    private static List<String> names(List<Location> locations) {
+        return locations.stream().map(Location::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testPageContinuation() {
+        List<Location> first = this.registry.getPage(0, 2);
+        assertEquals(Arrays.asList("a", "b"), names(first));
+
+        List<Location> second = this.registry.getPage(first.get(1).getPersistentId(), 2);
+        assertEquals(Arrays.asList("c", "d"), names(second));
+
+        List<Location> last = this.registry.getPage(second.get(1).getPersistentId(), 2);
+        assertEquals(Arrays.asList("e"), names(last));
+        assertTrue(this.registry.getPage(last.get(0).getPersistentId(), 2).isEmpty());
+    }
+
+    @Test
+    void testPageAfterDeleted() {
+        List<Location> first = this.registry.getPage(0, 2);
+        this.registry.deleteById(first.get(1).getPersistentId());
+
+        assertEquals(Arrays.asList("c", "d"), names(this.registry.getPage(first.get(1).getPersistentId(), 2)));
+    }
+
+    @Test
+    void testPageWithTag() {
+        List<Location> first = this.registry.getPageWithTag(Tags.HOME, 0, 1);
+        assertEquals(Arrays.asList("a"), names(first));
+
+        List<Location> second = this.registry.getPageWithTag(Tags.HOME, first.get(0).getPersistentId(), 1);
+        assertEquals(Arrays.asList("d"), names(second));
+        assertTrue(this.registry.getPageWithTag(Tags.HOME, second.get(0).getPersistentId(), 1).isEmpty());
+
+        assertEquals(Arrays.asList("c"), names(this.registry.getPageWithTag(Tags.WORK, 0, 10)));
+        assertTrue(this.registry.getPageWithTag("unknown", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testForEach() {
+        List<Location> locations = new ArrayList<>();
+        this.registry.forEach(locations::add);
+
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), names(locations));
+        assertEquals(names(this.registry.getPage(0, 10)), names(locations));
+    }
+}
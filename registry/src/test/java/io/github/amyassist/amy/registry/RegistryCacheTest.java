@@ -0,0 +1,173 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.registry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the {@link RegistryCache}
+ *
+ * @author Benno Krauß
+ */
+class RegistryCacheTest {
+
+    private AtomicLong now;
+    private AtomicInteger loads;
+    private RegistryCache<ContactImpl> cache;
+
+    @BeforeEach
+    void setup() {
+        this.now = new AtomicLong();
+        this.loads = new AtomicInteger();
+        this.cache = new RegistryCache<>(2, 10, TimeUnit.SECONDS, AbstractRegistry::copyFields, this.now::get);
+    }
+
+    private ContactImpl load(String name) {
+        this.loads.incrementAndGet();
+        ContactImpl contact = new ContactImpl();
+        contact.setFirstName(name);
+        return contact;
+    }
+
+    @Test
+    void testTtl() {
+        assertEquals("a", this.cache.getEntity(1, () -> load("a")).getFirstName());
+        this.now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertEquals("a", this.cache.getEntity(1, () -> load("b")).getFirstName());
+        assertEquals(1, this.loads.get());
+
+        this.now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals("b", this.cache.getEntity(1, () -> load("b")).getFirstName());
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    void testMaxSize() {
+        this.cache.getEntity(1, () -> load("a"));
+        this.cache.getEntity(2, () -> load("b"));
+        this.cache.getEntity(3, () -> load("c"));
+        assertEquals(2, this.cache.size());
+
+        assertEquals("c", this.cache.getEntity(3, () -> load("d")).getFirstName());
+        assertEquals(3, this.loads.get());
+
+        this.cache.getList("all", () -> Collections.singletonList(load("a")));
+        this.cache.getList("tag", () -> Collections.singletonList(load("b")));
+        this.cache.getList("other", () -> Collections.singletonList(load("c")));
+        assertEquals(4, this.cache.size());
+    }
+
+    @Test
+    void testNullIsNotCached() {
+        assertNull(this.cache.getEntity(1, () -> null));
+        assertEquals("a", this.cache.getEntity(1, () -> load("a")).getFirstName());
+    }
+
+    @Test
+    void testInvalidate() {
+        this.cache.getEntity(1, () -> load("a"));
+        this.cache.getList("all", () -> Collections.singletonList(load("a")));
+        this.cache.invalidate();
+        assertEquals(0, this.cache.size());
+
+        assertEquals("b", this.cache.getEntity(1, () -> load("b")).getFirstName());
+    }
+
+    @Test
+    void testLoadDuringInvalidate() {
+        ContactImpl loaded = this.cache.getEntity(1, () -> {
+            ContactImpl contact = load("old");
+            // a save of another thread between the query and the caching
+            this.cache.invalidate();
+            return contact;
+        });
+        assertEquals("old", loaded.getFirstName());
+        assertEquals(0, this.cache.size());
+        assertEquals("new", this.cache.getEntity(1, () -> load("new")).getFirstName());
+
+        List<ContactImpl> list = this.cache.getList("all", () -> {
+            List<ContactImpl> contacts = Collections.singletonList(load("old"));
+            this.cache.invalidate();
+            return contacts;
+        });
+        assertEquals("old", list.get(0).getFirstName());
+        assertEquals("new", this.cache.getList("all", () -> Collections.singletonList(load("new"))).get(0)
+                .getFirstName());
+    }
+
+    @Test
+    void testReturnsCopies() {
+        ContactImpl loaded = load("a");
+        ContactImpl first = this.cache.getEntity(1, () -> loaded);
+        assertNotSame(loaded, first);
+        first.setFirstName("changed");
+        loaded.setLastName("changed");
+
+        ContactImpl second = this.cache.getEntity(1, () -> load("b"));
+        assertNotSame(first, second);
+        assertEquals("a", second.getFirstName());
+        assertNull(second.getLastName());
+
+        List<ContactImpl> list = this.cache.getList("all", () -> new ArrayList<>(Collections.singletonList(load("a"))));
+        list.get(0).setFirstName("changed");
+        list.clear();
+        assertEquals("a", this.cache.getList("all", () -> Collections.singletonList(load("b"))).get(0).getFirstName());
+    }
+
+    @Test
+    void testDisabled() {
+        RegistryCache<ContactImpl> disabled = new RegistryCache<>(0, 0, TimeUnit.SECONDS, AbstractRegistry::copyFields);
+        ContactImpl loaded = load("a");
+        assertSame(loaded, disabled.getEntity(1, () -> loaded));
+        disabled.getEntity(1, () -> load("b"));
+        assertEquals(2, this.loads.get());
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void testCopyFields() {
+        ContactImpl contact = new ContactImpl();
+        contact.setFirstName("first");
+        contact.setLastName("last");
+        contact.setEmail("mail@example.com");
+        contact.setImportant(true);
+        contact.setTag("tag");
+
+        ContactImpl copy = AbstractRegistry.copyFields(contact);
+        assertNotSame(contact, copy);
+        assertEquals(contact, copy);
+        assertEquals(contact.getPersistentId(), copy.getPersistentId());
+        assertEquals("tag", copy.getTag());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.registry;
+
+import io.github.amyassist.amy.core.configuration.ConfigurationManager;
+import io.github.amyassist.amy.core.di.Configuration;
+import io.github.amyassist.amy.core.di.DependencyInjection;
+import io.github.amyassist.amy.core.di.ServiceLocator;
+import io.github.amyassist.amy.core.di.provider.SingletonServiceProvider;
+import io.github.amyassist.amy.core.persistence.Persistence;
+import io.github.amyassist.amy.core.persistence.PersistenceUnitInfoImpl;
+import io.github.amyassist.amy.messagehub.MessageHub;
+import io.github.amyassist.amy.registry.geocoder.Geocoder;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.slf4j.Logger;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A location registry backed by an in-memory H2 database for tests
+ *
+ * @author Benno Krauß
+ */
+public class TestLocationRegistry implements AutoCloseable {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ServiceLocator serviceLocator;
+
+    /**
+     * Create a new empty registry
+     */
+    public TestLocationRegistry() {
+        Properties properties = new Properties();
+        properties.setProperty("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.setProperty("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty("javax.persistence.jdbc.user", "sa");
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        this.entityManagerFactory = new HibernatePersistenceProvider().createContainerEntityManagerFactory(
+                new PersistenceUnitInfoImpl("LocationRegistry", Collections.singletonList(LocationImpl.class.getName()),
+                        LocationImpl.class.getClassLoader(), properties),
+                null);
+
+        Persistence persistence = mock(Persistence.class);
+        when(persistence.getEntityManager("LocationRegistry"))
+                .thenAnswer(invocation -> this.entityManagerFactory.createEntityManager());
+
+        Properties cacheConfig = new Properties();
+        cacheConfig.setProperty("cache.enabled", "false");
+        ConfigurationManager configurationManager = mock(ConfigurationManager.class);
+        when(configurationManager.getConfigurationWithDefaults(eq("registry.cache"), any())).thenReturn(cacheConfig);
+
+        DependencyInjection dependencyInjection = new DependencyInjection();
+        Configuration configuration = dependencyInjection.getConfiguration();
+        configuration.register(new SingletonServiceProvider<>(Persistence.class, persistence));
+        configuration.register(new SingletonServiceProvider<>(ConfigurationManager.class, configurationManager));
+        configuration.register(new SingletonServiceProvider<>(MessageHub.class, mock(MessageHub.class)));
+        configuration.register(new SingletonServiceProvider<>(Geocoder.class, mock(Geocoder.class)));
+        configuration.register(new SingletonServiceProvider<>(Logger.class, mock(Logger.class)));
+        configuration.register(LocationRegistryImpl.class);
+        this.serviceLocator = dependencyInjection.getServiceLocator();
+    }
+
+    /**
+     * Get's the registry
+     * @return the registry
+     */
+    public LocationRegistry getRegistry() {
+        return this.serviceLocator.getService(LocationRegistry.class);
+    }
+
+    /**
+     * Save a new location with coordinates, so the geocoder isn't used
+     * @param name the name of the location
+     * @param tag the tag of the location or null
+     * @return the saved location
+     */
+    public Location save(String name, String tag) {
+        Location location = getRegistry().createNewEntity();
+        location.setName(name);
+        location.setTag(tag);
+        location.setLatitude(1);
+        location.setLongitude(1);
+        getRegistry().save(location);
+        return location;
+    }
+
+    @Override
+    public void close() {
+        this.entityManagerFactory.close();
+    }
+}
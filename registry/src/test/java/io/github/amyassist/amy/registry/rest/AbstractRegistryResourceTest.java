@@ -0,0 +1,171 @@
+/*
+ * This source file is part of the Amy open source project.
+ * For more information see github.com/AmyAssist
+ * 
+ * Copyright (c) 2018 the Amy project authors.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information see notice.md
+ */
+
+package io.github.amyassist.amy.registry.rest;
+
+import io.github.amyassist.amy.registry.Location;
+import io.github.amyassist.amy.registry.LocationImpl;
+import io.github.amyassist.amy.registry.RegistryException;
+import io.github.amyassist.amy.registry.Tags;
+import io.github.amyassist.amy.registry.TestLocationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the pages and the streamed array of the {@link AbstractRegistryResource} with the
+ * {@link LocationRegistryResource}
+ *
+ * @author Benno Krauß
+ */
+class AbstractRegistryResourceTest {
+
+    private TestLocationRegistry testRegistry;
+    private LocationRegistryResource resource;
+    private String failOn;
+
+    @BeforeEach
+    void setup() throws ReflectiveOperationException {
+        this.testRegistry = new TestLocationRegistry();
+        this.testRegistry.save("a", Tags.HOME);
+        this.testRegistry.save("b", null);
+        this.testRegistry.save("c", Tags.HOME);
+
+        Providers providers = mock(Providers.class);
+        when(providers.getMessageBodyWriter(eq(LocationImpl.class), any(), any(), any()))
+                .thenReturn(new NameWriter());
+        this.resource = new LocationRegistryResource();
+        this.resource.registry = this.testRegistry.getRegistry();
+        Field field = AbstractRegistryResource.class.getDeclaredField("providers");
+        field.setAccessible(true);
+        field.set(this.resource, providers);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.testRegistry.close();
+    }
+
+    private static List<String> names(List<Location> locations) {
+        return locations.stream().map(Location::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testPage() {
+        List<Location> first = this.resource.getPage(0, 2, null);
+        assertEquals(Arrays.asList("a", "b"), names(first));
+        assertEquals(Arrays.asList("c"), names(this.resource.getPage(first.get(1).getPersistentId(), 2, null)));
+    }
+
+    @Test
+    void testPageWithTag() {
+        List<Location> first = this.resource.getPage(0, 1, Tags.HOME);
+        assertEquals(Arrays.asList("a"), names(first));
+        assertEquals(Arrays.asList("c"),
+                names(this.resource.getPage(first.get(0).getPersistentId(), 1, Tags.HOME)));
+    }
+
+    @Test
+    void testLimitBounds() {
+        assertBadRequest(0);
+        assertBadRequest(AbstractRegistryResource.MAX_PAGE_SIZE + 1);
+        assertEquals(1, this.resource.getPage(0, 1, null).size());
+        assertEquals(3, this.resource.getPage(0, AbstractRegistryResource.MAX_PAGE_SIZE, null).size());
+    }
+
+    private void assertBadRequest(int limit) {
+        WebApplicationException e = assertThrows(WebApplicationException.class,
+                () -> this.resource.getPage(0, limit, null));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), e.getResponse().getStatus());
+    }
+
+    @Test
+    void testGetAll() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        this.resource.getAll().write(output);
+        assertEquals("[\"a\",\"b\",\"c\"]", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testGetAllEmpty() throws IOException {
+        for (Location location : this.resource.getPage(0, 10, null)) {
+            this.resource.deleteById(location.getPersistentId());
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        this.resource.getAll().write(output);
+        assertEquals("[]", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testGetAllFailsWhileStreaming() {
+        this.failOn = "b";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        IOException e = assertThrows(IOException.class, () -> this.resource.getAll().write(output));
+        assertTrue(e.getCause() instanceof RegistryException);
+        assertEquals("[\"a\",", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the name of a location as JSON string
+     */
+    private class NameWriter implements MessageBodyWriter<LocationImpl> {
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return true;
+        }
+
+        @Override
+        public void writeTo(LocationImpl location, Class<?> type, Type genericType, Annotation[] annotations,
+                MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+                throws IOException {
+            if (location.getName().equals(AbstractRegistryResourceTest.this.failOn)) {
+                throw new RegistryException("failed");
+            }
+            entityStream.write(("\"" + location.getName() + "\"").getBytes(StandardCharsets.UTF_8));
+            entityStream.close();
+        }
+    }
+}
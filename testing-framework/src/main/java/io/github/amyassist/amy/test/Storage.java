@@ -25,6 +25,7 @@ package io.github.amyassist.amy.test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import io.github.amyassist.amy.core.plugin.api.IStorage;
 
@@ -55,4 +56,20 @@ public class Storage implements IStorage {
 		this.map.remove(key);
 	}
 
+	@Override
+	public void putAll(Map<String, String> values) {
+		this.map.putAll(values);
+	}
+
+	@Override
+	public Map<String, String> getAll(String prefix) {
+		return this.map.entrySet().stream().filter(e -> e.getKey().startsWith(prefix))
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	@Override
+	public void deleteByPrefix(String prefix) {
+		this.map.keySet().removeIf(key -> key.startsWith(prefix));
+	}
+
 }